@@ -0,0 +1,189 @@
+package com.example.myapplication;
+
+import android.app.Activity;
+import android.content.SharedPreferences;
+import android.os.Bundle;
+import android.widget.Button;
+import android.widget.TextView;
+import android.widget.Toast;
+
+import com.example.myapplication.controllers.LayoutChangeListener;
+import com.example.myapplication.controllers.OnPuzzleTouchListener;
+import com.example.myapplication.controllers.PuzzleEditorController;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.utils.LayoutChecker;
+import com.example.myapplication.utils.PuzzleParser;
+import com.example.myapplication.utils.PuzzleSolver;
+import com.example.myapplication.utils.PuzzleValidator;
+import com.example.myapplication.utils.PuzzleWriter;
+import com.example.myapplication.views.PuzzleView;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Locale;
+
+/**
+ * Éditeur de puzzles : l'utilisateur pose et déplace les têtes des paires sur une
+ * grille carrée, et voit en continu si la disposition a une solution, et si elle
+ * est unique (LayoutChecker). La première solution trouvée est dessinée.
+ * Le puzzle est exporté en XML dans le dossier des puzzles de l'utilisateur, d'où
+ * le menu l'ajoute à la liste.
+ */
+public class EditorActivity extends Activity implements OnPuzzleTouchListener, LayoutChangeListener {
+
+    private static final int DEFAULT_SIZE = 7;
+
+    private PuzzleEditorController editor;
+    private LayoutChecker checker;
+    private TextView puzzleTitle;
+    private TextView editorStatus;
+    private PuzzleSolver.Result lastResult; // résultat pour la disposition courante, null si en cours
+
+    @Override
+    protected void onCreate(Bundle savedInstanceState) {
+        super.onCreate(savedInstanceState);
+        setContentView(R.layout.activity_editor);
+
+        puzzleTitle = findViewById(R.id.puzzleTitle);
+        editorStatus = findViewById(R.id.editorStatus);
+
+        SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
+        boolean isAchromate = prefs.getBoolean("isAchromateEnabled", false);
+
+        checker = new LayoutChecker(PuzzleEditorController.MAX_PAIRS,
+                (layout, result) -> runOnUiThread(() -> onLayoutChecked(layout, result)));
+
+        int size = (savedInstanceState != null) ? savedInstanceState.getInt("size", DEFAULT_SIZE) : DEFAULT_SIZE;
+        PuzzleView puzzleView = findViewById(R.id.puzzleView);
+        editor = new PuzzleEditorController(size, puzzleView, isAchromate);
+        editor.setLayoutChangeListener(this);
+        puzzleView.setOnPuzzleTouchListener(this);
+        onLayoutChanged(editor.getLayout());
+
+        Button btnSizeMinus = findViewById(R.id.btnSizeMinus);
+        btnSizeMinus.setOnClickListener(v -> resize(-1));
+        Button btnSizePlus = findViewById(R.id.btnSizePlus);
+        btnSizePlus.setOnClickListener(v -> resize(1));
+
+        Button btnClear = findViewById(R.id.btnClear);
+        btnClear.setOnClickListener(v -> editor.clear());
+
+        Button btnExport = findViewById(R.id.btnExport);
+        btnExport.setOnClickListener(v -> exportPuzzle());
+
+        Button btnMenu = findViewById(R.id.btnMenu);
+        btnMenu.setOnClickListener(v -> finish());
+    }
+
+    @Override
+    protected void onSaveInstanceState(Bundle outState) {
+        super.onSaveInstanceState(outState);
+        outState.putInt("size", editor.getSize());
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        checker.shutdown();
+    }
+
+    @Override
+    public void onPuzzleTouchDown(float x, float y) {
+        editor.onTouchDown(x, y);
+    }
+
+    @Override
+    public void onPuzzleTouchMove(float x, float y) {
+        editor.onTouchMove(x, y);
+    }
+
+    @Override
+    public void onPuzzleTouchUp(float x, float y) {
+        editor.onTouchUp(x, y);
+    }
+
+    @Override
+    public void onLayoutChanged(Puzzle layout) {
+        puzzleTitle.setText("Éditeur " + editor.getSize() + "x" + editor.getSize());
+        lastResult = null;
+        if (layout == null) {
+            checker.cancel();
+            editorStatus.setText("Placez les deux têtes de chaque paire");
+            return;
+        }
+        editorStatus.setText("Vérification…");
+        checker.check(layout);
+    }
+
+    // Thread UI ; les résultats d'une disposition déjà modifiée sont ignorés
+    private void onLayoutChecked(Puzzle layout, PuzzleSolver.Result result) {
+        if (layout != editor.getLayout()) return;
+        lastResult = result;
+        if (result.status == PuzzleSolver.Status.UNSOLVABLE) {
+            editorStatus.setText("Aucune solution");
+        } else if (result.status == PuzzleSolver.Status.UNKNOWN) {
+            editorStatus.setText("Vérification trop longue, résultat inconnu");
+        } else if (result.isUnique()) {
+            editorStatus.setText("Solution unique");
+        } else {
+            editorStatus.setText("Plusieurs solutions");
+        }
+        editor.showSolution(layout, result);
+    }
+
+    private void resize(int delta) {
+        int size = Math.max(PuzzleValidator.MIN_SIZE, Math.min(PuzzleValidator.MAX_SIZE, editor.getSize() + delta));
+        if (size != editor.getSize()) editor.setSize(size);
+    }
+
+    /**
+     * Enregistre le puzzle dans le dossier de l'utilisateur. Un puzzle sans solution
+     * n'est pas exporté ; un puzzle à plusieurs solutions l'est, avec un avertissement.
+     */
+    private void exportPuzzle() {
+        Puzzle layout = editor.getLayout();
+        if (layout == null) {
+            Toast.makeText(this, "Toutes les paires doivent avoir leurs deux têtes.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        if (lastResult != null && lastResult.status == PuzzleSolver.Status.UNSOLVABLE) {
+            Toast.makeText(this, "Ce puzzle n'a aucune solution.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        String name = "Création " + new SimpleDateFormat("yyyy-MM-dd HH-mm-ss", Locale.FRANCE).format(new Date());
+        Puzzle.Builder builder = new Puzzle.Builder(name, layout.getSize());
+        for (int i = 0; i < layout.getPairCount(); i++) {
+            builder.addPair(layout.getFirstCell(i), layout.getSecondCell(i), i);
+        }
+        String xml = PuzzleWriter.toXml(builder.build());
+
+        File directory = PuzzleParser.userPuzzleDirectory(this);
+        File file = new File(directory, name + ".xml");
+        // Écrit à côté puis renomme : la surveillance du dossier ne voit jamais un fichier partiel
+        File tmp = new File(directory, name + ".xml.tmp");
+        try {
+            directory.mkdirs();
+            try (OutputStream out = new FileOutputStream(tmp)) {
+                out.write(xml.getBytes(StandardCharsets.UTF_8));
+            }
+            if (!tmp.renameTo(file)) {
+                throw new IOException("Impossible d'écrire " + file);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            Toast.makeText(this, "Export impossible.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+
+        boolean unique = lastResult != null && lastResult.isUnique();
+        Toast.makeText(this, unique ? "Puzzle exporté : " + file.getName()
+                : "Puzzle exporté (solution non unique ou non vérifiée) : " + file.getName(),
+                Toast.LENGTH_LONG).show();
+    }
+}
@@ -1,8 +1,12 @@
 package com.example.myapplication;
 
 import android.app.Activity;
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.os.SystemClock;
+import android.view.View;
 import android.widget.Button;
 import android.widget.TextView;
 import android.widget.Toast;
@@ -10,28 +14,61 @@ import android.widget.Toast;
 import com.example.myapplication.controllers.PuzzleCompletionListener;
 import com.example.myapplication.controllers.OnPuzzleTouchListener;
 import com.example.myapplication.controllers.PuzzleController;
+import com.example.myapplication.controllers.ReplayPlayer;
+import com.example.myapplication.controllers.SolveRecorder;
+import com.example.myapplication.controllers.SolveReplay;
+import com.example.myapplication.models.BoardGrid;
 import com.example.myapplication.models.PointCoord;
 import com.example.myapplication.models.Puzzle;
-import com.example.myapplication.models.PuzzlePair;
+import com.example.myapplication.utils.EndlessPuzzleQueue;
+import com.example.myapplication.utils.PuzzleHasher;
 import com.example.myapplication.utils.PuzzleParser;
+import com.example.myapplication.utils.PuzzlePlaylist;
+import com.example.myapplication.utils.PuzzlePrefetcher;
+import com.example.myapplication.utils.ShareCode;
+import com.example.myapplication.utils.StatsStore;
 import com.example.myapplication.views.PuzzleView;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * Activité qui gère l'affichage et l'interaction avec le puzzle sélectionné.
  * Elle affiche le puzzle, permet de tracer les chemins et gère le mode achromate.
+ * Une fois le puzzle résolu, le bouton "SUIVANT" enchaîne sur le puzzle suivant
+ * (préparé en arrière-plan) sans recréer l'activité ni la vue.
+ * Chaque partie est enregistrée (SolveRecorder) et peut être revue une fois résolue.
+ * Un appui long sur le titre copie le code de partage de la partie en cours.
+ * Chaque partie, résolue ou abandonnée, est ajoutée aux statistiques (StatsStore).
+ * En mode sans fin, le puzzle suivant est pris dans EndlessPuzzleQueue dès que le
+ * précédent est résolu, un peu plus difficile à chaque fois.
  */
 public class GameActivity extends Activity
         implements OnPuzzleTouchListener, PuzzleCompletionListener {
 
+    // Attente maximale d'un puzzle généré, quand la file du mode sans fin est vide
+    private static final long ENDLESS_WAIT_MS = 30_000;
+
     private Puzzle puzzle;
     private PuzzleController puzzleController;
     private PuzzleView puzzleView;
     private TextView puzzleTitle;
     private boolean isAchromate;
+    private Button btnNext;
+    private Button btnReplay;
+    private SolveRecorder recorder; // partie en cours d'enregistrement, null si aucune
+    private ReplayPlayer replayPlayer; // replay en cours, null si aucun
+    private String playlistFile; // fichier ouvert depuis le menu (voir PuzzlePlaylist), null sinon
+    private StatsStore stats;
+    private long sessionStartMs; // début de la partie en cours (uptime), 0 si aucune
+    private int playlistIndex;
+    private boolean endless; // mode sans fin : puzzles générés à la suite
+    private EndlessPuzzleQueue endlessQueue;
+    private boolean waitingForEndless; // en attente d'un puzzle généré
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -40,6 +77,8 @@ public class GameActivity extends Activity
 
         puzzleTitle = findViewById(R.id.puzzleTitle);
         puzzleView = findViewById(R.id.puzzleView);
+        btnNext = findViewById(R.id.btnNext);
+        btnReplay = findViewById(R.id.btnReplay);
 
         SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
         isAchromate = prefs.getBoolean("isAchromateEnabled", false);
@@ -50,22 +89,31 @@ public class GameActivity extends Activity
         if (savedInstanceState == null) {
             puzzleName = getIntent().getStringExtra("puzzleName");
             assetFileName = getIntent().getStringExtra("assetFileName");
-            puzzle = PuzzleParser.parsePuzzle(this, assetFileName);
-            puzzleController = new PuzzleController(puzzle, puzzleView, isAchromate);
+            endless = getIntent().getBooleanExtra("endless", false);
+            playlistFile = endless ? null : assetFileName;
+            playlistIndex = getIntent().getIntExtra("playlistIndex", 0);
+            float difficulty = getIntent().getFloatExtra("puzzleDifficulty", -1f);
+
+            // Puzzle déjà parsé en arrière-plan par le menu, si possible
+            PuzzlePrefetcher.PreparedPuzzle prepared = PuzzlePrefetcher.getInstance().take(assetFileName);
+            if (prepared != null && prepared.initialGrid != null) {
+                puzzle = prepared.puzzle;
+                puzzleController = new PuzzleController(puzzle, puzzleView, isAchromate, prepared.initialGrid);
+            } else {
+                puzzle = (prepared != null) ? prepared.puzzle : parsePuzzle(assetFileName, puzzleName, difficulty);
+                puzzleController = new PuzzleController(puzzle, puzzleView, isAchromate);
+            }
+            restoreSharedPaths(getIntent().getStringExtra("sharedCode"));
         } else {
             puzzleName = savedInstanceState.getString("puzzleName");
             assetFileName = savedInstanceState.getString("assetFileName");
-            puzzle = PuzzleParser.parsePuzzle(this, assetFileName);
+            playlistFile = savedInstanceState.getString("playlistFile");
+            playlistIndex = savedInstanceState.getInt("playlistIndex", 0);
+            endless = savedInstanceState.getBoolean("endless", false);
+            // Le puzzle est immuable : relu depuis son fichier, seul l'état de jeu est sauvegardé
+            puzzle = parsePuzzle(assetFileName, puzzleName, savedInstanceState.getFloat("puzzleDifficulty", -1f));
 
-            ArrayList<PuzzlePair> restoredPairs =
-                    (ArrayList<PuzzlePair>) savedInstanceState.getSerializable("pairs");
-            if (restoredPairs != null) {
-                puzzle.getPairs().clear();
-                puzzle.getPairs().addAll(restoredPairs);
-            }
-
-            int[][] savedGrid =
-                    (int[][]) savedInstanceState.getSerializable("gridOccupation");
+            BoardGrid savedGrid = (BoardGrid) savedInstanceState.getSerializable("gridOccupation");
             Map<Integer, ArrayList<PointCoord>> savedPaths =
                     (HashMap<Integer, ArrayList<PointCoord>>) savedInstanceState.getSerializable("pathsByPair");
             boolean wasFinished = savedInstanceState.getBoolean("gameFinished", false);
@@ -74,6 +122,8 @@ public class GameActivity extends Activity
             puzzleController.setGridOccupation(savedGrid);
             puzzleController.setPathsByPair(new HashMap<>(savedPaths));
             puzzleController.setGameFinished(wasFinished, puzzleController.getPathsByPair());
+            puzzleController.restoreCounters(savedInstanceState.getInt("moveCount", 0),
+                    savedInstanceState.getInt("undoCount", 0), savedInstanceState.getInt("assistedCellCount", 0));
         }
 
         puzzleView.setDataForRendering(
@@ -83,6 +133,10 @@ public class GameActivity extends Activity
                 puzzleController.getPathsByPair()
         );
         puzzleTitle.setText(puzzleName);
+        puzzleTitle.setOnLongClickListener(v -> {
+            copyShareCode();
+            return true;
+        });
 
         if (!puzzle.isValid()) {
             Toast.makeText(this, "Puzzle invalide", Toast.LENGTH_LONG).show();
@@ -91,10 +145,302 @@ public class GameActivity extends Activity
         }
 
         puzzleController.setPuzzleCompletionListener(this);
+        puzzleController.setAssistEnabled(prefs.getBoolean("isAssistEnabled", false));
+        puzzleController.addBoardChangeListener(puzzleView.getFlowAnimator());
+        puzzleView.getFlowAnimator().setEnabled(prefs.getBoolean("isAnimationEnabled", false));
         puzzleView.setOnPuzzleTouchListener(this);
 
         Button btnMenu = findViewById(R.id.btnMenu);
         btnMenu.setOnClickListener(v -> finish());
+
+        if (endless) {
+            endlessQueue = EndlessPuzzleQueue.getInstance(new File(getFilesDir(), "endless_queue.bin"));
+        }
+
+        btnNext.setOnClickListener(v -> openNextPuzzle());
+        if (puzzleController.isGameFinished() && hasNextPuzzle()) {
+            btnNext.setVisibility(View.VISIBLE);
+        }
+
+        btnReplay.setOnClickListener(v -> onReplayClicked());
+        if (puzzleController.isGameFinished() && recordingFile(puzzle).exists()) {
+            btnReplay.setVisibility(View.VISIBLE);
+        }
+        // Après une rotation, l'enregistrement de l'instance précédente continue
+        SolveRecorder retained = (SolveRecorder) getLastNonConfigurationInstance();
+        if (retained != null) {
+            recorder = retained;
+            puzzleController.addBoardChangeListener(recorder);
+        } else {
+            startRecording();
+        }
+
+        stats = StatsStore.getInstance(new File(getFilesDir(), "stats"));
+        startSession();
+        if (savedInstanceState != null && sessionStartMs != 0) {
+            // Le chronomètre continue après une rotation
+            sessionStartMs -= savedInstanceState.getLong("sessionElapsedMs", 0);
+        }
+
+        // Le suivant est préparé pendant que le joueur résout celui-ci
+        prefetchNextPuzzle();
+    }
+
+    /**
+     * Relit un puzzle. Un puzzle du mode sans fin est recréé depuis son code avec son
+     * nom et sa difficulté, que PuzzleParser ne connaît pas (nom tiré du code).
+     */
+    private Puzzle parsePuzzle(String assetFileName, String puzzleName, float difficulty) {
+        if (endless && ShareCode.isShareFileName(assetFileName)) {
+            Puzzle generated = ShareCode.decode(assetFileName, puzzleName);
+            if (generated != null) {
+                generated.setDifficulty(difficulty);
+                return generated;
+            }
+        }
+        return PuzzleParser.parsePuzzle(this, assetFileName);
+    }
+
+    private boolean hasNextPuzzle() {
+        return endless || nextPlaylistFile() != null;
+    }
+
+    // Fichier suivant dans la liste du menu, ou null
+    private String nextPlaylistFile() {
+        PuzzlePlaylist list = PuzzlePlaylist.getInstance();
+        int position = list.positionOf(playlistFile, playlistIndex);
+        return (position < 0) ? null : list.get(position + 1);
+    }
+
+    private void prefetchNextPuzzle() {
+        String next = endless ? null : nextPlaylistFile();
+        if (next != null) {
+            PuzzlePrefetcher.getInstance().prefetch(this, next);
+        }
+    }
+
+    /**
+     * Passe au puzzle suivant en réutilisant la vue existante :
+     * seul le contrôleur est recréé, à partir du puzzle préparé en arrière-plan.
+     */
+    private void openNextPuzzle() {
+        if (!hasNextPuzzle()) return;
+        if (endless) {
+            openEndlessPuzzle();
+            return;
+        }
+        String assetFileName = nextPlaylistFile();
+        playlistIndex = PuzzlePlaylist.getInstance().positionOf(playlistFile, playlistIndex) + 1;
+        playlistFile = assetFileName;
+
+        PuzzlePrefetcher.PreparedPuzzle prepared = PuzzlePrefetcher.getInstance().take(assetFileName);
+        Puzzle next = (prepared != null) ? prepared.puzzle : PuzzleParser.parsePuzzle(this, assetFileName);
+        if (!next.isValid()) {
+            Toast.makeText(this, "Puzzle invalide", Toast.LENGTH_LONG).show();
+            finish();
+            return;
+        }
+        BoardGrid grid = (prepared != null && prepared.initialGrid != null)
+                ? prepared.initialGrid
+                : PuzzleController.createInitialGrid(next);
+        showPuzzle(next, grid);
+        prefetchNextPuzzle();
+    }
+
+    /**
+     * Puzzle suivant du mode sans fin : immédiat s'il est déjà généré, sinon affiché
+     * dès que la file en reçoit un.
+     */
+    private void openEndlessPuzzle() {
+        Puzzle next = endlessQueue.poll();
+        if (next != null) {
+            showPuzzle(next, PuzzleController.createInitialGrid(next));
+            return;
+        }
+        if (waitingForEndless) return;
+        waitingForEndless = true;
+        endlessQueue.start(EndlessPuzzleQueue.workerCount(this));
+        Toast.makeText(this, "Génération du prochain puzzle…", Toast.LENGTH_SHORT).show();
+        new Thread(() -> {
+            Puzzle generated = null;
+            try {
+                generated = endlessQueue.poll(ENDLESS_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Puzzle ready = generated;
+            runOnUiThread(() -> {
+                waitingForEndless = false;
+                if (ready == null || isFinishing()) return;
+                showPuzzle(ready, PuzzleController.createInitialGrid(ready));
+            });
+        }).start();
+    }
+
+    /**
+     * Remplace la partie en cours par un nouveau puzzle, dans la même vue.
+     */
+    private void showPuzzle(Puzzle next, BoardGrid grid) {
+        stopReplay();
+        stopRecording();
+        endSession(false);
+        puzzle = next;
+        puzzleController = new PuzzleController(puzzle, puzzleView, isAchromate, grid);
+        restoreSharedPaths(null);
+        puzzleController.setPuzzleCompletionListener(this);
+        SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
+        puzzleController.setAssistEnabled(prefs.getBoolean("isAssistEnabled", false));
+        puzzleController.addBoardChangeListener(puzzleView.getFlowAnimator());
+        puzzleTitle.setText(puzzle.getName());
+        btnNext.setVisibility(View.GONE);
+        btnReplay.setVisibility(View.GONE);
+        startRecording();
+        startSession();
+    }
+
+    /**
+     * Puzzle importé avec ses chemins : la partie reprend là où elle a été partagée,
+     * terminée si les chemins relient déjà toutes les paires.
+     *
+     * @param sharedCode code importé pour un puzzle déjà dans la liste : ses chemins
+     *                   sont reportés sur le puzzle du catalogue (null si aucun)
+     */
+    private void restoreSharedPaths(String sharedCode) {
+        Map<Integer, List<PointCoord>> paths;
+        if (ShareCode.isShareFileName(puzzle.getFileName())) {
+            paths = ShareCode.decodePaths(puzzle.getFileName());
+        } else if (sharedCode != null) {
+            paths = PuzzleHasher.mapPaths(ShareCode.decode(sharedCode), ShareCode.decodePaths(sharedCode), puzzle);
+        } else {
+            return;
+        }
+        if (paths == null) return;
+
+        BoardGrid grid = PuzzleController.createInitialGrid(puzzle);
+        for (Map.Entry<Integer, List<PointCoord>> entry : paths.entrySet()) {
+            for (PointCoord pc : entry.getValue()) {
+                grid.set(pc.getRow(), pc.getCol(), entry.getKey());
+            }
+        }
+        puzzleController.restorePaths(grid, paths);
+        puzzleView.setDataForRendering(puzzle, grid, isAchromate, paths);
+    }
+
+    // Copie le code du puzzle et des chemins tracés dans le presse-papiers
+    private void copyShareCode() {
+        String code = ShareCode.encode(puzzle, puzzleController.getPathsByPair());
+        if (code == null) {
+            Toast.makeText(this, "Ce puzzle ne peut pas être partagé.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ClipboardManager clipboard = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+        clipboard.setPrimaryClip(ClipData.newPlainText(puzzle.getName(), code));
+        Toast.makeText(this, "Code copié : " + code, Toast.LENGTH_SHORT).show();
+    }
+
+    private void startSession() {
+        sessionStartMs = puzzleController.isGameFinished() ? 0 : SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Ajoute la partie en cours aux statistiques. Une partie abandonnée sans
+     * aucun coup n'est pas comptée.
+     *
+     * @return la session ajoutée (avec la durée enregistrée), ou null si rien n'a été ajouté
+     */
+    private StatsStore.Session endSession(boolean solved) {
+        if (sessionStartMs == 0) return null;
+        int duration = (int) (SystemClock.uptimeMillis() - sessionStartMs);
+        sessionStartMs = 0;
+        if (!solved && puzzleController.getMoveCount() == 0) return null;
+
+        long hash = PuzzleHasher.canonicalHash64(puzzle);
+        long now = System.currentTimeMillis();
+        StatsStore.Session session = new StatsStore.Session(hash, now, StatsStore.localDay(now), duration,
+                puzzleController.getMoveCount(), puzzleController.getUndoCount(),
+                puzzleController.getAssistedCellCount(), solved);
+        stats.record(session);
+        return session;
+    }
+
+    private static String formatDuration(long ms) {
+        long seconds = ms / 1000;
+        return String.format("%d:%02d", seconds / 60, seconds % 60);
+    }
+
+    // Un enregistrement par puzzle : la dernière partie jouée
+    private File recordingFile(Puzzle p) {
+        File directory = new File(getFilesDir(), "recordings");
+        return new File(directory, Long.toHexString(PuzzleHasher.canonicalHash64(p)) + ".rec");
+    }
+
+    private void startRecording() {
+        if (puzzleController.isGameFinished()) return;
+        recorder = new SolveRecorder(recordingFile(puzzle), puzzle, puzzleController.getPathsByPair());
+        puzzleController.addBoardChangeListener(recorder);
+    }
+
+    private void stopRecording() {
+        if (recorder == null) return;
+        puzzleController.removeBoardChangeListener(recorder);
+        recorder.close();
+        recorder = null;
+    }
+
+    /**
+     * Premier appui : lance le replay en x4. Appuis suivants : double la vitesse,
+     * puis arrête après x64.
+     */
+    private void onReplayClicked() {
+        if (replayPlayer == null) {
+            startReplay();
+        } else if (replayPlayer.getSpeed() * 2 > ReplayPlayer.MAX_SPEED) {
+            stopReplay();
+        } else {
+            replayPlayer.setSpeed(replayPlayer.getSpeed() * 2);
+            btnReplay.setText("REVOIR x" + replayPlayer.getSpeed());
+        }
+    }
+
+    private void startReplay() {
+        Puzzle replayed = puzzle;
+        File file = recordingFile(replayed);
+        new Thread(() -> {
+            SolveReplay replay;
+            try {
+                replay = SolveReplay.read(file, replayed);
+            } catch (IOException e) {
+                replay = null;
+            }
+            SolveReplay loaded = replay;
+            runOnUiThread(() -> {
+                if (puzzle != replayed || isFinishing()) return;
+                if (loaded == null) {
+                    Toast.makeText(this, "Aucun enregistrement", Toast.LENGTH_SHORT).show();
+                    return;
+                }
+                replayPlayer = new ReplayPlayer(puzzleView, puzzle, loaded, isAchromate);
+                replayPlayer.setSpeed(4);
+                replayPlayer.setOnFinishedListener(this::stopReplay);
+                replayPlayer.play();
+                btnReplay.setText("REVOIR x" + replayPlayer.getSpeed());
+            });
+        }).start();
+    }
+
+    // Arrête le replay et réaffiche la partie du contrôleur
+    private void stopReplay() {
+        if (replayPlayer == null) return;
+        replayPlayer.pause();
+        replayPlayer = null;
+        btnReplay.setText("REVOIR");
+        puzzleView.showReplayTouch(-1f, -1f);
+        puzzleView.setDataForRendering(
+                puzzle,
+                puzzleController.getGridOccupation(),
+                isAchromate,
+                puzzleController.getPathsByPair()
+        );
     }
 
     @Override
@@ -103,32 +449,94 @@ public class GameActivity extends Activity
         SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
         isAchromate = prefs.getBoolean("isAchromateEnabled", false);
         puzzleController.updateAchromate(isAchromate);
+        puzzleController.setAssistEnabled(prefs.getBoolean("isAssistEnabled", false));
+        puzzleView.getFlowAnimator().setEnabled(prefs.getBoolean("isAnimationEnabled", false));
         puzzleView.setDataForRendering(
                 puzzle,
                 puzzleController.getGridOccupation(),
                 isAchromate,
                 puzzleController.getPathsByPair()
         );
+        // Producteurs ajustés à l'état de la batterie à chaque retour au jeu
+        if (endlessQueue != null) endlessQueue.start(EndlessPuzzleQueue.workerCount(this));
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        // La file est enregistrée : le prochain lancement démarre sans attendre
+        if (endlessQueue != null) endlessQueue.stop();
+        stopReplay();
+        puzzleView.getFlowAnimator().reset();
+        if (recorder != null) recorder.flush();
+        if (stats != null) stats.flush();
+    }
+
+    @Override
+    public Object onRetainNonConfigurationInstance() {
+        return recorder;
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        // Une rotation garde l'enregistrement en cours (onRetainNonConfigurationInstance)
+        if (!isChangingConfigurations()) stopRecording();
+        // Une rotation recrée l'activité : seule une vraie sortie termine la partie
+        if (isFinishing() && stats != null) {
+            // Puzzle sans fin quitté en cours de partie : les suivants seront plus faciles
+            if (endSession(false) != null && endless) endlessQueue.onPuzzleAbandoned();
+            stats.flush();
+        }
     }
 
     @Override
     public void onPuzzleTouchDown(float x, float y) {
+        if (recorder != null) {
+            recorder.onTouch(SolveRecorder.TOUCH_DOWN, x, y, puzzleView.getWidth(), puzzleView.getHeight());
+        }
         puzzleController.onTouchDown(x, y);
     }
 
     @Override
     public void onPuzzleTouchMove(float x, float y) {
+        if (recorder != null) {
+            recorder.onTouch(SolveRecorder.TOUCH_MOVE, x, y, puzzleView.getWidth(), puzzleView.getHeight());
+        }
         puzzleController.onTouchMove(x, y);
     }
 
     @Override
     public void onPuzzleTouchUp(float x, float y) {
+        if (recorder != null) {
+            recorder.onTouch(SolveRecorder.TOUCH_UP, x, y, puzzleView.getWidth(), puzzleView.getHeight());
+        }
         puzzleController.onTouchUp(x, y);
     }
 
     @Override
     public void onPuzzleCompleted() {
-        Toast.makeText(this, "Bravo, puzzle résolu !", Toast.LENGTH_LONG).show();
+        StatsStore.Session session = endSession(true);
+        if (session != null) {
+            StatsStore.PuzzleStats puzzleStats = stats.getPuzzleStats(session.puzzleHash);
+            String message = "Bravo, puzzle résolu en " + formatDuration(session.durationMs) + " !";
+            if (puzzleStats.getSolves() > 1 && puzzleStats.getBestTimeMs() == session.durationMs) {
+                message += " Nouveau record.";
+            } else if (puzzleStats.getSolves() > 1) {
+                message += " Record : " + formatDuration(puzzleStats.getBestTimeMs());
+            }
+            Toast.makeText(this, message, Toast.LENGTH_LONG).show();
+        } else {
+            Toast.makeText(this, "Bravo, puzzle résolu !", Toast.LENGTH_LONG).show();
+        }
+        stopRecording();
+        btnReplay.setVisibility(View.VISIBLE);
+        if (endless) {
+            endlessQueue.onPuzzleSolved();
+            openEndlessPuzzle();
+        } else if (hasNextPuzzle()) {
+            btnNext.setVisibility(View.VISIBLE);
+        }
     }
 
     @Override
@@ -136,9 +544,16 @@ public class GameActivity extends Activity
         super.onSaveInstanceState(outState);
         outState.putString("puzzleName", puzzle.getName());
         outState.putString("assetFileName", puzzle.getFileName());
+        outState.putFloat("puzzleDifficulty", puzzle.getDifficulty());
         outState.putSerializable("gridOccupation", puzzleController.getGridOccupation());
         outState.putSerializable("pathsByPair", new HashMap<>(puzzleController.getPathsByPair()));
-        outState.putSerializable("pairs", new ArrayList<>(puzzle.getPairs()));
         outState.putBoolean("gameFinished", puzzleController.isGameFinished());
+        outState.putString("playlistFile", playlistFile);
+        outState.putInt("playlistIndex", playlistIndex);
+        outState.putBoolean("endless", endless);
+        outState.putLong("sessionElapsedMs", (sessionStartMs != 0) ? SystemClock.uptimeMillis() - sessionStartMs : 0);
+        outState.putInt("moveCount", puzzleController.getMoveCount());
+        outState.putInt("undoCount", puzzleController.getUndoCount());
+        outState.putInt("assistedCellCount", puzzleController.getAssistedCellCount());
     }
 }
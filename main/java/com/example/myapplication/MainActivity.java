@@ -1,29 +1,85 @@
 package com.example.myapplication;
 
 import android.app.Activity;
+import android.app.AlertDialog;
+import android.content.ClipData;
+import android.content.ClipboardManager;
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
+import android.widget.AbsListView;
 import android.widget.AdapterView;
+import android.widget.ArrayAdapter;
 import android.widget.Button;
+import android.widget.EditText;
 import android.widget.ListView;
+import android.widget.Spinner;
 import android.widget.TextView;
 import android.widget.Toast;
 
 import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.utils.CatalogMetadata;
+import com.example.myapplication.utils.DifficultyEstimator;
+import com.example.myapplication.utils.EndlessPuzzleQueue;
+import com.example.myapplication.utils.LongHashSet;
+import com.example.myapplication.utils.PuzzleHasher;
+import com.example.myapplication.utils.PuzzleIndex;
+import com.example.myapplication.utils.PuzzleLibraryVerifier;
 import com.example.myapplication.utils.PuzzleParser;
+import com.example.myapplication.utils.PuzzlePlaylist;
+import com.example.myapplication.utils.PuzzlePrefetcher;
+import com.example.myapplication.utils.ShareCode;
+import com.example.myapplication.utils.SharedPuzzleStore;
+import com.example.myapplication.utils.StatsStore;
+import com.example.myapplication.utils.UserPuzzleLibrary;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 /**
  * Activité principale affichant la liste des puzzles disponibles.
- * L'utilisateur peut cliquer sur un puzzle valide pour démarrer une partie.
+ * L'utilisateur peut cliquer sur un puzzle valide pour démarrer une partie,
+ * copier son code de partage par un appui long, ou importer un puzzle partagé.
+ * Les puzzles XML déposés dans le dossier de l'utilisateur s'ajoutent à la liste,
+ * qui suit les modifications du dossier tant que le menu est affiché.
+ * Le bouton "SANS FIN" enchaîne des puzzles générés (EndlessPuzzleQueue).
+ * Le champ de recherche filtre la liste pendant la frappe (nom et critères, voir
+ * PuzzleIndex.Query) et le menu déroulant choisit son tri.
  */
 public class MainActivity extends Activity implements AdapterView.OnItemClickListener {
 
+    // Attente maximale du premier puzzle généré, quand la file du mode sans fin est vide
+    private static final long ENDLESS_WAIT_MS = 30_000;
+
+    // Tris proposés, dans l'ordre de PuzzleIndex.Sort
+    private static final String[] SORT_LABELS = {"Catalogue", "Nom", "Difficulté", "Taille"};
+
     private ListView listView;
+    private TextView subTitle;
     private PuzzleAdapter adapter;
     private List<Puzzle> puzzleList;
+    private SharedPuzzleStore sharedPuzzles;
+    private final PuzzleHasher hasher = new PuzzleHasher();
+    private LongHashSet seen; // empreintes des puzzles affichés
+    // Empreinte canonique de chaque puzzle valide, calculée une fois (dédoublonnage ou
+    // premier refreshSolved) : le retour au menu ne fait plus que des recherches
+    private final Map<Puzzle, Long> puzzleHashes = new ConcurrentHashMap<>();
+    private CatalogMetadata metadata;
+    private UserPuzzleLibrary userPuzzles;
+    private final Map<String, Puzzle> userPuzzleItems = new HashMap<>(); // par fichier, thread UI
+    // Lecture du dossier de l'utilisateur : une tâche à la fois, dans l'ordre
+    private final ExecutorService userPuzzleLoader = Executors.newSingleThreadExecutor();
+    private EndlessPuzzleQueue endlessQueue; // lancée par le bouton "SANS FIN", null sinon
+    private boolean waitingForEndless;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -31,18 +87,77 @@ public class MainActivity extends Activity implements AdapterView.OnItemClickLis
         setContentView(R.layout.activity_main);
 
         // Sous-titre
-        TextView subTitle = findViewById(R.id.subTitle);
+        subTitle = findViewById(R.id.subTitle);
         subTitle.setText("Choisissez un puzzle");
 
         listView = findViewById(R.id.puzzleListView);
 
-        // Charge la liste de puzzles depuis les assets
+        // Charge la liste de puzzles depuis les assets, puis les puzzles importés
+        sharedPuzzles = new SharedPuzzleStore(new File(getFilesDir(), "shared_puzzles.bin"));
         puzzleList = loadPuzzlesFromAssets();
 
         // Création et association de l'adaptateur
         adapter = new PuzzleAdapter(this, puzzleList);
         listView.setAdapter(adapter);
         listView.setOnItemClickListener(this);
+        listView.setOnItemLongClickListener((parent, view, position, id) -> {
+            copyShareCode(adapter.getItem(position));
+            return true;
+        });
+        listView.setOnScrollListener(new AbsListView.OnScrollListener() {
+            @Override
+            public void onScrollStateChanged(AbsListView view, int scrollState) {
+                if (scrollState == SCROLL_STATE_IDLE) prefetchFirstVisible();
+            }
+
+            @Override
+            public void onScroll(AbsListView view, int firstVisibleItem, int visibleItemCount, int totalItemCount) {
+            }
+        });
+
+        // Recherche pendant la frappe
+        EditText searchField = findViewById(R.id.searchField);
+        searchField.addTextChangedListener(new TextWatcher() {
+            @Override
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {
+            }
+
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+            }
+
+            @Override
+            public void afterTextChanged(Editable s) {
+                adapter.setQuery(s.toString());
+            }
+        });
+
+        // Tri de la liste
+        Spinner sortSpinner = findViewById(R.id.sortSpinner);
+        ArrayAdapter<String> sortLabels = new ArrayAdapter<>(this, android.R.layout.simple_spinner_item, SORT_LABELS);
+        sortLabels.setDropDownViewResource(android.R.layout.simple_spinner_dropdown_item);
+        sortSpinner.setAdapter(sortLabels);
+        sortSpinner.setOnItemSelectedListener(new AdapterView.OnItemSelectedListener() {
+            @Override
+            public void onItemSelected(AdapterView<?> parent, android.view.View view, int position, long id) {
+                adapter.setSort(PuzzleIndex.Sort.values()[position]);
+            }
+
+            @Override
+            public void onNothingSelected(AdapterView<?> parent) {
+            }
+        });
+
+        // Difficultés calculées en arrière-plan (relues depuis le disque si déjà connues)
+        metadata = new CatalogMetadata(new File(getFilesDir(), "catalog_metadata.bin"));
+        computeDifficulties();
+
+        // Puzzles de l'utilisateur, tels que les décrit le manifeste
+        // Fichiers ajoutés vérifiés (taille, solvabilité) ; verdicts gardés par contenu
+        userPuzzles = new UserPuzzleLibrary(PuzzleParser.userPuzzleDirectory(this),
+                new File(getFilesDir(), "user_puzzles.bin"),
+                new PuzzleLibraryVerifier(new File(getFilesDir(), "verified_puzzles.bin")));
+        loadUserPuzzles();
 
         // Bouton vers les paramètres
         Button buttonSettings = findViewById(R.id.buttonSettings);
@@ -52,48 +167,366 @@ public class MainActivity extends Activity implements AdapterView.OnItemClickLis
             overridePendingTransition(android.R.anim.fade_in, android.R.anim.fade_out);
         });
 
+        // Bouton pour importer un puzzle à partir de son code
+        Button buttonImport = findViewById(R.id.buttonImport);
+        buttonImport.setOnClickListener(v -> showImportDialog());
+
+        // Bouton vers l'éditeur de puzzles
+        Button buttonEditor = findViewById(R.id.buttonEditor);
+        buttonEditor.setOnClickListener(v -> startActivity(new Intent(this, EditorActivity.class)));
+
+        // Bouton du mode sans fin
+        Button buttonEndless = findViewById(R.id.buttonEndless);
+        buttonEndless.setOnClickListener(v -> startEndless());
+
         // Bouton pour quitter l'application
         Button buttonQuit = findViewById(R.id.buttonQuit);
         buttonQuit.setOnClickListener(v -> finish());
     }
 
+    @Override
+    protected void onResume() {
+        super.onResume();
+        // Les miniatures suivent le mode achromate choisi dans les paramètres
+        SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
+        adapter.setAchromate(prefs.getBoolean("isAchromateEnabled", false));
+
+        // Dossier de l'utilisateur : modifications faites pendant la pause, puis surveillance
+        userPuzzleLoader.execute(() -> {
+            try {
+                refreshUserPuzzles(userPuzzles.scan());
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        });
+        try {
+            userPuzzles.startWatching(diff -> userPuzzleLoader.execute(() -> refreshUserPuzzles(diff)));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+
+        // Totaux lus depuis l'index des statistiques, sans relire les sessions
+        StatsStore stats = StatsStore.getInstance(new File(getFilesDir(), "stats"));
+        int solves = stats.getTotalSolves();
+        if (solves > 0) {
+            int streak = stats.getCurrentStreak(StatsStore.localDay(System.currentTimeMillis()));
+            subTitle.setText("Choisissez un puzzle (" + solves + " résolus, série de " + streak
+                    + " jour" + (streak > 1 ? "s" : "") + ")");
+            refreshSolved(stats);
+        }
+    }
+
+    @Override
+    protected void onPause() {
+        super.onPause();
+        userPuzzles.stopWatching();
+        // GameActivity relance les producteurs à son ouverture
+        if (endlessQueue != null) endlessQueue.stop();
+    }
+
+    @Override
+    protected void onDestroy() {
+        super.onDestroy();
+        userPuzzleLoader.shutdown();
+    }
+
     /**
      * Charge les puzzles présents dans le dossier assets/puzzles
      */
     private List<Puzzle> loadPuzzlesFromAssets() {
         List<Puzzle> list = new ArrayList<>();
+        // Empreintes canoniques : masque les puzzles identiques à une symétrie près
+        seen = new LongHashSet(64);
         try {
             String[] files = getAssets().list("puzzles");
             if (files != null) {
                 for (String file : files) {
                     Puzzle p = PuzzleParser.parsePuzzle(this, file);
+                    if (p.isValid() && !seen.add(hashOf(p))) continue;
                     list.add(p);
                 }
             }
         } catch (Exception e) {
             e.printStackTrace();
         }
+        for (Puzzle p : sharedPuzzles.getPuzzles()) {
+            if (p.isValid() && !seen.add(hashOf(p))) continue;
+            list.add(p);
+        }
         return list;
     }
 
+    /**
+     * Copie le code de partage du puzzle dans le presse-papiers.
+     */
+    private void copyShareCode(Puzzle p) {
+        String code = p.isValid() ? ShareCode.encode(p) : null;
+        if (code == null) {
+            Toast.makeText(this, "Ce puzzle ne peut pas être partagé.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        ClipboardManager clipboard = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+        clipboard.setPrimaryClip(ClipData.newPlainText(p.getName(), code));
+        Toast.makeText(this, "Code copié : " + code, Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Demande un code de partage (prérempli avec le presse-papiers) et ajoute le puzzle.
+     */
+    private void showImportDialog() {
+        EditText input = new EditText(this);
+        ClipboardManager clipboard = (ClipboardManager) getSystemService(CLIPBOARD_SERVICE);
+        ClipData clip = clipboard.getPrimaryClip();
+        if (clip != null && clip.getItemCount() > 0 && clip.getItemAt(0).getText() != null) {
+            input.setText(clip.getItemAt(0).getText());
+        }
+        new AlertDialog.Builder(this)
+                .setTitle("Importer un puzzle")
+                .setView(input)
+                .setPositiveButton("IMPORTER", (dialog, which) -> importPuzzle(input.getText().toString()))
+                .setNegativeButton("ANNULER", null)
+                .show();
+    }
+
+    private void importPuzzle(String text) {
+        Puzzle p = ShareCode.decode(text);
+        if (p == null || !p.isValid()) {
+            Toast.makeText(this, "Code invalide.", Toast.LENGTH_SHORT).show();
+            return;
+        }
+        long hash = hasher.hash64(p);
+        if (!seen.add(hash)) {
+            // Puzzle connu : on ouvre celui de la liste, avec les chemins du code
+            Puzzle known = findByHash(hash);
+            if (known == null) {
+                Toast.makeText(this, "Ce puzzle est déjà dans la liste.", Toast.LENGTH_SHORT).show();
+                return;
+            }
+            openPuzzle(known, text);
+            return;
+        }
+        puzzleHashes.put(p, hash);
+        try {
+            sharedPuzzles.add(p.getFileName().substring(ShareCode.PREFIX.length()));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        adapter.addPuzzle(p);
+        Toast.makeText(this, "Puzzle importé : " + p.getName(), Toast.LENGTH_SHORT).show();
+    }
+
+    /**
+     * Estime la difficulté des puzzles hors du thread UI, puis rafraîchit la liste.
+     */
+    private void computeDifficulties() {
+        new Thread(() -> {
+            try {
+                DifficultyEstimator.estimateAll(puzzleList, metadata);
+                metadata.save();
+            } catch (Exception e) {
+                e.printStackTrace();
+            }
+            runOnUiThread(() -> adapter.refreshDifficulties());
+        }).start();
+    }
+
+    // Puzzle valide de la liste ayant cette empreinte, ou null
+    private Puzzle findByHash(long hash) {
+        for (Puzzle p : adapter.getAllPuzzles()) {
+            if (p.isValid() && hashOf(p) == hash) return p;
+        }
+        return null;
+    }
+
+    // Empreinte canonique d'un puzzle valide, gardée pour les appels suivants (thread UI)
+    private long hashOf(Puzzle p) {
+        Long hash = puzzleHashes.get(p);
+        if (hash == null) {
+            hash = hasher.hash64(p);
+            puzzleHashes.put(p, hash);
+        }
+        return hash;
+    }
+
+    /**
+     * Cherche les puzzles déjà résolus, pour la recherche. Seuls les puzzles jamais
+     * vus (fichiers de l'utilisateur) sont hachés, sur le thread de lecture du dossier.
+     */
+    private void refreshSolved(StatsStore stats) {
+        List<Puzzle> puzzles = adapter.getAllPuzzles();
+        userPuzzleLoader.execute(() -> {
+            List<Puzzle> solved = new ArrayList<>();
+            for (Puzzle p : puzzles) {
+                if (!p.isValid()) continue;
+                long hash = puzzleHashes.computeIfAbsent(p, PuzzleHasher::canonicalHash64);
+                StatsStore.PuzzleStats puzzleStats = stats.getPuzzleStats(hash);
+                if (puzzleStats != null && puzzleStats.getSolves() > 0) solved.add(p);
+            }
+            runOnUiThread(() -> adapter.setSolved(solved));
+        });
+    }
+
+    // Catalogue des puzzles de l'utilisateur, sans lire leurs fichiers
+    private void loadUserPuzzles() {
+        userPuzzleLoader.execute(() -> {
+            List<Puzzle> puzzles = new ArrayList<>();
+            for (String fileName : userPuzzles.getFileNames()) {
+                Puzzle p = userPuzzles.getPuzzle(fileName);
+                if (p != null) puzzles.add(p);
+            }
+            publishUserPuzzles(new ArrayList<>(), puzzles);
+        });
+    }
+
+    // Puzzles des fichiers ajoutés ou modifiés (thread de lecture)
+    private void refreshUserPuzzles(UserPuzzleLibrary.Diff diff) {
+        if (diff.isEmpty()) return;
+        List<String> removed = new ArrayList<>(diff.removed);
+        removed.addAll(diff.changed);
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (String fileName : diff.added) {
+            Puzzle p = userPuzzles.getPuzzle(fileName);
+            if (p != null) puzzles.add(p);
+        }
+        for (String fileName : diff.changed) {
+            Puzzle p = userPuzzles.getPuzzle(fileName);
+            if (p != null) puzzles.add(p);
+        }
+        publishUserPuzzles(removed, puzzles);
+    }
+
+    // Difficultés des nouveaux puzzles, puis mise à jour de la liste sur le thread UI
+    private void publishUserPuzzles(List<String> removed, List<Puzzle> added) {
+        try {
+            DifficultyEstimator.estimateAll(added, metadata);
+            metadata.save();
+        } catch (Exception e) {
+            e.printStackTrace();
+        }
+        runOnUiThread(() -> {
+            List<Puzzle> replaced = new ArrayList<>();
+            for (String fileName : removed) {
+                Puzzle old = userPuzzleItems.remove(fileName);
+                if (old != null) replaced.add(old);
+            }
+            for (Puzzle p : added) {
+                String fileName = p.getFileName().substring(UserPuzzleLibrary.PREFIX.length());
+                Puzzle old = userPuzzleItems.put(fileName, p);
+                if (old != null) replaced.add(old);
+            }
+            for (Puzzle old : replaced) puzzleHashes.remove(old);
+            // Une seule requête sur l'index pour tout le lot
+            adapter.updatePuzzles(replaced, added);
+        });
+    }
+
     @Override
     public void onItemClick(AdapterView<?> parent, android.view.View view, int position, long id) {
-        Puzzle p = puzzleList.get(position);
+        Puzzle p = adapter.getItem(position);
 
         // Affiche un message si le puzzle est invalide
         if (!p.isValid()) {
             Toast.makeText(this, "Ce puzzle est invalide et ne peut pas être joué.", Toast.LENGTH_SHORT).show();
             return;
         }
+        openPuzzle(p, null);
+    }
+
+    /**
+     * Lance la partie sur un puzzle valide de la liste.
+     *
+     * @param sharedCode code importé dont les chemins sont repris (null si aucun)
+     */
+    private void openPuzzle(Puzzle p, String sharedCode) {
+
+        // Liste de lecture : les puzzles valides dans l'ordre affiché, pour "SUIVANT".
+        // Elle reste dans le processus ; l'Intent ne porte que le fichier et sa position.
+        List<String> playlist = new ArrayList<>();
+        int playlistIndex = 0;
+        for (int i = 0; i < adapter.getCount(); i++) {
+            Puzzle item = adapter.getItem(i);
+            if (!item.isValid()) continue;
+            if (item == p) playlistIndex = playlist.size();
+            playlist.add(assetFileNameOf(item));
+        }
+
+        // Le puzzle choisi et le suivant sont préparés pendant le lancement de l'activité
+        PuzzlePrefetcher prefetcher = PuzzlePrefetcher.getInstance();
+        prefetcher.prefetch(this, assetFileNameOf(p));
+        if (playlistIndex + 1 < playlist.size()) {
+            prefetcher.prefetch(this, playlist.get(playlistIndex + 1));
+        }
+        PuzzlePlaylist.getInstance().set(playlist);
 
         // Lancement de l'activité de jeu avec les informations du puzzle
         Intent intent = new Intent(this, GameActivity.class);
         intent.putExtra("puzzleName", p.getName());
-        String fileName = p.getFileName();
-        intent.putExtra("assetFileName", (fileName != null) ? fileName : p.getName() + ".xml");
+        intent.putExtra("assetFileName", assetFileNameOf(p));
+        intent.putExtra("playlistIndex", playlistIndex);
+        if (sharedCode != null) intent.putExtra("sharedCode", sharedCode);
         startActivity(intent);
     }
 
+    /**
+     * Lance le mode sans fin sur le premier puzzle de la file (relue depuis le
+     * disque), ou dès que les producteurs en ont généré un.
+     */
+    private void startEndless() {
+        endlessQueue = EndlessPuzzleQueue.getInstance(new File(getFilesDir(), "endless_queue.bin"));
+        Puzzle first = endlessQueue.poll();
+        if (first != null) {
+            openEndless(first);
+            return;
+        }
+        if (waitingForEndless) return;
+        waitingForEndless = true;
+        endlessQueue.start(EndlessPuzzleQueue.workerCount(this));
+        Toast.makeText(this, "Génération du premier puzzle…", Toast.LENGTH_SHORT).show();
+        EndlessPuzzleQueue queue = endlessQueue;
+        new Thread(() -> {
+            Puzzle generated = null;
+            try {
+                generated = queue.poll(ENDLESS_WAIT_MS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            Puzzle ready = generated;
+            runOnUiThread(() -> {
+                waitingForEndless = false;
+                if (ready != null && !isFinishing()) openEndless(ready);
+            });
+        }).start();
+    }
+
+    private void openEndless(Puzzle p) {
+        Intent intent = new Intent(this, GameActivity.class);
+        intent.putExtra("puzzleName", p.getName());
+        intent.putExtra("assetFileName", p.getFileName());
+        intent.putExtra("puzzleDifficulty", p.getDifficulty());
+        intent.putExtra("endless", true);
+        startActivity(intent);
+    }
+
+    private static String assetFileNameOf(Puzzle p) {
+        String fileName = p.getFileName();
+        return (fileName != null) ? fileName : p.getName() + ".xml";
+    }
+
+    /**
+     * Précharge le premier puzzle visible quand la liste s'arrête de défiler.
+     */
+    private void prefetchFirstVisible() {
+        int first = listView.getFirstVisiblePosition();
+        int last = Math.min(listView.getLastVisiblePosition(), adapter.getCount() - 1);
+        for (int i = Math.max(0, first); i <= last; i++) {
+            Puzzle p = adapter.getItem(i);
+            if (p.isValid()) {
+                PuzzlePrefetcher.getInstance().prefetch(this, assetFileNameOf(p));
+                return;
+            }
+        }
+    }
+
     @Override
     public void onBackPressed() {
         finish();
@@ -6,23 +6,63 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.ArrayAdapter;
+import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.utils.DifficultyEstimator;
+import com.example.myapplication.utils.PuzzleIndex;
+import com.example.myapplication.views.ThumbnailCache;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 /**
  * Adaptateur utilisé pour afficher chaque puzzle dans une ListView.
- * Il affiche le nom du puzzle, et le grise s'il est invalide.
+ * Il affiche un aperçu de la grille, le nom du puzzle et sa difficulté,
+ * et grise le nom si le puzzle est invalide.
+ * La liste affichée est le résultat d'une requête sur un PuzzleIndex (recherche
+ * par le nom et critères, tri) : les lignes sont lues dans le tableau de résultats,
+ * sans copie de liste.
  */
 public class PuzzleAdapter extends ArrayAdapter<Puzzle> {
 
     private LayoutInflater inflater;
+    private final PuzzleIndex index = new PuzzleIndex(); // liste complète, avant filtre
+    private final ThumbnailCache thumbnails;
+    private boolean isAchromate;
+
+    private PuzzleIndex.Query query = PuzzleIndex.Query.parse("");
+    private PuzzleIndex.Sort sort = PuzzleIndex.Sort.CATALOG;
+    private int resultCount;
 
     public PuzzleAdapter(Context context, List<Puzzle> puzzles) {
-        super(context, 0, puzzles);
+        // La liste interne d'ArrayAdapter n'est pas utilisée : getCount et getItem lisent l'index
+        super(context, 0, new ArrayList<>());
         inflater = LayoutInflater.from(context);
+        thumbnails = ThumbnailCache.getInstance(context);
+        for (Puzzle puzzle : puzzles) index.add(puzzle);
+        resultCount = index.query(query, sort);
+    }
+
+    @Override
+    public int getCount() {
+        return resultCount;
+    }
+
+    @Override
+    public Puzzle getItem(int position) {
+        return index.get(index.getResults()[position]);
+    }
+
+    /**
+     * Change le mode d'affichage des miniatures (couleurs ou niveaux de gris).
+     */
+    public void setAchromate(boolean isAchromate) {
+        if (this.isAchromate == isAchromate) return;
+        this.isAchromate = isAchromate;
+        notifyDataSetChanged();
     }
 
     @Override
@@ -32,14 +72,20 @@ public class PuzzleAdapter extends ArrayAdapter<Puzzle> {
             convertView = inflater.inflate(R.layout.item_puzzle, parent, false);
         }
 
-        // Récupère le TextView dans la vue
+        // Récupère les TextView dans la vue
         TextView puzzleName = convertView.findViewById(R.id.itemPuzzleName);
+        TextView puzzleDifficulty = convertView.findViewById(R.id.itemPuzzleDifficulty);
+        ImageView thumbnail = convertView.findViewById(R.id.itemPuzzleThumbnail);
 
         // Récupère le puzzle courant
         Puzzle puzzle = getItem(position);
 
-        // Affiche le nom du puzzle
+        // Affiche le nom du puzzle et sa difficulté
         puzzleName.setText(puzzle.getName());
+        puzzleDifficulty.setText(DifficultyEstimator.label(puzzle.getDifficulty()));
+
+        // Aperçu : immédiat s'il est en cache, sinon rendu en arrière-plan
+        thumbnails.bind(thumbnail, puzzle, isAchromate);
 
         // Si le puzzle est invalide, on change la couleur du texte en gris
         if (!puzzle.isValid()) {
@@ -50,4 +96,71 @@ public class PuzzleAdapter extends ArrayAdapter<Puzzle> {
 
         return convertView;
     }
+
+    /**
+     * Ajoute un puzzle (importé par code) à la liste ; il n'est affiché que s'il
+     * passe la recherche en cours.
+     */
+    public void addPuzzle(Puzzle puzzle) {
+        index.add(puzzle);
+        refresh();
+    }
+
+    /**
+     * Ajoute et retire des puzzles en une seule mise à jour de la liste.
+     */
+    public void updatePuzzles(Collection<Puzzle> removed, Collection<Puzzle> added) {
+        for (Puzzle puzzle : removed) index.remove(puzzle);
+        for (Puzzle puzzle : added) index.add(puzzle);
+        refresh();
+    }
+
+    /**
+     * Retire un puzzle de la liste (fichier utilisateur supprimé ou modifié).
+     */
+    public void removePuzzle(Puzzle puzzle) {
+        index.remove(puzzle);
+        refresh();
+    }
+
+    /**
+     * Tous les puzzles de la liste, affichés ou non (copie).
+     */
+    public List<Puzzle> getAllPuzzles() {
+        return index.getPuzzles();
+    }
+
+    /**
+     * Relit les difficultés, calculées en arrière-plan.
+     */
+    public void refreshDifficulties() {
+        index.refreshDifficulties();
+        refresh();
+    }
+
+    /**
+     * Puzzles déjà résolus, pour les critères "résolu" et "nonrésolu".
+     */
+    public void setSolved(Collection<Puzzle> solved) {
+        index.setSolved(solved);
+        refresh();
+    }
+
+    /**
+     * N'affiche que les puzzles qui passent la recherche (voir PuzzleIndex.Query).
+     */
+    public void setQuery(String text) {
+        query = PuzzleIndex.Query.parse(text);
+        refresh();
+    }
+
+    public void setSort(PuzzleIndex.Sort sort) {
+        this.sort = sort;
+        refresh();
+    }
+
+    private void refresh() {
+        resultCount = index.query(query, sort);
+        notifyDataSetChanged();
+    }
 }
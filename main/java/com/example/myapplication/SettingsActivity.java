@@ -7,11 +7,14 @@ import android.view.View;
 import android.widget.CheckBox;
 
 /**
- * Activité qui permet à l'utilisateur d'activer le mode achromate (affichage en nuances de gris).
+ * Activité qui permet à l'utilisateur d'activer le mode achromate (affichage en nuances de gris)
+ * le mode assistance (coups forcés complétés automatiquement) et les animations des chemins.
  */
 public class SettingsActivity extends Activity {
 
     private CheckBox achromateCheckBox;
+    private CheckBox assistCheckBox;
+    private CheckBox animationCheckBox;
 
     @Override
     protected void onCreate(Bundle savedInstanceState) {
@@ -19,22 +22,28 @@ public class SettingsActivity extends Activity {
         setContentView(R.layout.activity_settings);
 
         achromateCheckBox = findViewById(R.id.achromateCheckBox);
+        assistCheckBox = findViewById(R.id.assistCheckBox);
+        animationCheckBox = findViewById(R.id.animationCheckBox);
 
         // Chargement de la préférence enregistrée
         SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
         boolean achromate = prefs.getBoolean("isAchromateEnabled", false);
         achromateCheckBox.setChecked(achromate);
+        assistCheckBox.setChecked(prefs.getBoolean("isAssistEnabled", false));
+        animationCheckBox.setChecked(prefs.getBoolean("isAnimationEnabled", false));
     }
 
     /**
      * Appelé quand l'utilisateur clique sur "Enregistrer".
-     * Sauvegarde l'état de la case à cocher dans les préférences.
+     * Sauvegarde l'état des cases à cocher dans les préférences.
      */
     public void onSaveSettings(View v) {
         boolean isChecked = achromateCheckBox.isChecked();
         SharedPreferences prefs = getSharedPreferences("MyApplicationPrefs", MODE_PRIVATE);
         SharedPreferences.Editor editor = prefs.edit();
         editor.putBoolean("isAchromateEnabled", isChecked);
+        editor.putBoolean("isAssistEnabled", assistCheckBox.isChecked());
+        editor.putBoolean("isAnimationEnabled", animationCheckBox.isChecked());
         editor.apply();
         finish();
     }
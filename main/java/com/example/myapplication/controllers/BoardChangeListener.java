@@ -0,0 +1,32 @@
+package com.example.myapplication.controllers;
+
+/**
+ * Interface permettant de suivre, case par case, les changements de la grille
+ * publiés par PuzzleController (rendu, sauvegarde, statistiques...).
+ *
+ * Les événements sont livrés sur le thread UI, dans l'ordre où ils se produisent,
+ * sans allocation : uniquement des entiers.
+ */
+public interface BoardChangeListener {
+
+    // Un chemin vide commence à cette tête de la paire
+    void onPathStarted(int pairId, int row, int col);
+
+    // Une case vide est prise par le chemin de la paire
+    void onCellClaimed(int pairId, int row, int col);
+
+    // Une case du chemin de la paire redevient vide
+    void onCellReleased(int pairId, int row, int col);
+
+    // Le chemin de la paire relie ses deux têtes
+    void onPathCompleted(int pairId);
+
+    // Le chemin complet de la paire a été raccourci : il ne rejoint plus sa seconde tête
+    void onPathReopened(int pairId);
+
+    // Le chemin de la paire a été effacé (annulation ou nouveau départ depuis une tête)
+    void onPathCancelled(int pairId);
+
+    // Toutes les paires sont reliées
+    void onBoardCompleted();
+}
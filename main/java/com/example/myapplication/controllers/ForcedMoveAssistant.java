@@ -0,0 +1,213 @@
+package com.example.myapplication.controllers;
+
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Moteur de propagation des coups forcés, utilisé par le mode assistance de PuzzleController.
+ *
+ * Une extrémité de chemin (ou une tête sans chemin) qui n'a plus qu'une seule case
+ * où aller est forcément prolongée par cette case. Après chaque tracé, on n'examine
+ * que les paires dont une extrémité touche une case modifiée ; chaque prolongement
+ * remet en file les paires voisines de la nouvelle case. Le travail est borné par
+ * un budget en temps, pour rester négligeable même sur de très grandes grilles.
+ */
+class ForcedMoveAssistant {
+
+    // Budget par tracé : 2 ms
+    private static final long BUDGET_NANOS = 2_000_000L;
+
+    private final int size;
+    private final BoardTopology topology;
+    private final int[] headA; // première tête de chaque paire (case à plat), -1 si absente
+    private final int[] headB;
+
+    // File circulaire des paires à examiner (une paire y figure au plus une fois)
+    private final int[] queue;
+    private final boolean[] queued;
+    private int queueHead;
+    private int queueTail;
+
+    // Cases déduites, paires commencées et paires complétées lors du dernier appel
+    private int[] deduced = new int[16];
+    private int deducedCount;
+    private final int[] started;
+    private int startedCount;
+    private final int[] completed;
+    private int completedCount;
+
+    ForcedMoveAssistant(Puzzle puzzle) {
+        this.size = puzzle.getSize();
+        topology = puzzle.getTopology();
+        int maxId = -1;
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            maxId = Math.max(maxId, puzzle.getPairId(i));
+        }
+        headA = new int[maxId + 1];
+        headB = new int[maxId + 1];
+        Arrays.fill(headA, -1);
+        Arrays.fill(headB, -1);
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            headA[puzzle.getPairId(i)] = puzzle.getFirstCell(i);
+            headB[puzzle.getPairId(i)] = puzzle.getSecondCell(i);
+        }
+        queue = new int[maxId + 1];
+        queued = new boolean[maxId + 1];
+        started = new int[maxId + 1];
+        completed = new int[maxId + 1];
+    }
+
+    /**
+     * Prolonge tous les chemins forcés autour des cases modifiées.
+     *
+     * @param changed cases touchées par le dernier tracé
+     * @return le nombre de cases déduites (voir getDeducedCells)
+     */
+    int propagate(BoardGrid grid, Map<Integer, List<PointCoord>> paths, List<PointCoord> changed) {
+        deducedCount = 0;
+        startedCount = 0;
+        completedCount = 0;
+        queueHead = 0;
+        queueTail = 0;
+        Arrays.fill(queued, false);
+
+        for (PointCoord pc : changed) {
+            int cell = pc.getRow() * size + pc.getCol();
+            enqueueAround(grid, cell);
+            enqueueOwner(grid, cell);
+        }
+
+        long deadline = System.nanoTime() + BUDGET_NANOS;
+        while (queueHead < queueTail) {
+            if (System.nanoTime() > deadline) break;
+            int pairId = queue[queueHead++ % queue.length];
+            queued[pairId] = false;
+            List<PointCoord> path = paths.get(pairId);
+            if (path != null) {
+                extendWhileForced(grid, pairId, path, deadline);
+            }
+        }
+        return deducedCount;
+    }
+
+    /**
+     * Cases déduites (à plat : row * size + col) ; seules les N premières, N étant
+     * la valeur renvoyée par propagate, sont valides. Le tableau est réutilisé.
+     */
+    int[] getDeducedCells() {
+        return deduced;
+    }
+
+    /**
+     * Paires dont le chemin, vide jusque-là, a été commencé par le dernier appel à
+     * propagate (depuis la tête en première position du chemin).
+     */
+    int[] getStartedPairs() {
+        return started;
+    }
+
+    int getStartedCount() {
+        return startedCount;
+    }
+
+    /**
+     * Paires dont le chemin a été complété par le dernier appel à propagate.
+     */
+    int[] getCompletedPairs() {
+        return completed;
+    }
+
+    int getCompletedCount() {
+        return completedCount;
+    }
+
+    private void extendWhileForced(BoardGrid grid, int pairId, List<PointCoord> path, long deadline) {
+        while (System.nanoTime() <= deadline) {
+            int end;
+            int target;
+            if (path.isEmpty()) {
+                // Pas encore de chemin : chacune des deux têtes peut être forcée
+                if (forcedMove(grid, headA[pairId], headB[pairId]) != -1) {
+                    end = headA[pairId];
+                    target = headB[pairId];
+                } else if (forcedMove(grid, headB[pairId], headA[pairId]) != -1) {
+                    end = headB[pairId];
+                    target = headA[pairId];
+                } else {
+                    return;
+                }
+                path.add(pointOf(end));
+                started[startedCount++] = pairId;
+            } else {
+                int start = cellOf(path.get(0));
+                end = cellOf(path.get(path.size() - 1));
+                target = (start == headA[pairId]) ? headB[pairId] : headA[pairId];
+                if (path.size() > 1 && end == target) return; // chemin déjà complet
+            }
+
+            int next = forcedMove(grid, end, target);
+            if (next == -1) return;
+
+            path.add(pointOf(next));
+            if (next == target) {
+                completed[completedCount++] = pairId;
+                return;
+            }
+
+            grid.set(next, pairId);
+            recordDeduced(next);
+            enqueueAround(grid, next);
+        }
+    }
+
+    /**
+     * Case suivante si le coup depuis {@code end} est forcé, sinon -1.
+     */
+    private int forcedMove(BoardGrid grid, int end, int target) {
+        int found = -1;
+        int count = 0;
+        for (int i = 0, degree = topology.degree(end); i < degree; i++) {
+            int n = topology.neighbour(end, i);
+            if (grid.get(n) == -1 || n == target) {
+                found = n;
+                count++;
+            }
+        }
+        return (count == 1) ? found : -1;
+    }
+
+    // Met en file les paires occupant les voisins de la case
+    private void enqueueAround(BoardGrid grid, int cell) {
+        for (int i = 0, degree = topology.degree(cell); i < degree; i++) {
+            enqueueOwner(grid, topology.neighbour(cell, i));
+        }
+    }
+
+    private void enqueueOwner(BoardGrid grid, int cell) {
+        int pairId = grid.get(cell);
+        if (pairId < 0 || pairId >= queued.length || queued[pairId]) return;
+        queued[pairId] = true;
+        queue[queueTail++ % queue.length] = pairId;
+    }
+
+    private void recordDeduced(int cell) {
+        if (deducedCount == deduced.length) {
+            deduced = Arrays.copyOf(deduced, deducedCount * 2);
+        }
+        deduced[deducedCount++] = cell;
+    }
+
+    private int cellOf(PointCoord point) {
+        return point.getRow() * size + point.getCol();
+    }
+
+    private PointCoord pointOf(int cell) {
+        return PointCoord.of(cell / size, cell % size);
+    }
+}
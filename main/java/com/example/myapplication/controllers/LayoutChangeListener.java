@@ -0,0 +1,12 @@
+package com.example.myapplication.controllers;
+
+import com.example.myapplication.models.Puzzle;
+
+/**
+ * Interface permettant d'être notifié des modifications faites dans l'éditeur.
+ */
+public interface LayoutChangeListener {
+
+    // Nouvelle disposition des têtes ; null s'il manque une tête ou qu'il n'y a aucune paire
+    void onLayoutChanged(Puzzle layout);
+}
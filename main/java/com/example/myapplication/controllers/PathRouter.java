@@ -0,0 +1,240 @@
+package com.example.myapplication.controllers;
+
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.BoardTopology;
+
+import java.util.Arrays;
+
+/**
+ * Plus court chemin par cases libres, pour le tracé par appui de PuzzleController.
+ *
+ * A* sur les voisins de BoardTopology, avec une estimation exacte pour un plateau
+ * vide (distance de Manhattan, repliée sur le tore, distance hexagonale) : le
+ * premier chemin qui atteint la cible est le plus court. À égalité, la case la
+ * plus avancée est développée d'abord, ce qui va droit au but sur un plateau dégagé.
+ *
+ * L'état des cases (coût, parent, marques, place dans le tas) est rangé par tuiles
+ * de BoardGrid, allouées à la première case visitée : un tracé sur un plateau de
+ * 1000x1000 ne paie que les tuiles qu'il explore. Le tas et le chemin grandissent
+ * à la demande. Les marques « vue » et « fermée » sont des numéros de recherche,
+ * sans remise à zéro entre deux appels.
+ */
+class PathRouter {
+
+    private static final int SHIFT = BoardGrid.TILE_SHIFT;
+    private static final int MASK = BoardGrid.TILE_SIZE - 1;
+    private static final int TILE_CELLS = BoardGrid.TILE_SIZE * BoardGrid.TILE_SIZE;
+
+    // Champs d'une case dans sa tuile
+    private static final int COST = 0;       // longueur du chemin depuis le départ
+    private static final int PARENT = 1;
+    private static final int SEEN = 2;       // numéro de la recherche qui a atteint la case
+    private static final int CLOSED = 3;     // numéro de la recherche qui a développé la case
+    private static final int HEAP_INDEX = 4; // position de la case dans le tas
+    private static final int FIELDS = 5;
+
+    private final BoardTopology topology;
+    private final int size;
+    private final BoardTopology.Shape shape;
+    private final int tilesPerSide;
+    private final int[][] tiles;
+    private int search;
+
+    // Tas binaire des cases ouvertes ; clé : estimation, puis chemin le plus long
+    private int[] heap = new int[64];
+    private long[] keys = new long[64];
+    private int heapSize;
+
+    private int[] route = new int[64];
+
+    PathRouter(BoardTopology topology) {
+        this.topology = topology;
+        size = topology.getSize();
+        shape = topology.getShape();
+        tilesPerSide = (size + MASK) >> SHIFT;
+        tiles = new int[tilesPerSide * tilesPerSide][];
+    }
+
+    /**
+     * Cherche le plus court chemin de from à to, en ne passant que par des cases
+     * libres (-1 dans la grille). La case to peut être occupée (tête à rejoindre).
+     *
+     * @return le nombre de cases du chemin, from et to compris (voir getRoute),
+     * ou 0 si to est inaccessible
+     */
+    int route(BoardGrid grid, int from, int to) {
+        if (++search == Integer.MAX_VALUE) {
+            for (int[] tile : tiles) {
+                if (tile == null) continue;
+                for (int i = 0; i < TILE_CELLS; i++) {
+                    tile[i * FIELDS + SEEN] = 0;
+                    tile[i * FIELDS + CLOSED] = 0;
+                }
+            }
+            search = 1;
+        }
+        heapSize = 0;
+        int[] tile = tile(from);
+        int slot = slot(from);
+        tile[slot + SEEN] = search;
+        tile[slot + COST] = 0;
+        tile[slot + PARENT] = -1;
+        push(from, key(distance(from, to), 0));
+
+        while (heapSize > 0) {
+            int cell = pop();
+            if (cell == to) return buildRoute(to);
+            tile = tile(cell);
+            slot = slot(cell);
+            tile[slot + CLOSED] = search;
+            int next = tile[slot + COST] + 1;
+            int degree = topology.degree(cell);
+            for (int i = 0; i < degree; i++) {
+                int n = topology.neighbour(cell, i);
+                if (n != to && grid.get(n) != BoardGrid.EMPTY) continue;
+                int[] nTile = tile(n);
+                int nSlot = slot(n);
+                if (nTile[nSlot + CLOSED] == search) continue;
+                if (nTile[nSlot + SEEN] != search) {
+                    nTile[nSlot + SEEN] = search;
+                    nTile[nSlot + COST] = next;
+                    nTile[nSlot + PARENT] = cell;
+                    push(n, key(next + distance(n, to), next));
+                } else if (next < nTile[nSlot + COST]) {
+                    nTile[nSlot + COST] = next;
+                    nTile[nSlot + PARENT] = cell;
+                    int index = nTile[nSlot + HEAP_INDEX];
+                    keys[index] = key(next + distance(n, to), next);
+                    siftUp(index);
+                }
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Cases du dernier chemin trouvé, du départ à la cible (tableau réutilisé).
+     */
+    int[] getRoute() {
+        return route;
+    }
+
+    // Tuile de la case, allouée à la première visite
+    private int[] tile(int cell) {
+        int row = cell / size;
+        int col = cell % size;
+        int index = (row >> SHIFT) * tilesPerSide + (col >> SHIFT);
+        int[] tile = tiles[index];
+        if (tile == null) {
+            tile = new int[TILE_CELLS * FIELDS];
+            tiles[index] = tile;
+        }
+        return tile;
+    }
+
+    private int slot(int cell) {
+        int row = cell / size;
+        int col = cell % size;
+        return (((row & MASK) << SHIFT) | (col & MASK)) * FIELDS;
+    }
+
+    private int parent(int cell) {
+        return tile(cell)[slot(cell) + PARENT];
+    }
+
+    private int buildRoute(int to) {
+        int length = 0;
+        for (int cell = to; cell >= 0; cell = parent(cell)) length++;
+        if (route.length < length) route = new int[Math.max(length, route.length * 2)];
+        int i = length;
+        for (int cell = to; cell >= 0; cell = parent(cell)) route[--i] = cell;
+        return length;
+    }
+
+    // Nombre de pas entre deux cases sur un plateau vide, selon la forme
+    private int distance(int a, int b) {
+        int ra = a / size, ca = a % size;
+        int rb = b / size, cb = b % size;
+        switch (shape) {
+            case TORUS: {
+                int dr = Math.abs(ra - rb);
+                int dc = Math.abs(ca - cb);
+                return Math.min(dr, size - dr) + Math.min(dc, size - dc);
+            }
+            case HEX: {
+                // Coordonnées axiales, lignes impaires décalées vers la droite
+                int qa = ca - (ra - (ra & 1)) / 2;
+                int qb = cb - (rb - (rb & 1)) / 2;
+                int dq = qa - qb;
+                int dr = ra - rb;
+                return (Math.abs(dq) + Math.abs(dr) + Math.abs(dq + dr)) / 2;
+            }
+            default:
+                return Math.abs(ra - rb) + Math.abs(ca - cb);
+        }
+    }
+
+    // Estimation la plus faible d'abord, puis chemin le plus long
+    private static long key(int estimate, int cost) {
+        return ((long) estimate << 32) | (Integer.MAX_VALUE - cost);
+    }
+
+    private void setHeapIndex(int cell, int index) {
+        tile(cell)[slot(cell) + HEAP_INDEX] = index;
+    }
+
+    private void push(int cell, long key) {
+        if (heapSize == heap.length) {
+            heap = Arrays.copyOf(heap, heapSize * 2);
+            keys = Arrays.copyOf(keys, heapSize * 2);
+        }
+        heap[heapSize] = cell;
+        keys[heapSize] = key;
+        siftUp(heapSize++);
+    }
+
+    private int pop() {
+        int top = heap[0];
+        --heapSize;
+        if (heapSize > 0) {
+            heap[0] = heap[heapSize];
+            keys[0] = keys[heapSize];
+            siftDown(0);
+        }
+        return top;
+    }
+
+    private void siftUp(int i) {
+        int cell = heap[i];
+        long key = keys[i];
+        while (i > 0) {
+            int up = (i - 1) >> 1;
+            if (key >= keys[up]) break;
+            heap[i] = heap[up];
+            keys[i] = keys[up];
+            setHeapIndex(heap[i], i);
+            i = up;
+        }
+        heap[i] = cell;
+        keys[i] = key;
+        setHeapIndex(cell, i);
+    }
+
+    private void siftDown(int i) {
+        int cell = heap[i];
+        long key = keys[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && keys[child + 1] < keys[child]) child++;
+            if (keys[child] >= key) break;
+            heap[i] = heap[child];
+            keys[i] = keys[child];
+            setHeapIndex(heap[i], i);
+            i = child;
+        }
+        heap[i] = cell;
+        keys[i] = key;
+        setHeapIndex(cell, i);
+    }
+}
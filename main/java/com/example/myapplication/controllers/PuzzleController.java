@@ -1,10 +1,10 @@
 package com.example.myapplication.controllers;
 
-import android.util.Log;
-
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.BoardTopology;
 import com.example.myapplication.models.PointCoord;
 import com.example.myapplication.models.Puzzle;
-import com.example.myapplication.models.PuzzlePair;
+import com.example.myapplication.utils.TraceLog;
 import com.example.myapplication.views.PuzzleView;
 
 import java.util.ArrayList;
@@ -16,15 +16,23 @@ import java.util.Stack;
 /**
  * Contrôleur principal du puzzle : gère la logique de tracé des chemins,
  * l'occupation de la grille, les annulations, et la détection de complétion.
+ *
+ * Tracé par appui : un appui bref sur une tête ou sur le bout d'un chemin, puis un
+ * appui sur une case libre (ou sur l'autre tête) y mène le chemin par le plus court
+ * trajet à travers les cases libres (PathRouter), en un seul coup.
  */
 public class PuzzleController {
 
     private static final String TAG = "PuzzleController";
+    private static final int TRACE_TOUCH_DOWN = TraceLog.event(TraceLog.DEBUG, TAG, "onTouchDown => r=%d, c=%d");
+    private static final int TRACE_TOUCH_MOVE = TraceLog.event(TraceLog.VERBOSE, TAG, "onTouchMove => r=%d, c=%d");
 
     private Puzzle puzzle; // le puzzle en cours
-    private int[][] gridOccupation; // occupation de la grille (pairId ou -1)
+    private BoardTopology topology; // voisinages du plateau (table précalculée)
+    private BoardGrid gridOccupation; // occupation de la grille (pairId ou -1), par tuiles
     private boolean gameFinished; // drapeau : puzzle complété
     private PuzzleCompletionListener completionListener; // callback quand puzzle terminé
+    private final List<BoardChangeListener> boardListeners = new ArrayList<>(); // suivi case par case
 
     private Map<Integer, List<PointCoord>> pathsByPair = new HashMap<>(); // chemins tracés
     private int currentPairId = -1; // paire en cours de tracé
@@ -32,34 +40,36 @@ public class PuzzleController {
 
     private PuzzleView puzzleView; // vue associée
     private Stack<Move> moveHistory = new Stack<>(); // pile pour annuler
+    private int earlierMoveCount; // coups joués avant une restauration (rotation)
+    private ForcedMoveAssistant assistant; // mode assistance, null si désactivé
+    private int undoCount; // retours en arrière : chemins rouverts ou annulés
+    private int assistedCellCount; // cases jouées par le mode assistance
+
+    // Tracé par appui
+    private PathRouter router; // créé au premier tracé par appui
+    private int routePairId = -1; // paire dont le bout vient d'être touché, -1 sinon
+    private boolean touchMoved; // le doigt a changé de case depuis l'appui
 
     /**
      * Constructeur du contrôleur.
      * Initialise la grille, les chemins et les têtes.
      */
     public PuzzleController(Puzzle puzzle, PuzzleView puzzleView, boolean isAchromate) {
+        this(puzzle, puzzleView, isAchromate, createInitialGrid(puzzle));
+    }
+
+    /**
+     * Constructeur avec une grille initiale déjà construite (par exemple en
+     * arrière-plan par PuzzlePrefetcher). La grille appartient ensuite au contrôleur.
+     */
+    public PuzzleController(Puzzle puzzle, PuzzleView puzzleView, boolean isAchromate, BoardGrid initialGrid) {
         this.puzzle = puzzle;
+        this.topology = puzzle.getTopology();
         this.puzzleView = puzzleView;
-        int size = puzzle.getSize();
-
-        // Initialisation de la grille à -1 (vide)
-        gridOccupation = new int[size][size];
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                gridOccupation[r][c] = -1;
-            }
-        }
-
-        // Marquer les têtes de chaque paire dans la grille
-        for (PuzzlePair pair : puzzle.getPairs()) {
-            int pid = pair.getPairId();
-            PointCoord f = pair.getFirst();
-            PointCoord s = pair.getSecond();
-
-            gridOccupation[f.getRow()][f.getCol()] = pid;
-            gridOccupation[s.getRow()][s.getCol()] = pid;
+        this.gridOccupation = initialGrid;
 
-            pathsByPair.put(pid, new ArrayList<>());
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            pathsByPair.put(puzzle.getPairId(i), new ArrayList<>());
         }
 
         gameFinished = false;
@@ -68,11 +78,54 @@ public class PuzzleController {
         puzzleView.setDataForRendering(puzzle, gridOccupation, isAchromate, pathsByPair);
     }
 
+    /**
+     * Construit la grille de départ : -1 partout, sauf les têtes de chaque paire.
+     * Seules les tuiles qui contiennent une tête sont allouées.
+     */
+    public static BoardGrid createInitialGrid(Puzzle puzzle) {
+        BoardGrid grid = new BoardGrid(puzzle.getSize());
+
+        // Marquer les têtes de chaque paire dans la grille
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            int pid = puzzle.getPairId(i);
+            grid.set(puzzle.getFirstCell(i), pid);
+            grid.set(puzzle.getSecondCell(i), pid);
+        }
+        return grid;
+    }
+
     // Permet d'enregistrer un listener qui sera notifié quand le puzzle est terminé
     public void setPuzzleCompletionListener(PuzzleCompletionListener listener) {
         this.completionListener = listener;
     }
 
+    /**
+     * Enregistre un écouteur des changements de la grille. Les événements sont livrés
+     * de façon synchrone, dans l'ordre des coups ; le rendu, lui, ne les écoute pas et
+     * relit les versions des tuiles de BoardGrid (PuzzleView.invalidateBoard).
+     */
+    public void addBoardChangeListener(BoardChangeListener listener) {
+        if (!boardListeners.contains(listener)) {
+            boardListeners.add(listener);
+        }
+    }
+
+    public void removeBoardChangeListener(BoardChangeListener listener) {
+        boardListeners.remove(listener);
+    }
+
+    /**
+     * Active ou désactive le mode assistance : après chaque tracé, les chemins
+     * dont le prolongement est forcé sont complétés automatiquement.
+     */
+    public void setAssistEnabled(boolean enabled) {
+        if (enabled && assistant == null) {
+            assistant = new ForcedMoveAssistant(puzzle);
+        } else if (!enabled) {
+            assistant = null;
+        }
+    }
+
     // Met à jour l'affichage en fonction du mode achromate
     public void updateAchromate(boolean isAchromate) {
         puzzleView.setDataForRendering(puzzle, gridOccupation, isAchromate, pathsByPair);
@@ -84,9 +137,18 @@ public class PuzzleController {
     public void onTouchDown(float x, float y) {
         if (gameFinished) return;
 
-        int row = puzzleView.pixelToRow(y);
-        int col = puzzleView.pixelToCol(x);
-        Log.d(TAG, "onTouchDown => r=" + row + ", c=" + col);
+        int cell = puzzleView.pixelToCell(x, y);
+        int row = (cell < 0) ? -1 : cell / puzzle.getSize();
+        int col = (cell < 0) ? -1 : cell % puzzle.getSize();
+        TraceLog.log(TRACE_TOUCH_DOWN, row, col);
+
+        // Second appui du tracé par appui
+        if (routePairId != -1) {
+            int pairId = routePairId;
+            routePairId = -1;
+            if (inBounds(row, col) && routeTo(pairId, cell)) return;
+        }
+        touchMoved = false;
 
         if (!inBounds(row, col)) {
             currentPairId = -1;
@@ -94,7 +156,7 @@ public class PuzzleController {
             return;
         }
 
-        int occupant = gridOccupation[row][col];
+        int occupant = gridOccupation.get(row, col);
         if (occupant == -1) {
             // Case vide : pas de tracé
             currentPairId = -1;
@@ -112,11 +174,12 @@ public class PuzzleController {
                 // Si on clique sur la tête : on recommence le tracé
                 removePathForPair(occupant);
                 currentPath.clear();
-                currentPath.add(new PointCoord(row, col));
+                currentPath.add(PointCoord.of(row, col));
+                firePathStarted(occupant, row, col);
             } else {
                 int idx = indexOfCell(currentPath, row, col);
                 if (idx == -1) {
-                    currentPath.add(new PointCoord(row, col));
+                    currentPath.add(PointCoord.of(row, col));
                 } else {
                     removeCellsAfterIndex(currentPath, idx, occupant);
                 }
@@ -131,8 +194,11 @@ public class PuzzleController {
     public void onTouchMove(float x, float y) {
         if (gameFinished || currentPairId == -1 || currentPath == null) return;
 
-        int row = puzzleView.pixelToRow(y);
-        int col = puzzleView.pixelToCol(x);
+        int cell = puzzleView.pixelToCell(x, y);
+        int size = puzzle.getSize();
+        int row = (cell < 0) ? -1 : cell / size;
+        int col = (cell < 0) ? -1 : cell % size;
+        TraceLog.log(TRACE_TOUCH_MOVE, row, col);
 
         if (!inBounds(row, col)) {
             cancelCurrentPath();
@@ -141,19 +207,22 @@ public class PuzzleController {
         }
 
         PointCoord lastCell = currentPath.get(currentPath.size() - 1);
-        int dr = Math.abs(row - lastCell.getRow());
-        int dc = Math.abs(col - lastCell.getCol());
+        int lastId = lastCell.getRow() * size + lastCell.getCol();
 
-        if (dr + dc == 0) return; // même case
-        if (dr + dc == 1) { // case voisine (4 directions uniquement)
-            int occupant = gridOccupation[row][col];
+        if (cell == lastId) return; // même case
+        touchMoved = true;
+        if (topology.areAdjacent(lastId, cell)) { // case voisine selon la forme du plateau
+            int occupant = gridOccupation.get(row, col);
 
-            if (isBasePoint(row, col, currentPairId) && !containsCell(currentPath, new PointCoord(row, col))) {
+            if (isBasePoint(row, col, currentPairId) && indexOfCell(currentPath, row, col) < 0) {
                 // On atteint la 2e tête → chemin complété
-                gridOccupation[row][col] = currentPairId;
-                currentPath.add(new PointCoord(row, col));
+                gridOccupation.set(row, col, currentPairId);
+                currentPath.add(PointCoord.of(row, col));
                 redraw();
-                moveHistory.push(new Move(currentPairId, new ArrayList<>(currentPath)));
+                firePathCompleted(currentPairId);
+                Move move = new Move(currentPairId, new ArrayList<>(currentPath));
+                moveHistory.push(move);
+                propagateForcedMoves(move.path);
                 checkIfPuzzleComplete();
                 currentPairId = -1;
                 currentPath = null;
@@ -166,8 +235,9 @@ public class PuzzleController {
             }
 
             if (occupant == -1) {
-                gridOccupation[row][col] = currentPairId;
-                currentPath.add(new PointCoord(row, col));
+                gridOccupation.set(row, col, currentPairId);
+                currentPath.add(PointCoord.of(row, col));
+                fireCellClaimed(currentPairId, row, col);
             } else if (occupant == currentPairId) {
                 int idx = indexOfCell(currentPath, row, col);
                 if (idx != -1) {
@@ -188,13 +258,87 @@ public class PuzzleController {
      */
     public void onTouchUp(float x, float y) {
         if (gameFinished || currentPairId == -1 || currentPath == null) return;
-        moveHistory.push(new Move(currentPairId, new ArrayList<>(currentPath)));
+        // Appui sans glissement : le prochain appui sur une case libre y mènera ce chemin
+        if (!touchMoved) routePairId = currentPairId;
+        Move move = new Move(currentPairId, new ArrayList<>(currentPath));
+        moveHistory.push(move);
+        propagateForcedMoves(move.path);
         checkIfPuzzleComplete();
         currentPairId = -1;
         currentPath = null;
     }
 
 
+    /**
+     * Mène le chemin de la paire, depuis son bout, jusqu'à la case cible par le plus
+     * court trajet libre : grille, chemin et écouteurs sont mis à jour d'un coup,
+     * puis la vue est redessinée une fois.
+     *
+     * @return faux si la cible n'est ni libre ni l'autre tête, ou si elle est inaccessible
+     */
+    private boolean routeTo(int pairId, int target) {
+        List<PointCoord> path = pathsByPair.get(pairId);
+        if (path == null || path.isEmpty()) return false;
+        int size = puzzle.getSize();
+        int row = target / size;
+        int col = target % size;
+        boolean closing = isBasePoint(row, col, pairId) && indexOfCell(path, row, col) < 0;
+        if (gridOccupation.get(row, col) != -1 && !closing) return false;
+
+        if (router == null) router = new PathRouter(topology);
+        PointCoord end = path.get(path.size() - 1);
+        int length = router.route(gridOccupation, end.getRow() * size + end.getCol(), target);
+        if (length == 0) return false;
+
+        int[] route = router.getRoute();
+        for (int i = 1; i < length; i++) {
+            int r = route[i] / size;
+            int c = route[i] % size;
+            gridOccupation.set(r, c, pairId);
+            path.add(PointCoord.of(r, c));
+            if (i < length - 1 || !closing) fireCellClaimed(pairId, r, c);
+        }
+        redraw();
+        if (closing) firePathCompleted(pairId);
+        Move move = new Move(pairId, new ArrayList<>(path));
+        moveHistory.push(move);
+        propagateForcedMoves(move.path);
+        checkIfPuzzleComplete();
+        // Chemin encore ouvert : un nouvel appui le prolonge depuis son nouveau bout
+        if (!closing) routePairId = pairId;
+        return true;
+    }
+
+    /**
+     * Mode assistance : prolonge les chemins forcés autour du tracé qui vient
+     * d'être fait, et demande à la vue d'animer les cases déduites.
+     */
+    private void propagateForcedMoves(List<PointCoord> changed) {
+        if (assistant == null) return;
+        int count = assistant.propagate(gridOccupation, pathsByPair, changed);
+        int[] cells = assistant.getDeducedCells();
+        int size = puzzle.getSize();
+        assistedCellCount += count;
+        int[] startedPairs = assistant.getStartedPairs();
+        for (int i = 0; i < assistant.getStartedCount(); i++) {
+            PointCoord head = pathsByPair.get(startedPairs[i]).get(0);
+            firePathStarted(startedPairs[i], head.getRow(), head.getCol());
+        }
+        for (int i = 0; i < count; i++) {
+            int row = cells[i] / size;
+            int col = cells[i] % size;
+            fireCellClaimed(gridOccupation.get(row, col), row, col);
+        }
+        int[] completedPairs = assistant.getCompletedPairs();
+        for (int i = 0; i < assistant.getCompletedCount(); i++) {
+            firePathCompleted(completedPairs[i]);
+        }
+        if (count > 0) {
+            puzzleView.showDeducedCells(assistant.getDeducedCells(), count);
+            redraw();
+        }
+    }
+
     /**
      * Vérifie si toutes les cases sont remplies et les têtes reliées.
      */
@@ -202,6 +346,9 @@ public class PuzzleController {
         if (!allPairsHaveBothHeads()) return;
 
         gameFinished = true;
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onBoardCompleted();
+        }
 
         if (completionListener != null) {
             completionListener.onPuzzleCompleted();
@@ -212,43 +359,45 @@ public class PuzzleController {
      * Vérifie que tous les chemins relient bien leurs deux extrémités.
      */
     private boolean allPairsHaveBothHeads() {
-        for (PuzzlePair pair : puzzle.getPairs()) {
-            int pid = pair.getPairId();
-            List<PointCoord> path = pathsByPair.get(pid);
-            if (!containsCell(path, pair.getFirst()) || !containsCell(path, pair.getSecond())) {
+        int size = puzzle.getSize();
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            List<PointCoord> path = pathsByPair.get(puzzle.getPairId(i));
+            int f = puzzle.getFirstCell(i);
+            int s = puzzle.getSecondCell(i);
+            if (indexOfCell(path, f / size, f % size) < 0 || indexOfCell(path, s / size, s % size) < 0) {
                 return false;
             }
         }
         return true;
     }
 
-    // Vérifie si un chemin contient une case
-    private boolean containsCell(List<PointCoord> path, PointCoord cell) {
-        for (PointCoord pc : path) {
-            if (pc.getRow() == cell.getRow() && pc.getCol() == cell.getCol()) {
-                return true;
-            }
-        }
-        return false;
-    }
-
     // Supprime un chemin (sauf les têtes)
     private void removePathForPair(int pairId) {
         List<PointCoord> path = pathsByPair.get(pairId);
+        if (path.isEmpty()) return;
         for (PointCoord pc : path) {
             if (!isBasePoint(pc.getRow(), pc.getCol(), pairId)) {
-                gridOccupation[pc.getRow()][pc.getCol()] = -1;
+                gridOccupation.set(pc.getRow(), pc.getCol(), -1);
+                fireCellReleased(pairId, pc.getRow(), pc.getCol());
             }
         }
         path.clear();
+        firePathCancelled(pairId);
     }
 
     // Supprime toutes les cases après un certain index
     private void removeCellsAfterIndex(List<PointCoord> path, int idx, int pairId) {
+        if (path.size() - 1 > idx) {
+            PointCoord last = path.get(path.size() - 1);
+            if (isBasePoint(last.getRow(), last.getCol(), pairId)) {
+                firePathReopened(pairId); // le chemin était complet
+            }
+        }
         for (int i = path.size() - 1; i > idx; i--) {
             PointCoord pc = path.get(i);
             if (!isBasePoint(pc.getRow(), pc.getCol(), pairId)) {
-                gridOccupation[pc.getRow()][pc.getCol()] = -1;
+                gridOccupation.set(pc.getRow(), pc.getCol(), -1);
+                fireCellReleased(pairId, pc.getRow(), pc.getCol());
             }
             path.remove(i);
         }
@@ -259,10 +408,12 @@ public class PuzzleController {
         if (currentPairId == -1 || currentPath == null) return;
         for (PointCoord pc : currentPath) {
             if (!isBasePoint(pc.getRow(), pc.getCol(), currentPairId)) {
-                gridOccupation[pc.getRow()][pc.getCol()] = -1;
+                gridOccupation.set(pc.getRow(), pc.getCol(), -1);
+                fireCellReleased(currentPairId, pc.getRow(), pc.getCol());
             }
         }
         currentPath.clear();
+        firePathCancelled(currentPairId);
         currentPairId = -1;
         currentPath = null;
     }
@@ -276,32 +427,89 @@ public class PuzzleController {
         return -1;
     }
 
-    // Vérifie si une case est une des deux têtes d’une paire
+    // Vérifie si une case est une des deux têtes d’une paire (table précalculée du puzzle)
     private boolean isBasePoint(int r, int c, int pairId) {
-        for (PuzzlePair pair : puzzle.getPairs()) {
-            if (pair.getPairId() == pairId) {
-                PointCoord f = pair.getFirst();
-                PointCoord s = pair.getSecond();
-                return (f.getRow() == r && f.getCol() == c) || (s.getRow() == r && s.getCol() == c);
-            }
-        }
-        return false;
+        return pairId >= 0 && puzzle.headPairIdAt(r * puzzle.getSize() + c) == pairId;
     }
 
+    // Case existante du plateau (ni hors grille, ni trou)
     private boolean inBounds(int r, int c) {
-        return (r >= 0 && c >= 0 && r < puzzle.getSize() && c < puzzle.getSize());
+        return topology.contains(r, c);
     }
 
+    // Seules les tuiles modifiées de la grille sont redessinées
     private void redraw() {
-        puzzleView.invalidate();
+        puzzleView.invalidateBoard();
+    }
+
+    // Diffusion des événements (boucles indexées : aucune allocation d'itérateur)
+    private void firePathStarted(int pairId, int row, int col) {
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onPathStarted(pairId, row, col);
+        }
+    }
+
+    private void fireCellClaimed(int pairId, int row, int col) {
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onCellClaimed(pairId, row, col);
+        }
+    }
+
+    private void fireCellReleased(int pairId, int row, int col) {
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onCellReleased(pairId, row, col);
+        }
+    }
+
+    private void firePathCompleted(int pairId) {
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onPathCompleted(pairId);
+        }
+    }
+
+    private void firePathReopened(int pairId) {
+        undoCount++;
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onPathReopened(pairId);
+        }
+    }
+
+    private void firePathCancelled(int pairId) {
+        undoCount++;
+        for (int i = 0; i < boardListeners.size(); i++) {
+            boardListeners.get(i).onPathCancelled(pairId);
+        }
+    }
+
+    // Compteurs de la partie, pour les statistiques
+    public int getMoveCount() {
+        return earlierMoveCount + moveHistory.size();
+    }
+
+    /**
+     * Reprend les compteurs d'une partie sauvegardée (getMoveCount, getUndoCount,
+     * getAssistedCellCount de l'instance précédente).
+     */
+    public void restoreCounters(int moveCount, int undoCount, int assistedCellCount) {
+        this.earlierMoveCount = moveCount - moveHistory.size();
+        this.undoCount = undoCount;
+        this.assistedCellCount = assistedCellCount;
+    }
+
+    public int getUndoCount() {
+        return undoCount;
+    }
+
+    public int getAssistedCellCount() {
+        return assistedCellCount;
     }
 
     // Getters / setters pour la sauvegarde/restauration
-    public int[][] getGridOccupation() {
+    public BoardGrid getGridOccupation() {
         return gridOccupation;
     }
 
-    public void setGridOccupation(int[][] occupation) {
+    public void setGridOccupation(BoardGrid occupation) {
         this.gridOccupation = occupation;
     }
 
@@ -314,6 +522,17 @@ public class PuzzleController {
     }
 
 
+    /**
+     * Remplace la grille et les chemins (partie importée). La partie est terminée si
+     * les chemins relient déjà toutes les paires ; aucun écouteur n'est prévenu,
+     * ce n'est pas un coup du joueur.
+     */
+    public void restorePaths(BoardGrid occupation, Map<Integer, List<PointCoord>> paths) {
+        this.gridOccupation = occupation;
+        this.pathsByPair = paths;
+        this.gameFinished = allPairsHaveBothHeads();
+    }
+
     public boolean isGameFinished() {
         return gameFinished;
     }
@@ -0,0 +1,210 @@
+package com.example.myapplication.controllers;
+
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.utils.PuzzleSolver;
+import com.example.myapplication.views.PuzzleView;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Contrôleur de l'éditeur de puzzles, sur une PuzzleView :
+ * - un appui sur une case vide pose une tête (la seconde de la paire incomplète
+ *   s'il y en a une, sinon la première d'une nouvelle paire) ;
+ * - une tête se déplace en la faisant glisser vers une case vide ;
+ * - un appui bref sur une tête la retire (la paire disparaît avec sa dernière tête).
+ *
+ * Les paires restent numérotées de 0 à n - 1, dans l'ordre de création, comme
+ * PuzzleParser les numérote à la relecture. Chaque modification est signalée au
+ * LayoutChangeListener ; la solution trouvée en arrière-plan peut être affichée
+ * par showSolution().
+ */
+public class PuzzleEditorController {
+
+    /** Nombre maximal de paires (6 bits de code par case pour le solveur SAT). */
+    public static final int MAX_PAIRS = 64;
+
+    private final PuzzleView puzzleView;
+    private final boolean isAchromate;
+    private LayoutChangeListener listener;
+
+    private int size;
+    private int[] firstHead = new int[MAX_PAIRS];  // -1 si la tête n'est pas posée
+    private int[] secondHead = new int[MAX_PAIRS];
+    private int pairCount;
+
+    // Glissement en cours
+    private int dragPair = -1;
+    private boolean dragSecond;
+    private boolean dragMoved;
+
+    private Puzzle layout; // disposition des paires complètes, null si aucune
+
+    public PuzzleEditorController(int size, PuzzleView puzzleView, boolean isAchromate) {
+        this.puzzleView = puzzleView;
+        this.isAchromate = isAchromate;
+        setSize(size);
+    }
+
+    public void setLayoutChangeListener(LayoutChangeListener listener) {
+        this.listener = listener;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Change la taille de la grille ; les paires sont effacées.
+     */
+    public void setSize(int size) {
+        this.size = size;
+        clear();
+    }
+
+    public void clear() {
+        pairCount = 0;
+        dragPair = -1;
+        changed();
+    }
+
+    /**
+     * Disposition courante, ou null tant qu'il manque une tête ou qu'il n'y a
+     * aucune paire. C'est l'objet passé au LayoutChangeListener.
+     */
+    public Puzzle getLayout() {
+        return layout;
+    }
+
+    /**
+     * Affiche la première solution trouvée, si elle correspond toujours à la
+     * disposition courante (sinon l'appel est ignoré).
+     */
+    public void showSolution(Puzzle checked, PuzzleSolver.Result result) {
+        if (checked != layout || result.paths == null) return;
+        BoardGrid grid = new BoardGrid(size);
+        Map<Integer, List<PointCoord>> paths = new HashMap<>();
+        for (int p = 0; p < result.paths.length; p++) {
+            List<PointCoord> path = new ArrayList<>(result.paths[p].length);
+            for (int cell : result.paths[p]) {
+                grid.set(cell, p);
+                path.add(PointCoord.of(cell / size, cell % size));
+            }
+            paths.put(p, path);
+        }
+        puzzleView.updateLayout(layout, grid, isAchromate, paths);
+    }
+
+    public void onTouchDown(float x, float y) {
+        int cell = puzzleView.pixelToCell(x, y);
+        if (cell < 0) return;
+
+        int head = headAt(cell);
+        if (head >= 0) {
+            dragPair = head >> 1;
+            dragSecond = (head & 1) != 0;
+            dragMoved = false;
+            return;
+        }
+
+        int incomplete = firstIncompletePair();
+        if (incomplete >= 0) {
+            if (firstHead[incomplete] < 0) {
+                firstHead[incomplete] = cell;
+            } else {
+                secondHead[incomplete] = cell;
+            }
+        } else if (pairCount < MAX_PAIRS) {
+            firstHead[pairCount] = cell;
+            secondHead[pairCount] = -1;
+            pairCount++;
+        } else {
+            return;
+        }
+        changed();
+    }
+
+    public void onTouchMove(float x, float y) {
+        if (dragPair < 0) return;
+        int cell = puzzleView.pixelToCell(x, y);
+        if (cell < 0 || headAt(cell) >= 0) return; // hors plateau, ou case déjà prise
+
+        if (dragSecond) {
+            secondHead[dragPair] = cell;
+        } else {
+            firstHead[dragPair] = cell;
+        }
+        dragMoved = true;
+        changed();
+    }
+
+    public void onTouchUp(float x, float y) {
+        if (dragPair >= 0 && !dragMoved) {
+            removeHead(dragPair, dragSecond);
+            changed();
+        }
+        dragPair = -1;
+    }
+
+    private void removeHead(int pair, boolean second) {
+        if (second) {
+            secondHead[pair] = -1;
+        } else {
+            firstHead[pair] = -1;
+        }
+        if (firstHead[pair] >= 0 || secondHead[pair] >= 0) return;
+
+        // Plus aucune tête : les paires suivantes sont renumérotées
+        System.arraycopy(firstHead, pair + 1, firstHead, pair, pairCount - pair - 1);
+        System.arraycopy(secondHead, pair + 1, secondHead, pair, pairCount - pair - 1);
+        pairCount--;
+    }
+
+    // 2 * paire + (0 pour la première tête, 1 pour la seconde), -1 si la case est vide
+    private int headAt(int cell) {
+        for (int i = 0; i < pairCount; i++) {
+            if (firstHead[i] == cell) return 2 * i;
+            if (secondHead[i] == cell) return 2 * i + 1;
+        }
+        return -1;
+    }
+
+    private int firstIncompletePair() {
+        for (int i = 0; i < pairCount; i++) {
+            if (firstHead[i] < 0 || secondHead[i] < 0) return i;
+        }
+        return -1;
+    }
+
+    // Redessine les têtes et signale la nouvelle disposition
+    private void changed() {
+        Puzzle.Builder all = new Puzzle.Builder("Éditeur", size);
+        boolean complete = pairCount > 0;
+        for (int i = 0; i < pairCount; i++) {
+            int first = (firstHead[i] >= 0) ? firstHead[i] : secondHead[i];
+            int second = (secondHead[i] >= 0) ? secondHead[i] : firstHead[i];
+            complete &= first != second;
+            // Une paire incomplète est dessinée avec ses deux têtes sur la même case
+            all.addPair(first, second, i);
+        }
+        Puzzle shown = all.build();
+        layout = complete ? shown : null;
+
+        BoardGrid grid = new BoardGrid(size);
+        Map<Integer, List<PointCoord>> paths = new HashMap<>();
+        for (int i = 0; i < pairCount; i++) {
+            int first = shown.getFirstCell(i);
+            int second = shown.getSecondCell(i);
+            grid.set(first, i);
+            grid.set(second, i);
+            paths.put(i, new ArrayList<>());
+        }
+        puzzleView.updateLayout(shown, grid, isAchromate, paths);
+
+        if (listener != null) listener.onLayoutChanged(layout);
+    }
+}
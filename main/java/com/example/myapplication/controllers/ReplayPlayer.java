@@ -0,0 +1,105 @@
+package com.example.myapplication.controllers;
+
+import android.view.Choreographer;
+
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.views.PuzzleView;
+
+/**
+ * Rejoue une partie enregistrée dans PuzzleView, de x1 à x64.
+ *
+ * Avance d'une frame à l'autre via le Choreographer : à chaque frame, la position
+ * progresse du temps écoulé multiplié par la vitesse, et la vue est redessinée
+ * avec l'état de SolveReplay. Thread UI uniquement.
+ */
+public class ReplayPlayer implements Choreographer.FrameCallback {
+
+    public static final int MIN_SPEED = 1;
+    public static final int MAX_SPEED = 64;
+
+    private final PuzzleView puzzleView;
+    private final Puzzle puzzle;
+    private final SolveReplay replay;
+    private final boolean isAchromate;
+    private Runnable onFinished;
+
+    private int speed = MIN_SPEED;
+    private boolean playing;
+    private long lastFrameNanos;
+
+    public ReplayPlayer(PuzzleView puzzleView, Puzzle puzzle, SolveReplay replay, boolean isAchromate) {
+        this.puzzleView = puzzleView;
+        this.puzzle = puzzle;
+        this.replay = replay;
+        this.isAchromate = isAchromate;
+    }
+
+    // Appelé quand la lecture atteint la fin de l'enregistrement
+    public void setOnFinishedListener(Runnable listener) {
+        this.onFinished = listener;
+    }
+
+    public void setSpeed(int speed) {
+        this.speed = Math.max(MIN_SPEED, Math.min(MAX_SPEED, speed));
+    }
+
+    public int getSpeed() {
+        return speed;
+    }
+
+    public boolean isPlaying() {
+        return playing;
+    }
+
+    public void play() {
+        if (playing) return;
+        if (replay.getPositionMs() >= replay.getDurationMs()) replay.seek(0);
+        playing = true;
+        lastFrameNanos = 0;
+        render();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    public void pause() {
+        if (!playing) return;
+        playing = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+    }
+
+    /**
+     * Va directement à un instant de la partie (en ms), en lecture ou en pause.
+     */
+    public void seekTo(long timeMs) {
+        replay.seek(Math.max(0, Math.min(timeMs, replay.getDurationMs())));
+        render();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!playing) return;
+        if (lastFrameNanos != 0) {
+            long elapsedMs = (frameTimeNanos - lastFrameNanos) / 1_000_000L;
+            replay.seek(replay.getPositionMs() + elapsedMs * speed);
+            render();
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        if (replay.getPositionMs() >= replay.getDurationMs()) {
+            playing = false;
+            if (onFinished != null) onFinished.run();
+        } else {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+    }
+
+    private void render() {
+        puzzleView.setDataForRendering(puzzle, replay.getGrid(), isAchromate, replay.getPaths());
+        int x = replay.getTouchX();
+        int y = replay.getTouchY();
+        if (x < 0) {
+            puzzleView.showReplayTouch(-1f, -1f);
+        } else {
+            puzzleView.showReplayTouch(x / 65535f * puzzleView.getWidth(), y / 65535f * puzzleView.getHeight());
+        }
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.myapplication.controllers;
+
+import android.os.SystemClock;
+
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.models.PuzzlePair;
+import com.example.myapplication.utils.PuzzleHasher;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Enregistre une partie : les gestes du joueur (appui, glissé, relâché) et les
+ * changements de grille qui en résultent (via BoardChangeListener), horodatés.
+ *
+ * Format binaire (lu par SolveReplay) :
+ * - en-tête : version (int), empreinte canonique du puzzle (long), taille (varint),
+ *   puis l'état de départ : nombre de chemins, et pour chacun pairId, longueur, cases ;
+ * - enregistrements : type (octet), délai depuis le précédent en ms (varint), puis
+ *   x et y normalisés sur 16 bits pour un geste, pairId et case à plat pour un
+ *   changement de case ou le début d'un chemin (case de la tête de départ), pairId
+ *   pour un autre événement de chemin.
+ *
+ * Les enregistrements sont écrits dans un tampon préalloué ; un tampon plein est
+ * confié à un thread d'écriture qui le rend ensuite. Le thread UI ne fait donc
+ * jamais d'entrée/sortie ni (en régime normal) d'allocation.
+ */
+public class SolveRecorder implements BoardChangeListener {
+
+    public static final int TOUCH_DOWN = 0;
+    public static final int TOUCH_MOVE = 1;
+    public static final int TOUCH_UP = 2;
+
+    static final int CELL_CLAIMED = 3;
+    static final int CELL_RELEASED = 4;
+    static final int PATH_COMPLETED = 5;
+    static final int PATH_CANCELLED = 6;
+    static final int PATH_REOPENED = 7;
+    static final int BOARD_COMPLETED = 8;
+    static final int PATH_STARTED = 9; // depuis la version 2
+
+    static final int VERSION = 2;
+
+    private static final int CHUNK_BYTES = 16 * 1024;
+    private static final int SPARE_CHUNKS = 4;
+    private static final int MAX_RECORD_BYTES = 16;
+
+    // Un seul thread d'écriture pour tous les enregistrements
+    private static final ExecutorService WRITER = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "solve-recorder");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final File file;
+    private final int size;
+    private final ArrayBlockingQueue<byte[]> spareChunks = new ArrayBlockingQueue<>(SPARE_CHUNKS);
+    private byte[] chunk = new byte[CHUNK_BYTES];
+    private int position;
+    private long lastMs;
+    private boolean closed;
+
+    private OutputStream out; // thread d'écriture uniquement
+
+    /**
+     * Commence un enregistrement à partir de l'état courant de la grille.
+     * Le fichier est créé (ou remplacé) par le thread d'écriture.
+     */
+    public SolveRecorder(File file, Puzzle puzzle, Map<Integer, List<PointCoord>> pathsByPair) {
+        this.file = file;
+        this.size = puzzle.getSize();
+        for (int i = 0; i < SPARE_CHUNKS; i++) {
+            spareChunks.offer(new byte[CHUNK_BYTES]);
+        }
+
+        long hash = PuzzleHasher.canonicalHash64(puzzle);
+        writeInt(VERSION);
+        writeInt((int) (hash >>> 32));
+        writeInt((int) hash);
+        writeVarint(size);
+
+        List<PuzzlePair> pairs = puzzle.getPairs();
+        writeVarint(pairs.size());
+        for (PuzzlePair pair : pairs) {
+            List<PointCoord> path = pathsByPair.get(pair.getPairId());
+            int length = (path != null) ? path.size() : 0;
+            ensureCapacity(2 * MAX_RECORD_BYTES);
+            writeVarint(pair.getPairId());
+            writeVarint(length);
+            for (int i = 0; i < length; i++) {
+                ensureCapacity(MAX_RECORD_BYTES);
+                writeVarint(path.get(i).getRow() * size + path.get(i).getCol());
+            }
+        }
+        lastMs = SystemClock.uptimeMillis();
+    }
+
+    /**
+     * Enregistre un geste ; x et y sont ramenés à la taille de la vue.
+     */
+    public void onTouch(int action, float x, float y, int viewWidth, int viewHeight) {
+        if (!begin(action)) return;
+        writeShort(normalize(x, viewWidth));
+        writeShort(normalize(y, viewHeight));
+    }
+
+    @Override
+    public void onPathStarted(int pairId, int row, int col) {
+        if (!begin(PATH_STARTED)) return;
+        writeVarint(pairId);
+        writeVarint(row * size + col);
+    }
+
+    @Override
+    public void onCellClaimed(int pairId, int row, int col) {
+        if (!begin(CELL_CLAIMED)) return;
+        writeVarint(pairId);
+        writeVarint(row * size + col);
+    }
+
+    @Override
+    public void onCellReleased(int pairId, int row, int col) {
+        if (!begin(CELL_RELEASED)) return;
+        writeVarint(pairId);
+        writeVarint(row * size + col);
+    }
+
+    @Override
+    public void onPathCompleted(int pairId) {
+        if (!begin(PATH_COMPLETED)) return;
+        writeVarint(pairId);
+    }
+
+    @Override
+    public void onPathReopened(int pairId) {
+        if (!begin(PATH_REOPENED)) return;
+        writeVarint(pairId);
+    }
+
+    @Override
+    public void onPathCancelled(int pairId) {
+        if (!begin(PATH_CANCELLED)) return;
+        writeVarint(pairId);
+    }
+
+    @Override
+    public void onBoardCompleted() {
+        begin(BOARD_COMPLETED);
+    }
+
+    /**
+     * Envoie le tampon courant au thread d'écriture (par exemple quand l'activité
+     * passe en arrière-plan), sans terminer l'enregistrement.
+     */
+    public void flush() {
+        if (closed || position == 0) return;
+        submit(false);
+        chunk = takeChunk();
+    }
+
+    /**
+     * Attend que tout ce qui a été confié au thread d'écriture soit sur disque
+     * (y compris la fin des enregistrements déjà fermés). Pas sur le thread UI.
+     */
+    static void awaitPendingWrites() throws InterruptedIOException {
+        try {
+            WRITER.submit(() -> { }).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Attente de l'écriture interrompue");
+        } catch (ExecutionException e) {
+            // Une tâche vide ne peut pas échouer
+        }
+    }
+
+    /**
+     * Termine l'enregistrement ; les événements suivants sont ignorés.
+     */
+    public void close() {
+        if (closed) return;
+        closed = true;
+        submit(true);
+        chunk = null;
+    }
+
+    // Début d'un enregistrement : type et délai
+    private boolean begin(int type) {
+        if (closed) return false;
+        ensureCapacity(MAX_RECORD_BYTES);
+        long now = SystemClock.uptimeMillis();
+        chunk[position++] = (byte) type;
+        writeVarint((int) Math.min(Integer.MAX_VALUE, now - lastMs));
+        lastMs = now;
+        return true;
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (position + bytes > chunk.length) {
+            submit(false);
+            chunk = takeChunk();
+        }
+    }
+
+    private byte[] takeChunk() {
+        byte[] spare = spareChunks.poll();
+        // Écriture en retard : on alloue plutôt que de bloquer le thread UI
+        return (spare != null) ? spare : new byte[CHUNK_BYTES];
+    }
+
+    private void submit(boolean last) {
+        byte[] data = chunk;
+        int length = position;
+        position = 0;
+        WRITER.execute(() -> {
+            try {
+                if (out == null) {
+                    File parent = file.getParentFile();
+                    if (parent != null) parent.mkdirs();
+                    out = new FileOutputStream(file);
+                }
+                out.write(data, 0, length);
+                if (last) {
+                    out.close();
+                    out = null;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            spareChunks.offer(data);
+        });
+    }
+
+    private static int normalize(float value, int extent) {
+        if (extent <= 0) return 0;
+        return Math.max(0, Math.min(0xFFFF, Math.round(value / extent * 0xFFFF)));
+    }
+
+    private void writeShort(int value) {
+        chunk[position++] = (byte) (value >>> 8);
+        chunk[position++] = (byte) value;
+    }
+
+    private void writeInt(int value) {
+        ensureCapacity(4);
+        chunk[position++] = (byte) (value >>> 24);
+        chunk[position++] = (byte) (value >>> 16);
+        chunk[position++] = (byte) (value >>> 8);
+        chunk[position++] = (byte) value;
+    }
+
+    private void writeVarint(int value) {
+        while ((value & ~0x7F) != 0) {
+            chunk[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        chunk[position++] = (byte) value;
+    }
+}
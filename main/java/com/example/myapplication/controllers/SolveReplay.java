@@ -0,0 +1,364 @@
+package com.example.myapplication.controllers;
+
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.models.PuzzlePair;
+import com.example.myapplication.utils.PuzzleHasher;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Partie enregistrée par SolveRecorder, décodée en mémoire pour être rejouée.
+ *
+ * Les événements sont rangés dans des tableaux d'entiers (instant, type, paire,
+ * case ou position du doigt). Au chargement, l'état des chemins est copié toutes
+ * les KEYFRAME_INTERVAL événements : aller à n'importe quel instant revient à
+ * repartir de la copie précédente et à rejouer au plus KEYFRAME_INTERVAL événements.
+ * En avançant dans le temps, les événements sont simplement appliqués à la suite.
+ *
+ * getGrid() et getPaths() ont la forme attendue par PuzzleView.setDataForRendering ;
+ * ils sont modifiés sur place par seek().
+ */
+public class SolveReplay {
+
+    private static final int KEYFRAME_INTERVAL = 128;
+
+    private final Puzzle puzzle;
+    private final int size;
+    private final BoardTopology topology;
+    private final Map<Integer, PuzzlePair> pairsById = new HashMap<>();
+
+    // Événements décodés
+    private int count;
+    private long[] times = new long[256];
+    private int[] types = new int[256];
+    private int[] pairIds = new int[256];
+    private int[] values = new int[256]; // case à plat, ou (x << 16) | y pour un geste
+
+    // Copies de l'état : keyframeEvents[k] événements déjà appliqués
+    private int[] initialState;
+    private final List<int[]> keyframes = new ArrayList<>();
+    private final List<Integer> keyframeEvents = new ArrayList<>();
+
+    // État courant
+    private final BoardGrid grid;
+    private final Map<Integer, List<PointCoord>> paths = new HashMap<>();
+    private int applied;
+    private long positionMs;
+    private int touchX = -1;
+    private int touchY = -1;
+
+    /**
+     * Lit un enregistrement. Le puzzle doit être celui qui a été enregistré.
+     * Attend d'abord la fin des écritures de SolveRecorder en cours : une partie
+     * tout juste terminée est lue en entier. Pas sur le thread UI.
+     */
+    public static SolveReplay read(File file, Puzzle puzzle) throws IOException {
+        SolveRecorder.awaitPendingWrites();
+        return new SolveReplay(Files.readAllBytes(file.toPath()), puzzle);
+    }
+
+    public SolveReplay(byte[] data, Puzzle puzzle) throws IOException {
+        this.puzzle = puzzle;
+        this.size = puzzle.getSize();
+        this.topology = puzzle.getTopology();
+        this.grid = new BoardGrid(size);
+        for (PuzzlePair pair : puzzle.getPairs()) {
+            pairsById.put(pair.getPairId(), pair);
+            paths.put(pair.getPairId(), new ArrayList<>());
+        }
+
+        Reader reader = new Reader(data);
+        int version = reader.readInt();
+        if (version < 1 || version > SolveRecorder.VERSION) throw new IOException("Version d'enregistrement inconnue");
+        long hash = ((long) reader.readInt() << 32) | (reader.readInt() & 0xFFFFFFFFL);
+        if (hash != PuzzleHasher.canonicalHash64(puzzle) || reader.readVarint() != size) {
+            throw new IOException("L'enregistrement ne correspond pas à ce puzzle");
+        }
+
+        int pathCount = reader.readVarint();
+        int[] state = new int[0];
+        int length = 0;
+        for (int p = 0; p < pathCount; p++) {
+            int pairId = reader.readVarint();
+            int cells = reader.readVarint();
+            if (!pairsById.containsKey(pairId)) throw new IOException("Paire inconnue : " + pairId);
+            state = Arrays.copyOf(state, length + 2 + cells);
+            state[length++] = pairId;
+            state[length++] = cells;
+            for (int i = 0; i < cells; i++) state[length++] = checkCell(reader.readVarint());
+        }
+        initialState = state;
+
+        long time = 0;
+        while (reader.hasMore()) {
+            int type;
+            int pairId = -1;
+            int value = -1;
+            try {
+                type = reader.readByte();
+                time += reader.readVarint();
+                if (type <= SolveRecorder.TOUCH_UP) {
+                    value = (reader.readShort() << 16) | reader.readShort();
+                } else if (type == SolveRecorder.CELL_CLAIMED || type == SolveRecorder.CELL_RELEASED
+                        || type == SolveRecorder.PATH_STARTED) {
+                    pairId = reader.readVarint();
+                    value = checkCell(reader.readVarint());
+                } else if (type != SolveRecorder.BOARD_COMPLETED) {
+                    pairId = reader.readVarint();
+                }
+            } catch (IOException e) {
+                // Dernier enregistrement incomplet (application arrêtée pendant l'écriture)
+                break;
+            }
+            if (pairId != -1 && !pairsById.containsKey(pairId)) throw new IOException("Paire inconnue : " + pairId);
+            add(time, type, pairId, value);
+        }
+
+        // Copies périodiques de l'état, en rejouant toute la partie une fois
+        restore(initialState);
+        keyframes.add(initialState);
+        keyframeEvents.add(0);
+        while (applied < count) {
+            apply(applied++);
+            if (applied % KEYFRAME_INTERVAL == 0) {
+                keyframes.add(snapshot());
+                keyframeEvents.add(applied);
+            }
+        }
+        seek(0);
+    }
+
+    public long getDurationMs() {
+        return (count == 0) ? 0 : times[count - 1];
+    }
+
+    public long getPositionMs() {
+        return positionMs;
+    }
+
+    public BoardGrid getGrid() {
+        return grid;
+    }
+
+    public Map<Integer, List<PointCoord>> getPaths() {
+        return paths;
+    }
+
+    // Position du doigt (0 à 0xFFFF sur la largeur / hauteur de la vue), -1 s'il est levé
+    public int getTouchX() {
+        return touchX;
+    }
+
+    public int getTouchY() {
+        return touchY;
+    }
+
+    /**
+     * Place la partie à l'instant donné (en ms depuis le début de l'enregistrement).
+     */
+    public void seek(long timeMs) {
+        // Nombre d'événements survenus à cet instant
+        int lo = 0;
+        int hi = count;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (times[mid] <= timeMs) lo = mid + 1; else hi = mid;
+        }
+        int target = lo;
+
+        // En arrière, ou loin devant : on repart de la copie la plus proche
+        if (target < applied || target - applied > KEYFRAME_INTERVAL) {
+            int k = target / KEYFRAME_INTERVAL;
+            restore(keyframes.get(k));
+            applied = keyframeEvents.get(k);
+            touchX = -1;
+            touchY = -1;
+            // Position du doigt : dernier geste avant la copie
+            for (int i = applied - 1; i >= 0; i--) {
+                if (types[i] <= SolveRecorder.TOUCH_UP) {
+                    applyTouch(i);
+                    break;
+                }
+            }
+        }
+        while (applied < target) {
+            apply(applied++);
+        }
+        positionMs = Math.max(0, timeMs);
+    }
+
+    private void apply(int i) {
+        int type = types[i];
+        if (type <= SolveRecorder.TOUCH_UP) {
+            applyTouch(i);
+            return;
+        }
+
+        int pairId = pairIds[i];
+        List<PointCoord> path = (pairId >= 0) ? paths.get(pairId) : null;
+        PuzzlePair pair = (pairId >= 0) ? pairsById.get(pairId) : null;
+        switch (type) {
+            case SolveRecorder.PATH_STARTED:
+                path.clear();
+                path.add(PointCoord.of(values[i] / size, values[i] % size));
+                break;
+            case SolveRecorder.CELL_CLAIMED: {
+                int cell = values[i];
+                if (path.isEmpty()) {
+                    // Version 1, sans PATH_STARTED : tête voisine de la première case prise
+                    int first = cellOf(pair.getFirst());
+                    boolean fromFirst = topology.areAdjacent(first, cell);
+                    path.add(fromFirst ? pair.getFirst() : pair.getSecond());
+                }
+                path.add(PointCoord.of(cell / size, cell % size));
+                grid.set(cell, pairId);
+                break;
+            }
+            case SolveRecorder.CELL_RELEASED: {
+                int cell = values[i];
+                for (int j = path.size() - 1; j >= 0; j--) {
+                    PointCoord pc = path.get(j);
+                    if (pc.getRow() * size + pc.getCol() == cell) {
+                        while (path.size() > j) path.remove(path.size() - 1);
+                        break;
+                    }
+                }
+                grid.set(cell, -1);
+                break;
+            }
+            case SolveRecorder.PATH_COMPLETED: {
+                if (path.isEmpty()) path.add(pair.getFirst());
+                PointCoord start = path.get(0);
+                path.add(start.equals(pair.getFirst()) ? pair.getSecond() : pair.getFirst());
+                break;
+            }
+            case SolveRecorder.PATH_REOPENED:
+                if (path.size() > 1) path.remove(path.size() - 1);
+                break;
+            case SolveRecorder.PATH_CANCELLED:
+                path.clear();
+                break;
+            default:
+                break;
+        }
+    }
+
+    private void applyTouch(int i) {
+        if (types[i] == SolveRecorder.TOUCH_UP) {
+            touchX = -1;
+            touchY = -1;
+        } else {
+            touchX = values[i] >>> 16;
+            touchY = values[i] & 0xFFFF;
+        }
+    }
+
+    // Copie des chemins : pairId, longueur, cases...
+    private int[] snapshot() {
+        int length = 0;
+        for (List<PointCoord> path : paths.values()) length += 2 + path.size();
+        int[] state = new int[length];
+        int pos = 0;
+        for (Map.Entry<Integer, List<PointCoord>> entry : paths.entrySet()) {
+            List<PointCoord> path = entry.getValue();
+            state[pos++] = entry.getKey();
+            state[pos++] = path.size();
+            for (PointCoord pc : path) state[pos++] = pc.getRow() * size + pc.getCol();
+        }
+        return state;
+    }
+
+    // Reconstruit chemins et grille (têtes comprises) à partir d'une copie
+    private void restore(int[] state) {
+        grid.clear();
+        for (List<PointCoord> path : paths.values()) path.clear();
+        for (PuzzlePair pair : puzzle.getPairs()) {
+            grid.set(pair.getFirst().getRow(), pair.getFirst().getCol(), pair.getPairId());
+            grid.set(pair.getSecond().getRow(), pair.getSecond().getCol(), pair.getPairId());
+        }
+        int pos = 0;
+        while (pos < state.length) {
+            int pairId = state[pos++];
+            int length = state[pos++];
+            List<PointCoord> path = paths.get(pairId);
+            for (int i = 0; i < length; i++) {
+                int cell = state[pos++];
+                path.add(PointCoord.of(cell / size, cell % size));
+                grid.set(cell, pairId);
+            }
+        }
+    }
+
+    private void add(long time, int type, int pairId, int value) {
+        if (count == times.length) {
+            int capacity = count * 2;
+            times = Arrays.copyOf(times, capacity);
+            types = Arrays.copyOf(types, capacity);
+            pairIds = Arrays.copyOf(pairIds, capacity);
+            values = Arrays.copyOf(values, capacity);
+        }
+        times[count] = time;
+        types[count] = type;
+        pairIds[count] = pairId;
+        values[count] = value;
+        count++;
+    }
+
+    private int checkCell(int cell) throws IOException {
+        if (cell < 0 || cell >= size * size) throw new IOException("Case hors grille : " + cell);
+        return cell;
+    }
+
+    private int cellOf(PointCoord point) {
+        return point.getRow() * size + point.getCol();
+    }
+
+    /**
+     * Lecture séquentielle du flux, avec contrôle de fin de données.
+     */
+    private static class Reader {
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        boolean hasMore() {
+            return pos < data.length;
+        }
+
+        int readByte() throws IOException {
+            if (pos >= data.length) throw new IOException("Enregistrement tronqué");
+            return data[pos++] & 0xFF;
+        }
+
+        int readShort() throws IOException {
+            return (readByte() << 8) | readByte();
+        }
+
+        int readInt() throws IOException {
+            return (readShort() << 16) | readShort();
+        }
+
+        int readVarint() throws IOException {
+            int value = 0;
+            for (int shift = 0; shift < 35; shift += 7) {
+                int b = readByte();
+                value |= (b & 0x7F) << shift;
+                if (b < 0x80) return value;
+            }
+            throw new IOException("Entier mal encodé");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.example.myapplication.models;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+
+/**
+ * Occupation du plateau (pairId de chaque case, ou EMPTY), rangée par tuiles de
+ * 16x16 cases allouées à la première case occupée et libérées quand elles se
+ * vident : la mémoire suit le nombre de cases tracées, pas la taille du plateau.
+ *
+ * Chaque tuile garde le numéro de version de sa dernière modification. Un lecteur
+ * note getVersion() après son passage et ne relit ensuite que les tuiles données
+ * par getChangedTiles() : la vue n'invalide que ces tuiles. La sérialisation (état
+ * de l'activité) n'écrit que les tuiles allouées.
+ */
+public class BoardGrid implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    public static final int EMPTY = -1;
+
+    public static final int TILE_SHIFT = 4;
+    public static final int TILE_SIZE = 1 << TILE_SHIFT;
+    private static final int TILE_MASK = TILE_SIZE - 1;
+
+    private final int size;
+    private final int tilesPerSide;
+    private final short[][] tiles; // pairId + 1 par case (0 : vide), null pour une tuile vide
+
+    private transient int[] occupied;     // cases occupées de chaque tuile
+    private transient int[] tileVersions; // version de la dernière modification de chaque tuile
+    private transient int version;
+
+    public BoardGrid(int size) {
+        this.size = size;
+        this.tilesPerSide = (size + TILE_MASK) >> TILE_SHIFT;
+        this.tiles = new short[tilesPerSide * tilesPerSide][];
+        occupied = new int[tiles.length];
+        tileVersions = new int[tiles.length];
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public int get(int row, int col) {
+        short[] tile = tiles[tileOf(row, col)];
+        return (tile == null) ? EMPTY : tile[offsetOf(row, col)] - 1;
+    }
+
+    public int get(int cell) {
+        return get(cell / size, cell % size);
+    }
+
+    public void set(int row, int col, int pairId) {
+        if (pairId < EMPTY || pairId >= Short.MAX_VALUE) {
+            throw new IllegalArgumentException("pairId hors limites : " + pairId);
+        }
+        int t = tileOf(row, col);
+        short[] tile = tiles[t];
+        if (tile == null) {
+            if (pairId == EMPTY) return;
+            tile = new short[TILE_SIZE * TILE_SIZE];
+            tiles[t] = tile;
+        }
+        int offset = offsetOf(row, col);
+        int old = tile[offset] - 1;
+        if (old == pairId) return;
+        tile[offset] = (short) (pairId + 1);
+        if (old == EMPTY) {
+            occupied[t]++;
+        } else if (pairId == EMPTY && --occupied[t] == 0) {
+            tiles[t] = null;
+        }
+        tileVersions[t] = ++version;
+    }
+
+    public void set(int cell, int pairId) {
+        set(cell / size, cell % size, pairId);
+    }
+
+    /**
+     * Vide toute la grille (les tuiles sont libérées).
+     */
+    public void clear() {
+        for (int t = 0; t < tiles.length; t++) {
+            if (tiles[t] == null) continue;
+            tiles[t] = null;
+            occupied[t] = 0;
+            tileVersions[t] = ++version;
+        }
+    }
+
+    /**
+     * Version courante : augmente à chaque modification.
+     */
+    public int getVersion() {
+        return version;
+    }
+
+    public int getTilesPerSide() {
+        return tilesPerSide;
+    }
+
+    /**
+     * Tuiles modifiées après la version donnée, numérotées ligne * getTilesPerSide() + colonne.
+     *
+     * @param out au moins getTilesPerSide()² cases
+     * @return le nombre de tuiles rangées dans out
+     */
+    public int getChangedTiles(int sinceVersion, int[] out) {
+        int count = 0;
+        for (int t = 0; t < tiles.length; t++) {
+            if (tileVersions[t] > sinceVersion) out[count++] = t;
+        }
+        return count;
+    }
+
+    // Nombre de tuiles allouées (mémoire utilisée)
+    public int getAllocatedTileCount() {
+        int count = 0;
+        for (short[] tile : tiles) {
+            if (tile != null) count++;
+        }
+        return count;
+    }
+
+    private int tileOf(int row, int col) {
+        return (row >> TILE_SHIFT) * tilesPerSide + (col >> TILE_SHIFT);
+    }
+
+    private static int offsetOf(int row, int col) {
+        return ((row & TILE_MASK) << TILE_SHIFT) | (col & TILE_MASK);
+    }
+
+    // Compteurs recalculés à la relecture ; toutes les tuiles comptent comme modifiées
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        occupied = new int[tiles.length];
+        tileVersions = new int[tiles.length];
+        version = 1;
+        for (int t = 0; t < tiles.length; t++) {
+            tileVersions[t] = 1;
+            if (tiles[t] == null) continue;
+            for (short value : tiles[t]) {
+                if (value != 0) occupied[t]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.myapplication.models;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Forme du plateau : quelles cases existent et lesquelles sont voisines.
+ *
+ * Les cases sont numérotées à plat (row * size + col). Les voisins se lisent par
+ * degree(c) et neighbour(c, i), toujours dans l'ordre haut, droite, bas, gauche
+ * (six directions en hexagone), en sautant les voisins absents.
+ *
+ * Une grille carrée simple (sans trou ni mur) calcule ses voisins à la volée et
+ * ne stocke rien par case : un carré de 1000x1000 ne coûte que l'objet lui-même.
+ * Les autres formes précalculent une table d'entiers, 4 * maxDegree + 5 octets par
+ * case (voisins, degrés, trous). Les solveurs qui veulent la table à plat
+ * (getNeighbourTable) la font construire au premier appel, y compris pour un carré
+ * simple ; ils ne travaillent que sur des grilles de taille de jeu.
+ *
+ * Formes prises en charge :
+ * - SQUARE : grille carrée, 4 voisins ;
+ * - TORUS : grille carrée dont les bords opposés se rejoignent ;
+ * - HEX : grille hexagonale, lignes impaires décalées d'une demi-case vers la droite, 6 voisins.
+ * Toutes peuvent avoir des trous (cases absentes) et des murs (deux cases voisines séparées).
+ */
+public class BoardTopology {
+
+    public enum Shape { SQUARE, TORUS, HEX }
+
+    // Grilles carrées simples, une par taille, partagées par tous les puzzles
+    private static final Map<Integer, BoardTopology> SQUARES = new ConcurrentHashMap<>();
+
+    private final int size;
+    private final Shape shape;
+    private final int maxDegree;
+    private final boolean[] holes;   // null sans trou
+    private final int holeCount;
+    private final int[] walls;       // couples de cases séparées par un mur
+    private final boolean plain;     // carré sans trou ni mur : voisins calculés
+    private volatile int[] neighbours;  // cellCount * maxDegree, complété par -1 ; construite à la demande si plain
+    private volatile int[] degree;
+    private final long signature;
+
+    /**
+     * @param holeCells cases absentes (indices à plat)
+     * @param wallCells couples (a, b) de cases voisines séparées par un mur, à la suite
+     */
+    public BoardTopology(int size, Shape shape, int[] holeCells, int[] wallCells) {
+        this.size = size;
+        this.shape = shape;
+        this.maxDegree = (shape == Shape.HEX) ? 6 : 4;
+        int cellCount = size * size;
+
+        boolean[] absent = null;
+        int count = 0;
+        for (int cell : holeCells) {
+            if (absent == null) absent = new boolean[cellCount];
+            if (!absent[cell]) {
+                absent[cell] = true;
+                count++;
+            }
+        }
+        holes = absent;
+        holeCount = count;
+        walls = wallCells.clone();
+        plain = shape == Shape.SQUARE && holeCount == 0 && walls.length == 0;
+        if (!plain) buildTable();
+
+        long h = 0x9E3779B97F4A7C15L ^ ((long) shape.ordinal() << 32) ^ size;
+        for (int cell = 0; holes != null && cell < cellCount; cell++) {
+            if (holes[cell]) h = (h ^ cell) * 0x100000001B3L;
+        }
+        for (int i = 0; i + 1 < walls.length; i += 2) {
+            int a = Math.min(walls[i], walls[i + 1]);
+            int b = Math.max(walls[i], walls[i + 1]);
+            h = (h ^ (((long) a << 32) | b)) * 0x100000001B3L;
+        }
+        signature = h ^ (h >>> 29);
+    }
+
+    /**
+     * Grille carrée simple, sans trou ni mur. Une seule instance par taille : un
+     * catalogue de puzzles de même taille partage la même topologie.
+     */
+    public static BoardTopology square(int size) {
+        BoardTopology square = SQUARES.get(size);
+        if (square == null) {
+            square = new BoardTopology(size, Shape.SQUARE, new int[0], new int[0]);
+            BoardTopology raced = SQUARES.putIfAbsent(size, square);
+            if (raced != null) square = raced;
+        }
+        return square;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Shape getShape() {
+        return shape;
+    }
+
+    public int getCellCount() {
+        return size * size;
+    }
+
+    // Nombre de cases jouables (hors trous)
+    public int getPlayableCellCount() {
+        return size * size - holeCount;
+    }
+
+    public boolean isHole(int cell) {
+        return holes != null && holes[cell];
+    }
+
+    // Couples (a, b) de cases séparées par un mur, à la suite
+    public int[] getWalls() {
+        return walls;
+    }
+
+    public int getMaxDegree() {
+        return maxDegree;
+    }
+
+    /**
+     * Table des voisins (à ne pas modifier) : voisins de c aux indices
+     * c * getMaxDegree() + i, pour i < getDegrees()[c].
+     */
+    public int[] getNeighbourTable() {
+        if (neighbours == null) buildTable();
+        return neighbours;
+    }
+
+    // Nombre de voisins de chaque case (0 pour un trou)
+    public int[] getDegrees() {
+        if (neighbours == null) buildTable();
+        return degree;
+    }
+
+    public int degree(int cell) {
+        if (!plain) return degree[cell];
+        int row = cell / size;
+        int col = cell % size;
+        int count = 4;
+        if (row == 0) count--;
+        if (col == size - 1) count--;
+        if (row == size - 1) count--;
+        if (col == 0) count--;
+        return count;
+    }
+
+    public int neighbour(int cell, int index) {
+        if (!plain) return neighbours[cell * maxDegree + index];
+        // Même ordre que la table : haut, droite, bas, gauche, voisins absents sautés
+        int row = cell / size;
+        int col = cell % size;
+        if (row > 0 && index-- == 0) return cell - size;
+        if (col < size - 1 && index-- == 0) return cell + 1;
+        if (row < size - 1 && index-- == 0) return cell + size;
+        if (col > 0 && index == 0) return cell - 1;
+        return -1;
+    }
+
+    public boolean areAdjacent(int a, int b) {
+        if (plain) {
+            int d = Math.abs(a - b);
+            return (d == size && b >= 0 && b < size * size) || (d == 1 && a / size == b / size);
+        }
+        int base = a * maxDegree;
+        for (int i = 0; i < degree[a]; i++) {
+            if (neighbours[base + i] == b) return true;
+        }
+        return false;
+    }
+
+    public boolean contains(int row, int col) {
+        return row >= 0 && col >= 0 && row < size && col < size && !isHole(row * size + col);
+    }
+
+    /**
+     * Vrai pour une grille carrée sans trou ni mur : les 8 symétries du carré
+     * s'appliquent et les têtes seules décrivent le puzzle.
+     */
+    public boolean isPlainSquare() {
+        return plain;
+    }
+
+    /**
+     * Vrai si les cases se colorient en damier (deux voisines toujours de couleurs
+     * différentes) : carré, ou tore de côté pair.
+     */
+    public boolean isBipartite() {
+        return shape == Shape.SQUARE || (shape == Shape.TORUS && size % 2 == 0);
+    }
+
+    // Empreinte de la forme, des trous et des murs
+    public long signature() {
+        return signature;
+    }
+
+    // Table à plat ; degree est publié avant neighbours, qui sert de témoin
+    private synchronized void buildTable() {
+        if (neighbours != null) return;
+        int cellCount = size * size;
+        int[] table = new int[cellCount * maxDegree];
+        int[] degrees = new int[cellCount];
+        Arrays.fill(table, -1);
+        int[] candidates = new int[maxDegree];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (isHole(cell)) continue;
+            int found = geometricNeighbours(cell, candidates);
+            for (int i = 0; i < found; i++) {
+                int n = candidates[i];
+                if (n < 0 || n == cell || isHole(n) || isWall(cell, n)
+                        || hasNeighbour(table, degrees, cell, n)) continue;
+                table[cell * maxDegree + degrees[cell]++] = n;
+            }
+        }
+        degree = degrees;
+        neighbours = table;
+    }
+
+    private int geometricNeighbours(int cell, int[] out) {
+        int row = cell / size;
+        int col = cell % size;
+        switch (shape) {
+            case TORUS:
+                out[0] = ((row + size - 1) % size) * size + col;
+                out[1] = row * size + (col + 1) % size;
+                out[2] = ((row + 1) % size) * size + col;
+                out[3] = row * size + (col + size - 1) % size;
+                return 4;
+            case HEX:
+                // Lignes impaires décalées vers la droite
+                int shift = (row % 2 == 0) ? -1 : 0;
+                out[0] = at(row - 1, col + shift);
+                out[1] = at(row - 1, col + shift + 1);
+                out[2] = at(row, col + 1);
+                out[3] = at(row + 1, col + shift + 1);
+                out[4] = at(row + 1, col + shift);
+                out[5] = at(row, col - 1);
+                return 6;
+            default:
+                out[0] = at(row - 1, col);
+                out[1] = at(row, col + 1);
+                out[2] = at(row + 1, col);
+                out[3] = at(row, col - 1);
+                return 4;
+        }
+    }
+
+    private int at(int row, int col) {
+        return (row >= 0 && col >= 0 && row < size && col < size) ? row * size + col : -1;
+    }
+
+    private boolean hasNeighbour(int[] table, int[] degrees, int cell, int n) {
+        int base = cell * maxDegree;
+        for (int i = 0; i < degrees[cell]; i++) {
+            if (table[base + i] == n) return true;
+        }
+        return false;
+    }
+
+    private boolean isWall(int a, int b) {
+        for (int i = 0; i + 1 < walls.length; i += 2) {
+            if ((walls[i] == a && walls[i + 1] == b) || (walls[i] == b && walls[i + 1] == a)) return true;
+        }
+        return false;
+    }
+}
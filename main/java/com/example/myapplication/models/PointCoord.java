@@ -3,17 +3,37 @@ package com.example.myapplication.models;
 import java.io.Serializable;
 
 /**
- * Représente une position (ligne, colonne) dans la grille.
+ * Représente une position (ligne, colonne) dans la grille. Immuable.
  */
 public class PointCoord implements Serializable {
-    private int row;
-    private int col;
+    private static final int SHARED = 64; // coordonnées 0..63 partagées
+
+    private static final PointCoord[] shared = new PointCoord[SHARED * SHARED];
+
+    private final int row;
+    private final int col;
 
     public PointCoord(int row, int col) {
         this.row = row;
         this.col = col;
     }
 
+    /**
+     * Position (ligne, colonne), partagée pour les petites coordonnées : aucune
+     * allocation après le premier appel. Les champs étant final, une instance
+     * publiée par un autre thread est toujours complète.
+     */
+    public static PointCoord of(int row, int col) {
+        if (row < 0 || col < 0 || row >= SHARED || col >= SHARED) return new PointCoord(row, col);
+        int index = row * SHARED + col;
+        PointCoord point = shared[index];
+        if (point == null) {
+            point = new PointCoord(row, col);
+            shared[index] = point;
+        }
+        return point;
+    }
+
     public int getRow() {
         return row;
     }
@@ -1,23 +1,58 @@
 package com.example.myapplication.models;
 
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Représente un puzzle : son nom, sa taille, ses paires et son état de validité.
+ *
+ * Un puzzle est immuable et se construit avec Puzzle.Builder. Les têtes sont
+ * rangées dans un seul tableau de cases à plat (ligne * taille + colonne) : la
+ * paire d'indice i a ses têtes en 2i et 2i + 1. Les pairId ne sont stockés que
+ * s'ils diffèrent des indices, et la forme d'une grille carrée simple est partagée
+ * entre puzzles de même taille (BoardTopology.square). 100 000 puzzles 9x9 de 7
+ * paires lus par PuzzleParser occupent environ 23 Mo (mesuré), soit 235 octets par
+ * puzzle, dont près de la moitié pour le nom et le nom de fichier.
+ *
+ * La table case -> tête n'est construite qu'à la première recherche (un puzzle de
+ * catalogue n'en a jamais besoin) ; elle prend 4 octets par case, soit 4 Mo pour un
+ * plateau de 1000x1000 en jeu. getPairs() est aussi construite à la demande : la liste de PuzzlePair reste
+ * disponible pour le code existant, avec des PointCoord partagés.
+ *
+ * Seul le score de difficulté, calculé après coup, peut encore être renseigné.
  */
-public class Puzzle {
-    private String name;
-    private int size;
-    private boolean valid;
-    private List<PuzzlePair> pairs;
-    private String fileName;
-
-    public Puzzle(String name, int size) {
+public final class Puzzle {
+    private final String name;
+    private final int size;
+    private final boolean valid;
+    private final String fileName;
+    private final BoardTopology topology; // forme du plateau, grille carrée simple si null
+    private final int[] endpoints;        // têtes des paires, deux cases par paire
+    private final int[] pairIds;          // pairId par indice, null si pairId == indice
+    private final int hash;
+
+    private volatile float difficulty = -1f; // score de difficulté (0 à 10), -1 si inconnu
+
+    // Construits à la demande
+    private volatile long[] heads;       // têtes triées par case : case << 32 | (2 * indice + 0 ou 1)
+    private volatile List<PuzzlePair> pairList;
+
+    private Puzzle(String name, int size, boolean valid, String fileName, BoardTopology topology,
+                   int[] endpoints, int[] pairIds) {
         this.name = name;
         this.size = size;
-        this.valid = true;
-        this.pairs = new ArrayList<>();
+        this.valid = valid;
+        this.fileName = fileName;
+        this.topology = topology;
+        this.endpoints = endpoints;
+        this.pairIds = pairIds;
+
+        int h = 31 * size + Arrays.hashCode(endpoints);
+        h = 31 * h + Arrays.hashCode(pairIds);
+        h = 31 * h + (topology != null ? Long.hashCode(topology.signature()) : 0);
+        h = 31 * h + (name != null ? name.hashCode() : 0);
+        this.hash = 31 * h + (fileName != null ? fileName.hashCode() : 0);
     }
 
     public String getName() {
@@ -32,23 +67,247 @@ public class Puzzle {
         return valid;
     }
 
-    public void setValid(boolean valid) {
-        this.valid = valid;
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * Le même puzzle sous un autre nom de fichier (les tableaux sont partagés).
+     */
+    public Puzzle withFileName(String fileName) {
+        Puzzle copy = new Puzzle(name, size, valid, fileName, topology, endpoints, pairIds);
+        copy.difficulty = difficulty;
+        return copy;
+    }
+
+    /**
+     * Le même puzzle, marqué invalide.
+     */
+    public Puzzle invalidated() {
+        if (!valid) return this;
+        return new Puzzle(name, size, false, fileName, topology, endpoints, pairIds);
+    }
+
+    /**
+     * Forme du plateau (voisinages, trous, murs). Par défaut, grille carrée simple,
+     * partagée avec les autres puzzles de même taille (BoardTopology.square).
+     */
+    public BoardTopology getTopology() {
+        return (topology != null) ? topology : BoardTopology.square(size);
+    }
+
+    public int getPairCount() {
+        return endpoints.length / 2;
+    }
+
+    public int getPairId(int index) {
+        return (pairIds == null) ? index : pairIds[index];
+    }
+
+    // Indice de la paire, -1 si inconnue
+    public int indexOfPair(int pairId) {
+        if (pairIds == null) return (pairId >= 0 && pairId < getPairCount()) ? pairId : -1;
+        for (int i = 0; i < pairIds.length; i++) {
+            if (pairIds[i] == pairId) return i;
+        }
+        return -1;
+    }
+
+    public int getFirstCell(int index) {
+        return endpoints[2 * index];
+    }
+
+    public int getSecondCell(int index) {
+        return endpoints[2 * index + 1];
+    }
+
+    /**
+     * Tête posée sur la case : 2 * indice de paire + (0 pour la première, 1 pour la
+     * seconde), ou -1. Recherche dichotomique parmi les têtes : rien n'est alloué
+     * par case, même sur un très grand plateau.
+     */
+    public int headAt(int cell) {
+        long[] sorted = heads();
+        int low = 0;
+        int high = sorted.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int at = (int) (sorted[mid] >> 32);
+            if (at < cell) low = mid + 1;
+            else if (at > cell) high = mid - 1;
+            else return (int) sorted[mid];
+        }
+        return -1;
+    }
+
+    /**
+     * pairId de la tête posée sur la case, ou -1.
+     */
+    public int headPairIdAt(int cell) {
+        int head = headAt(cell);
+        return (head < 0) ? -1 : getPairId(head >> 1);
+    }
+
+    public boolean isHead(int cell) {
+        return headAt(cell) >= 0;
     }
 
+    /**
+     * Paires du puzzle, dans l'ordre des indices (liste non modifiable).
+     */
     public List<PuzzlePair> getPairs() {
-        return pairs;
+        List<PuzzlePair> list = pairList;
+        if (list == null) {
+            PuzzlePair[] pairs = new PuzzlePair[getPairCount()];
+            for (int i = 0; i < pairs.length; i++) {
+                pairs[i] = new PuzzlePair(pointOf(getFirstCell(i)), pointOf(getSecondCell(i)), getPairId(i));
+            }
+            list = new AbstractList<PuzzlePair>() {
+                @Override
+                public PuzzlePair get(int index) {
+                    return pairs[index];
+                }
+
+                @Override
+                public int size() {
+                    return pairs.length;
+                }
+            };
+            pairList = list;
+        }
+        return list;
     }
 
-    public void addPair(PuzzlePair pair) {
-        pairs.add(pair);
+    public float getDifficulty() {
+        return difficulty;
     }
 
-    public String getFileName() {
-        return fileName;
+    // Score calculé après coup (DifficultyEstimator) ; ne fait pas partie de l'identité du puzzle
+    public void setDifficulty(float difficulty) {
+        this.difficulty = difficulty;
     }
 
-    public void setFileName(String fileName) {
-        this.fileName = fileName;
+    private long[] heads() {
+        long[] sorted = heads;
+        if (sorted == null) {
+            sorted = new long[endpoints.length];
+            for (int i = 0; i < endpoints.length; i++) {
+                sorted[i] = ((long) endpoints[i] << 32) | i;
+            }
+            Arrays.sort(sorted);
+            heads = sorted;
+        }
+        return sorted;
+    }
+
+    private PointCoord pointOf(int cell) {
+        return PointCoord.of(cell / size, cell % size);
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof Puzzle)) return false;
+        Puzzle other = (Puzzle) obj;
+        return hash == other.hash && size == other.size && valid == other.valid
+                && Arrays.equals(endpoints, other.endpoints) && Arrays.equals(pairIds, other.pairIds)
+                && getTopology().signature() == other.getTopology().signature()
+                && equal(name, other.name) && equal(fileName, other.fileName);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    private static boolean equal(String a, String b) {
+        return (a == null) ? b == null : a.equals(b);
+    }
+
+    /**
+     * Construction d'un puzzle, paire par paire. Une tête hors de la grille rend le
+     * puzzle invalide (elle ne peut pas être rangée en case à plat) et la paire est
+     * ignorée.
+     */
+    public static class Builder {
+        private final String name;
+        private final int size;
+        private boolean valid = true;
+        private String fileName;
+        private BoardTopology topology;
+        private int[] endpoints = new int[16];
+        private int[] pairIds = new int[8];
+        private int pairCount;
+
+        public Builder(String name, int size) {
+            this.name = name;
+            this.size = size;
+        }
+
+        public Builder setValid(boolean valid) {
+            this.valid = valid;
+            return this;
+        }
+
+        public boolean isValid() {
+            return valid;
+        }
+
+        public int getSize() {
+            return size;
+        }
+
+        public Builder setFileName(String fileName) {
+            this.fileName = fileName;
+            return this;
+        }
+
+        public Builder setTopology(BoardTopology topology) {
+            this.topology = topology;
+            return this;
+        }
+
+        public Builder addPair(PointCoord first, PointCoord second, int pairId) {
+            if (!contains(first) || !contains(second)) {
+                valid = false;
+                return this;
+            }
+            return addPair(first.getRow() * size + first.getCol(), second.getRow() * size + second.getCol(), pairId);
+        }
+
+        public Builder addPair(PuzzlePair pair) {
+            return addPair(pair.getFirst(), pair.getSecond(), pair.getPairId());
+        }
+
+        // Têtes en cases à plat
+        public Builder addPair(int firstCell, int secondCell, int pairId) {
+            int cells = size * size;
+            if (firstCell < 0 || secondCell < 0 || firstCell >= cells || secondCell >= cells) {
+                valid = false;
+                return this;
+            }
+            if (pairCount == pairIds.length) {
+                pairIds = Arrays.copyOf(pairIds, pairCount * 2);
+                endpoints = Arrays.copyOf(endpoints, pairCount * 4);
+            }
+            endpoints[2 * pairCount] = firstCell;
+            endpoints[2 * pairCount + 1] = secondCell;
+            pairIds[pairCount++] = pairId;
+            return this;
+        }
+
+        public Puzzle build() {
+            boolean identity = true;
+            for (int i = 0; i < pairCount; i++) {
+                if (pairIds[i] != i) identity = false;
+            }
+            BoardTopology shape = (topology != null && topology.getSize() == size && !topology.isPlainSquare()) ? topology : null;
+            return new Puzzle(name, size, valid, fileName, shape,
+                    Arrays.copyOf(endpoints, 2 * pairCount), identity ? null : Arrays.copyOf(pairIds, pairCount));
+        }
+
+        private boolean contains(PointCoord point) {
+            return point.getRow() >= 0 && point.getCol() >= 0 && point.getRow() < size && point.getCol() < size;
+        }
     }
 }
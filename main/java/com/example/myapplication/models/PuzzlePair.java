@@ -6,9 +6,9 @@ import java.io.Serializable;
  * Représente une paire de points à relier dans le puzzle.
  */
 public class PuzzlePair implements Serializable {
-    private PointCoord first;
-    private PointCoord second;
-    private int pairId;
+    private final PointCoord first;
+    private final PointCoord second;
+    private final int pairId;
 
     public PuzzlePair(PointCoord first, PointCoord second, int pairId) {
         this.first = first;
@@ -0,0 +1,87 @@
+package com.example.myapplication.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Métadonnées précalculées du catalogue, persistées dans un petit fichier binaire.
+ *
+ * Les entrées sont indexées par l'empreinte canonique du puzzle (PuzzleHasher) :
+ * un puzzle renommé ou tourné garde ses métadonnées, et un puzzle modifié est
+ * simplement recalculé. Les méthodes sont synchronisées car le calcul se fait
+ * sur plusieurs threads.
+ */
+public class CatalogMetadata {
+
+    private static final int FORMAT = 1;
+    // Un fichier d'un autre format ou d'une autre formule de difficulté est ignoré
+    private static final int VERSION = (FORMAT << 16) | DifficultyEstimator.FORMULA_VERSION;
+
+    private final File file;
+    private final Map<Long, Float> difficulties = new HashMap<>();
+    private boolean dirty;
+
+    public CatalogMetadata(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * @return le score mémorisé, ou -1 si inconnu
+     */
+    public synchronized float getDifficulty(long hash) {
+        Float value = difficulties.get(hash);
+        return (value != null) ? value : -1f;
+    }
+
+    public synchronized boolean hasDifficulty(long hash) {
+        return difficulties.containsKey(hash);
+    }
+
+    public synchronized void putDifficulty(long hash, float difficulty) {
+        Float previous = difficulties.put(hash, difficulty);
+        if (previous == null || previous != difficulty) dirty = true;
+    }
+
+    /**
+     * Écrit le fichier si des entrées ont changé depuis le dernier enregistrement.
+     */
+    public synchronized void save() throws IOException {
+        if (!dirty || file == null) return;
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(difficulties.size());
+            for (Map.Entry<Long, Float> entry : difficulties.entrySet()) {
+                out.writeLong(entry.getKey());
+                out.writeFloat(entry.getValue());
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Impossible d'écrire " + file);
+        }
+        dirty = false;
+    }
+
+    private void load() {
+        if (file == null || !file.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                difficulties.put(in.readLong(), in.readFloat());
+            }
+        } catch (IOException e) {
+            // Fichier corrompu : tout sera recalculé
+            difficulties.clear();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Estime la difficulté d'un puzzle sur une échelle de 0 (trivial) à 10.
+ *
+ * Le score combine :
+ * - l'effort de recherche du solveur (nombre de nœuds, en échelle logarithmique),
+ * - la part de coups non forcés,
+ * - l'écart-type des longueurs de chemins de la solution,
+ * - la faible densité de paires (peu de têtes = grandes zones libres).
+ */
+public class DifficultyEstimator {
+
+    public static final float UNKNOWN = -1f;
+    public static final float MAX_DIFFICULTY = 10f;
+
+    /**
+     * Version du calcul, à incrémenter à chaque changement de score (poids, limite,
+     * critères) : les scores mémorisés par CatalogMetadata sont alors recalculés.
+     */
+    public static final int FORMULA_VERSION = 1;
+
+    // Limite de nœuds : au-delà le puzzle est considéré comme très difficile
+    private static final long NODE_LIMIT = 200_000L;
+
+    private static final float SEARCH_WEIGHT = 0.4f;
+    private static final float CHOICE_WEIGHT = 0.3f;
+    private static final float VARIANCE_WEIGHT = 0.15f;
+    private static final float DENSITY_WEIGHT = 0.15f;
+
+    /**
+     * Score d'un puzzle, ou UNKNOWN s'il est invalide ou ne peut pas être rempli entièrement.
+     */
+    public static float estimate(Puzzle puzzle) {
+        if (!puzzle.isValid() || !PuzzleValidator.validate(puzzle, false).isValid()) return UNKNOWN;
+
+        PuzzleSolver solver = new PuzzleSolver(puzzle);
+        solver.setNodeLimit(NODE_LIMIT);
+        PuzzleSolver.Result result = solver.solve();
+        if (result.status == PuzzleSolver.Status.UNSOLVABLE) return UNKNOWN;
+        if (result.status == PuzzleSolver.Status.UNKNOWN) return MAX_DIFFICULTY;
+
+        int size = puzzle.getSize();
+        int cells = puzzle.getTopology().getPlayableCellCount();
+
+        float search = clamp((float) (Math.log10(result.nodes + 1) / Math.log10(NODE_LIMIT)));
+        float choice = (float) (1 - result.getForcedRatio());
+
+        // Écart-type des longueurs de chemins, rapporté au côté de la grille
+        double mean = 0;
+        for (int[] path : result.paths) mean += path.length;
+        mean /= result.paths.length;
+        double variance = 0;
+        for (int[] path : result.paths) variance += (path.length - mean) * (path.length - mean);
+        variance /= result.paths.length;
+        float spread = clamp((float) (Math.sqrt(variance) / size));
+
+        float density = clamp(1f - 5f * puzzle.getPairCount() / cells);
+
+        float score = SEARCH_WEIGHT * search + CHOICE_WEIGHT * choice
+                + VARIANCE_WEIGHT * spread + DENSITY_WEIGHT * density;
+        return Math.round(score * MAX_DIFFICULTY * 10f) / 10f;
+    }
+
+    /**
+     * Calcule en parallèle la difficulté de tous les puzzles et l'enregistre dans
+     * chaque Puzzle et dans les métadonnées. Les puzzles déjà présents dans les
+     * métadonnées ne sont pas recalculés. Bloquant : à appeler hors du thread UI.
+     */
+    public static void estimateAll(List<Puzzle> puzzles, CatalogMetadata metadata) throws InterruptedException {
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (Puzzle puzzle : puzzles) {
+                futures.add(executor.submit(() -> {
+                    long hash = PuzzleHasher.canonicalHash64(puzzle);
+                    float difficulty;
+                    if (metadata.hasDifficulty(hash)) {
+                        difficulty = metadata.getDifficulty(hash);
+                    } else {
+                        difficulty = estimate(puzzle);
+                        metadata.putDifficulty(hash, difficulty);
+                    }
+                    puzzle.setDifficulty(difficulty);
+                }));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    // Un puzzle en erreur garde une difficulté inconnue
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Libellé court pour l'affichage dans la liste.
+     */
+    public static String label(float difficulty) {
+        if (difficulty < 0) return "";
+        if (difficulty < 3.5f) return "Facile";
+        if (difficulty < 6.5f) return "Moyen";
+        return "Difficile";
+    }
+
+    private static float clamp(float value) {
+        return Math.max(0f, Math.min(1f, value));
+    }
+}
@@ -0,0 +1,261 @@
+package com.example.myapplication.utils;
+
+import android.content.Context;
+import android.os.BatteryManager;
+import android.os.PowerManager;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * File de puzzles du mode sans fin, alimentée en arrière-plan.
+ *
+ * Des threads producteurs (PuzzleGenerator, un par thread) génèrent des puzzles à
+ * solution unique autour de la difficulté cible et les déposent dans une file
+ * bornée : une fois la file pleine, ils attendent qu'un puzzle soit pris. Le jeu
+ * consomme avec poll(), sans attendre quand la file n'est pas vide.
+ *
+ * Le nombre de producteurs suit l'appareil (workerCount) : un cœur reste libre
+ * pour l'interface, et un seul producteur tourne en économie d'énergie ou sur
+ * batterie faible.
+ *
+ * La cible monte d'un pas à chaque puzzle résolu et redescend d'un pas à chaque
+ * puzzle abandonné en cours de partie.
+ *
+ * La file, la cible et le compteur de puzzles sont enregistrés à l'arrêt (codes
+ * ShareCode) et relus par getInstance() : au lancement suivant, un puzzle est
+ * disponible immédiatement.
+ */
+public class EndlessPuzzleQueue {
+
+    private static final int VERSION = 1;
+    private static final int CAPACITY = 6;
+    private static final int MAX_WORKERS = 4;
+
+    // Batterie faible, hors charge : un seul producteur
+    private static final int LOW_BATTERY_PERCENT = 20;
+
+    // Difficulté : entre les cibles minimale et maximale, un pas par puzzle résolu ou abandonné
+    private static final float MIN_DIFFICULTY = 1f;
+    private static final float START_DIFFICULTY = 2f;
+    private static final float MAX_DIFFICULTY = 6f; // au-delà, les puzzles uniques deviennent trop rares
+    private static final float DIFFICULTY_STEP = 0.25f;
+    private static final float TOLERANCE = 1f;
+
+    // File pleine : un producteur revérifie la cible à cet intervalle
+    private static final long OFFER_WAIT_MS = 500;
+
+    private static EndlessPuzzleQueue instance;
+
+    public static synchronized EndlessPuzzleQueue getInstance(File file) {
+        if (instance == null) {
+            instance = new EndlessPuzzleQueue(file);
+        }
+        return instance;
+    }
+
+    private final File file;
+    // LinkedBlockingQueue : removeIf réveille les producteurs qui attendent une place
+    private final BlockingQueue<Puzzle> queue = new LinkedBlockingQueue<>(CAPACITY);
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile float targetDifficulty = START_DIFFICULTY;
+    private int nextNumber = 1; // numéro du prochain puzzle généré, pour son nom
+
+    private EndlessPuzzleQueue(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Nombre de producteurs conseillé pour l'appareil, selon ses cœurs et sa batterie.
+     */
+    public static int workerCount(Context context) {
+        int workers = Math.max(1, Math.min(MAX_WORKERS, Runtime.getRuntime().availableProcessors() - 1));
+        PowerManager power = (PowerManager) context.getSystemService(Context.POWER_SERVICE);
+        if (power != null && power.isPowerSaveMode()) return 1;
+        BatteryManager battery = (BatteryManager) context.getSystemService(Context.BATTERY_SERVICE);
+        if (battery != null && !battery.isCharging()
+                && battery.getIntProperty(BatteryManager.BATTERY_PROPERTY_CAPACITY) < LOW_BATTERY_PERCENT) {
+            return 1;
+        }
+        return workers;
+    }
+
+    /**
+     * Lance (ou ajuste) les producteurs ; sans effet s'ils sont déjà workerCount.
+     */
+    public synchronized void start(int workerCount) {
+        if (workers.size() == workerCount) return;
+        stopWorkers();
+        for (int i = 0; i < workerCount; i++) {
+            long seed = System.nanoTime() + i;
+            Thread thread = new Thread(() -> produce(new PuzzleGenerator(seed)), "endless-" + i);
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            workers.add(thread);
+            thread.start();
+        }
+    }
+
+    /**
+     * Arrête les producteurs et enregistre la file.
+     */
+    public synchronized void stop() {
+        stopWorkers();
+        save();
+    }
+
+    /**
+     * Prochain puzzle, ou null si la file est vide (sans attendre). Les puzzles
+     * déposés juste avant un changement de cible sont écartés au passage.
+     */
+    public Puzzle poll() {
+        Puzzle puzzle;
+        do {
+            puzzle = queue.poll();
+        } while (puzzle != null && !fitsTarget(puzzle));
+        return puzzle;
+    }
+
+    /**
+     * Prochain puzzle, en attendant au plus timeoutMs ; null si aucun n'est prêt.
+     * À appeler hors du thread UI.
+     */
+    public Puzzle poll(long timeoutMs) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        Puzzle puzzle;
+        do {
+            puzzle = queue.poll(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } while (puzzle != null && !fitsTarget(puzzle));
+        return puzzle;
+    }
+
+    public float getTargetDifficulty() {
+        return targetDifficulty;
+    }
+
+    /**
+     * Un puzzle a été résolu : la cible monte d'un pas, et les puzzles en file trop
+     * faciles pour la nouvelle cible sont écartés.
+     */
+    public void onPuzzleSolved() {
+        setTargetDifficulty(Math.min(MAX_DIFFICULTY, targetDifficulty + DIFFICULTY_STEP));
+    }
+
+    /**
+     * Un puzzle a été abandonné après quelques coups : la cible descend d'un pas.
+     * La cible est enregistrée aussitôt, l'abandon arrivant après stop().
+     */
+    public synchronized void onPuzzleAbandoned() {
+        setTargetDifficulty(Math.max(MIN_DIFFICULTY, targetDifficulty - DIFFICULTY_STEP));
+        save();
+    }
+
+    // Nouvelle cible ; les puzzles en file qui ne lui conviennent plus sont écartés
+    private void setTargetDifficulty(float target) {
+        if (target == targetDifficulty) return;
+        targetDifficulty = target;
+        queue.removeIf(p -> !fitsTarget(p));
+    }
+
+    // Thread producteur
+    private void produce(PuzzleGenerator generator) {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                float target = targetDifficulty;
+                Puzzle puzzle = generator.generate(nextName(), sizeFor(target), target, TOLERANCE);
+                if (puzzle == null || !fitsTarget(puzzle)) continue;
+                // Repasse par un code : le puzzle a un nom de fichier que PuzzleParser sait relire
+                Puzzle shared = decode(ShareCode.encode(puzzle), puzzle.getName(), puzzle.getDifficulty());
+                // File pleine : attend une place, tant que la cible n'a pas dépassé ce puzzle
+                boolean queued = false;
+                while (shared != null && !queued && fitsTarget(shared)) {
+                    queued = queue.offer(shared, OFFER_WAIT_MS, TimeUnit.MILLISECONDS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Producteur arrêté
+        }
+    }
+
+    private boolean fitsTarget(Puzzle puzzle) {
+        return Math.abs(puzzle.getDifficulty() - targetDifficulty) <= TOLERANCE;
+    }
+
+    // Grilles plus grandes quand la difficulté monte : 6x6 au minimum, 7x7 au départ, 11x11 au maximum
+    private static int sizeFor(float difficulty) {
+        return 5 + Math.round(difficulty);
+    }
+
+    private synchronized String nextName() {
+        return "Sans fin #" + nextNumber++;
+    }
+
+    private void stopWorkers() {
+        for (Thread thread : workers) thread.interrupt();
+        workers.clear();
+    }
+
+    private static Puzzle decode(String code, String name, float difficulty) {
+        if (code == null) return null;
+        Puzzle puzzle = ShareCode.decode(code, name);
+        if (puzzle == null || !puzzle.isValid()) return null;
+        puzzle.setDifficulty(difficulty);
+        return puzzle;
+    }
+
+    private synchronized void save() {
+        List<Puzzle> pending = new ArrayList<>(queue);
+        pending.removeIf(p -> !fitsTarget(p));
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeFloat(targetDifficulty);
+            out.writeInt(nextNumber);
+            out.writeInt(pending.size());
+            for (Puzzle puzzle : pending) {
+                out.writeUTF(puzzle.getName());
+                out.writeFloat(puzzle.getDifficulty());
+                out.writeUTF(puzzle.getFileName().substring(ShareCode.PREFIX.length()));
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            return;
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return;
+            targetDifficulty = in.readFloat();
+            nextNumber = in.readInt();
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                float difficulty = in.readFloat();
+                Puzzle puzzle = decode(in.readUTF(), name, difficulty);
+                if (puzzle != null) queue.offer(puzzle);
+            }
+        } catch (IOException e) {
+            // Fichier corrompu : la file repart vide
+            queue.clear();
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vérifie en arrière-plan, pendant l'édition, qu'une disposition de têtes a une
+ * solution et si elle est unique.
+ *
+ * Les demandes sont regroupées (DEBOUNCE_MS sans nouvelle modification avant de
+ * lancer la recherche) et une demande rend caduque la recherche en cours, qui est
+ * interrompue ; seul le résultat de la dernière disposition est signalé.
+ *
+ * Un seul SatPuzzleSolver est encodé par plateau, têtes libres : chaque disposition
+ * n'est qu'un jeu d'hypothèses, et les clauses apprises ainsi que les cycles déjà
+ * interdits servent d'une modification à l'autre. Sur 14x14, une vérification prend
+ * quelques millisecondes.
+ */
+public class LayoutChecker {
+
+    private static final long DEBOUNCE_MS = 40;
+
+    // Au-delà, le résultat est UNKNOWN : l'éditeur ne doit pas rester bloqué
+    private static final long CONFLICT_LIMIT = 200_000;
+
+    /**
+     * Reçoit le résultat d'une vérification, sur le thread de vérification.
+     */
+    public interface Listener {
+        /**
+         * @param layout la disposition vérifiée, telle que passée à check()
+         * @param result SOLVED avec 1 ou 2 solutions (2 : pas d'unicité), UNSOLVABLE ou UNKNOWN
+         */
+        void onLayoutChecked(Puzzle layout, PuzzleSolver.Result result);
+    }
+
+    private final int maxPairs;
+    private final Listener listener;
+    private final ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "layout-checker");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private Future<?> pending;                // recherche programmée, pas encore lancée
+    private volatile int generation;          // numéro de la dernière demande
+    private volatile SatPuzzleSolver solver;  // plateau encodé, recréé si la forme change
+    private long solverSignature;
+
+    public LayoutChecker(int maxPairs, Listener listener) {
+        this.maxPairs = maxPairs;
+        this.listener = listener;
+    }
+
+    /**
+     * Demande la vérification d'une disposition (au plus maxPairs paires, têtes
+     * distinctes). Annule la vérification précédente si elle n'est pas terminée.
+     */
+    public synchronized void check(Puzzle layout) {
+        int current = cancelPending();
+        pending = executor.schedule(() -> run(current, layout), DEBOUNCE_MS, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Abandonne la vérification en cours ou programmée, sans en demander d'autre.
+     */
+    public synchronized void cancel() {
+        cancelPending();
+    }
+
+    public synchronized void shutdown() {
+        cancelPending();
+        executor.shutdownNow();
+    }
+
+    // Rend caduques les demandes précédentes ; renvoie le numéro de la nouvelle
+    private int cancelPending() {
+        int current = ++generation;
+        if (pending != null) pending.cancel(false);
+        SatPuzzleSolver running = solver;
+        if (running != null) running.cancel();
+        return current;
+    }
+
+    // Thread de vérification
+    private void run(int request, Puzzle layout) {
+        SatPuzzleSolver sat = solverFor(layout.getTopology());
+        sat.resetCancel();
+        // Une demande arrivée avant resetCancel() n'a pas pu interrompre cette recherche
+        if (request != generation) return;
+
+        sat.setLayout(layout);
+        PuzzleSolver.Result result = sat.countSolutions(2);
+        if (request == generation) {
+            listener.onLayoutChecked(layout, result);
+        }
+    }
+
+    private SatPuzzleSolver solverFor(BoardTopology topology) {
+        SatPuzzleSolver sat = solver;
+        if (sat == null || solverSignature != topology.signature()) {
+            sat = new SatPuzzleSolver(topology, maxPairs);
+            sat.setConflictLimit(CONFLICT_LIMIT);
+            solverSignature = topology.signature();
+            solver = sat;
+        }
+        return sat;
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.myapplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * Ensemble de long à adressage ouvert, sans boxing (8 octets par case).
+ * La valeur 0 est gérée à part pour servir de marqueur de case vide.
+ */
+public class LongHashSet {
+
+    private long[] table;
+    private int size;
+    private boolean containsZero;
+
+    public LongHashSet(int expected) {
+        int capacity = 16;
+        while (capacity < expected * 2) capacity <<= 1;
+        table = new long[capacity];
+    }
+
+    /**
+     * @return true si la valeur n'était pas encore présente
+     */
+    public boolean add(long value) {
+        if (value == 0) {
+            if (containsZero) return false;
+            containsZero = true;
+            size++;
+            return true;
+        }
+        if ((size + 1) * 2 > table.length) grow();
+        if (!insert(table, value)) return false;
+        size++;
+        return true;
+    }
+
+    public boolean contains(long value) {
+        if (value == 0) return containsZero;
+        int mask = table.length - 1;
+        for (int i = slot(value, mask); ; i = (i + 1) & mask) {
+            long current = table[i];
+            if (current == 0) return false;
+            if (current == value) return true;
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+        containsZero = false;
+    }
+
+    private static boolean insert(long[] target, long value) {
+        int mask = target.length - 1;
+        for (int i = slot(value, mask); ; i = (i + 1) & mask) {
+            long current = target[i];
+            if (current == value) return false;
+            if (current == 0) {
+                target[i] = value;
+                return true;
+            }
+        }
+    }
+
+    private void grow() {
+        long[] bigger = new long[table.length * 2];
+        for (long value : table) {
+            if (value != 0) insert(bigger, value);
+        }
+        table = bigger;
+    }
+
+    private static int slot(long value, int mask) {
+        long h = value * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.util.Random;
+
+/**
+ * Génère des puzzles carrés à solution unique, proches d'une difficulté cible.
+ *
+ * Chaque essai part d'un chemin qui passe par toutes les cases (un serpentin,
+ * déformé par des « backbites » aléatoires), puis le découpe en chemins de paires :
+ * un chemin s'arrête quand il atteint la longueur tirée au sort ou quand la case
+ * suivante toucherait une de ses cases précédentes (un tel chemin aurait presque
+ * toujours un raccourci, donc une autre solution). Les têtes retenues sont les deux
+ * bouts de chaque morceau ; la grille est alors pleine par construction.
+ *
+ * L'essai est gardé si PuzzleSolver prouve l'unicité et si DifficultyEstimator le
+ * place dans la tolérance autour de la cible. La longueur moyenne des morceaux
+ * s'ajuste d'un essai à l'autre : des chemins plus longs donnent des puzzles plus
+ * difficiles. Une instance n'est pas thread-safe (une par thread).
+ */
+public class PuzzleGenerator {
+
+    // Nombre d'essais avant d'abandonner un appel à generate()
+    private static final int MAX_ATTEMPTS = 200;
+
+    // Borne le travail du solveur pour vérifier l'unicité
+    private static final long UNIQUENESS_NODE_LIMIT = 200_000L;
+
+    private static final int BACKBITES_PER_CELL = 20;
+
+    private final Random random;
+    private float segmentLength = 4f; // longueur moyenne visée des morceaux, ajustée en continu
+
+    public PuzzleGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Cherche un puzzle de la taille donnée dont la difficulté est à tolerance près
+     * de la cible.
+     *
+     * @return le puzzle (difficulté renseignée), ou null après MAX_ATTEMPTS essais
+     * ou si le thread est interrompu
+     */
+    public Puzzle generate(String name, int size, float targetDifficulty, float tolerance) {
+        int cells = size * size;
+        int[] path = new int[cells];
+        int[] position = new int[cells];
+
+        for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+            if (Thread.currentThread().isInterrupted()) return null;
+
+            randomHamiltonianPath(size, path, position);
+            Puzzle puzzle = cut(name, size, path);
+            if (puzzle == null) continue;
+
+            PuzzleSolver solver = new PuzzleSolver(puzzle);
+            solver.setNodeLimit(UNIQUENESS_NODE_LIMIT);
+            if (!solver.countSolutions(2).isUnique()) continue;
+
+            float difficulty = DifficultyEstimator.estimate(puzzle);
+            if (difficulty == DifficultyEstimator.UNKNOWN) continue;
+            if (difficulty < targetDifficulty - tolerance) {
+                segmentLength = Math.min(cells / 2f, segmentLength + 0.5f);
+                continue;
+            }
+            if (difficulty > targetDifficulty + tolerance) {
+                segmentLength = Math.max(2f, segmentLength - 0.5f);
+                continue;
+            }
+            puzzle.setDifficulty(difficulty);
+            return puzzle;
+        }
+        return null;
+    }
+
+    /**
+     * Chemin hamiltonien aléatoire : serpentin, puis backbites. Un backbite relie
+     * le bout du chemin à une case voisine et inverse la portion qui suit celle-ci.
+     */
+    private void randomHamiltonianPath(int size, int[] path, int[] position) {
+        int cells = size * size;
+        for (int i = 0; i < cells; i++) {
+            int row = i / size;
+            int col = (row % 2 == 0) ? i % size : size - 1 - i % size;
+            path[i] = row * size + col;
+            position[path[i]] = i;
+        }
+        for (int step = 0; step < cells * BACKBITES_PER_CELL; step++) {
+            if (random.nextBoolean()) reverse(path, position, 0, cells - 1);
+            int end = path[cells - 1];
+            int row = end / size;
+            int col = end % size;
+            int neighbour;
+            switch (random.nextInt(4)) {
+                case 0: neighbour = (row > 0) ? end - size : -1; break;
+                case 1: neighbour = (row < size - 1) ? end + size : -1; break;
+                case 2: neighbour = (col > 0) ? end - 1 : -1; break;
+                default: neighbour = (col < size - 1) ? end + 1 : -1; break;
+            }
+            if (neighbour < 0 || position[neighbour] == cells - 2) continue;
+            reverse(path, position, position[neighbour] + 1, cells - 1);
+        }
+    }
+
+    private static void reverse(int[] path, int[] position, int from, int to) {
+        while (from < to) {
+            int a = path[from];
+            path[from] = path[to];
+            path[to] = a;
+            position[path[from]] = from;
+            position[path[to]] = to;
+            from++;
+            to--;
+        }
+    }
+
+    /**
+     * Découpe le chemin en paires, ou null si un morceau ferait moins de deux cases.
+     */
+    private Puzzle cut(String name, int size, int[] path) {
+        Puzzle.Builder builder = new Puzzle.Builder(name, size);
+        int start = 0;
+        int limit = nextLength();
+        int pairId = 0;
+        for (int i = 1; i <= path.length; i++) {
+            boolean end = i == path.length || i - start >= limit || touches(size, path, start, i);
+            if (!end) continue;
+            if (i - start < 2) return null;
+            builder.addPair(path[start], path[i - 1], pairId++);
+            start = i;
+            limit = nextLength();
+        }
+        return builder.build();
+    }
+
+    // Vrai si path[next] touche une case du morceau [start, next - 1[, autre que la précédente
+    private static boolean touches(int size, int[] path, int start, int next) {
+        int cell = path[next];
+        for (int i = start; i < next - 1; i++) {
+            int other = path[i];
+            int dr = Math.abs(other / size - cell / size);
+            int dc = Math.abs(other % size - cell % size);
+            if (dr + dc == 1) return true;
+        }
+        return false;
+    }
+
+    // Longueur tirée autour de segmentLength (au moins 2)
+    private int nextLength() {
+        return Math.max(2, Math.round(segmentLength * (0.5f + random.nextFloat())));
+    }
+}
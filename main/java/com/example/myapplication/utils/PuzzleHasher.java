@@ -0,0 +1,185 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Empreinte canonique d'un puzzle, identique pour toutes ses variantes :
+ * les 8 symétries du carré (rotations et réflexions) et toute renumérotation des paires.
+ *
+ * Pour chaque symétrie, chaque paire devient un couple trié (min, max) d'indices de
+ * cases, et la liste des couples est triée : l'ordre et le numéro des paires
+ * disparaissent. On garde la plus petite de ces 8 formes, puis on la hache.
+ *
+ * Les plateaux non carrés ou avec trous et murs ne sont pas symétrisés : seule la
+ * renumérotation des paires est ignorée, et l'empreinte de la forme est mélangée au hash.
+ *
+ * Une instance réutilise ses tampons : elle n'est pas thread-safe.
+ */
+public class PuzzleHasher {
+
+    private static final long SEED_LOW = 0x9E3779B97F4A7C15L;
+    private static final long SEED_HIGH = 0xC2B2AE3D27D4EB4FL;
+
+    private long[] current = new long[16];
+    private long[] best = new long[16];
+
+    /**
+     * Empreinte 64 bits, suffisante pour dédoublonner quelques millions de puzzles.
+     */
+    public long hash64(Puzzle puzzle) {
+        int count = canonicalize(puzzle);
+        return mix(puzzle, count, SEED_LOW);
+    }
+
+    /**
+     * Empreinte 128 bits : {poids faible, poids fort}.
+     */
+    public long[] hash128(Puzzle puzzle) {
+        int count = canonicalize(puzzle);
+        return new long[] { mix(puzzle, count, SEED_LOW), mix(puzzle, count, SEED_HIGH) };
+    }
+
+    /**
+     * Raccourci sans réutilisation des tampons.
+     */
+    public static long canonicalHash64(Puzzle puzzle) {
+        return new PuzzleHasher().hash64(puzzle);
+    }
+
+    /**
+     * Reporte des chemins tracés sur from vers to, quand to en est une variante
+     * (symétrie du carré, renumérotation des paires) : c'est le cas de deux puzzles
+     * de même empreinte canonique.
+     *
+     * @return les chemins sur to, par pairId de to, ou null si paths est null ou si
+     * to n'est pas une variante de from
+     */
+    public static Map<Integer, List<PointCoord>> mapPaths(Puzzle from, Map<Integer, List<PointCoord>> paths,
+                                                          Puzzle to) {
+        if (from == null || paths == null || from.getSize() != to.getSize()
+                || from.getPairCount() != to.getPairCount()) return null;
+        int symmetries;
+        if (from.getTopology().isPlainSquare() && to.getTopology().isPlainSquare()) {
+            symmetries = 8;
+        } else if (from.getTopology().signature() == to.getTopology().signature()) {
+            symmetries = 1;
+        } else {
+            return null;
+        }
+
+        int n = to.getSize();
+        int[] target = new int[from.getPairCount()]; // indice dans to de chaque paire de from
+        for (int symmetry = 0; symmetry < symmetries; symmetry++) {
+            if (!matchPairs(from, to, symmetry, target)) continue;
+            Map<Integer, List<PointCoord>> mapped = new HashMap<>();
+            for (int i = 0; i < target.length; i++) {
+                List<PointCoord> path = paths.get(from.getPairId(i));
+                List<PointCoord> moved = new ArrayList<>();
+                if (path != null) {
+                    for (PointCoord pc : path) {
+                        int cell = transform(pc.getRow() * n + pc.getCol(), n, symmetry);
+                        moved.add(PointCoord.of(cell / n, cell % n));
+                    }
+                }
+                mapped.put(to.getPairId(target[i]), moved);
+            }
+            return mapped;
+        }
+        return null;
+    }
+
+    // Vrai si la symétrie envoie chaque paire de from sur une paire de to
+    private static boolean matchPairs(Puzzle from, Puzzle to, int symmetry, int[] target) {
+        int n = to.getSize();
+        for (int i = 0; i < target.length; i++) {
+            int a = to.headAt(transform(from.getFirstCell(i), n, symmetry));
+            int b = to.headAt(transform(from.getSecondCell(i), n, symmetry));
+            if (a < 0 || b < 0 || a == b || (a >> 1) != (b >> 1)) return false;
+            target[i] = a >> 1;
+        }
+        return true;
+    }
+
+    /**
+     * Remplit {@code best} avec la forme canonique et renvoie le nombre de paires.
+     */
+    private int canonicalize(Puzzle puzzle) {
+        int count = puzzle.getPairCount();
+        if (current.length < count) {
+            current = new long[count];
+            best = new long[count];
+        }
+
+        int n = puzzle.getSize();
+        int symmetries = puzzle.getTopology().isPlainSquare() ? 8 : 1;
+        for (int symmetry = 0; symmetry < symmetries; symmetry++) {
+            for (int i = 0; i < count; i++) {
+                int a = transform(puzzle.getFirstCell(i), n, symmetry);
+                int b = transform(puzzle.getSecondCell(i), n, symmetry);
+                current[i] = ((long) Math.min(a, b) << 32) | (Math.max(a, b) & 0xFFFFFFFFL);
+            }
+            Arrays.sort(current, 0, count);
+            if (symmetry == 0 || compare(current, best, count) < 0) {
+                long[] swap = best;
+                best = current;
+                current = swap;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Indice à plat de la case après application d'une des 8 symétries.
+     */
+    private static int transform(int cell, int n, int symmetry) {
+        int r = cell / n;
+        int c = cell % n;
+        int m = n - 1;
+        switch (symmetry) {
+            case 0: return r * n + c;
+            case 1: return c * n + (m - r);         // rotation 90°
+            case 2: return (m - r) * n + (m - c);   // rotation 180°
+            case 3: return (m - c) * n + r;         // rotation 270°
+            case 4: return r * n + (m - c);         // miroir vertical
+            case 5: return c * n + r;               // diagonale principale
+            case 6: return (m - r) * n + c;         // miroir horizontal
+            default: return (m - c) * n + (m - r);  // anti-diagonale
+        }
+    }
+
+    private static int compare(long[] a, long[] b, int count) {
+        for (int i = 0; i < count; i++) {
+            if (a[i] != b[i]) return a[i] < b[i] ? -1 : 1;
+        }
+        return 0;
+    }
+
+    private long mix(Puzzle puzzle, int count, long seed) {
+        long h = seed ^ puzzle.getSize();
+        if (!puzzle.getTopology().isPlainSquare()) {
+            h = fmix(h ^ puzzle.getTopology().signature());
+        }
+        h = fmix(h * 31 + count);
+        for (int i = 0; i < count; i++) {
+            h = fmix(h ^ best[i]) * 0x9E3779B97F4A7C15L;
+        }
+        return fmix(h);
+    }
+
+    // Finaliseur de MurmurHash3 (64 bits)
+    private static long fmix(long k) {
+        k ^= k >>> 33;
+        k *= 0xFF51AFD7ED558CCDL;
+        k ^= k >>> 33;
+        k *= 0xC4CEB9FE1A85EC53L;
+        k ^= k >>> 33;
+        return k;
+    }
+}
@@ -0,0 +1,501 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Index en mémoire du catalogue, pour la recherche et le tri de la liste des puzzles.
+ *
+ * Chaque puzzle ajouté reçoit un numéro (dans l'ordre d'ajout) et ses métadonnées
+ * sont rangées dans des colonnes de types primitifs : taille, nombre de paires,
+ * difficulté, validité et « résolu ». Les mots du nom (minuscules, sans accents)
+ * alimentent un index inversé : mot -> numéros des puzzles. Les mots sont aussi
+ * gardés triés (les nouveaux sont fusionnés à la requête suivante), si bien qu'un
+ * début de mot correspond à une plage contiguë du dictionnaire (recherche pendant
+ * la frappe).
+ *
+ * Les ordres de tri sont des tableaux de numéros, construits au premier usage puis
+ * complétés par fusion avec les puzzles ajoutés depuis. Une requête parcourt l'ordre
+ * choisi une fois et garde les puzzles qui passent tous les critères : quelques
+ * millisecondes au plus pour 100 000 puzzles.
+ *
+ * Les puzzles retirés restent dans l'index, marqués, et ne sortent plus des requêtes.
+ * Quand ils dépassent le quart des numéros, l'index est reconstruit sans eux : les
+ * modifications répétées d'un même fichier ne le font pas grandir sans fin.
+ * Classe non thread-safe : à utiliser depuis le thread UI.
+ */
+public class PuzzleIndex {
+
+    public enum Sort { CATALOG, NAME, DIFFICULTY, SIZE }
+
+    private static final byte VALID = 1;
+    private static final byte SOLVED = 2;
+    private static final byte REMOVED = 4;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    // Longueur des nombres dans les clés de tri des noms
+    private static final int NUMBER_WIDTH = 10;
+
+    /**
+     * Critères d'une recherche, lus dans le texte saisi. Les mots sont cherchés en
+     * début de mot dans les noms ; s'y ajoutent :
+     * - "7x7" ou "taille:7" (ou "taille:5-8") pour la taille ;
+     * - "paires:5" (ou "paires:4-6") pour le nombre de paires ;
+     * - "diff:3" (ou "diff:2-4", "difficulté:...") pour la difficulté ;
+     * - "valide", "invalide", "résolu", "nonrésolu".
+     */
+    public static class Query {
+        String[] words = new String[0];
+        int minSize = 0;
+        int maxSize = Integer.MAX_VALUE;
+        int minPairs = 0;
+        int maxPairs = Integer.MAX_VALUE;
+        float minDifficulty = -1f; // négatif : les difficultés inconnues passent aussi
+        float maxDifficulty = Float.MAX_VALUE;
+        int valid = -1;  // -1 : indifférent, 0 : invalides, 1 : valides
+        int solved = -1;
+
+        public static Query parse(String text) {
+            Query query = new Query();
+            List<String> words = new ArrayList<>();
+            for (String part : normalize(text).split("\\s+")) {
+                if (part.isEmpty() || query.parseCriterion(part)) continue;
+                for (String word : tokenize(part)) words.add(word);
+            }
+            query.words = words.toArray(new String[0]);
+            return query;
+        }
+
+        // Vrai si le mot est un critère (et l'applique)
+        private boolean parseCriterion(String part) {
+            switch (part) {
+                case "valide": valid = 1; return true;
+                case "invalide": valid = 0; return true;
+                case "resolu": solved = 1; return true;
+                case "nonresolu":
+                case "non-resolu": solved = 0; return true;
+            }
+            int x = part.indexOf('x');
+            if (x > 0 && x < part.length() - 1 && isNumber(part, 0, x) && isNumber(part, x + 1, part.length())
+                    && part.substring(0, x).equals(part.substring(x + 1))) {
+                minSize = maxSize = Integer.parseInt(part.substring(0, x));
+                return true;
+            }
+            int colon = part.indexOf(':');
+            if (colon < 0) return false;
+            String key = part.substring(0, colon);
+            float[] range = parseRange(part.substring(colon + 1));
+            if (range == null) {
+                // Valeur en cours de saisie : le critère est ignoré pour l'instant
+                return key.equals("taille") || key.equals("paires") || key.equals("diff") || key.equals("difficulte");
+            }
+            switch (key) {
+                case "taille":
+                    minSize = (int) Math.ceil(range[0]);
+                    maxSize = (int) Math.floor(range[1]);
+                    return true;
+                case "paires":
+                    minPairs = (int) Math.ceil(range[0]);
+                    maxPairs = (int) Math.floor(range[1]);
+                    return true;
+                case "diff":
+                case "difficulte":
+                    minDifficulty = range[0];
+                    maxDifficulty = range[1];
+                    return true;
+                default:
+                    return false;
+            }
+        }
+
+        // "3" ou "2-4", null si le texte n'est pas de cette forme
+        private static float[] parseRange(String text) {
+            int dash = text.indexOf('-', 1);
+            try {
+                if (dash < 0) {
+                    float value = Float.parseFloat(text);
+                    return new float[]{value, value};
+                }
+                return new float[]{Float.parseFloat(text.substring(0, dash)),
+                        Float.parseFloat(text.substring(dash + 1))};
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        private static boolean isNumber(String text, int from, int to) {
+            for (int i = from; i < to; i++) {
+                if (!Character.isDigit(text.charAt(i))) return false;
+            }
+            return true;
+        }
+    }
+
+    // Liste de numéros de puzzles qui grandit à la demande
+    private static class Postings {
+        int[] ids = new int[2];
+        int count;
+
+        void add(int id) {
+            if (count == ids.length) ids = Arrays.copyOf(ids, count * 2);
+            ids[count++] = id;
+        }
+    }
+
+    // Colonnes, par numéro de puzzle
+    private Puzzle[] puzzles = new Puzzle[64];
+    private String[] sortKeys = new String[64]; // nom normalisé, nombres complétés par des zéros
+    private int[] sizes = new int[64];
+    private int[] pairCounts = new int[64];
+    private float[] difficulties = new float[64];
+    private byte[] flags = new byte[64];
+    private int count;
+    private int removedCount;
+    private final Map<Puzzle, Integer> ids = new IdentityHashMap<>();
+
+    // Index inversé et dictionnaire trié des mots (plus les mots pas encore triés)
+    private final Map<String, Postings> postings = new HashMap<>();
+    private final List<String> dictionary = new ArrayList<>();
+    private final List<String> newWords = new ArrayList<>();
+
+    // Ordres de tri : numéros [0, ordered[s]) triés, dans orders[s]
+    private final int[][] orders = new int[Sort.values().length][];
+    private final int[] ordered = new int[Sort.values().length];
+    private int[] sortBuffer = new int[0];
+
+    // Requête : nombre de mots trouvés par puzzle, et résultats
+    private int[] matches = new int[64];
+    private int[] results = new int[64];
+
+    /**
+     * Ajoute un puzzle à l'index.
+     *
+     * @return son numéro
+     */
+    public int add(Puzzle puzzle) {
+        if (count == puzzles.length) grow();
+        int id = count++;
+        puzzles[id] = puzzle;
+        String name = normalize(puzzle.getName());
+        sortKeys[id] = sortKey(name);
+        sizes[id] = puzzle.getSize();
+        pairCounts[id] = puzzle.getPairCount();
+        difficulties[id] = puzzle.getDifficulty();
+        flags[id] = puzzle.isValid() ? VALID : 0;
+        ids.put(puzzle, id);
+
+        for (String word : tokenize(name)) {
+            Postings list = postings.get(word);
+            if (list == null) {
+                list = new Postings();
+                postings.put(word, list);
+                newWords.add(word);
+            }
+            // Un mot répété dans le nom n'est compté qu'une fois
+            if (list.count == 0 || list.ids[list.count - 1] != id) list.add(id);
+        }
+        return id;
+    }
+
+    /**
+     * Retire un puzzle. Peut renuméroter les puzzles restants (compaction) : les
+     * numéros de add() et de getResults() ne valent qu'après une nouvelle requête.
+     */
+    public void remove(Puzzle puzzle) {
+        Integer id = ids.remove(puzzle);
+        if (id == null) return;
+        flags[id] |= REMOVED;
+        if (++removedCount * 4 > count) compact();
+    }
+
+    public Puzzle get(int id) {
+        return puzzles[id];
+    }
+
+    /**
+     * Puzzles présents dans l'index (non retirés), dans l'ordre d'ajout.
+     */
+    public List<Puzzle> getPuzzles() {
+        List<Puzzle> list = new ArrayList<>(ids.size());
+        for (int id = 0; id < count; id++) {
+            if ((flags[id] & REMOVED) == 0) list.add(puzzles[id]);
+        }
+        return list;
+    }
+
+    /**
+     * Relit la difficulté des puzzles (calculée en arrière-plan après leur ajout).
+     */
+    public void refreshDifficulties() {
+        boolean changed = false;
+        for (int id = 0; id < count; id++) {
+            float d = puzzles[id].getDifficulty();
+            if (d != difficulties[id]) {
+                difficulties[id] = d;
+                changed = true;
+            }
+        }
+        if (changed) {
+            // Ces ordres utilisent la difficulté : reconstruits à leur prochain usage
+            ordered[Sort.DIFFICULTY.ordinal()] = 0;
+            ordered[Sort.SIZE.ordinal()] = 0;
+        }
+    }
+
+    /**
+     * Marque comme résolus exactement les puzzles donnés.
+     */
+    public void setSolved(Collection<Puzzle> solved) {
+        for (int id = 0; id < count; id++) flags[id] &= ~SOLVED;
+        for (Puzzle puzzle : solved) {
+            Integer id = ids.get(puzzle);
+            if (id != null) flags[id] |= SOLVED;
+        }
+    }
+
+    /**
+     * Cherche les puzzles qui passent la requête, dans l'ordre demandé.
+     *
+     * @return le nombre de résultats, rangés au début de getResults()
+     */
+    public int query(Query query, Sort sort) {
+        boolean byWords = query.words.length > 0;
+        if (byWords) matchWords(query.words);
+
+        int[] order = order(sort);
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            int id = (order != null) ? order[i] : i;
+            if (byWords && matches[id] != query.words.length) continue;
+            if (accepts(query, id)) results[found++] = id;
+        }
+        return found;
+    }
+
+    /**
+     * Résultats de la dernière requête (tableau réutilisé).
+     */
+    public int[] getResults() {
+        return results;
+    }
+
+    // matches[id] : nombre de mots de la requête trouvés, dans l'ordre, dans le nom
+    private void matchWords(String[] words) {
+        if (!newWords.isEmpty()) mergeNewWords();
+        Arrays.fill(matches, 0, count, 0);
+        for (int w = 0; w < words.length; w++) {
+            String word = words[w];
+            // Mots du dictionnaire qui commencent par word : une plage contiguë
+            int at = Collections.binarySearch(dictionary, word);
+            for (int i = (at >= 0) ? at : -at - 1; i < dictionary.size(); i++) {
+                String entry = dictionary.get(i);
+                if (!entry.startsWith(word)) break;
+                Postings list = postings.get(entry);
+                for (int k = 0; k < list.count; k++) {
+                    int id = list.ids[k];
+                    // Seuls les puzzles qui ont passé les mots précédents avancent
+                    if (matches[id] == w) matches[id] = w + 1;
+                }
+            }
+        }
+    }
+
+    private void mergeNewWords() {
+        Collections.sort(newWords);
+        List<String> merged = new ArrayList<>(dictionary.size() + newWords.size());
+        int a = 0, b = 0;
+        while (a < dictionary.size() && b < newWords.size()) {
+            merged.add((newWords.get(b).compareTo(dictionary.get(a)) < 0) ? newWords.get(b++) : dictionary.get(a++));
+        }
+        while (a < dictionary.size()) merged.add(dictionary.get(a++));
+        while (b < newWords.size()) merged.add(newWords.get(b++));
+        dictionary.clear();
+        dictionary.addAll(merged);
+        newWords.clear();
+    }
+
+    private boolean accepts(Query query, int id) {
+        int f = flags[id];
+        if ((f & REMOVED) != 0) return false;
+        if (query.valid >= 0 && ((f & VALID) != 0) != (query.valid == 1)) return false;
+        if (query.solved >= 0 && ((f & SOLVED) != 0) != (query.solved == 1)) return false;
+        if (sizes[id] < query.minSize || sizes[id] > query.maxSize) return false;
+        if (pairCounts[id] < query.minPairs || pairCounts[id] > query.maxPairs) return false;
+        float d = difficulties[id];
+        if (d < 0) return query.minDifficulty < 0;
+        return d >= query.minDifficulty && d <= query.maxDifficulty;
+    }
+
+    /**
+     * Ordre de tri complet (null pour l'ordre d'ajout) : les puzzles ajoutés depuis
+     * le dernier appel sont triés entre eux, puis fusionnés avec l'ordre existant.
+     */
+    private int[] order(Sort sort) {
+        if (sort == Sort.CATALOG) return null;
+        int s = sort.ordinal();
+        int done = ordered[s];
+        if (done == count) return orders[s];
+
+        int added = count - done;
+        int[] fresh = new int[added];
+        for (int i = 0; i < added; i++) fresh[i] = done + i;
+        if (sortBuffer.length < added) sortBuffer = new int[Math.max(added, count)];
+        mergeSort(sort, fresh, 0, added);
+
+        int[] merged = new int[puzzles.length];
+        int[] old = orders[s];
+        int a = 0, b = 0, k = 0;
+        while (a < done && b < added) {
+            merged[k++] = (compare(sort, fresh[b], old[a]) < 0) ? fresh[b++] : old[a++];
+        }
+        while (a < done) merged[k++] = old[a++];
+        while (b < added) merged[k++] = fresh[b++];
+        orders[s] = merged;
+        ordered[s] = count;
+        return merged;
+    }
+
+    private void mergeSort(Sort sort, int[] ids, int from, int to) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        mergeSort(sort, ids, from, mid);
+        mergeSort(sort, ids, mid, to);
+        if (compare(sort, ids[mid - 1], ids[mid]) <= 0) return;
+        System.arraycopy(ids, from, sortBuffer, from, to - from);
+        int a = from, b = mid, k = from;
+        while (a < mid && b < to) {
+            ids[k++] = (compare(sort, sortBuffer[b], sortBuffer[a]) < 0) ? sortBuffer[b++] : sortBuffer[a++];
+        }
+        while (a < mid) ids[k++] = sortBuffer[a++];
+        while (b < to) ids[k++] = sortBuffer[b++];
+    }
+
+    // Critère principal, puis critères secondaires, puis ordre d'ajout
+    private int compare(Sort sort, int a, int b) {
+        int c = 0;
+        switch (sort) {
+            case DIFFICULTY:
+                c = compareDifficulty(a, b);
+                if (c == 0) c = Integer.compare(sizes[a], sizes[b]);
+                break;
+            case SIZE:
+                c = Integer.compare(sizes[a], sizes[b]);
+                if (c == 0) c = Integer.compare(pairCounts[a], pairCounts[b]);
+                if (c == 0) c = compareDifficulty(a, b);
+                break;
+            default:
+                break;
+        }
+        if (c == 0) c = sortKeys[a].compareTo(sortKeys[b]);
+        return (c != 0) ? c : Integer.compare(a, b);
+    }
+
+    // Difficultés inconnues en dernier
+    private int compareDifficulty(int a, int b) {
+        float da = difficulties[a];
+        float db = difficulties[b];
+        if ((da < 0) != (db < 0)) return (da < 0) ? 1 : -1;
+        return Float.compare(da, db);
+    }
+
+    // Reconstruit l'index avec les seuls puzzles présents, dans le même ordre
+    private void compact() {
+        List<Puzzle> kept = getPuzzles();
+        boolean[] solved = new boolean[kept.size()];
+        for (int i = 0, id = 0; id < count; id++) {
+            if ((flags[id] & REMOVED) == 0) solved[i++] = (flags[id] & SOLVED) != 0;
+        }
+        int oldCount = count;
+        count = 0;
+        removedCount = 0;
+        ids.clear();
+        postings.clear();
+        dictionary.clear();
+        newWords.clear();
+        Arrays.fill(ordered, 0);
+        for (int i = 0; i < kept.size(); i++) {
+            int id = add(kept.get(i));
+            if (solved[i]) flags[id] |= SOLVED;
+        }
+        Arrays.fill(puzzles, count, oldCount, null);
+        Arrays.fill(sortKeys, count, oldCount, null);
+    }
+
+    private void grow() {
+        int capacity = puzzles.length * 2;
+        puzzles = Arrays.copyOf(puzzles, capacity);
+        sortKeys = Arrays.copyOf(sortKeys, capacity);
+        sizes = Arrays.copyOf(sizes, capacity);
+        pairCounts = Arrays.copyOf(pairCounts, capacity);
+        difficulties = Arrays.copyOf(difficulties, capacity);
+        flags = Arrays.copyOf(flags, capacity);
+        matches = new int[capacity];
+        results = new int[capacity];
+        for (int s = 0; s < orders.length; s++) {
+            if (orders[s] != null) orders[s] = Arrays.copyOf(orders[s], capacity);
+        }
+    }
+
+    // Minuscules, sans accents
+    private static String normalize(String text) {
+        if (text == null) return "";
+        String lower = text.toLowerCase(Locale.ROOT);
+        for (int i = 0; i < lower.length(); i++) {
+            if (lower.charAt(i) >= 0x80) {
+                String decomposed = Normalizer.normalize(lower, Normalizer.Form.NFD);
+                return MARKS.matcher(decomposed).replaceAll("");
+            }
+        }
+        return lower;
+    }
+
+    /**
+     * Clé de tri d'un nom normalisé : les nombres, complétés à gauche par des zéros,
+     * se comparent par valeur ("puzzle 9" avant "puzzle 10").
+     */
+    private static String sortKey(String name) {
+        StringBuilder key = null;
+        int i = 0;
+        while (i < name.length()) {
+            if (!Character.isDigit(name.charAt(i))) {
+                if (key != null) key.append(name.charAt(i));
+                i++;
+                continue;
+            }
+            int end = i;
+            while (end < name.length() && Character.isDigit(name.charAt(end))) end++;
+            if (key == null) key = new StringBuilder(name.length() + NUMBER_WIDTH).append(name, 0, i);
+            for (int k = end - i; k < NUMBER_WIDTH; k++) key.append('0');
+            key.append(name, i, end);
+            i = end;
+        }
+        return (key != null) ? key.toString() : name;
+    }
+
+    // Mots d'un texte normalisé : suites de lettres ou de chiffres
+    private static List<String> tokenize(String normalized) {
+        List<String> words = new ArrayList<>();
+        int start = -1;
+        for (int i = 0; i <= normalized.length(); i++) {
+            boolean inWord = i < normalized.length() && Character.isLetterOrDigit(normalized.charAt(i));
+            if (inWord && start < 0) {
+                start = i;
+            } else if (!inWord && start >= 0) {
+                words.add(normalized.substring(start, i));
+                start = -1;
+            }
+        }
+        return words;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Vérification en lot de tous les puzzles XML d'un répertoire.
+ *
+ * Les fichiers sont validés en parallèle (un thread par cœur) avec
+ * PuzzleValidator.validateLibraryPuzzle. Les résultats sont mis en cache par
+ * empreinte SHA-256 du contenu : un fichier inchangé n'est pas revérifié, même après
+ * un renommage ou un redémarrage. Le cache garde les MAX_CACHE_ENTRIES contenus
+ * utilisés le plus récemment (quelques centaines d'octets chacun).
+ *
+ * UserPuzzleLibrary s'en sert pour vérifier chaque fichier ajouté ou modifié.
+ */
+public class PuzzleLibraryVerifier {
+
+    private static final int CACHE_VERSION = 2;
+    static final int MAX_CACHE_ENTRIES = 4096;
+
+    private final File cacheFile;
+    // Ordre d'accès : l'entrée la moins récemment utilisée sort la première
+    private final Map<String, PuzzleValidator.Report> cache = Collections.synchronizedMap(
+            new LinkedHashMap<String, PuzzleValidator.Report>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, PuzzleValidator.Report> eldest) {
+                    return size() > MAX_CACHE_ENTRIES;
+                }
+            });
+
+    /**
+     * @param cacheFile fichier de cache persistant, ou null pour un cache en mémoire seulement
+     */
+    public PuzzleLibraryVerifier(File cacheFile) {
+        this.cacheFile = cacheFile;
+        loadCache();
+    }
+
+    /**
+     * Valide tous les fichiers .xml du répertoire.
+     *
+     * @return le rapport de chaque fichier, trié par nom
+     */
+    public Map<String, PuzzleValidator.Report> verifyDirectory(File directory, boolean checkSolvable)
+            throws IOException, InterruptedException {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".xml"));
+        Map<String, PuzzleValidator.Report> reports = new TreeMap<>();
+        if (files == null || files.length == 0) return reports;
+
+        int threads = Math.max(1, Math.min(files.length, Runtime.getRuntime().availableProcessors()));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<PuzzleValidator.Report>> futures = new ArrayList<>();
+            for (File file : files) {
+                futures.add(executor.submit(() -> verifyFile(file, checkSolvable)));
+            }
+            for (int i = 0; i < files.length; i++) {
+                try {
+                    reports.put(files[i].getName(), futures.get(i).get());
+                } catch (ExecutionException e) {
+                    PuzzleValidator.Report report = new PuzzleValidator.Report();
+                    report.addError("Lecture impossible : " + e.getCause().getMessage());
+                    reports.put(files[i].getName(), report);
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        save();
+        return reports;
+    }
+
+    /**
+     * Valide un fichier, en passant par le cache.
+     */
+    public PuzzleValidator.Report verifyFile(File file, boolean checkSolvable) throws IOException {
+        return verify(Files.readAllBytes(file.toPath()), file.getName(), checkSolvable);
+    }
+
+    /**
+     * Valide un contenu XML déjà lu, en passant par le cache.
+     */
+    public PuzzleValidator.Report verify(byte[] content, String fileName, boolean checkSolvable) {
+        String key = contentHash(content) + (checkSolvable ? ":s" : "");
+
+        PuzzleValidator.Report cached = cache.get(key);
+        if (cached != null) return cached;
+
+        Puzzle puzzle = PuzzleParser.parsePuzzle(new ByteArrayInputStream(content), fileName);
+        PuzzleValidator.Report report = PuzzleValidator.validateLibraryPuzzle(puzzle, checkSolvable);
+        if (report.isValid() && !puzzle.isValid()) {
+            report.addError("Fichier XML incomplet");
+        }
+
+        // Les solveurs sont déterministes (limites fixes) : même UNKNOWN peut être mis en cache
+        cache.put(key, report);
+        return report;
+    }
+
+    private static String contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder sb = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                sb.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return sb.toString();
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void loadCache() {
+        if (cacheFile == null || !cacheFile.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(cacheFile)))) {
+            if (in.readInt() != CACHE_VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                PuzzleValidator.Report report = new PuzzleValidator.Report();
+                int status = in.readByte();
+                report.setSolverStatus(status < 0 ? null : PuzzleSolver.Status.values()[status]);
+                int errors = in.readInt();
+                for (int e = 0; e < errors; e++) {
+                    report.addError(in.readUTF());
+                }
+                cache.put(key, report);
+            }
+        } catch (IOException e) {
+            // Cache corrompu : on repart de zéro
+            cache.clear();
+        }
+    }
+
+    /**
+     * Enregistre le cache (sans effet pour un cache en mémoire seulement), du moins
+     * au plus récemment utilisé : l'ordre est retrouvé au chargement.
+     */
+    public void save() throws IOException {
+        if (cacheFile == null) return;
+        Map<String, PuzzleValidator.Report> snapshot;
+        synchronized (cache) {
+            snapshot = new LinkedHashMap<>(cache);
+        }
+        File tmp = new File(cacheFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(CACHE_VERSION);
+            out.writeInt(snapshot.size());
+            for (Map.Entry<String, PuzzleValidator.Report> entry : snapshot.entrySet()) {
+                PuzzleValidator.Report report = entry.getValue();
+                out.writeUTF(entry.getKey());
+                out.writeByte(report.getSolverStatus() == null ? -1 : report.getSolverStatus().ordinal());
+                out.writeInt(report.getErrors().size());
+                for (String error : report.getErrors()) {
+                    out.writeUTF(error);
+                }
+            }
+        }
+        if (!tmp.renameTo(cacheFile)) {
+            throw new IOException("Impossible d'écrire le cache " + cacheFile);
+        }
+    }
+}
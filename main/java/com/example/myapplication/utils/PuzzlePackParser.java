@@ -0,0 +1,336 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+import org.xmlpull.v1.XmlPullParser;
+import org.xmlpull.v1.XmlPullParserFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Parseur en flux pour les "packs" : un document XML contenant un grand nombre
+ * d'éléments <puzzle> (par exemple sous une racine <puzzles>).
+ *
+ * Le premier passage lit le flux octet par octet, découpe chaque élément <puzzle>
+ * et le transmet à PuzzleParser. Il construit en même temps un index des positions
+ * (offset, longueur) de chaque élément, ce qui permet ensuite de relire un puzzle
+ * précis via un FileChannel sans reparser le pack depuis le début.
+ *
+ * La mémoire utilisée ne dépend que de la taille du plus gros élément, pas de la
+ * taille du pack (hors index : 12 octets par puzzle).
+ *
+ * Chaque élément est parsé dans l'encodage déclaré par le prologue du pack
+ * (<?xml ... encoding="..."?>), UTF-8 à défaut. La découpe se faisant sur les
+ * octets, seuls les encodages compatibles ASCII (UTF-8, ISO-8859-1...) sont lus.
+ * Un élément mal formé donne un puzzle invalide, au scan comme à la relecture.
+ */
+public class PuzzlePackParser {
+
+    // Taille maximale d'un élément <puzzle> ; au-delà il est ignoré et signalé
+    public static final int MAX_ELEMENT_BYTES = 1 << 20;
+
+    private static final int READ_BUFFER_SIZE = 8192;
+
+    private static final byte[] OPEN_TAG = "<puzzle".getBytes();
+    private static final byte[] CLOSE_TAG = "</puzzle>".getBytes();
+    private static final byte[] COMMENT_OPEN = "<!--".getBytes();
+
+    // Octets de début de pack examinés pour trouver la déclaration XML
+    private static final int PROLOG_BYTES = 256;
+    private static final Pattern ENCODING = Pattern.compile("encoding\\s*=\\s*[\"']([A-Za-z][A-Za-z0-9._-]*)[\"']");
+
+    /**
+     * Reçoit les puzzles et les erreurs au fil de la lecture du pack.
+     */
+    public interface PackListener {
+        // Appelé pour chaque élément, y compris les puzzles invalides
+        void onPuzzle(int index, Puzzle puzzle);
+
+        // Appelé quand un élément est invalide ou illisible ; la lecture continue
+        void onError(int index, long offset, String message);
+    }
+
+    /**
+     * Index des éléments <puzzle> d'un pack : position et longueur en octets.
+     */
+    public static class PackIndex {
+        private long[] offsets = new long[64];
+        private int[] lengths = new int[64];
+        private int count;
+        private String encoding = "UTF-8";
+
+        void add(long offset, int length) {
+            if (count == offsets.length) {
+                offsets = Arrays.copyOf(offsets, count * 2);
+                lengths = Arrays.copyOf(lengths, count * 2);
+            }
+            offsets[count] = offset;
+            lengths[count] = length;
+            count++;
+        }
+
+        public int size() {
+            return count;
+        }
+
+        public long getOffset(int index) {
+            return offsets[index];
+        }
+
+        public int getLength(int index) {
+            return lengths[index];
+        }
+
+        // Encodage déclaré par le pack, utilisé pour relire ses éléments
+        public String getEncoding() {
+            return encoding;
+        }
+    }
+
+    private final String packName;
+    private final XmlPullParser parser;
+
+    // Tampon réutilisé pour l'élément en cours de découpe
+    private byte[] element = new byte[4096];
+    private int elementLength;
+
+    public PuzzlePackParser(String packName) throws Exception {
+        this.packName = packName;
+        this.parser = XmlPullParserFactory.newInstance().newPullParser();
+    }
+
+    /**
+     * Lit tout le pack depuis un FileChannel (à partir de sa position courante).
+     * Les positions de l'index sont absolues dans le fichier, comme l'attend readPuzzle().
+     */
+    public PackIndex scan(FileChannel channel, PackListener listener) throws IOException {
+        return scan(Channels.newInputStream(channel), listener, channel.position());
+    }
+
+    /**
+     * Lit tout le pack en un seul passage, notifie le listener pour chaque élément
+     * et renvoie l'index des positions (relatives au début du flux). Le flux n'est
+     * pas fermé.
+     */
+    public PackIndex scan(InputStream input, PackListener listener) throws IOException {
+        return scan(input, listener, 0);
+    }
+
+    // start : position dans le fichier du premier octet du flux
+    private PackIndex scan(InputStream input, PackListener listener, long start) throws IOException {
+        PackIndex index = new PackIndex();
+        byte[] buffer = new byte[READ_BUFFER_SIZE];
+        byte[] prolog = new byte[PROLOG_BYTES];
+        int prologLength = 0;
+        boolean prologRead = false;
+
+        long position = start;  // offset absolu de l'octet courant
+        int openMatch = 0;      // progression dans "<puzzle"
+        int closeMatch = 0;     // progression dans "</puzzle>"
+        int commentMatch = 0;   // progression dans "<!--"
+        int dashes = 0;         // tirets consécutifs dans un commentaire
+        boolean inComment = false;
+        boolean inElement = false;
+        boolean inStartTag = false;
+        boolean overflow = false;
+        byte quote = 0;
+        byte previous = 0;
+        long elementStart = 0;
+
+        int read;
+        while ((read = input.read(buffer)) != -1) {
+            for (int i = 0; i < read; i++, position++) {
+                byte b = buffer[i];
+                if (prologLength < PROLOG_BYTES) prolog[prologLength++] = b;
+
+                if (inElement && !overflow) {
+                    if (elementLength == MAX_ELEMENT_BYTES) {
+                        overflow = true;
+                    } else {
+                        appendByte(b);
+                    }
+                }
+
+                if (inComment) {
+                    if (b == '-') {
+                        dashes++;
+                    } else {
+                        if (b == '>' && dashes >= 2) inComment = false;
+                        dashes = 0;
+                    }
+                    previous = b;
+                    continue;
+                }
+
+                commentMatch = (b == COMMENT_OPEN[commentMatch]) ? commentMatch + 1 : (b == '<' ? 1 : 0);
+                if (commentMatch == COMMENT_OPEN.length) {
+                    inComment = true;
+                    commentMatch = 0;
+                    dashes = 0;
+                    openMatch = 0;
+                    closeMatch = 0;
+                    previous = b;
+                    continue;
+                }
+
+                if (!inElement) {
+                    if (openMatch == OPEN_TAG.length) {
+                        // "<puzzle" doit être suivi d'un séparateur (et non "<puzzles")
+                        if (b == '>' || b == '/' || isWhitespace(b)) {
+                            if (!prologRead) {
+                                index.encoding = declaredEncoding(prolog, prologLength);
+                                prologRead = true;
+                            }
+                            inElement = true;
+                            inStartTag = true;
+                            overflow = false;
+                            quote = 0;
+                            elementStart = position - OPEN_TAG.length;
+                            elementLength = 0;
+                            for (byte t : OPEN_TAG) appendByte(t);
+                            appendByte(b);
+                            if (b == '>') inStartTag = false;
+                        }
+                        openMatch = (b == '<') ? 1 : 0;
+                    } else {
+                        openMatch = (b == OPEN_TAG[openMatch]) ? openMatch + 1 : (b == '<' ? 1 : 0);
+                    }
+                    previous = b;
+                    continue;
+                }
+
+                boolean ended = false;
+                if (inStartTag) {
+                    // Balise ouvrante : on surveille les guillemets et "/>"
+                    if (quote != 0) {
+                        if (b == quote) quote = 0;
+                    } else if (b == '"' || b == '\'') {
+                        quote = b;
+                    } else if (b == '>') {
+                        inStartTag = false;
+                        ended = (previous == '/');
+                    }
+                } else {
+                    closeMatch = (b == CLOSE_TAG[closeMatch]) ? closeMatch + 1 : (b == '<' ? 1 : 0);
+                    ended = (closeMatch == CLOSE_TAG.length);
+                }
+
+                if (ended) {
+                    int length = (int) Math.min(Integer.MAX_VALUE, position + 1 - elementStart);
+                    int puzzleIndex = index.size();
+                    index.add(elementStart, length);
+                    if (overflow) {
+                        listener.onError(puzzleIndex, elementStart, "Élément trop volumineux (" + length + " octets)");
+                        listener.onPuzzle(puzzleIndex, PuzzleParser.invalidPuzzle(elementName(puzzleIndex)));
+                    } else {
+                        deliver(puzzleIndex, elementStart, index.encoding, listener);
+                    }
+                    inElement = false;
+                    closeMatch = 0;
+                    elementLength = 0;
+                }
+                previous = b;
+            }
+        }
+
+        if (inElement) {
+            listener.onError(index.size(), elementStart, "Élément <puzzle> non terminé en fin de pack");
+        }
+        return index;
+    }
+
+    /**
+     * Relit directement le puzzle numéro {@code puzzleIndex} grâce à l'index,
+     * sans parcourir le reste du pack. Comme pour scan(), un élément mal formé
+     * donne un puzzle invalide ; seules les erreurs de lecture du fichier sont levées.
+     */
+    public Puzzle readPuzzle(FileChannel channel, PackIndex index, int puzzleIndex) throws IOException {
+        int length = index.getLength(puzzleIndex);
+        if (length > MAX_ELEMENT_BYTES) {
+            return PuzzleParser.invalidPuzzle(elementName(puzzleIndex));
+        }
+        ensureCapacity(length);
+        ByteBuffer target = ByteBuffer.wrap(element, 0, length);
+        long offset = index.getOffset(puzzleIndex);
+        while (target.hasRemaining()) {
+            int n = channel.read(target, offset + target.position());
+            if (n < 0) throw new IOException("Fin de fichier inattendue dans " + packName);
+        }
+        elementLength = length;
+        try {
+            return parseElement(puzzleIndex, index.encoding);
+        } catch (Exception e) {
+            return PuzzleParser.invalidPuzzle(elementName(puzzleIndex));
+        }
+    }
+
+    // Parse l'élément découpé et notifie le listener
+    private void deliver(int puzzleIndex, long offset, String encoding, PackListener listener) {
+        Puzzle puzzle;
+        try {
+            puzzle = parseElement(puzzleIndex, encoding);
+        } catch (Exception e) {
+            listener.onError(puzzleIndex, offset, "XML mal formé : " + e.getMessage());
+            listener.onPuzzle(puzzleIndex, PuzzleParser.invalidPuzzle(elementName(puzzleIndex)));
+            return;
+        }
+        if (!puzzle.isValid()) {
+            listener.onError(puzzleIndex, offset, "Puzzle invalide : " + puzzle.getName());
+        }
+        listener.onPuzzle(puzzleIndex, puzzle);
+    }
+
+    private Puzzle parseElement(int puzzleIndex, String encoding) throws Exception {
+        parser.setInput(new ByteArrayInputStream(element, 0, elementLength), encoding);
+        Puzzle puzzle = PuzzleParser.readPuzzle(parser, elementName(puzzleIndex));
+        return (puzzle != null) ? puzzle : PuzzleParser.invalidPuzzle(elementName(puzzleIndex));
+    }
+
+    /**
+     * Encodage de la déclaration XML en tête de pack (après un éventuel BOM UTF-8),
+     * UTF-8 s'il n'y en a pas ou s'il n'est pas pris en charge.
+     */
+    static String declaredEncoding(byte[] prolog, int length) {
+        String text = new String(prolog, 0, length, StandardCharsets.ISO_8859_1);
+        if (text.startsWith("\u00EF\u00BB\u00BF")) text = text.substring(3);
+        int end = text.indexOf("?>");
+        if (!text.startsWith("<?xml") || end < 0) return "UTF-8";
+        Matcher matcher = ENCODING.matcher(text.substring(0, end));
+        if (!matcher.find()) return "UTF-8";
+        String name = matcher.group(1);
+        try {
+            return Charset.isSupported(name) ? name : "UTF-8";
+        } catch (IllegalArgumentException e) {
+            return "UTF-8";
+        }
+    }
+
+    // Nom de repli d'un puzzle du pack : "<pack>#<index>"
+    private String elementName(int puzzleIndex) {
+        return packName + "#" + puzzleIndex;
+    }
+
+    private void appendByte(byte b) {
+        ensureCapacity(elementLength + 1);
+        element[elementLength++] = b;
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > element.length) {
+            element = Arrays.copyOf(element, Math.max(capacity, Math.min(element.length * 2, MAX_ELEMENT_BYTES)));
+        }
+    }
+
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\n' || b == '\r' || b == '\t';
+    }
+}
@@ -1,13 +1,13 @@
 package com.example.myapplication.utils;
 
 import android.content.Context;
-import android.util.Log;
+import com.example.myapplication.models.BoardTopology;
 import com.example.myapplication.models.PointCoord;
 import com.example.myapplication.models.Puzzle;
-import com.example.myapplication.models.PuzzlePair;
 import org.xmlpull.v1.XmlPullParser;
 import org.xmlpull.v1.XmlPullParserFactory;
 
+import java.io.File;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
@@ -15,88 +15,219 @@ import java.util.List;
 /**
  * Utilitaire pour parser les fichiers XML de puzzles.
  * Chaque fichier décrit la taille de la grille et les paires de points.
+ *
+ * La forme du plateau est optionnelle :
+ * - attribut forme="carre" (défaut), "tore" ou "hexagone" sur <puzzle> ;
+ * - <trou ligne="" colonne=""/> retire une case ;
+ * - <mur> contenant deux <point> sépare deux cases voisines.
  */
 public class PuzzleParser {
 
     private static final String TAG = "PuzzleParser";
 
     public static Puzzle parsePuzzle(Context context, String assetFileName) {
-        Puzzle puzzle = null;
-        List<PointCoord> tempPoints = new ArrayList<>();
-        int pairCounter = 0;
+        // Puzzle importé par code de partage : pas de fichier à lire
+        if (ShareCode.isShareFileName(assetFileName)) {
+            Puzzle puzzle = ShareCode.decode(assetFileName);
+            return (puzzle != null) ? puzzle : invalidPuzzle(assetFileName);
+        }
+        // Puzzle déposé par l'utilisateur dans son dossier
+        if (assetFileName.startsWith(UserPuzzleLibrary.PREFIX)) {
+            return UserPuzzleLibrary.parse(userPuzzleDirectory(context), assetFileName);
+        }
+        try (InputStream input = context.getAssets().open("puzzles/" + assetFileName)) {
+            return parsePuzzle(input, assetFileName);
+        } catch (Exception e) {
+            return invalidPuzzle(assetFileName);
+        }
+    }
+
+    /**
+     * Dossier des puzzles de l'utilisateur (UserPuzzleLibrary), accessible depuis un
+     * ordinateur quand le stockage externe est disponible.
+     */
+    public static File userPuzzleDirectory(Context context) {
+        File base = context.getExternalFilesDir(null);
+        return new File((base != null) ? base : context.getFilesDir(), "puzzles");
+    }
 
+    /**
+     * Parse un puzzle depuis un flux quelconque (fichier, asset, extrait d'un pack).
+     * Ne lève jamais d'exception : un puzzle invalide est renvoyé en cas d'erreur.
+     */
+    public static Puzzle parsePuzzle(InputStream input, String fileName) {
         try {
-            InputStream input = context.getAssets().open("puzzles/" + assetFileName);
             XmlPullParserFactory factory = XmlPullParserFactory.newInstance();
             XmlPullParser parser = factory.newPullParser();
             parser.setInput(input, null);
+            Puzzle puzzle = readPuzzle(parser, fileName);
+            return (puzzle != null) ? puzzle : invalidPuzzle(fileName);
+        } catch (Exception e) {
+            return invalidPuzzle(fileName);
+        }
+    }
 
-            int eventType = parser.getEventType();
-
-            while (eventType != XmlPullParser.END_DOCUMENT) {
-                switch (eventType) {
-                    case XmlPullParser.START_TAG:
-                        String tagName = parser.getName();
-                        if ("puzzle".equals(tagName)) {
-                            // Lecture des attributs du puzzle
-                            String sizeAttr = parser.getAttributeValue(null, "size");
-                            String nameAttr = parser.getAttributeValue(null, "nom");
-
-                            if (sizeAttr == null) {
-                                puzzle = new Puzzle(assetFileName.replace(".xml", ""), 0);
+    /**
+     * Lit un élément <puzzle> à partir d'un parseur déjà positionné.
+     * Contrairement à parsePuzzle, les erreurs de syntaxe XML sont propagées
+     * pour que l'appelant puisse les signaler.
+     *
+     * @return le puzzle lu, ou null si aucun élément <puzzle> n'a été trouvé
+     */
+    static Puzzle readPuzzle(XmlPullParser parser, String fileName) throws Exception {
+        Puzzle.Builder puzzle = null;
+        List<PointCoord> tempPoints = new ArrayList<>();
+        int pairCounter = 0;
+        BoardTopology.Shape shape = BoardTopology.Shape.SQUARE;
+        List<PointCoord> holes = new ArrayList<>();
+        List<PointCoord> walls = new ArrayList<>();
+
+        int eventType = parser.getEventType();
+
+        while (eventType != XmlPullParser.END_DOCUMENT) {
+            switch (eventType) {
+                case XmlPullParser.START_TAG:
+                    String tagName = parser.getName();
+                    if ("puzzle".equals(tagName)) {
+                        // Lecture des attributs du puzzle
+                        String sizeAttr = parser.getAttributeValue(null, "size");
+                        String nameAttr = parser.getAttributeValue(null, "nom");
+
+                        if (sizeAttr == null) {
+                            puzzle = new Puzzle.Builder(defaultName(fileName), 0).setValid(false);
+                        } else {
+                            int sizeValue = Integer.parseInt(sizeAttr);
+                            String puzzleName = (nameAttr != null) ? nameAttr : defaultName(fileName);
+                            puzzle = new Puzzle.Builder(puzzleName, sizeValue).setFileName(fileName);
+
+                            if (!PuzzleValidator.isLibrarySize(sizeValue)) {
                                 puzzle.setValid(false);
-                            } else {
-                                int sizeValue = Integer.parseInt(sizeAttr);
-                                String puzzleName = (nameAttr != null) ? nameAttr : assetFileName.replace(".xml", "");
-                                puzzle = new Puzzle(puzzleName, sizeValue);
-                                puzzle.setFileName(assetFileName);
-
-                                if (sizeValue < 5 || sizeValue > 14) {
-                                    puzzle.setValid(false);
-                                }
                             }
+                        }
 
-                        } else if ("point".equals(tagName)) {
-                            String ligneAttr = parser.getAttributeValue(null, "ligne");
-                            String colonneAttr = parser.getAttributeValue(null, "colonne");
+                        shape = parseShape(parser.getAttributeValue(null, "forme"));
+                        if (shape == null) {
+                            puzzle.setValid(false);
+                            shape = BoardTopology.Shape.SQUARE;
+                        }
 
-                            if (ligneAttr == null || colonneAttr == null) {
-                                if (puzzle != null) puzzle.setValid(false);
-                            } else {
-                                int row = Integer.parseInt(ligneAttr);
-                                int col = Integer.parseInt(colonneAttr);
-                                tempPoints.add(new PointCoord(row, col));
-                            }
+                    } else if ("point".equals(tagName)) {
+                        String ligneAttr = parser.getAttributeValue(null, "ligne");
+                        String colonneAttr = parser.getAttributeValue(null, "colonne");
+
+                        if (ligneAttr == null || colonneAttr == null) {
+                            if (puzzle != null) puzzle.setValid(false);
+                        } else {
+                            int row = Integer.parseInt(ligneAttr);
+                            int col = Integer.parseInt(colonneAttr);
+                            tempPoints.add(PointCoord.of(row, col));
                         }
-                        break;
-
-                    case XmlPullParser.END_TAG:
-                        if ("paire".equals(parser.getName())) {
-                            if (puzzle != null && tempPoints.size() == 2) {
-                                PuzzlePair pair = new PuzzlePair(tempPoints.get(0), tempPoints.get(1), pairCounter++);
-                                puzzle.addPair(pair);
-                            } else if (puzzle != null) {
-                                puzzle.setValid(false);
-                            }
-                            tempPoints.clear();
+                    } else if ("trou".equals(tagName)) {
+                        String ligneAttr = parser.getAttributeValue(null, "ligne");
+                        String colonneAttr = parser.getAttributeValue(null, "colonne");
+
+                        if (ligneAttr == null || colonneAttr == null) {
+                            if (puzzle != null) puzzle.setValid(false);
+                        } else {
+                            holes.add(PointCoord.of(Integer.parseInt(ligneAttr), Integer.parseInt(colonneAttr)));
+                        }
+                    }
+                    break;
+
+                case XmlPullParser.END_TAG:
+                    if ("paire".equals(parser.getName())) {
+                        if (puzzle != null && tempPoints.size() == 2) {
+                            puzzle.addPair(tempPoints.get(0), tempPoints.get(1), pairCounter++);
+                        } else if (puzzle != null) {
+                            puzzle.setValid(false);
+                        }
+                        tempPoints.clear();
+                    } else if ("mur".equals(parser.getName())) {
+                        if (tempPoints.size() == 2) {
+                            walls.addAll(tempPoints);
+                        } else if (puzzle != null) {
+                            puzzle.setValid(false);
                         }
-                        break;
-                }
-                eventType = parser.next();
+                        tempPoints.clear();
+                    } else if ("puzzle".equals(parser.getName())) {
+                        // Un seul puzzle par appel : on s'arrête à la balise fermante
+                        return checkStructure(applyTopology(puzzle, shape, holes, walls));
+                    }
+                    break;
             }
+            eventType = parser.next();
+        }
 
-        } catch (Exception e) {
-            if (puzzle == null) {
-                puzzle = new Puzzle(assetFileName.replace(".xml", ""), 0);
-                puzzle.setValid(false);
+        return checkStructure(applyTopology(puzzle, shape, holes, walls));
+    }
+
+    // Valeur de l'attribut forme, null si inconnue
+    private static BoardTopology.Shape parseShape(String value) {
+        if (value == null || "carre".equals(value)) return BoardTopology.Shape.SQUARE;
+        if ("tore".equals(value)) return BoardTopology.Shape.TORUS;
+        if ("hexagone".equals(value)) return BoardTopology.Shape.HEX;
+        return null;
+    }
+
+    /**
+     * Construit la forme du plateau. Un trou hors grille, ou un mur entre deux
+     * cases non voisines, rend le puzzle invalide.
+     */
+    private static Puzzle.Builder applyTopology(Puzzle.Builder puzzle, BoardTopology.Shape shape,
+                                                List<PointCoord> holes, List<PointCoord> walls) {
+        if (puzzle == null || !puzzle.isValid()) return puzzle;
+        if (shape == BoardTopology.Shape.SQUARE && holes.isEmpty() && walls.isEmpty()) return puzzle;
+
+        int size = puzzle.getSize();
+        int[] holeCells = new int[holes.size()];
+        for (int i = 0; i < holeCells.length; i++) {
+            holeCells[i] = cellOf(holes.get(i), size);
+            if (holeCells[i] < 0) {
+                return puzzle.setValid(false);
+            }
+        }
+        int[] wallCells = new int[walls.size()];
+        for (int i = 0; i < wallCells.length; i++) {
+            wallCells[i] = cellOf(walls.get(i), size);
+            if (wallCells[i] < 0) {
+                return puzzle.setValid(false);
             }
         }
 
-        if (puzzle == null) {
-            puzzle = new Puzzle(assetFileName.replace(".xml", ""), 0);
-            puzzle.setValid(false);
+        // Les murs doivent séparer des cases voisines sur la forme sans murs
+        BoardTopology open = new BoardTopology(size, shape, new int[0], new int[0]);
+        for (int i = 0; i < wallCells.length; i += 2) {
+            if (!open.areAdjacent(wallCells[i], wallCells[i + 1])) {
+                return puzzle.setValid(false);
+            }
         }
 
+        return puzzle.setTopology(new BoardTopology(size, shape, holeCells, wallCells));
+    }
+
+    // Indice à plat, -1 hors grille
+    private static int cellOf(PointCoord point, int size) {
+        int r = point.getRow();
+        int c = point.getCol();
+        return (r < 0 || c < 0 || r >= size || c >= size) ? -1 : r * size + c;
+    }
+
+    // Construit le puzzle, invalide s'il ne pourrait pas être joué par PuzzleController (têtes superposées, etc.)
+    private static Puzzle checkStructure(Puzzle.Builder builder) {
+        if (builder == null) return null;
+        Puzzle puzzle = builder.build();
+        if (puzzle.isValid() && !PuzzleValidator.validateStructure(puzzle).isValid()) {
+            return puzzle.invalidated();
+        }
         return puzzle;
     }
+
+    // Puzzle de repli quand le fichier est illisible
+    static Puzzle invalidPuzzle(String fileName) {
+        return new Puzzle.Builder(defaultName(fileName), 0).setValid(false).build();
+    }
+
+    private static String defaultName(String fileName) {
+        return fileName.replace(".xml", "");
+    }
 }
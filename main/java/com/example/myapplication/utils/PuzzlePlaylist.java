@@ -0,0 +1,54 @@
+package com.example.myapplication.utils;
+
+import java.util.List;
+
+/**
+ * Ordre des puzzles valides du menu, tel qu'il était affiché au lancement d'une
+ * partie, pour le bouton "SUIVANT" de l'écran de jeu.
+ *
+ * La liste reste dans le processus : l'Intent et l'état sauvegardé de l'activité
+ * ne transportent que le fichier ouvert et sa position. Après la mort du
+ * processus, la liste est vide et la partie continue sans puzzle suivant.
+ */
+public class PuzzlePlaylist {
+
+    private static PuzzlePlaylist instance;
+
+    public static synchronized PuzzlePlaylist getInstance() {
+        if (instance == null) {
+            instance = new PuzzlePlaylist();
+        }
+        return instance;
+    }
+
+    private String[] fileNames = new String[0];
+
+    private PuzzlePlaylist() {
+    }
+
+    public synchronized void set(List<String> fileNames) {
+        this.fileNames = fileNames.toArray(new String[0]);
+    }
+
+    /**
+     * Position du fichier dans la liste : position si elle lui correspond encore,
+     * sinon sa première occurrence, ou -1 s'il n'y figure pas.
+     */
+    public synchronized int positionOf(String fileName, int position) {
+        if (fileName == null) return -1;
+        if (position >= 0 && position < fileNames.length && fileName.equals(fileNames[position])) {
+            return position;
+        }
+        for (int i = 0; i < fileNames.length; i++) {
+            if (fileName.equals(fileNames[i])) return i;
+        }
+        return -1;
+    }
+
+    /**
+     * Fichier à la position donnée, ou null hors de la liste.
+     */
+    public synchronized String get(int position) {
+        return (position >= 0 && position < fileNames.length) ? fileNames[position] : null;
+    }
+}
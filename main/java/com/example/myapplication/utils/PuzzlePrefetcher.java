@@ -0,0 +1,111 @@
+package com.example.myapplication.utils;
+
+import android.content.Context;
+
+import com.example.myapplication.controllers.PuzzleController;
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Prépare en arrière-plan le puzzle que le joueur a le plus de chances d'ouvrir
+ * (le suivant dans la liste, ou le dernier survolé), pour que son ouverture
+ * n'ait plus qu'à afficher la grille.
+ *
+ * La préparation (parsing, validation et grille initiale) se fait sur un thread
+ * unique de faible priorité ; take() n'attend que celle du puzzle demandé et des
+ * demandes passées avant lui.
+ */
+public class PuzzlePrefetcher {
+
+    // Nombre de puzzles préparés gardés en attente
+    private static final int MAX_PREPARED = 3;
+
+    private static PuzzlePrefetcher instance;
+
+    public static synchronized PuzzlePrefetcher getInstance() {
+        if (instance == null) {
+            instance = new PuzzlePrefetcher();
+        }
+        return instance;
+    }
+
+    /**
+     * Puzzle prêt à jouer : parsé, validé, avec sa grille initiale.
+     */
+    public static class PreparedPuzzle {
+        public final String assetFileName;
+        public final Puzzle puzzle;
+        public final BoardGrid initialGrid;
+
+        PreparedPuzzle(String assetFileName, Puzzle puzzle, BoardGrid initialGrid) {
+            this.assetFileName = assetFileName;
+            this.puzzle = puzzle;
+            this.initialGrid = initialGrid;
+        }
+    }
+
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "prefetch");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+    });
+
+    private final Map<String, Future<PreparedPuzzle>> prepared = new LinkedHashMap<>();
+
+    private PuzzlePrefetcher() {
+    }
+
+    /**
+     * Demande la préparation d'un puzzle ; sans effet s'il est déjà demandé.
+     */
+    public synchronized void prefetch(Context context, String assetFileName) {
+        if (assetFileName == null || prepared.containsKey(assetFileName)) return;
+
+        Context appContext = context.getApplicationContext();
+        prepared.put(assetFileName, executor.submit(() -> prepare(appContext, assetFileName)));
+
+        // On oublie les plus anciennes demandes
+        Iterator<Future<PreparedPuzzle>> it = prepared.values().iterator();
+        while (prepared.size() > MAX_PREPARED && it.hasNext()) {
+            it.next().cancel(false);
+            it.remove();
+        }
+    }
+
+    /**
+     * Récupère le puzzle préparé (en attendant la fin du parsing s'il est en cours),
+     * ou null s'il n'a pas été demandé. Le puzzle est retiré du cache : sa grille
+     * initiale appartient désormais à l'appelant.
+     */
+    public PreparedPuzzle take(String assetFileName) {
+        Future<PreparedPuzzle> future;
+        synchronized (this) {
+            future = prepared.remove(assetFileName);
+        }
+        if (future == null) return null;
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | CancellationException e) {
+            return null;
+        }
+    }
+
+    private PreparedPuzzle prepare(Context context, String assetFileName) {
+        Puzzle puzzle = PuzzleParser.parsePuzzle(context, assetFileName);
+        BoardGrid grid = puzzle.isValid() ? PuzzleController.createInitialGrid(puzzle) : null;
+        return new PreparedPuzzle(assetFileName, puzzle, grid);
+    }
+}
@@ -0,0 +1,374 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.Arrays;
+
+/**
+ * Solveur par retour arrière (backtracking) pour les puzzles.
+ *
+ * Les cases sont numérotées à plat (row * size + col) et les voisinages viennent de
+ * la table de BoardTopology (carré, tore, hexagone, trous, murs). À chaque étape on prolonge
+ * la paire qui a le moins de coups possibles, et on élague avec :
+ * - les culs-de-sac (case vide avec moins de deux sorties),
+ * - la connexité (chaque paire doit pouvoir rejoindre sa seconde tête, et chaque
+ *   zone vide doit pouvoir être remplie par au moins une paire).
+ *
+ * Le nombre de nœuds explorés est borné ; au-delà le résultat est UNKNOWN.
+ * Une instance n'est pas thread-safe, mais cancel() peut être appelé depuis un autre thread.
+ */
+public class PuzzleSolver {
+
+    public static final long DEFAULT_NODE_LIMIT = 2_000_000L;
+
+    private static final int HOLE = -2;
+
+    public enum Status { SOLVED, UNSOLVABLE, UNKNOWN }
+
+    /**
+     * Résultat d'une recherche.
+     */
+    public static class Result {
+        public final Status status;
+        public final int solutionCount;   // nombre de solutions trouvées (borné par maxSolutions)
+        public final long nodes;          // nœuds explorés
+        public final long decisions;      // choix de coup effectués
+        public final long forcedDecisions; // choix où un seul coup était possible
+        public final int[] grid;          // première solution : pairId par case, ou null
+        public final int[][] paths;       // première solution : cases de chaque paire (ordre de getPairs()), d'une tête à l'autre
+
+        Result(Status status, int solutionCount, long nodes, long decisions, long forcedDecisions,
+               int[] grid, int[][] paths) {
+            this.status = status;
+            this.solutionCount = solutionCount;
+            this.nodes = nodes;
+            this.decisions = decisions;
+            this.forcedDecisions = forcedDecisions;
+            this.grid = grid;
+            this.paths = paths;
+        }
+
+        public boolean isUnique() {
+            return status == Status.SOLVED && solutionCount == 1;
+        }
+
+        // Part des choix qui étaient forcés (0 si aucun choix)
+        public double getForcedRatio() {
+            return decisions == 0 ? 0 : (double) forcedDecisions / decisions;
+        }
+    }
+
+    private final int size;
+    private final int cellCount;
+    private final int[] neighbours;  // table de BoardTopology
+    private final int[] degree;
+    private final int stride;
+    private final int pairCount;
+    private final int[] pairIds;     // index interne -> pairId du puzzle
+
+    private final int[] grid;        // index interne de paire par case, -1 si vide, HOLE pour un trou
+    private final int[] target;      // seconde tête de chaque paire
+    private final int[] end;         // extrémité courante du tracé
+    private final boolean[] done;
+    private final int[][] path;
+    private final int[] pathLength;
+    private int filled;
+
+    // Tampons réutilisés par l'élagage
+    private final int[] component;
+    private final int[] queue;
+    private final boolean[] served;
+
+    private long nodeLimit = DEFAULT_NODE_LIMIT;
+    private volatile boolean cancelled;
+
+    private long nodes;
+    private long decisions;
+    private long forcedDecisions;
+    private int maxSolutions;
+    private int solutions;
+    private boolean aborted;
+    private int[] firstGrid;
+    private int[][] firstPaths;
+
+    /**
+     * Prépare le solveur. Le puzzle doit avoir passé les vérifications
+     * structurelles de PuzzleValidator (coordonnées dans la grille, têtes distinctes).
+     */
+    public PuzzleSolver(Puzzle puzzle) {
+        this.size = puzzle.getSize();
+        this.cellCount = size * size;
+        this.pairCount = puzzle.getPairCount();
+
+        pairIds = new int[pairCount];
+        grid = new int[cellCount];
+        target = new int[pairCount];
+        end = new int[pairCount];
+        done = new boolean[pairCount];
+        path = new int[pairCount][cellCount];
+        pathLength = new int[pairCount];
+        component = new int[cellCount];
+        queue = new int[cellCount];
+        served = new boolean[cellCount + 1];
+
+        BoardTopology topology = puzzle.getTopology();
+        neighbours = topology.getNeighbourTable();
+        degree = topology.getDegrees();
+        stride = topology.getMaxDegree();
+
+        Arrays.fill(grid, -1);
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (topology.isHole(cell)) {
+                grid[cell] = HOLE;
+                filled++;
+            }
+        }
+        for (int p = 0; p < pairCount; p++) {
+            pairIds[p] = puzzle.getPairId(p);
+            int first = puzzle.getFirstCell(p);
+            int second = puzzle.getSecondCell(p);
+            grid[first] = p;
+            grid[second] = p;
+            end[p] = first;
+            target[p] = second;
+            path[p][0] = first;
+            pathLength[p] = 1;
+            filled += 2;
+        }
+    }
+
+    public void setNodeLimit(long nodeLimit) {
+        this.nodeLimit = nodeLimit;
+    }
+
+    // Peut être appelé depuis n'importe quel thread
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Cherche une solution.
+     */
+    public Result solve() {
+        return search(1);
+    }
+
+    /**
+     * Cherche jusqu'à maxSolutions solutions (2 suffit pour tester l'unicité).
+     */
+    public Result countSolutions(int maxSolutions) {
+        return search(maxSolutions);
+    }
+
+    private Result search(int max) {
+        maxSolutions = max;
+        solutions = 0;
+        nodes = 0;
+        decisions = 0;
+        forcedDecisions = 0;
+        aborted = false;
+        firstGrid = null;
+        firstPaths = null;
+
+        if (pairCount > 0 && connectivityOk()) {
+            search();
+        }
+
+        Status status;
+        if (solutions > 0) {
+            status = Status.SOLVED;
+        } else if (aborted) {
+            status = Status.UNKNOWN;
+        } else {
+            status = Status.UNSOLVABLE;
+        }
+        return new Result(status, solutions, nodes, decisions, forcedDecisions, firstGrid, firstPaths);
+    }
+
+    // Renvoie true quand la recherche doit s'arrêter
+    private boolean search() {
+        if (cancelled || nodes >= nodeLimit) {
+            aborted = true;
+            return true;
+        }
+        nodes++;
+
+        // Choix de la paire la plus contrainte
+        int best = -1;
+        int bestCount = Integer.MAX_VALUE;
+        for (int p = 0; p < pairCount; p++) {
+            if (done[p]) continue;
+            int count = countMoves(p);
+            if (count == 0) return false;
+            if (count < bestCount) {
+                best = p;
+                bestCount = count;
+                if (count == 1) break;
+            }
+        }
+
+        if (best == -1) {
+            if (filled == cellCount) {
+                recordSolution();
+                return solutions >= maxSolutions;
+            }
+            return false;
+        }
+
+        decisions++;
+        if (bestCount == 1) forcedDecisions++;
+
+        int from = end[best];
+        int first = from * stride;
+        int last = first + degree[from];
+        // La seconde tête en premier : fermer une paire réduit vite l'espace
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = first; i < last; i++) {
+                int next = neighbours[i];
+                boolean isTarget = next == target[best];
+                if (pass == 0 ? !isTarget : (isTarget || grid[next] != -1)) continue;
+
+                apply(best, next, isTarget);
+                if (deadEndFree(from, next) && connectivityOk()) {
+                    if (search()) {
+                        undo(best, next, isTarget);
+                        return true;
+                    }
+                }
+                undo(best, next, isTarget);
+            }
+        }
+        return false;
+    }
+
+    private int countMoves(int p) {
+        int from = end[p];
+        int count = 0;
+        for (int i = from * stride, e = i + degree[from]; i < e; i++) {
+            int next = neighbours[i];
+            if (grid[next] == -1 || next == target[p]) count++;
+        }
+        return count;
+    }
+
+    private void apply(int p, int cell, boolean isTarget) {
+        if (!isTarget) {
+            grid[cell] = p;
+            filled++;
+        }
+        path[p][pathLength[p]++] = cell;
+        end[p] = cell;
+        done[p] = isTarget;
+    }
+
+    private void undo(int p, int cell, boolean isTarget) {
+        if (!isTarget) {
+            grid[cell] = -1;
+            filled--;
+        }
+        pathLength[p]--;
+        end[p] = path[p][pathLength[p] - 1];
+        done[p] = false;
+    }
+
+    /**
+     * Vérifie qu'aucune case vide autour du coup joué n'est devenue un cul-de-sac.
+     */
+    private boolean deadEndFree(int from, int to) {
+        return neighboursHaveExits(from) && neighboursHaveExits(to);
+    }
+
+    private boolean neighboursHaveExits(int cell) {
+        for (int i = cell * stride, e = i + degree[cell]; i < e; i++) {
+            int n = neighbours[i];
+            if (grid[n] == -1 && exits(n) < 2) return false;
+        }
+        return true;
+    }
+
+    // Nombre de voisins par lesquels un chemin peut entrer ou sortir d'une case vide
+    private int exits(int cell) {
+        int count = 0;
+        for (int i = cell * stride, e = i + degree[cell]; i < e; i++) {
+            int n = neighbours[i];
+            int owner = grid[n];
+            if (owner == -1 || (!done[owner] && (n == end[owner] || n == target[owner]))) count++;
+        }
+        return count;
+    }
+
+    /**
+     * Étiquette les zones vides puis vérifie que chaque paire non terminée peut
+     * encore rejoindre sa seconde tête, et que chaque zone est desservie par une paire.
+     */
+    private boolean connectivityOk() {
+        Arrays.fill(component, 0);
+        int components = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (grid[cell] != -1 || component[cell] != 0) continue;
+            components++;
+            int head = 0;
+            int tail = 0;
+            queue[tail++] = cell;
+            component[cell] = components;
+            while (head < tail) {
+                int current = queue[head++];
+                for (int i = current * stride, e = i + degree[current]; i < e; i++) {
+                    int n = neighbours[i];
+                    if (grid[n] == -1 && component[n] == 0) {
+                        component[n] = components;
+                        queue[tail++] = n;
+                    }
+                }
+            }
+        }
+
+        Arrays.fill(served, 0, components + 1, false);
+        for (int p = 0; p < pairCount; p++) {
+            if (done[p]) continue;
+            boolean reachable = adjacent(end[p], target[p]);
+            for (int i = end[p] * stride, e = i + degree[end[p]]; i < e; i++) {
+                int a = neighbours[i];
+                if (grid[a] != -1) continue;
+                if (touchesComponent(target[p], component[a])) {
+                    served[component[a]] = true;
+                    reachable = true;
+                }
+            }
+            if (!reachable) return false;
+        }
+        for (int c = 1; c <= components; c++) {
+            if (!served[c]) return false;
+        }
+        return true;
+    }
+
+    private boolean touchesComponent(int cell, int comp) {
+        for (int i = cell * stride, e = i + degree[cell]; i < e; i++) {
+            int n = neighbours[i];
+            if (grid[n] == -1 && component[n] == comp) return true;
+        }
+        return false;
+    }
+
+    private boolean adjacent(int a, int b) {
+        for (int i = a * stride, e = i + degree[a]; i < e; i++) {
+            if (neighbours[i] == b) return true;
+        }
+        return false;
+    }
+
+    private void recordSolution() {
+        solutions++;
+        if (firstGrid != null) return;
+        firstGrid = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            firstGrid[cell] = (grid[cell] >= 0) ? pairIds[grid[cell]] : -1;
+        }
+        firstPaths = new int[pairCount][];
+        for (int p = 0; p < pairCount; p++) {
+            firstPaths[p] = Arrays.copyOf(path[p], pathLength[p]);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Validation sémantique d'un puzzle déjà parsé.
+ *
+ * Vérifie ce que le parseur ne contrôle pas : coordonnées dans la grille,
+ * têtes superposées ou sur un trou, parité du damier et accessibilité des têtes.
+ * Les voisinages sont ceux de la forme du plateau (Puzzle.getTopology()). Les têtes
+ * sont lues en cases à plat (getFirstCell, getSecondCell) : valider un puzzle de
+ * catalogue ne construit pas sa liste de PuzzlePair.
+ * La résolvabilité (plus coûteuse) est optionnelle et passe par PuzzleSolver, puis
+ * par SatPuzzleSolver si le retour arrière atteint sa limite sans conclure.
+ *
+ * validateStructure ne garde que les contrôles sans lesquels le puzzle ne peut
+ * pas être joué (PuzzleController indexe la grille directement) ; validate ajoute
+ * les contrôles liés au remplissage complet de la grille.
+ */
+public class PuzzleValidator {
+
+    /** Tailles acceptées pour un puzzle de la bibliothèque (fichiers XML, éditeur). */
+    public static final int MIN_SIZE = 5;
+    public static final int MAX_SIZE = 14;
+
+    private static final long SAT_CONFLICT_LIMIT = 50_000;
+
+    /**
+     * Compte rendu de validation : la liste des erreurs est vide si le puzzle est valide.
+     */
+    public static class Report {
+        private final List<String> errors = new ArrayList<>();
+        private PuzzleSolver.Status solverStatus;
+
+        public boolean isValid() {
+            return errors.isEmpty();
+        }
+
+        public List<String> getErrors() {
+            return errors;
+        }
+
+        // null si la résolvabilité n'a pas été vérifiée
+        public PuzzleSolver.Status getSolverStatus() {
+            return solverStatus;
+        }
+
+        void addError(String error) {
+            errors.add(error);
+        }
+
+        void setSolverStatus(PuzzleSolver.Status status) {
+            this.solverStatus = status;
+        }
+    }
+
+    /**
+     * Valide un puzzle. Si checkSolvable est vrai et que les vérifications
+     * structurelles passent, le solveur est lancé avec sa limite de nœuds par défaut,
+     * puis le solveur SAT (limité en conflits) s'il n'a pas conclu ; un résultat
+     * UNKNOWN n'est pas considéré comme une erreur.
+     */
+    public static Report validate(Puzzle puzzle, boolean checkSolvable) {
+        Report report = new Report();
+        if (!checkStructure(puzzle, report, true)) return report;
+
+        checkParity(puzzle, report);
+
+        if (checkSolvable && report.isValid()) {
+            PuzzleSolver.Result result = new PuzzleSolver(puzzle).solve();
+            if (result.status == PuzzleSolver.Status.UNKNOWN) {
+                SatPuzzleSolver sat = new SatPuzzleSolver(puzzle);
+                sat.setConflictLimit(SAT_CONFLICT_LIMIT);
+                result = sat.solve();
+            }
+            report.setSolverStatus(result.status);
+            if (result.status == PuzzleSolver.Status.UNSOLVABLE) {
+                report.addError("Puzzle sans solution");
+            }
+        }
+        return report;
+    }
+
+    /**
+     * Valide un puzzle de la bibliothèque : taille entre MIN_SIZE et MAX_SIZE, puis validate.
+     */
+    public static Report validateLibraryPuzzle(Puzzle puzzle, boolean checkSolvable) {
+        if (!isLibrarySize(puzzle.getSize())) {
+            Report report = new Report();
+            report.addError("Taille hors limites : " + puzzle.getSize());
+            return report;
+        }
+        return validate(puzzle, checkSolvable);
+    }
+
+    public static boolean isLibrarySize(int size) {
+        return size >= MIN_SIZE && size <= MAX_SIZE;
+    }
+
+    /**
+     * Contrôles minimaux pour pouvoir jouer le puzzle : taille, têtes dans la
+     * grille et distinctes, têtes de chaque paire reliables.
+     */
+    public static Report validateStructure(Puzzle puzzle) {
+        Report report = new Report();
+        checkStructure(puzzle, report, false);
+        return report;
+    }
+
+    private static boolean checkStructure(Puzzle puzzle, Report report, boolean requireCoverage) {
+        if (puzzle.getSize() <= 0) {
+            report.addError("Taille de grille absente ou nulle");
+            return false;
+        }
+        if (puzzle.getPairCount() == 0) {
+            report.addError("Aucune paire");
+            return false;
+        }
+
+        checkHeads(puzzle, report);
+        if (!report.isValid()) return false;
+
+        checkReachability(puzzle, report, requireCoverage);
+        return report.isValid();
+    }
+
+    /**
+     * Coordonnées hors grille ou sur un trou, et têtes superposées (dans une même
+     * paire ou entre paires).
+     */
+    private static void checkHeads(Puzzle puzzle, Report report) {
+        int size = puzzle.getSize();
+        BoardTopology topology = puzzle.getTopology();
+        int cellCount = size * size;
+        int[] owner = new int[cellCount];
+        for (int index = 0; index < puzzle.getPairCount(); index++) {
+            int pairId = puzzle.getPairId(index);
+            for (int end = 0; end < 2; end++) {
+                int cell = (end == 0) ? puzzle.getFirstCell(index) : puzzle.getSecondCell(index);
+                if (cell < 0 || cell >= cellCount) {
+                    report.addError("Paire " + pairId + " : point hors grille (case " + cell + ")");
+                    continue;
+                }
+                int r = cell / size;
+                int c = cell % size;
+                if (topology.isHole(cell)) {
+                    report.addError("Paire " + pairId + " : tête sur un trou (" + r + ", " + c + ")");
+                } else if (owner[cell] != 0) {
+                    report.addError("Paire " + pairId + " : tête superposée en (" + r + ", " + c + ")");
+                } else {
+                    owner[cell] = pairId + 1;
+                }
+            }
+        }
+    }
+
+    /**
+     * Parité du damier : un chemin entre deux cases de même couleur a une case
+     * de cette couleur en plus, sinon autant des deux. La somme sur les paires doit
+     * donc égaler la différence noires - blanches des cases jouables. Ne s'applique
+     * qu'aux plateaux coloriables en damier (pas aux grilles hexagonales).
+     */
+    private static void checkParity(Puzzle puzzle, Report report) {
+        BoardTopology topology = puzzle.getTopology();
+        if (!topology.isBipartite()) return;
+
+        int size = puzzle.getSize();
+        int expected = 0;
+        for (int cell = 0; cell < size * size; cell++) {
+            if (!topology.isHole(cell)) {
+                expected += ((cell / size + cell % size) % 2 == 0) ? 1 : -1;
+            }
+        }
+        int balance = 0;
+        for (int index = 0; index < puzzle.getPairCount(); index++) {
+            boolean firstBlack = isBlack(puzzle.getFirstCell(index), size);
+            boolean secondBlack = isBlack(puzzle.getSecondCell(index), size);
+            if (firstBlack == secondBlack) {
+                balance += firstBlack ? 1 : -1;
+            }
+        }
+        if (balance != expected) {
+            report.addError("Parité impossible : les chemins ne peuvent pas couvrir toute la grille");
+        }
+    }
+
+    /**
+     * Chaque paire doit pouvoir relier ses têtes par des cases vides. Avec
+     * requireCoverage, chaque zone de cases vides doit en plus être bordée par les
+     * deux têtes d'une même paire, sinon elle ne pourra jamais être remplie.
+     */
+    private static void checkReachability(Puzzle puzzle, Report report, boolean requireCoverage) {
+        int size = puzzle.getSize();
+        int cellCount = size * size;
+        BoardTopology topology = puzzle.getTopology();
+        int[] table = topology.getNeighbourTable();
+        int[] degree = topology.getDegrees();
+        int stride = topology.getMaxDegree();
+        int[] head = new int[cellCount];
+        for (int index = 0; index < puzzle.getPairCount(); index++) {
+            head[puzzle.getFirstCell(index)] = puzzle.getPairId(index) + 1;
+            head[puzzle.getSecondCell(index)] = puzzle.getPairId(index) + 1;
+        }
+
+        // Étiquetage des zones vides
+        int[] component = new int[cellCount];
+        int[] queue = new int[cellCount];
+        int components = 0;
+        for (int start = 0; start < cellCount; start++) {
+            if (head[start] != 0 || component[start] != 0 || topology.isHole(start)) continue;
+            components++;
+            int qh = 0;
+            int qt = 0;
+            queue[qt++] = start;
+            component[start] = components;
+            while (qh < qt) {
+                int current = queue[qh++];
+                for (int i = current * stride, e = i + degree[current]; i < e; i++) {
+                    int n = table[i];
+                    if (head[n] == 0 && component[n] == 0) {
+                        component[n] = components;
+                        queue[qt++] = n;
+                    }
+                }
+            }
+        }
+
+        boolean[] served = new boolean[components + 1];
+        for (int index = 0; index < puzzle.getPairCount(); index++) {
+            int a = puzzle.getFirstCell(index);
+            int b = puzzle.getSecondCell(index);
+            boolean linked = topology.areAdjacent(a, b);
+            // Seules les zones voisines de la première tête sont candidates
+            for (int i = a * stride, e = i + degree[a]; i < e; i++) {
+                int n = table[i];
+                if (component[n] == 0) continue;
+                if (touches(b, component[n], component, topology)) {
+                    served[component[n]] = true;
+                    linked = true;
+                }
+            }
+            if (!linked) {
+                report.addError("Paire " + puzzle.getPairId(index) + " : têtes impossibles à relier");
+            }
+        }
+        for (int comp = 1; requireCoverage && comp <= components; comp++) {
+            if (!served[comp]) {
+                report.addError("Zone de cases vides inaccessible");
+                break;
+            }
+        }
+    }
+
+    private static boolean touches(int cell, int comp, int[] component, BoardTopology topology) {
+        for (int i = 0; i < topology.degree(cell); i++) {
+            if (component[topology.neighbour(cell, i)] == comp) return true;
+        }
+        return false;
+    }
+
+    private static boolean isBlack(int cell, int size) {
+        return (cell / size + cell % size) % 2 == 0;
+    }
+}
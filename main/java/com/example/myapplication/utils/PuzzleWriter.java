@@ -0,0 +1,57 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+/**
+ * Écrit un puzzle dans le format XML lu par PuzzleParser (forme, trous, murs et
+ * paires), par exemple pour exporter un puzzle créé dans l'éditeur.
+ */
+public class PuzzleWriter {
+
+    public static String toXml(Puzzle puzzle) {
+        int size = puzzle.getSize();
+        BoardTopology topology = puzzle.getTopology();
+        StringBuilder xml = new StringBuilder();
+
+        xml.append("<puzzle size=\"").append(size).append('"');
+        if (puzzle.getName() != null) {
+            xml.append(" nom=\"").append(escape(puzzle.getName())).append('"');
+        }
+        if (topology.getShape() == BoardTopology.Shape.TORUS) {
+            xml.append(" forme=\"tore\"");
+        } else if (topology.getShape() == BoardTopology.Shape.HEX) {
+            xml.append(" forme=\"hexagone\"");
+        }
+        xml.append(">\n");
+
+        for (int cell = 0; cell < size * size; cell++) {
+            if (!topology.isHole(cell)) continue;
+            xml.append("    <trou ").append(coordinates(cell, size)).append(" />\n");
+        }
+        int[] walls = topology.getWalls();
+        for (int i = 0; i + 1 < walls.length; i += 2) {
+            xml.append("    <mur>\n");
+            xml.append("        <point ").append(coordinates(walls[i], size)).append(" />\n");
+            xml.append("        <point ").append(coordinates(walls[i + 1], size)).append(" />\n");
+            xml.append("    </mur>\n");
+        }
+        // Les pairId sont renumérotés dans l'ordre du fichier par PuzzleParser
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            xml.append("    <paire>\n");
+            xml.append("        <point ").append(coordinates(puzzle.getFirstCell(i), size)).append(" />\n");
+            xml.append("        <point ").append(coordinates(puzzle.getSecondCell(i), size)).append(" />\n");
+            xml.append("    </paire>\n");
+        }
+        xml.append("</puzzle>\n");
+        return xml.toString();
+    }
+
+    private static String coordinates(int cell, int size) {
+        return "colonne=\"" + (cell % size) + "\" ligne=\"" + (cell / size) + '"';
+    }
+
+    private static String escape(String text) {
+        return text.replace("&", "&amp;").replace("<", "&lt;").replace(">", "&gt;").replace("\"", "&quot;");
+    }
+}
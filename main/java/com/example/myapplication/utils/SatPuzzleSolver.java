@@ -0,0 +1,571 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+import java.util.Arrays;
+
+/**
+ * Résolution d'un puzzle par SAT, pour les grands plateaux où le retour arrière
+ * de PuzzleSolver n'aboutit plus (60x60 et plus, des dizaines de paires).
+ *
+ * Encodage (variables de SatSolver) :
+ * - le code binaire de la paire de chaque case jouable (log2(n) variables), fixé
+ *   pour les têtes ; un codage « un parmi n » coûterait n variables par case et
+ *   devient ingérable avec des centaines de paires ;
+ * - e(a, b) pour chaque couple de cases voisines : le chemin passe de a à b ; les
+ *   deux cases d'une arête choisie ont le même code ;
+ * - degré : une arête par tête, deux par case de chemin.
+ * Ces contraintes admettent encore des cycles isolés, sans tête (les seuls endroits
+ * où peut apparaître un code qui ne correspond à aucune paire). Les cycles de 3 et
+ * 4 cases sont interdits d'emblée, les autres à la demande : chaque cycle d'une
+ * solution candidate est interdit par une clause et la recherche reprend, sans
+ * repartir de zéro.
+ *
+ * Le solveur garde son état entre deux appels : les clauses apprises, les cycles
+ * interdits et les indices restent acquis. countSolutions bloque chaque solution
+ * trouvée par une clause conditionnée à un sélecteur, retiré à la fin de l'appel.
+ *
+ * Pour l'éditeur, le plateau peut aussi être encodé sans ses têtes : une variable
+ * par case dit si c'est une tête, et le degré attendu en dépend. setLayout() donne
+ * alors les têtes comme hypothèses ; tout ce qui a été appris vaut pour toutes les
+ * dispositions.
+ *
+ * Le résultat est un PuzzleSolver.Result, comme pour le retour arrière : nodes et
+ * decisions y comptent les conflits et les décisions du solveur SAT, forcedDecisions
+ * reste à 0.
+ */
+public class SatPuzzleSolver {
+
+    /** Limite de conflits par défaut pour un appel, pour ne pas bloquer un écran indéfiniment. */
+    public static final long DEFAULT_CONFLICT_LIMIT = 500_000;
+
+    private final int size;
+    private final int cellCount;
+    private final int maxPairs;
+    private final long signature; // forme du plateau encodé
+    private final boolean[] hole;
+
+    // Disposition courante (fixée à la construction, ou par setLayout)
+    private int pairCount;
+    private int[] pairIds = new int[0];
+    private int[] firstHead = new int[0];
+    private int[] secondHead = new int[0];
+    private int[] layout;         // hypothèses qui placent les têtes, null si elles sont fixées
+
+    private final SatSolver sat = new SatSolver();
+    private final int codeVars;    // bits du code de paire, par case
+    private final int[] cellVar;   // première variable du code de la case, 0 pour un trou
+    private final int[] edgeA;     // cases de chaque arête
+    private final int[] edgeB;
+    private final int edgeVarBase; // e(arête i) = edgeVarBase + i
+    private final int[][] incident; // arêtes de chaque case
+    private final int[] headVar;    // « la case est une tête », null si les têtes sont fixées
+
+    private long conflictLimit = DEFAULT_CONFLICT_LIMIT;
+
+    // Tampons du parcours des solutions
+    private final int[] nextEdge;
+    private final int[] otherEdge;
+    private final boolean[] visited;
+
+    /**
+     * Encode le puzzle. Il doit avoir passé les vérifications structurelles de
+     * PuzzleValidator (coordonnées dans la grille, têtes distinctes).
+     */
+    public SatPuzzleSolver(Puzzle puzzle) {
+        this(puzzle.getTopology(), puzzle.getPairCount(), false);
+        encode(loadPairs(puzzle));
+    }
+
+    /**
+     * Encode le plateau seul, pour au plus maxPairs paires : les têtes seront données
+     * par setLayout() avant chaque recherche.
+     */
+    public SatPuzzleSolver(BoardTopology topology, int maxPairs) {
+        this(topology, maxPairs, true);
+        encode(null);
+    }
+
+    private SatPuzzleSolver(BoardTopology topology, int maxPairs, boolean freeHeads) {
+        this.size = topology.getSize();
+        this.cellCount = size * size;
+        this.maxPairs = maxPairs;
+        this.signature = topology.signature();
+
+        // Code de paire de chaque case
+        codeVars = 32 - Integer.numberOfLeadingZeros(Math.max(1, maxPairs - 1));
+        hole = new boolean[cellCount];
+        cellVar = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            hole[cell] = topology.isHole(cell);
+            if (hole[cell]) continue;
+            cellVar[cell] = sat.getVarCount() + 1;
+            for (int k = 0; k < codeVars; k++) sat.newVar();
+        }
+
+        // Arêtes : la table de voisinage exclut déjà trous, murs et doublons
+        int[] a = new int[cellCount * topology.getMaxDegree()];
+        int[] b = new int[a.length];
+        int edges = 0;
+        int[] degreeCount = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            for (int i = 0; i < topology.degree(cell); i++) {
+                int n = topology.neighbour(cell, i);
+                if (n <= cell) continue;
+                a[edges] = cell;
+                b[edges] = n;
+                edges++;
+                degreeCount[cell]++;
+                degreeCount[n]++;
+            }
+        }
+        edgeA = Arrays.copyOf(a, edges);
+        edgeB = Arrays.copyOf(b, edges);
+        edgeVarBase = sat.getVarCount() + 1;
+        for (int i = 0; i < edges; i++) sat.newVar();
+        incident = new int[cellCount][];
+        for (int cell = 0; cell < cellCount; cell++) incident[cell] = new int[degreeCount[cell]];
+        Arrays.fill(degreeCount, 0);
+        for (int i = 0; i < edges; i++) {
+            incident[edgeA[i]][degreeCount[edgeA[i]]++] = i;
+            incident[edgeB[i]][degreeCount[edgeB[i]]++] = i;
+        }
+
+        headVar = freeHeads ? new int[cellCount] : null;
+        if (freeHeads) {
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (!hole[cell]) headVar[cell] = sat.newVar();
+            }
+        }
+
+        nextEdge = new int[cellCount];
+        otherEdge = new int[cellCount];
+        visited = new boolean[cellCount];
+    }
+
+    /**
+     * Place les têtes pour les recherches suivantes (plateau encodé sans têtes).
+     * Le puzzle doit avoir la forme du plateau, au plus maxPairs paires et passer les
+     * vérifications structurelles de PuzzleValidator.
+     */
+    public void setLayout(Puzzle puzzle) {
+        if (headVar == null) {
+            throw new IllegalStateException("Têtes fixées à la construction");
+        }
+        if (puzzle.getSize() != size || puzzle.getTopology().signature() != signature
+                || puzzle.getPairCount() > maxPairs) {
+            throw new IllegalArgumentException("Disposition incompatible avec le plateau");
+        }
+        int[] headOf = loadPairs(puzzle);
+        int[] literals = new int[cellCount + 2 * pairCount * codeVars];
+        int count = 0;
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (hole[cell]) continue;
+            int p = headOf[cell];
+            literals[count++] = (p >= 0) ? headVar[cell] : -headVar[cell];
+            if (p < 0) continue;
+            for (int k = 0; k < codeVars; k++) literals[count++] = code(cell, p, k);
+        }
+        layout = Arrays.copyOf(literals, count);
+    }
+
+    /**
+     * Réarme le solveur après cancel(), pour une nouvelle recherche. À appeler sur
+     * le thread de résolution.
+     */
+    public void resetCancel() {
+        sat.resetCancel();
+    }
+
+    // Nombre maximal de conflits par appel (DEFAULT_CONFLICT_LIMIT par défaut)
+    public void setConflictLimit(long limit) {
+        this.conflictLimit = limit;
+    }
+
+    /**
+     * Reçoit l'avancement toutes les intervalConflicts conflits, sur le thread de résolution.
+     */
+    public void setProgressListener(SatSolver.ProgressListener listener, int intervalConflicts) {
+        sat.setProgressListener(listener, intervalConflicts);
+    }
+
+    // Peut être appelé depuis n'importe quel thread
+    public void cancel() {
+        sat.cancel();
+    }
+
+    /**
+     * Cherche une solution.
+     */
+    public PuzzleSolver.Result solve() {
+        return search(1, null);
+    }
+
+    /**
+     * Cherche une solution qui respecte une grille partielle (pairId par case, -1 si
+     * libre), par exemple les chemins déjà tracés pour un indice. Ces cases sont de
+     * simples hypothèses : elles ne restent pas acquises pour les appels suivants.
+     */
+    public PuzzleSolver.Result solve(int[] knownGrid) {
+        return search(1, knownGrid);
+    }
+
+    /**
+     * Cherche jusqu'à maxSolutions solutions (2 suffit pour tester l'unicité).
+     */
+    public PuzzleSolver.Result countSolutions(int maxSolutions) {
+        return search(maxSolutions, null);
+    }
+
+    /**
+     * Interdit définitivement la solution donnée (ensemble des chemins), par exemple
+     * pour qu'un générateur cherche une autre solution à chaque appel.
+     */
+    public void block(PuzzleSolver.Result solution) {
+        if (solution.paths == null) return;
+        sat.addClause(blockingClause(solution.paths, 0));
+    }
+
+    private PuzzleSolver.Result search(int max, int[] knownGrid) {
+        if (headVar != null && layout == null) {
+            throw new IllegalStateException("Aucune disposition : appeler setLayout()");
+        }
+        long startConflicts = sat.getConflicts();
+        long startDecisions = sat.getDecisions();
+        sat.setConflictLimit(conflictLimit);
+
+        int[] assumptions = assumptionsFor(knownGrid, 0);
+        int selector = 0;
+        if (max > 1) {
+            // Les clauses de blocage ne valent que sous ce sélecteur, supposé vrai
+            selector = sat.newVar();
+            assumptions = assumptionsFor(knownGrid, selector);
+        }
+
+        int solutions = 0;
+        int[] firstGrid = null;
+        int[][] firstPaths = null;
+        SatSolver.Status status;
+        while (true) {
+            status = solveWithoutCycles(assumptions);
+            if (status != SatSolver.Status.SAT) break;
+            int[][] paths = readPaths();
+            solutions++;
+            if (firstPaths == null) {
+                firstPaths = paths;
+                firstGrid = gridOf(paths);
+            }
+            if (solutions >= max) break;
+            sat.addClause(blockingClause(paths, selector));
+        }
+        if (selector != 0) sat.addClause(-selector);
+
+        PuzzleSolver.Status result;
+        if (solutions > 0) {
+            result = PuzzleSolver.Status.SOLVED;
+        } else if (status == SatSolver.Status.UNKNOWN) {
+            result = PuzzleSolver.Status.UNKNOWN;
+        } else {
+            result = PuzzleSolver.Status.UNSOLVABLE;
+        }
+        return new PuzzleSolver.Result(result, solutions, sat.getConflicts() - startConflicts,
+                sat.getDecisions() - startDecisions, 0, firstGrid, firstPaths);
+    }
+
+    // Résout, puis interdit les cycles isolés de la solution tant qu'il y en a
+    private SatSolver.Status solveWithoutCycles(int[] assumptions) {
+        while (true) {
+            SatSolver.Status status = sat.solve(assumptions);
+            if (status != SatSolver.Status.SAT) return status;
+            if (!blockCycles()) return status;
+        }
+    }
+
+    private int[] assumptionsFor(int[] knownGrid, int selector) {
+        int count = (selector != 0) ? 1 : 0;
+        int fixed = (layout != null) ? layout.length : 0;
+        int[] literals = new int[cellCount * codeVars + count + fixed];
+        if (selector != 0) literals[0] = selector;
+        if (layout != null) {
+            System.arraycopy(layout, 0, literals, count, fixed);
+            count += fixed;
+        }
+        if (knownGrid != null) {
+            for (int cell = 0; cell < cellCount; cell++) {
+                if (hole[cell] || knownGrid[cell] < 0) continue;
+                int p = indexOf(knownGrid[cell]);
+                if (p < 0) continue;
+                for (int k = 0; k < codeVars; k++) literals[count++] = code(cell, p, k);
+            }
+        }
+        return Arrays.copyOf(literals, count);
+    }
+
+    // Clause qui interdit cet ensemble d'arêtes ; sous condition du sélecteur s'il est non nul
+    private int[] blockingClause(int[][] paths, int selector) {
+        int length = (selector != 0) ? 1 : 0;
+        for (int[] path : paths) length += path.length - 1;
+        int[] clause = new int[length];
+        int k = 0;
+        if (selector != 0) clause[k++] = -selector;
+        for (int[] path : paths) {
+            for (int i = 1; i < path.length; i++) clause[k++] = -edgeVar(path[i - 1], path[i]);
+        }
+        return clause;
+    }
+
+    /**
+     * Cherche les cycles sans tête de la solution courante et les interdit.
+     *
+     * @return true si au moins un cycle a été trouvé
+     */
+    private boolean blockCycles() {
+        loadEdges();
+        Arrays.fill(visited, false);
+        for (int p = 0; p < pairCount; p++) {
+            walk(firstHead[p], null);
+        }
+        boolean found = false;
+        int[] cycle = new int[cellCount];
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (hole[cell] || visited[cell]) continue;
+            int length = walk(cell, cycle);
+            sat.addClause(Arrays.copyOf(cycle, length));
+            found = true;
+        }
+        return found;
+    }
+
+    /**
+     * Parcourt le chemin ou le cycle qui part de start, en marquant ses cases.
+     * Si edges n'est pas null, y range la négation des arêtes empruntées.
+     *
+     * @return le nombre d'arêtes empruntées
+     */
+    private int walk(int start, int[] edges) {
+        int count = 0;
+        int previous = -1;
+        int current = start;
+        while (true) {
+            visited[current] = true;
+            int edge = nextEdge[current];
+            if (edge >= 0 && other(edge, current) == previous) edge = otherEdge[current];
+            if (edge < 0) return count; // tête d'arrivée
+            int next = other(edge, current);
+            if (edges != null) edges[count] = -(edgeVarBase + edge);
+            count++;
+            if (visited[next]) return count; // cycle refermé
+            previous = current;
+            current = next;
+        }
+    }
+
+    // Range pour chaque case ses (au plus deux) arêtes choisies
+    private void loadEdges() {
+        Arrays.fill(nextEdge, -1);
+        Arrays.fill(otherEdge, -1);
+        for (int i = 0; i < edgeA.length; i++) {
+            if (!sat.modelValue(edgeVarBase + i)) continue;
+            attachEdge(edgeA[i], i);
+            attachEdge(edgeB[i], i);
+        }
+    }
+
+    private void attachEdge(int cell, int edge) {
+        if (nextEdge[cell] < 0) {
+            nextEdge[cell] = edge;
+        } else {
+            otherEdge[cell] = edge;
+        }
+    }
+
+    // Chemins de la solution courante, de la première tête à la seconde
+    private int[][] readPaths() {
+        loadEdges();
+        int[][] paths = new int[pairCount][];
+        int[] buffer = new int[cellCount];
+        for (int p = 0; p < pairCount; p++) {
+            int length = 0;
+            int previous = -1;
+            int current = firstHead[p];
+            buffer[length++] = current;
+            while (current != secondHead[p]) {
+                int edge = nextEdge[current];
+                if (other(edge, current) == previous) edge = otherEdge[current];
+                previous = current;
+                current = other(edge, current);
+                buffer[length++] = current;
+            }
+            paths[p] = Arrays.copyOf(buffer, length);
+        }
+        return paths;
+    }
+
+    private int[] gridOf(int[][] paths) {
+        int[] grid = new int[cellCount];
+        Arrays.fill(grid, -1);
+        for (int p = 0; p < pairCount; p++) {
+            for (int cell : paths[p]) grid[cell] = pairIds[p];
+        }
+        return grid;
+    }
+
+    // Paires du puzzle ; renvoie la paire de chaque case tête (-1 ailleurs)
+    private int[] loadPairs(Puzzle puzzle) {
+        pairCount = puzzle.getPairCount();
+        pairIds = new int[pairCount];
+        firstHead = new int[pairCount];
+        secondHead = new int[pairCount];
+        int[] headOf = new int[cellCount];
+        Arrays.fill(headOf, -1);
+        for (int p = 0; p < pairCount; p++) {
+            pairIds[p] = puzzle.getPairId(p);
+            firstHead[p] = puzzle.getFirstCell(p);
+            secondHead[p] = puzzle.getSecondCell(p);
+            headOf[firstHead[p]] = p;
+            headOf[secondHead[p]] = p;
+        }
+        return headOf;
+    }
+
+    // Têtes fixées par headOf, ou libres (headVar) si headOf est null
+    private void encode(int[] headOf) {
+        for (int cell = 0; cell < cellCount; cell++) {
+            if (hole[cell]) continue;
+
+            // Code fixé pour une tête
+            if (headOf != null && headOf[cell] >= 0) {
+                for (int k = 0; k < codeVars; k++) sat.addClause(code(cell, headOf[cell], k));
+            }
+
+            // Degré : 1 pour une tête, 2 pour une case de chemin
+            int[] around = new int[incident[cell].length];
+            for (int i = 0; i < around.length; i++) around[i] = edgeVarBase + incident[cell][i];
+            if (headOf != null) {
+                exactly(around, headOf[cell] >= 0 ? 1 : 2, 0);
+            } else {
+                exactly(around, 1, -headVar[cell]);
+                exactly(around, 2, headVar[cell]);
+            }
+        }
+
+        // Les deux cases d'une arête choisie ont le même code
+        for (int i = 0; i < edgeA.length; i++) {
+            int e = edgeVarBase + i;
+            for (int k = 0; k < codeVars; k++) {
+                int a = cellVar[edgeA[i]] + k;
+                int b = cellVar[edgeB[i]] + k;
+                sat.addClause(-e, -a, b);
+                sat.addClause(-e, a, -b);
+            }
+        }
+
+        forbidShortCycles();
+    }
+
+    // Cycles de 3 et 4 cases (triangles hexagonaux, carrés 2x2) : les plus fréquents dans les candidates
+    private void forbidShortCycles() {
+        for (int a = 0; a < cellCount; a++) {
+            int[] around = incident[a];
+            for (int i = 0; i < around.length; i++) {
+                int b = other(around[i], a);
+                for (int j = i + 1; j < around.length; j++) {
+                    int c = other(around[j], a);
+                    if (b < a || c < a) continue; // chaque cycle est vu depuis sa plus petite case
+                    int bc = edgeBetween(b, c);
+                    if (bc >= 0) {
+                        sat.addClause(-(edgeVarBase + around[i]), -(edgeVarBase + around[j]), -(edgeVarBase + bc));
+                    }
+                    for (int edge : incident[b]) {
+                        int d = other(edge, b);
+                        if (d <= a || d == c) continue;
+                        int dc = edgeBetween(d, c);
+                        if (dc >= 0) {
+                            sat.addClause(-(edgeVarBase + around[i]), -(edgeVarBase + edge),
+                                    -(edgeVarBase + dc), -(edgeVarBase + around[j]));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Exactement k (1 ou 2) des littéraux ; les degrés sont petits, on énumère les
+     * combinaisons. Si guard est non nul, chaque clause le contient : la contrainte
+     * ne vaut que lorsqu'il est faux.
+     */
+    private void exactly(int[] literals, int k, int guard) {
+        int n = literals.length;
+        if (n < k) {
+            guarded(guard); // case impossible à relier : insatisfiable
+            return;
+        }
+        // Au moins k : toute sélection de n - k + 1 littéraux en contient un vrai
+        if (k == 1) {
+            guarded(guard, literals);
+        } else {
+            for (int skip = 0; skip < n; skip++) {
+                int[] clause = new int[n - 1];
+                for (int i = 0, j = 0; i < n; i++) {
+                    if (i != skip) clause[j++] = literals[i];
+                }
+                guarded(guard, clause);
+            }
+        }
+        // Au plus k : parmi k + 1 littéraux, l'un est faux
+        if (k == 1) {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) guarded(guard, -literals[i], -literals[j]);
+            }
+        } else {
+            for (int i = 0; i < n; i++) {
+                for (int j = i + 1; j < n; j++) {
+                    for (int l = j + 1; l < n; l++) guarded(guard, -literals[i], -literals[j], -literals[l]);
+                }
+            }
+        }
+    }
+
+    private void guarded(int guard, int... literals) {
+        if (guard == 0) {
+            sat.addClause(literals);
+            return;
+        }
+        int[] clause = Arrays.copyOf(literals, literals.length + 1);
+        clause[literals.length] = guard;
+        sat.addClause(clause);
+    }
+
+    // Littéral du bit k du code de la case, vrai si la case est de la paire p
+    private int code(int cell, int p, int k) {
+        int var = cellVar[cell] + k;
+        return (((p >> k) & 1) != 0) ? var : -var;
+    }
+
+    private int edgeVar(int a, int b) {
+        int edge = edgeBetween(a, b);
+        if (edge < 0) throw new IllegalArgumentException("Cases non voisines : " + a + ", " + b);
+        return edgeVarBase + edge;
+    }
+
+    // Arête entre deux cases, -1 si elles ne sont pas voisines
+    private int edgeBetween(int a, int b) {
+        for (int edge : incident[a]) {
+            if (other(edge, a) == b) return edge;
+        }
+        return -1;
+    }
+
+    private int other(int edge, int cell) {
+        return (edgeA[edge] == cell) ? edgeB[edge] : edgeA[edge];
+    }
+
+    private int indexOf(int pairId) {
+        for (int p = 0; p < pairCount; p++) {
+            if (pairIds[p] == pairId) return p;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,604 @@
+package com.example.myapplication.utils;
+
+import java.util.Arrays;
+
+/**
+ * Solveur SAT CDCL minimal, en Java pur, utilisé par SatPuzzleSolver.
+ *
+ * Variables numérotées à partir de 1 ; un littéral est +v ou -v (comme DIMACS).
+ * Techniques classiques : deux littéraux surveillés par clause, apprentissage au
+ * premier point d'implication unique (1-UIP) avec retour non chronologique,
+ * heuristique VSIDS, mémorisation des polarités, redémarrages de Luby et
+ * nettoyage périodique des clauses apprises (selon leur LBD).
+ *
+ * Le solveur est incrémental : entre deux appels à solve(), on peut ajouter des
+ * variables et des clauses (clauses de blocage par exemple) ; les clauses apprises
+ * restent valables. solve() accepte des hypothèses, littéraux supposés vrais pour
+ * cet appel seulement.
+ *
+ * Les tableaux sont primitifs ; les clauses sont rangées à la suite dans un seul
+ * tableau d'entiers. Une instance n'est pas thread-safe, mais cancel() peut être
+ * appelé depuis un autre thread.
+ */
+public class SatSolver {
+
+    public enum Status { SAT, UNSAT, UNKNOWN }
+
+    /**
+     * Avancement, signalé toutes les getProgressInterval() conflits, sur le thread de résolution.
+     */
+    public interface ProgressListener {
+        /**
+         * @param fixedVariables variables fixées définitivement (niveau 0)
+         */
+        void onProgress(long conflicts, long decisions, int fixedVariables, int variables);
+    }
+
+    private static final int RESTART_BASE = 100;
+    private static final double VAR_DECAY = 0.95;
+
+    // En-tête d'une clause dans l'arène : taille, puis LBD (0 pour une clause du problème, -1 si supprimée)
+    private static final int HEADER = 2;
+
+    private int varCount;
+    private boolean ok = true; // faux dès qu'une contradiction est prouvée au niveau 0
+
+    // Affectation, par variable (index 0 inutilisé)
+    private byte[] assign = new byte[16];   // 0 libre, 1 vrai, -1 faux
+    private int[] level = new int[16];
+    private int[] reason = new int[16];     // clause qui a forcé la variable, -1 pour une décision
+    private byte[] polarity = new byte[16]; // dernière valeur prise
+    private double[] activity = new double[16];
+    private boolean[] seen = new boolean[16];
+    private double varInc = 1;
+
+    // Tas de variables libres, ordonné par activité décroissante
+    private int[] heap = new int[16];
+    private int heapSize;
+    private int[] heapIndex = new int[16]; // -1 si absente du tas
+
+    // Pile d'affectation
+    private int[] trail = new int[16];
+    private int trailSize;
+    private int[] trailLimits = new int[16];
+    private int decisionLevel;
+    private int propagateHead;
+
+    // Clauses
+    private int[] arena = new int[1024];
+    private int arenaSize;
+    private int[] learnts = new int[64];
+    private int learntCount;
+    private int maxLearnts = 4000;
+
+    // Listes de surveillance, par littéral codé (2 * v + signe)
+    private int[][] watches = new int[32][];
+    private int[] watchCount = new int[32];
+
+    private int[] model = new int[0];
+
+    // Tampons de l'analyse de conflit
+    private int[] learnt = new int[16];
+    private int learntSize;
+    private int[] levelStamp = new int[16];
+    private int stamp;
+
+    private long conflicts;
+    private long decisions;
+    private long conflictLimit = Long.MAX_VALUE;
+    private ProgressListener progressListener;
+    private int progressInterval = 1000;
+    private volatile boolean cancelled;
+
+    /**
+     * Crée une nouvelle variable.
+     *
+     * @return son numéro (à partir de 1)
+     */
+    public int newVar() {
+        int v = ++varCount;
+        if (v >= assign.length) {
+            int capacity = assign.length * 2;
+            assign = Arrays.copyOf(assign, capacity);
+            level = Arrays.copyOf(level, capacity);
+            reason = Arrays.copyOf(reason, capacity);
+            polarity = Arrays.copyOf(polarity, capacity);
+            activity = Arrays.copyOf(activity, capacity);
+            seen = Arrays.copyOf(seen, capacity);
+            heap = Arrays.copyOf(heap, capacity);
+            heapIndex = Arrays.copyOf(heapIndex, capacity);
+            trail = Arrays.copyOf(trail, capacity);
+            trailLimits = Arrays.copyOf(trailLimits, capacity);
+            levelStamp = Arrays.copyOf(levelStamp, capacity);
+            learnt = Arrays.copyOf(learnt, capacity);
+            watches = Arrays.copyOf(watches, 2 * capacity);
+            watchCount = Arrays.copyOf(watchCount, 2 * capacity);
+        }
+        reason[v] = -1;
+        polarity[v] = -1; // faux d'abord : adapté aux encodages « un parmi n »
+        heapIndex[v] = -1;
+        heapInsert(v);
+        return v;
+    }
+
+    public int getVarCount() {
+        return varCount;
+    }
+
+    /**
+     * Ajoute une clause (disjonction de littéraux). Peut être appelé entre deux solve().
+     *
+     * @return false si le problème est désormais insatisfiable
+     */
+    public boolean addClause(int... literals) {
+        cancelUntil(0);
+        if (!ok) return false;
+
+        // Littéraux codés, sans doublon ni littéral faux au niveau 0
+        int[] lits = new int[literals.length];
+        int count = 0;
+        for (int literal : literals) {
+            int lit = encode(literal);
+            int value = litValue(lit);
+            if (value == 1) return true; // déjà satisfaite
+            if (value == -1) continue;
+            boolean duplicate = false;
+            for (int i = 0; i < count; i++) {
+                if (lits[i] == lit) duplicate = true;
+                if (lits[i] == (lit ^ 1)) return true; // tautologie
+            }
+            if (!duplicate) lits[count++] = lit;
+        }
+
+        if (count == 0) {
+            ok = false;
+            return false;
+        }
+        if (count == 1) {
+            enqueue(lits[0], -1);
+            ok = propagate() == -1;
+            return ok;
+        }
+        attach(storeClause(lits, count, 0));
+        return true;
+    }
+
+    /**
+     * Cherche une affectation qui satisfait toutes les clauses et les hypothèses.
+     *
+     * @return SAT, UNSAT (avec ces hypothèses), ou UNKNOWN si annulé ou limite atteinte
+     */
+    public Status solve(int... assumptions) {
+        cancelUntil(0);
+        if (!ok) return Status.UNSAT;
+        if (cancelled) return Status.UNKNOWN;
+        if (propagate() != -1) {
+            ok = false;
+            return Status.UNSAT;
+        }
+        int[] assumed = new int[assumptions.length];
+        for (int i = 0; i < assumptions.length; i++) assumed[i] = encode(assumptions[i]);
+
+        long limit = (conflictLimit == Long.MAX_VALUE) ? Long.MAX_VALUE : conflicts + conflictLimit;
+        for (int restart = 0; ; restart++) {
+            long budget = RESTART_BASE * luby(restart);
+            Status status = search(budget, assumed, limit);
+            if (status != null) {
+                if (status == Status.SAT) saveModel();
+                cancelUntil(0);
+                return status;
+            }
+        }
+    }
+
+    /**
+     * Valeur d'une variable dans la dernière solution trouvée.
+     */
+    public boolean modelValue(int var) {
+        return var < model.length && model[var] > 0;
+    }
+
+    // Peut être appelé depuis n'importe quel thread ; les appels suivants à solve() renvoient UNKNOWN
+    public void cancel() {
+        cancelled = true;
+    }
+
+    // Réarme le solveur après cancel() ; sur le thread de résolution, entre deux appels
+    public void resetCancel() {
+        cancelled = false;
+    }
+
+    // Nombre maximal de conflits par appel à solve() (illimité par défaut)
+    public void setConflictLimit(long limit) {
+        this.conflictLimit = limit;
+    }
+
+    public void setProgressListener(ProgressListener listener, int intervalConflicts) {
+        this.progressListener = listener;
+        this.progressInterval = Math.max(1, intervalConflicts);
+    }
+
+    public long getConflicts() {
+        return conflicts;
+    }
+
+    public long getDecisions() {
+        return decisions;
+    }
+
+    // Recherche jusqu'au prochain redémarrage ; null pour redémarrer
+    private Status search(long budget, int[] assumed, long limit) {
+        long localConflicts = 0;
+        while (true) {
+            int conflict = propagate();
+            if (conflict != -1) {
+                conflicts++;
+                localConflicts++;
+                if (decisionLevel == 0) {
+                    ok = false;
+                    return Status.UNSAT;
+                }
+                int backtrackLevel = analyze(conflict);
+                cancelUntil(backtrackLevel);
+                if (learntSize == 1) {
+                    enqueue(learnt[0], -1);
+                } else {
+                    int cr = storeClause(learnt, learntSize, computeLbd());
+                    attach(cr);
+                    addLearnt(cr);
+                    enqueue(learnt[0], cr);
+                }
+                varInc /= VAR_DECAY;
+
+                if (progressListener != null && conflicts % progressInterval == 0) {
+                    progressListener.onProgress(conflicts, decisions, fixedCount(), varCount);
+                }
+                if (cancelled || conflicts >= limit) return Status.UNKNOWN;
+                continue;
+            }
+
+            if (localConflicts >= budget) {
+                cancelUntil(0);
+                return null;
+            }
+            if (learntCount >= maxLearnts) {
+                reduceLearnts();
+            }
+
+            // Hypothèses d'abord, une par niveau
+            int next = 0;
+            while (decisionLevel < assumed.length) {
+                int p = assumed[decisionLevel];
+                int value = litValue(p);
+                if (value == 1) {
+                    newDecisionLevel();
+                } else if (value == -1) {
+                    return Status.UNSAT;
+                } else {
+                    next = p;
+                    break;
+                }
+            }
+
+            if (next == 0) {
+                if ((++decisions & 1023) == 0 && cancelled) return Status.UNKNOWN;
+                int v = pickBranchVar();
+                if (v == 0) return Status.SAT;
+                next = 2 * v + (polarity[v] > 0 ? 0 : 1);
+            }
+            newDecisionLevel();
+            enqueue(next, -1);
+        }
+    }
+
+    /**
+     * Propagation unitaire.
+     *
+     * @return la clause en conflit, ou -1
+     */
+    private int propagate() {
+        while (propagateHead < trailSize) {
+            int p = trail[propagateHead++];
+            int falseLit = p ^ 1;
+            int[] list = watches[falseLit];
+            int n = watchCount[falseLit];
+            int j = 0;
+            for (int i = 0; i < n; i++) {
+                int cr = list[i];
+                if (arena[cr + 1] < 0) continue; // clause supprimée : retirée de la liste
+                int base = cr + HEADER;
+                // Le littéral faux passe en seconde position
+                if (arena[base] == falseLit) {
+                    arena[base] = arena[base + 1];
+                    arena[base + 1] = falseLit;
+                }
+                int first = arena[base];
+                if (litValue(first) == 1) {
+                    list[j++] = cr;
+                    continue;
+                }
+                // Recherche d'un autre littéral non faux à surveiller
+                int size = arena[cr];
+                boolean moved = false;
+                for (int k = 2; k < size; k++) {
+                    int lit = arena[base + k];
+                    if (litValue(lit) != -1) {
+                        arena[base + 1] = lit;
+                        arena[base + k] = falseLit;
+                        watch(lit, cr);
+                        moved = true;
+                        break;
+                    }
+                }
+                if (moved) continue;
+
+                list[j++] = cr;
+                if (litValue(first) == -1) {
+                    // Conflit : on garde le reste de la liste tel quel
+                    while (++i < n) list[j++] = list[i];
+                    watchCount[falseLit] = j;
+                    propagateHead = trailSize;
+                    return cr;
+                }
+                enqueue(first, cr);
+            }
+            watchCount[falseLit] = j;
+        }
+        return -1;
+    }
+
+    /**
+     * Analyse 1-UIP : remplit learnt (le littéral affirmé en tête) et renvoie le niveau de retour.
+     */
+    private int analyze(int conflict) {
+        learntSize = 1; // place réservée pour le littéral affirmé
+        int pathCount = 0;
+        int p = 0;
+        int index = trailSize - 1;
+        int cr = conflict;
+        do {
+            int size = arena[cr];
+            for (int k = (p == 0) ? 0 : 1; k < size; k++) {
+                int q = arena[cr + HEADER + k];
+                int v = q >> 1;
+                if (!seen[v] && level[v] > 0) {
+                    seen[v] = true;
+                    bumpVar(v);
+                    if (level[v] >= decisionLevel) {
+                        pathCount++;
+                    } else {
+                        learnt[learntSize++] = q;
+                    }
+                }
+            }
+            // Prochain littéral marqué de la pile
+            while (!seen[trail[index] >> 1]) index--;
+            p = trail[index--];
+            cr = reason[p >> 1];
+            seen[p >> 1] = false;
+            pathCount--;
+        } while (pathCount > 0);
+        learnt[0] = p ^ 1;
+
+        // Niveau de retour : le plus haut des autres littéraux, placé en seconde position
+        int backtrackLevel = 0;
+        if (learntSize > 1) {
+            int maxIndex = 1;
+            for (int i = 2; i < learntSize; i++) {
+                if (level[learnt[i] >> 1] > level[learnt[maxIndex] >> 1]) maxIndex = i;
+            }
+            int tmp = learnt[1];
+            learnt[1] = learnt[maxIndex];
+            learnt[maxIndex] = tmp;
+            backtrackLevel = level[learnt[1] >> 1];
+        }
+        for (int i = 1; i < learntSize; i++) seen[learnt[i] >> 1] = false;
+        return backtrackLevel;
+    }
+
+    // Nombre de niveaux de décision distincts dans la clause apprise
+    private int computeLbd() {
+        stamp++;
+        int lbd = 0;
+        for (int i = 0; i < learntSize; i++) {
+            int l = level[learnt[i] >> 1];
+            if (levelStamp[l] != stamp) {
+                levelStamp[l] = stamp;
+                lbd++;
+            }
+        }
+        return Math.max(1, lbd);
+    }
+
+    /**
+     * Supprime la moitié des clauses apprises les moins utiles (LBD élevé), sauf
+     * celles qui justifient une affectation en cours et les clauses « glue » (LBD 2).
+     */
+    private void reduceLearnts() {
+        Integer[] order = new Integer[learntCount];
+        for (int i = 0; i < learntCount; i++) order[i] = learnts[i];
+        Arrays.sort(order, (a, b) -> Integer.compare(arena[b + 1], arena[a + 1]));
+
+        int toRemove = learntCount / 2;
+        int kept = 0;
+        for (int i = 0; i < order.length; i++) {
+            int cr = order[i];
+            if (toRemove > 0 && arena[cr + 1] > 2 && !isLocked(cr)) {
+                arena[cr + 1] = -1;
+                toRemove--;
+            } else {
+                learnts[kept++] = cr;
+            }
+        }
+        learntCount = kept;
+        maxLearnts += maxLearnts / 10;
+    }
+
+    private boolean isLocked(int cr) {
+        int first = arena[cr + HEADER];
+        return litValue(first) == 1 && reason[first >> 1] == cr;
+    }
+
+    private void bumpVar(int v) {
+        activity[v] += varInc;
+        if (activity[v] > 1e100) {
+            for (int i = 1; i <= varCount; i++) activity[i] *= 1e-100;
+            varInc *= 1e-100;
+        }
+        if (heapIndex[v] >= 0) heapUp(heapIndex[v]);
+    }
+
+    private int pickBranchVar() {
+        while (heapSize > 0) {
+            int v = heapRemoveTop();
+            if (assign[v] == 0) return v;
+        }
+        return 0;
+    }
+
+    private void enqueue(int lit, int cr) {
+        int v = lit >> 1;
+        assign[v] = (byte) (((lit & 1) == 0) ? 1 : -1);
+        level[v] = decisionLevel;
+        reason[v] = cr;
+        trail[trailSize++] = lit;
+    }
+
+    private void newDecisionLevel() {
+        trailLimits[decisionLevel++] = trailSize;
+    }
+
+    private void cancelUntil(int targetLevel) {
+        if (decisionLevel <= targetLevel) return;
+        int limit = trailLimits[targetLevel];
+        for (int i = trailSize - 1; i >= limit; i--) {
+            int v = trail[i] >> 1;
+            polarity[v] = assign[v];
+            assign[v] = 0;
+            reason[v] = -1;
+            if (heapIndex[v] < 0) heapInsert(v);
+        }
+        trailSize = limit;
+        propagateHead = limit;
+        decisionLevel = targetLevel;
+    }
+
+    private int fixedCount() {
+        return (decisionLevel == 0) ? trailSize : trailLimits[0];
+    }
+
+    private int litValue(int lit) {
+        int value = assign[lit >> 1];
+        return ((lit & 1) == 0) ? value : -value;
+    }
+
+    private int encode(int literal) {
+        int v = Math.abs(literal);
+        if (v == 0 || v > varCount) throw new IllegalArgumentException("Variable inconnue : " + literal);
+        return 2 * v + (literal < 0 ? 1 : 0);
+    }
+
+    private void saveModel() {
+        if (model.length < varCount + 1) model = new int[varCount + 1];
+        for (int v = 1; v <= varCount; v++) model[v] = assign[v];
+    }
+
+    private int storeClause(int[] lits, int count, int lbd) {
+        if (arenaSize + HEADER + count > arena.length) {
+            arena = Arrays.copyOf(arena, Math.max(arena.length * 2, arenaSize + HEADER + count));
+        }
+        int cr = arenaSize;
+        arena[cr] = count;
+        arena[cr + 1] = lbd;
+        System.arraycopy(lits, 0, arena, cr + HEADER, count);
+        arenaSize += HEADER + count;
+        return cr;
+    }
+
+    private void attach(int cr) {
+        watch(arena[cr + HEADER], cr);
+        watch(arena[cr + HEADER + 1], cr);
+    }
+
+    private void addLearnt(int cr) {
+        if (learntCount == learnts.length) learnts = Arrays.copyOf(learnts, learntCount * 2);
+        learnts[learntCount++] = cr;
+    }
+
+    private void watch(int lit, int cr) {
+        int[] list = watches[lit];
+        if (list == null) {
+            list = new int[4];
+            watches[lit] = list;
+        } else if (watchCount[lit] == list.length) {
+            list = Arrays.copyOf(list, list.length * 2);
+            watches[lit] = list;
+        }
+        list[watchCount[lit]++] = cr;
+    }
+
+    // Suite de Luby : 1 1 2 1 1 2 4 1 1 2 ...
+    private static long luby(int i) {
+        long size = 1;
+        int seq = 0;
+        while (size < i + 1) {
+            seq++;
+            size = 2 * size + 1;
+        }
+        long x = i;
+        while (size - 1 != x) {
+            size = (size - 1) >> 1;
+            seq--;
+            x = x % size;
+        }
+        return 1L << seq;
+    }
+
+    // --- Tas binaire des variables, par activité décroissante ---
+
+    private void heapInsert(int v) {
+        heapIndex[v] = heapSize;
+        heap[heapSize++] = v;
+        heapUp(heapSize - 1);
+    }
+
+    private int heapRemoveTop() {
+        int top = heap[0];
+        heapIndex[top] = -1;
+        int last = heap[--heapSize];
+        if (heapSize > 0) {
+            heap[0] = last;
+            heapIndex[last] = 0;
+            heapDown(0);
+        }
+        return top;
+    }
+
+    private void heapUp(int i) {
+        int v = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >> 1;
+            if (activity[heap[parent]] >= activity[v]) break;
+            heap[i] = heap[parent];
+            heapIndex[heap[i]] = i;
+            i = parent;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+
+    private void heapDown(int i) {
+        int v = heap[i];
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= heapSize) break;
+            if (child + 1 < heapSize && activity[heap[child + 1]] > activity[heap[child]]) child++;
+            if (activity[heap[child]] <= activity[v]) break;
+            heap[i] = heap[child];
+            heapIndex[heap[i]] = i;
+            i = child;
+        }
+        heap[i] = v;
+        heapIndex[v] = i;
+    }
+}
@@ -0,0 +1,378 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.models.PuzzlePair;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Codes de partage : un puzzle (et éventuellement ses chemins) sous forme de
+ * texte court, à copier-coller plutôt qu'un fichier XML.
+ *
+ * Le code est une suite de bits écrite en base64 « url » (A-Z a-z 0-9 - _) :
+ * - somme de contrôle sur 16 bits (du reste du code) ;
+ * - version (2 bits), forme (2 bits), taille - 1 (4 bits) ;
+ * - trous et murs (1 bit, puis leur nombre et leurs cases s'il y en a) ;
+ * - nombre de paires, puis les deux têtes de chaque paire en indices de case,
+ *   sur le nombre minimal de bits (8 bits pour une grille 14x14) ;
+ * - chemins (1 bit, puis pour chaque paire : longueur, tête de départ et un
+ *   indice de voisin BoardTopology par pas).
+ * Un puzzle 14x14 de 20 paires tient en 60 caractères.
+ *
+ * Les noms de fichier de la forme PREFIX + code désignent un puzzle importé :
+ * PuzzleParser le décode directement, sans fichier XML.
+ */
+public class ShareCode {
+
+    public static final String PREFIX = "code:";
+
+    private static final int VERSION = 1;
+    private static final int MAX_SIZE = 16;
+    private static final char[] ALPHABET =
+            "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray();
+    private static final int[] SYMBOLS = new int[128];
+
+    static {
+        Arrays.fill(SYMBOLS, -1);
+        for (int i = 0; i < ALPHABET.length; i++) SYMBOLS[ALPHABET[i]] = i;
+    }
+
+    /**
+     * Code du puzzle seul.
+     */
+    public static String encode(Puzzle puzzle) {
+        return encode(puzzle, null);
+    }
+
+    /**
+     * Code du puzzle et des chemins tracés (pathsByPair de PuzzleController), ou du
+     * puzzle seul si paths est null. Renvoie null si le puzzle ne peut pas être
+     * encodé (taille supérieure à 16, chemin discontinu).
+     */
+    public static String encode(Puzzle puzzle, Map<Integer, List<PointCoord>> paths) {
+        int size = puzzle.getSize();
+        if (size < 1 || size > MAX_SIZE) return null;
+        BoardTopology topology = puzzle.getTopology();
+        int cells = size * size;
+        int cellBits = bitsFor(cells - 1);
+        int pairCount = puzzle.getPairCount();
+
+        BitWriter out = new BitWriter();
+        out.write(0, 16); // somme de contrôle, remplie à la fin
+        out.write(VERSION, 2);
+        out.write(topology.getShape().ordinal(), 2);
+        out.write(size - 1, 4);
+
+        boolean extras = topology.getPlayableCellCount() != cells || topology.getWalls().length > 0;
+        out.write(extras ? 1 : 0, 1);
+        if (extras) {
+            out.write(cells - topology.getPlayableCellCount(), cellBits + 1);
+            for (int cell = 0; cell < cells; cell++) {
+                if (topology.isHole(cell)) out.write(cell, cellBits);
+            }
+            int[] walls = topology.getWalls();
+            out.write(walls.length / 2, cellBits + 2);
+            for (int wall : walls) out.write(wall, cellBits);
+        }
+
+        int pairBits = bitsFor(cells / 2);
+        if (pairCount > cells / 2) return null;
+        out.write(pairCount, pairBits);
+        for (int p = 0; p < pairCount; p++) {
+            out.write(puzzle.getFirstCell(p), cellBits);
+            out.write(puzzle.getSecondCell(p), cellBits);
+        }
+
+        out.write(paths != null ? 1 : 0, 1);
+        if (paths != null) {
+            int lengthBits = bitsFor(cells);
+            int dirBits = (topology.getMaxDegree() <= 4) ? 2 : 3;
+            for (int p = 0; p < pairCount; p++) {
+                List<PointCoord> path = paths.get(puzzle.getPairId(p));
+                int length = (path != null) ? path.size() : 0;
+                out.write(length, lengthBits);
+                if (length == 0) continue;
+
+                int start = cellOf(path.get(0), size);
+                int second = puzzle.getSecondCell(p);
+                if (start != puzzle.getFirstCell(p) && start != second) return null;
+                out.write(start == second ? 1 : 0, 1);
+                int previous = start;
+                for (int i = 1; i < length; i++) {
+                    int cell = cellOf(path.get(i), size);
+                    int dir = directionOf(topology, previous, cell);
+                    if (dir < 0) return null;
+                    out.write(dir, dirBits);
+                    previous = cell;
+                }
+            }
+        }
+
+        out.padTo(6);
+        out.writeChecksum();
+        return out.toText();
+    }
+
+    /**
+     * Décode un code de partage.
+     *
+     * @return le puzzle (invalide si sa structure ne permet pas de le jouer),
+     * ou null si le code est mal formé ou corrompu
+     */
+    public static Puzzle decode(String code) {
+        return decode(code, null);
+    }
+
+    /**
+     * Décode un code de partage en donnant son nom au puzzle (null : nom tiré du code).
+     */
+    public static Puzzle decode(String code, String name) {
+        code = clean(code);
+        BitReader in = BitReader.open(code);
+        if (in == null) return null;
+        return readPuzzle(in, code, name);
+    }
+
+    /**
+     * Chemins contenus dans le code, au format pathsByPair de PuzzleController.
+     *
+     * @return les chemins, une map vide si le code n'en contient pas, ou null si le
+     * code est corrompu ou si les chemins ne sont pas jouables sur ce puzzle
+     */
+    public static Map<Integer, List<PointCoord>> decodePaths(String code) {
+        code = clean(code);
+        BitReader in = BitReader.open(code);
+        if (in == null) return null;
+        Puzzle puzzle = readPuzzle(in, code, null);
+        if (puzzle == null || !puzzle.isValid()) return null;
+
+        Map<Integer, List<PointCoord>> paths = new HashMap<>();
+        for (PuzzlePair pair : puzzle.getPairs()) paths.put(pair.getPairId(), new ArrayList<>());
+        if (in.read(1) == 0) return in.atEnd() ? paths : null;
+
+        int size = puzzle.getSize();
+        int cells = size * size;
+        BoardTopology topology = puzzle.getTopology();
+        int lengthBits = bitsFor(cells);
+        int dirBits = (topology.getMaxDegree() <= 4) ? 2 : 3;
+
+        // Une case ne peut appartenir qu'à un chemin, et une tête qu'à sa paire
+        int[] owner = new int[cells];
+        for (PuzzlePair pair : puzzle.getPairs()) {
+            owner[cellOf(pair.getFirst(), size)] = pair.getPairId() + 1;
+            owner[cellOf(pair.getSecond(), size)] = pair.getPairId() + 1;
+        }
+        boolean[] used = new boolean[cells];
+
+        for (PuzzlePair pair : puzzle.getPairs()) {
+            int length = in.read(lengthBits);
+            if (length == 0) continue;
+            if (length > cells || in.failed()) return null;
+            List<PointCoord> path = paths.get(pair.getPairId());
+            int cell = (in.read(1) == 1) ? cellOf(pair.getSecond(), size) : cellOf(pair.getFirst(), size);
+            for (int i = 0; i < length; i++) {
+                if (i > 0) {
+                    int dir = in.read(dirBits);
+                    if (in.failed() || dir >= topology.degree(cell)) return null;
+                    cell = topology.neighbour(cell, dir);
+                }
+                if (used[cell] || (owner[cell] != 0 && owner[cell] != pair.getPairId() + 1)) return null;
+                used[cell] = true;
+                path.add(PointCoord.of(cell / size, cell % size));
+            }
+        }
+        return in.atEnd() ? paths : null;
+    }
+
+    /**
+     * Vrai si le nom de fichier désigne un puzzle importé par code.
+     */
+    public static boolean isShareFileName(String fileName) {
+        return fileName != null && fileName.startsWith(PREFIX);
+    }
+
+    // Code seul, sans espaces autour ni préfixe de nom de fichier
+    private static String clean(String code) {
+        if (code == null) return null;
+        code = code.trim();
+        return code.startsWith(PREFIX) ? code.substring(PREFIX.length()) : code;
+    }
+
+    private static Puzzle readPuzzle(BitReader in, String code, String name) {
+        if (in.read(2) != VERSION) return null;
+        int shapeIndex = in.read(2);
+        if (shapeIndex >= BoardTopology.Shape.values().length) return null;
+        BoardTopology.Shape shape = BoardTopology.Shape.values()[shapeIndex];
+        int size = in.read(4) + 1;
+        int cells = size * size;
+        int cellBits = bitsFor(cells - 1);
+
+        int[] holes = new int[0];
+        int[] walls = new int[0];
+        if (in.read(1) == 1) {
+            holes = new int[in.read(cellBits + 1)];
+            if (holes.length > cells) return null;
+            for (int i = 0; i < holes.length; i++) holes[i] = in.read(cellBits);
+            int wallCount = in.read(cellBits + 2);
+            if (wallCount > 3 * cells) return null;
+            walls = new int[2 * wallCount];
+            for (int i = 0; i < walls.length; i++) walls[i] = in.read(cellBits);
+            for (int cell : holes) if (cell >= cells) return null;
+            for (int cell : walls) if (cell >= cells) return null;
+        }
+
+        int pairCount = in.read(bitsFor(cells / 2));
+        if (in.failed() || pairCount > cells / 2) return null;
+        if (name == null) name = "Code " + code.substring(0, Math.min(6, code.length()));
+        Puzzle.Builder builder = new Puzzle.Builder(name, size).setFileName(PREFIX + code);
+        for (int p = 0; p < pairCount; p++) {
+            int first = in.read(cellBits);
+            int second = in.read(cellBits);
+            if (first >= cells || second >= cells) return null;
+            builder.addPair(first, second, p);
+        }
+        if (in.failed()) return null;
+
+        if (shape != BoardTopology.Shape.SQUARE || holes.length > 0 || walls.length > 0) {
+            builder.setTopology(new BoardTopology(size, shape, holes, walls));
+        }
+        Puzzle puzzle = builder.build();
+        if (!PuzzleValidator.validateStructure(puzzle).isValid()) {
+            return puzzle.invalidated();
+        }
+        return puzzle;
+    }
+
+    private static int directionOf(BoardTopology topology, int from, int to) {
+        for (int i = 0; i < topology.degree(from); i++) {
+            if (topology.neighbour(from, i) == to) return i;
+        }
+        return -1;
+    }
+
+    // Nombre de bits pour écrire les valeurs de 0 à max
+    private static int bitsFor(int max) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(max));
+    }
+
+    private static int cellOf(PointCoord point, int size) {
+        return point.getRow() * size + point.getCol();
+    }
+
+    // FNV-1a réduit à 16 bits
+    private static int checksum(byte[] bytes, int from, int to) {
+        int h = 0x811C9DC5;
+        for (int i = from; i < to; i++) {
+            h = (h ^ (bytes[i] & 0xFF)) * 0x01000193;
+        }
+        return (h ^ (h >>> 16)) & 0xFFFF;
+    }
+
+    /**
+     * Écriture de bits, poids fort d'abord.
+     */
+    private static class BitWriter {
+        private byte[] bytes = new byte[64];
+        private int bitCount;
+
+        void write(int value, int bits) {
+            for (int i = bits - 1; i >= 0; i--) {
+                if ((bitCount >>> 3) == bytes.length) bytes = Arrays.copyOf(bytes, bytes.length * 2);
+                if (((value >>> i) & 1) != 0) bytes[bitCount >>> 3] |= (byte) (0x80 >>> (bitCount & 7));
+                bitCount++;
+            }
+        }
+
+        void padTo(int multiple) {
+            while (bitCount % multiple != 0) write(0, 1);
+        }
+
+        // Les 16 premiers bits reçoivent la somme de contrôle du reste
+        void writeChecksum() {
+            int sum = checksum(bytes, 2, (bitCount + 7) >>> 3);
+            bytes[0] = (byte) (sum >>> 8);
+            bytes[1] = (byte) sum;
+        }
+
+        String toText() {
+            char[] text = new char[bitCount / 6];
+            for (int i = 0; i < text.length; i++) {
+                int value = 0;
+                for (int b = 0; b < 6; b++) {
+                    int bit = i * 6 + b;
+                    value = (value << 1) | ((bytes[bit >>> 3] >>> (7 - (bit & 7))) & 1);
+                }
+                text[i] = ALPHABET[value];
+            }
+            return new String(text);
+        }
+    }
+
+    /**
+     * Lecture de bits ; une lecture au-delà de la fin met failed() à vrai et renvoie 0.
+     */
+    private static class BitReader {
+        private final byte[] bytes;
+        private final int bitCount;
+        private int position;
+        private boolean failed;
+
+        private BitReader(byte[] bytes, int bitCount) {
+            this.bytes = bytes;
+            this.bitCount = bitCount;
+        }
+
+        // Décode le texte et vérifie la somme de contrôle ; null si le code est invalide
+        static BitReader open(String code) {
+            if (code == null) return null;
+            int bitCount = code.length() * 6;
+            if (bitCount < 32) return null;
+            byte[] bytes = new byte[(bitCount + 7) >>> 3];
+            for (int i = 0; i < code.length(); i++) {
+                char c = code.charAt(i);
+                int value = (c < 128) ? SYMBOLS[c] : -1;
+                if (value < 0) return null;
+                for (int b = 0; b < 6; b++) {
+                    if (((value >>> (5 - b)) & 1) != 0) {
+                        int bit = i * 6 + b;
+                        bytes[bit >>> 3] |= (byte) (0x80 >>> (bit & 7));
+                    }
+                }
+            }
+            int expected = ((bytes[0] & 0xFF) << 8) | (bytes[1] & 0xFF);
+            if (checksum(bytes, 2, bytes.length) != expected) return null;
+
+            BitReader reader = new BitReader(bytes, bitCount);
+            reader.position = 16;
+            return reader;
+        }
+
+        int read(int bits) {
+            if (position + bits > bitCount) {
+                failed = true;
+                position = bitCount;
+                return 0;
+            }
+            int value = 0;
+            for (int i = 0; i < bits; i++, position++) {
+                value = (value << 1) | ((bytes[position >>> 3] >>> (7 - (position & 7))) & 1);
+            }
+            return value;
+        }
+
+        boolean failed() {
+            return failed;
+        }
+
+        // Il ne reste que le bourrage (moins de 6 bits)
+        boolean atEnd() {
+            return !failed && bitCount - position < 6;
+        }
+    }
+}
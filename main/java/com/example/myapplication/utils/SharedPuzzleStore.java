@@ -0,0 +1,83 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Puzzles importés par code de partage (ShareCode), conservés d'une session à
+ * l'autre. Seuls les codes sont enregistrés : les puzzles sont recréés en les
+ * décodant, sans passer par des fichiers XML.
+ */
+public class SharedPuzzleStore {
+
+    private static final int VERSION = 1;
+
+    private final File file;
+    private final List<String> codes = new ArrayList<>();
+
+    public SharedPuzzleStore(File file) {
+        this.file = file;
+        load();
+    }
+
+    /**
+     * Puzzles importés, dans l'ordre d'import ; les codes devenus illisibles sont ignorés.
+     */
+    public synchronized List<Puzzle> getPuzzles() {
+        List<Puzzle> puzzles = new ArrayList<>();
+        for (String code : codes) {
+            Puzzle puzzle = ShareCode.decode(code);
+            if (puzzle != null) puzzles.add(puzzle);
+        }
+        return puzzles;
+    }
+
+    /**
+     * Ajoute un code et réécrit le fichier.
+     *
+     * @return false si le code était déjà enregistré
+     */
+    public synchronized boolean add(String code) throws IOException {
+        if (codes.contains(code)) return false;
+        codes.add(code);
+        save();
+        return true;
+    }
+
+    private void save() throws IOException {
+        File tmp = new File(file.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(codes.size());
+            for (String code : codes) {
+                out.writeUTF(code);
+            }
+        }
+        if (!tmp.renameTo(file)) {
+            throw new IOException("Impossible d'écrire " + file);
+        }
+    }
+
+    private void load() {
+        if (!file.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+            if (in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                codes.add(in.readUTF());
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+}
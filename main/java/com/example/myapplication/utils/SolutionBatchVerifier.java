@@ -0,0 +1,163 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Vérification en lot d'un fichier de solutions soumises.
+ *
+ * Format du fichier : un entier de version, puis des enregistrements
+ * (empreinte canonique du puzzle sur 8 octets, longueur sur 2 octets, solution
+ * encodée par SolutionVerifier). Le catalogue étant dédoublonné par empreinte
+ * canonique, elle identifie le puzzle joué sans ambiguïté.
+ *
+ * Le fichier est lu d'un bloc, indexé en une passe, puis découpé en tranches
+ * vérifiées en parallèle (un thread par cœur, un SolutionVerifier par puzzle et par thread).
+ */
+public class SolutionBatchVerifier {
+
+    private static final int VERSION = 1;
+    private static final int MAX_ENCODED_LENGTH = 0xFFFF;
+
+    /**
+     * Verdict de chaque enregistrement, dans l'ordre du fichier, et totaux par verdict.
+     */
+    public static class Result {
+        private final byte[] verdicts;
+        private final int[] counts = new int[SolutionVerifier.Verdict.values().length];
+
+        Result(byte[] verdicts) {
+            this.verdicts = verdicts;
+            for (byte verdict : verdicts) counts[verdict]++;
+        }
+
+        public int getTotal() {
+            return verdicts.length;
+        }
+
+        public int getCount(SolutionVerifier.Verdict verdict) {
+            return counts[verdict.ordinal()];
+        }
+
+        public SolutionVerifier.Verdict getVerdict(int index) {
+            return SolutionVerifier.Verdict.values()[verdicts[index]];
+        }
+    }
+
+    /**
+     * En-tête à écrire une fois au début d'un fichier de solutions.
+     */
+    public static void writeHeader(DataOutputStream out) throws IOException {
+        out.writeInt(VERSION);
+    }
+
+    /**
+     * Ajoute une solution (encodée par SolutionVerifier.encode) au fichier.
+     */
+    public static void writeSubmission(DataOutputStream out, long puzzleHash, byte[] encoded) throws IOException {
+        if (encoded.length > MAX_ENCODED_LENGTH) {
+            throw new IOException("Solution trop longue : " + encoded.length + " octets");
+        }
+        out.writeLong(puzzleHash);
+        out.writeShort(encoded.length);
+        out.write(encoded);
+    }
+
+    /**
+     * Vérifie toutes les solutions du fichier.
+     *
+     * @param puzzles puzzles du catalogue, indexés par PuzzleHasher.canonicalHash64
+     */
+    public static Result verifyFile(File file, Map<Long, Puzzle> puzzles) throws IOException, InterruptedException {
+        byte[] data = Files.readAllBytes(file.toPath());
+        if (data.length < 4 || readInt(data, 0) != VERSION) {
+            throw new IOException("Fichier de solutions invalide : " + file);
+        }
+
+        // Indexation : début de chaque enregistrement
+        int[] offsets = new int[1024];
+        int records = 0;
+        int pos = 4;
+        while (pos < data.length) {
+            if (pos + 10 > data.length) throw new IOException("Enregistrement tronqué à l'octet " + pos);
+            int length = ((data[pos + 8] & 0xFF) << 8) | (data[pos + 9] & 0xFF);
+            if (pos + 10 + length > data.length) throw new IOException("Enregistrement tronqué à l'octet " + pos);
+            if (records == offsets.length) offsets = Arrays.copyOf(offsets, records * 2);
+            offsets[records++] = pos;
+            pos += 10 + length;
+        }
+
+        byte[] verdicts = new byte[records];
+        int threads = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), records / 1024 + 1));
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            int chunk = (records + threads - 1) / threads;
+            for (int start = 0; start < records; start += chunk) {
+                int from = start;
+                int to = Math.min(records, start + chunk);
+                int[] index = offsets;
+                futures.add(executor.submit(() -> verifyRange(data, index, from, to, puzzles, verdicts)));
+            }
+            for (Future<?> future : futures) {
+                try {
+                    future.get();
+                } catch (ExecutionException e) {
+                    throw new IOException("Vérification interrompue", e.getCause());
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        return new Result(verdicts);
+    }
+
+    private static void verifyRange(byte[] data, int[] offsets, int from, int to,
+                                    Map<Long, Puzzle> puzzles, byte[] verdicts) {
+        Map<Long, SolutionVerifier> verifiers = new HashMap<>();
+        long lastHash = 0;
+        SolutionVerifier last = null;
+
+        for (int i = from; i < to; i++) {
+            int pos = offsets[i];
+            long hash = ((long) readInt(data, pos) << 32) | (readInt(data, pos + 4) & 0xFFFFFFFFL);
+            int length = ((data[pos + 8] & 0xFF) << 8) | (data[pos + 9] & 0xFF);
+
+            // Les soumissions d'un même puzzle se suivent souvent : pas de recherche dans ce cas
+            if (last == null || hash != lastHash) {
+                last = verifiers.get(hash);
+                if (last == null) {
+                    Puzzle puzzle = puzzles.get(hash);
+                    if (puzzle != null) {
+                        last = new SolutionVerifier(puzzle);
+                        verifiers.put(hash, last);
+                    }
+                }
+                lastHash = hash;
+            }
+
+            SolutionVerifier.Verdict verdict = (last != null)
+                    ? last.verify(data, pos + 10, length)
+                    : SolutionVerifier.Verdict.UNKNOWN_PUZZLE;
+            verdicts[i] = (byte) verdict.ordinal();
+        }
+    }
+
+    private static int readInt(byte[] data, int pos) {
+        return ((data[pos] & 0xFF) << 24) | ((data[pos + 1] & 0xFF) << 16)
+                | ((data[pos + 2] & 0xFF) << 8) | (data[pos + 3] & 0xFF);
+    }
+}
@@ -0,0 +1,213 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.PointCoord;
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.models.PuzzlePair;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vérifie une solution complète sans passer par PuzzleController (ni par des
+ * coordonnées tactiles), par exemple pour un record local ou une solution partagée.
+ *
+ * Encodage compact d'une solution, paire par paire dans l'ordre de getPairs() :
+ * - le nombre de pas (varint), de la première tête à la seconde ;
+ * - chaque pas est l'indice du voisin dans la table de BoardTopology, sur 2 bits
+ *   (3 pour les grilles hexagonales), empaquetés à partir du bit de poids faible
+ *   et complétés par des bits à zéro jusqu'à l'octet suivant.
+ * Un chemin 14x14 complet tient ainsi en une cinquantaine d'octets.
+ *
+ * La vérification (contiguïté, chevauchements, couverture complète, extrémités)
+ * marque les cases dans un bitset réutilisé : une instance n'alloue rien par
+ * appel, mais n'est pas thread-safe.
+ */
+public class SolutionVerifier {
+
+    public enum Verdict {
+        VALID,
+        MALFORMED,       // encodage tronqué ou incohérent
+        BROKEN_PATH,     // pas vers une case qui n'est pas voisine
+        OVERLAP,         // case utilisée deux fois
+        WRONG_ENDPOINT,  // chemin qui ne finit pas sur la seconde tête
+        INCOMPLETE,      // cases non couvertes
+        UNKNOWN_PUZZLE   // utilisé par SolutionBatchVerifier
+    }
+
+    private final int[] neighbours;
+    private final int[] degree;
+    private final int stride;
+    private final int bitsPerStep;
+    private final int playableCells;
+    private final int[] headA;
+    private final int[] headB;
+    private final long[] covered;
+
+    public SolutionVerifier(Puzzle puzzle) {
+        BoardTopology topology = puzzle.getTopology();
+        neighbours = topology.getNeighbourTable();
+        degree = topology.getDegrees();
+        stride = topology.getMaxDegree();
+        bitsPerStep = bitsPerStep(topology);
+        playableCells = topology.getPlayableCellCount();
+        covered = new long[(topology.getCellCount() + 63) >>> 6];
+
+        headA = new int[puzzle.getPairCount()];
+        headB = new int[puzzle.getPairCount()];
+        for (int p = 0; p < headA.length; p++) {
+            headA[p] = puzzle.getFirstCell(p);
+            headB[p] = puzzle.getSecondCell(p);
+        }
+    }
+
+    public Verdict verify(byte[] data) {
+        return verify(data, 0, data.length);
+    }
+
+    /**
+     * Vérifie la solution encodée dans data[offset, offset + length).
+     */
+    public Verdict verify(byte[] data, int offset, int length) {
+        Arrays.fill(covered, 0L);
+        int count = 0;
+        int pos = offset;
+        int end = offset + length;
+        int mask = (1 << bitsPerStep) - 1;
+
+        for (int p = 0; p < headA.length; p++) {
+            int cell = headA[p];
+            if (!mark(cell)) return Verdict.OVERLAP;
+            count++;
+
+            // Nombre de pas (varint)
+            int steps = 0;
+            int shift = 0;
+            while (true) {
+                if (pos >= end || shift > 28) return Verdict.MALFORMED;
+                int b = data[pos++];
+                steps |= (b & 0x7F) << shift;
+                if (b >= 0) break;
+                shift += 7;
+            }
+            if (steps == 0) return Verdict.WRONG_ENDPOINT;
+            if (steps >= playableCells) return Verdict.MALFORMED;
+            int bytes = (steps * bitsPerStep + 7) >>> 3;
+            if (bytes > end - pos) return Verdict.MALFORMED;
+
+            for (int s = 0, bit = 0; s < steps; s++, bit += bitsPerStep) {
+                int index = pos + (bit >>> 3);
+                int word = (data[index] & 0xFF) | ((index + 1 < end ? data[index + 1] & 0xFF : 0) << 8);
+                int dir = (word >>> (bit & 7)) & mask;
+                if (dir >= degree[cell]) return Verdict.BROKEN_PATH;
+                cell = neighbours[cell * stride + dir];
+                // La seconde tête termine le chemin, et seulement elle
+                if ((cell == headB[p]) != (s == steps - 1)) return Verdict.WRONG_ENDPOINT;
+                if (!mark(cell)) return Verdict.OVERLAP;
+                count++;
+            }
+            // Bits de remplissage du dernier octet : à zéro, sinon deux encodages pour un même chemin
+            int used = (steps * bitsPerStep) & 7;
+            if (used != 0 && ((data[pos + bytes - 1] & 0xFF) >>> used) != 0) return Verdict.MALFORMED;
+            pos += bytes;
+        }
+
+        if (pos != end) return Verdict.MALFORMED;
+        return (count == playableCells) ? Verdict.VALID : Verdict.INCOMPLETE;
+    }
+
+    /**
+     * Encode les chemins tracés dans PuzzleController (pathsByPair).
+     *
+     * @return l'encodage, ou null si un chemin est absent, discontinu ou ne relie pas ses têtes
+     */
+    public static byte[] encode(Puzzle puzzle, Map<Integer, List<PointCoord>> pathsByPair) {
+        List<PuzzlePair> pairs = puzzle.getPairs();
+        int size = puzzle.getSize();
+        int[][] paths = new int[pairs.size()][];
+        for (int p = 0; p < pairs.size(); p++) {
+            List<PointCoord> path = pathsByPair.get(pairs.get(p).getPairId());
+            if (path == null) return null;
+            paths[p] = new int[path.size()];
+            for (int i = 0; i < path.size(); i++) {
+                paths[p][i] = cellOf(path.get(i), size);
+            }
+        }
+        return encode(puzzle, paths);
+    }
+
+    /**
+     * Encode des chemins donnés en cases à plat, dans l'ordre de getPairs()
+     * (par exemple PuzzleSolver.Result.paths). Chaque chemin peut partir de l'une
+     * ou l'autre tête.
+     *
+     * @return l'encodage, ou null si un chemin est discontinu ou ne relie pas ses têtes
+     */
+    public static byte[] encode(Puzzle puzzle, int[][] paths) {
+        BoardTopology topology = puzzle.getTopology();
+        int bits = bitsPerStep(topology);
+        int size = puzzle.getSize();
+        List<PuzzlePair> pairs = puzzle.getPairs();
+        if (paths.length != pairs.size()) return null;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int p = 0; p < paths.length; p++) {
+            int[] path = paths[p];
+            int first = cellOf(pairs.get(p).getFirst(), size);
+            int second = cellOf(pairs.get(p).getSecond(), size);
+            if (path.length < 2) return null;
+            boolean reversed = path[0] == second;
+            if ((reversed ? path[path.length - 1] != first : path[0] != first || path[path.length - 1] != second)) {
+                return null;
+            }
+
+            int steps = path.length - 1;
+            int value = steps;
+            while ((value & ~0x7F) != 0) {
+                out.write((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            out.write(value);
+
+            byte[] packed = new byte[(steps * bits + 7) >>> 3];
+            for (int s = 0; s < steps; s++) {
+                int from = reversed ? path[steps - s] : path[s];
+                int to = reversed ? path[steps - s - 1] : path[s + 1];
+                int dir = directionOf(topology, from, to);
+                if (dir < 0) return null;
+                int bit = s * bits;
+                int packedBits = dir << (bit & 7);
+                packed[bit >>> 3] |= (byte) packedBits;
+                if ((bit & 7) + bits > 8) packed[(bit >>> 3) + 1] |= (byte) (packedBits >>> 8);
+            }
+            out.write(packed, 0, packed.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static int directionOf(BoardTopology topology, int from, int to) {
+        for (int i = 0; i < topology.degree(from); i++) {
+            if (topology.neighbour(from, i) == to) return i;
+        }
+        return -1;
+    }
+
+    private static int bitsPerStep(BoardTopology topology) {
+        return (topology.getMaxDegree() <= 4) ? 2 : 3;
+    }
+
+    // Marque la case ; false si elle l'était déjà
+    private boolean mark(int cell) {
+        long bit = 1L << cell;
+        long word = covered[cell >>> 6];
+        if ((word & bit) != 0) return false;
+        covered[cell >>> 6] = word | bit;
+        return true;
+    }
+
+    private static int cellOf(PointCoord point, int size) {
+        return point.getRow() * size + point.getCol();
+    }
+}
@@ -0,0 +1,494 @@
+package com.example.myapplication.utils;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TimeZone;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Statistiques de jeu locales : une session par partie (durée, coups, retours en
+ * arrière, cases jouées par l'assistance), et des totaux par puzzle, par jour et
+ * globaux (séries de jours consécutifs avec au moins une résolution).
+ *
+ * Deux fichiers dans le dossier donné :
+ * - sessions.bin : journal des sessions, enregistrements de taille fixe ajoutés à la fin ;
+ * - stats_index.bin : les totaux, et la longueur du journal qu'ils couvrent.
+ * Au chargement, seul l'index est lu (sa taille dépend du nombre de puzzles et de
+ * jours, pas du nombre de sessions). Si le journal est plus long que ce que couvre
+ * l'index (arrêt entre les deux écritures), seules les sessions manquantes sont
+ * relues ; si l'index est absent ou illisible, il est reconstruit depuis le journal.
+ *
+ * record() met les totaux à jour immédiatement et garde la session en attente ;
+ * les sessions en attente sont écrites par lots sur un thread d'arrière-plan.
+ * Aucune dépendance à Android : utilisable sur une JVM avec un dossier temporaire.
+ */
+public class StatsStore {
+
+    private static final int VERSION = 1;
+    private static final int RECORD_BYTES = 40;
+    private static final int HEADER_BYTES = 4;
+    private static final int BATCH_SIZE = 16;
+
+    private static final Map<String, StatsStore> INSTANCES = new HashMap<>();
+
+    /**
+     * Une partie, terminée (résolue) ou abandonnée.
+     */
+    public static class Session {
+        public final long puzzleHash;  // PuzzleHasher.canonicalHash64
+        public final long endTimeMs;   // heure de fin (epoch)
+        public final int day;          // jour local de la fin, en jours depuis l'epoch
+        public final int durationMs;
+        public final int moves;
+        public final int undos;
+        public final int hints;
+        public final boolean solved;
+
+        public Session(long puzzleHash, long endTimeMs, int day, int durationMs,
+                       int moves, int undos, int hints, boolean solved) {
+            this.puzzleHash = puzzleHash;
+            this.endTimeMs = endTimeMs;
+            this.day = day;
+            this.durationMs = durationMs;
+            this.moves = moves;
+            this.undos = undos;
+            this.hints = hints;
+            this.solved = solved;
+        }
+    }
+
+    /**
+     * Totaux d'un puzzle. Les moyennes portent sur les sessions résolues.
+     */
+    public static class PuzzleStats {
+        int sessions;
+        int solves;
+        int bestTimeMs = -1;
+        long totalSolveMs;
+        long totalMoves;
+        long totalUndos;
+        long totalHints;
+
+        PuzzleStats copy() {
+            PuzzleStats copy = new PuzzleStats();
+            copy.sessions = sessions;
+            copy.solves = solves;
+            copy.bestTimeMs = bestTimeMs;
+            copy.totalSolveMs = totalSolveMs;
+            copy.totalMoves = totalMoves;
+            copy.totalUndos = totalUndos;
+            copy.totalHints = totalHints;
+            return copy;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public int getSolves() {
+            return solves;
+        }
+
+        // Meilleur temps de résolution, -1 si jamais résolu
+        public int getBestTimeMs() {
+            return bestTimeMs;
+        }
+
+        public long getAverageTimeMs() {
+            return (solves == 0) ? -1 : totalSolveMs / solves;
+        }
+
+        public float getAverageMoves() {
+            return (solves == 0) ? 0f : (float) totalMoves / solves;
+        }
+
+        public float getAverageUndos() {
+            return (solves == 0) ? 0f : (float) totalUndos / solves;
+        }
+
+        public float getAverageHints() {
+            return (solves == 0) ? 0f : (float) totalHints / solves;
+        }
+    }
+
+    /**
+     * Totaux d'une journée.
+     */
+    public static class DayStats {
+        int sessions;
+        int solves;
+        long totalSolveMs;
+
+        DayStats copy() {
+            DayStats copy = new DayStats();
+            copy.sessions = sessions;
+            copy.solves = solves;
+            copy.totalSolveMs = totalSolveMs;
+            return copy;
+        }
+
+        public int getSessions() {
+            return sessions;
+        }
+
+        public int getSolves() {
+            return solves;
+        }
+
+        public long getTotalSolveMs() {
+            return totalSolveMs;
+        }
+    }
+
+    private final File logFile;
+    private final File indexFile;
+    private final Executor writer;
+
+    // Totaux, protégés par this
+    private final Map<Long, PuzzleStats> puzzles = new HashMap<>();
+    private final Map<Integer, DayStats> days = new HashMap<>();
+    private int totalSessions;
+    private int totalSolves;
+    private int lastSolveDay = Integer.MIN_VALUE;
+    private int currentStreak;
+    private int bestStreak;
+    private long coveredLogBytes; // longueur du journal prise en compte par les totaux
+
+    private List<Session> pending = new ArrayList<>();
+    private boolean flushScheduled;
+
+    /**
+     * Magasin partagé d'un dossier, écrit par un thread d'arrière-plan de faible priorité.
+     */
+    public static synchronized StatsStore getInstance(File directory) {
+        StatsStore store = INSTANCES.get(directory.getPath());
+        if (store == null) {
+            ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "stats-writer");
+                thread.setDaemon(true);
+                thread.setPriority(Thread.MIN_PRIORITY);
+                return thread;
+            });
+            store = new StatsStore(directory, executor);
+            INSTANCES.put(directory.getPath(), store);
+        }
+        return store;
+    }
+
+    /**
+     * Jour local (fuseau de l'appareil) d'un instant, en jours depuis l'epoch.
+     */
+    public static int localDay(long timeMs) {
+        return (int) Math.floorDiv(timeMs + TimeZone.getDefault().getOffset(timeMs), 86_400_000L);
+    }
+
+    /**
+     * @param writer exécute les écritures (Runnable::run pour écrire immédiatement)
+     */
+    public StatsStore(File directory, Executor writer) {
+        directory.mkdirs();
+        this.logFile = new File(directory, "sessions.bin");
+        this.indexFile = new File(directory, "stats_index.bin");
+        this.writer = writer;
+        load();
+    }
+
+    /**
+     * Ajoute une session ; les totaux sont à jour au retour, l'écriture suit par lot.
+     */
+    public void record(Session session) {
+        boolean schedule;
+        synchronized (this) {
+            apply(session);
+            pending.add(session);
+            schedule = pending.size() >= BATCH_SIZE && !flushScheduled;
+            if (schedule) flushScheduled = true;
+        }
+        if (schedule) writer.execute(this::writePending);
+    }
+
+    /**
+     * Demande l'écriture des sessions en attente (par exemple quand l'application passe en arrière-plan).
+     */
+    public void flush() {
+        synchronized (this) {
+            if (pending.isEmpty() || flushScheduled) return;
+            flushScheduled = true;
+        }
+        writer.execute(this::writePending);
+    }
+
+    /**
+     * Totaux d'un puzzle (copie), ou null s'il n'a jamais été joué.
+     */
+    public synchronized PuzzleStats getPuzzleStats(long puzzleHash) {
+        PuzzleStats stats = puzzles.get(puzzleHash);
+        return (stats != null) ? stats.copy() : null;
+    }
+
+    /**
+     * Totaux d'un jour (copie), ou null si aucune partie ce jour-là.
+     */
+    public synchronized DayStats getDayStats(int day) {
+        DayStats stats = days.get(day);
+        return (stats != null) ? stats.copy() : null;
+    }
+
+    public synchronized int getTotalSessions() {
+        return totalSessions;
+    }
+
+    public synchronized int getTotalSolves() {
+        return totalSolves;
+    }
+
+    /**
+     * Série en cours : jours consécutifs avec une résolution, jusqu'à aujourd'hui ou hier.
+     */
+    public synchronized int getCurrentStreak(int today) {
+        return (lastSolveDay != Integer.MIN_VALUE && today - lastSolveDay <= 1) ? currentStreak : 0;
+    }
+
+    public synchronized int getBestStreak() {
+        return bestStreak;
+    }
+
+    // Met les totaux à jour avec une session (appelé sous le verrou)
+    private void apply(Session s) {
+        totalSessions++;
+        PuzzleStats puzzle = puzzles.get(s.puzzleHash);
+        if (puzzle == null) {
+            puzzle = new PuzzleStats();
+            puzzles.put(s.puzzleHash, puzzle);
+        }
+        DayStats day = days.get(s.day);
+        if (day == null) {
+            day = new DayStats();
+            days.put(s.day, day);
+        }
+        puzzle.sessions++;
+        day.sessions++;
+        if (!s.solved) return;
+
+        totalSolves++;
+        puzzle.solves++;
+        puzzle.totalSolveMs += s.durationMs;
+        puzzle.totalMoves += s.moves;
+        puzzle.totalUndos += s.undos;
+        puzzle.totalHints += s.hints;
+        if (puzzle.bestTimeMs < 0 || s.durationMs < puzzle.bestTimeMs) puzzle.bestTimeMs = s.durationMs;
+        day.solves++;
+        day.totalSolveMs += s.durationMs;
+
+        // Séries : une session d'un jour déjà passé ne change pas la série en cours
+        if (s.day == lastSolveDay + 1) {
+            currentStreak++;
+        } else if (s.day > lastSolveDay) {
+            currentStreak = 1;
+        }
+        if (s.day > lastSolveDay) lastSolveDay = s.day;
+        bestStreak = Math.max(bestStreak, currentStreak);
+    }
+
+    // Thread d'écriture : journal d'abord, puis index
+    private void writePending() {
+        List<Session> batch;
+        synchronized (this) {
+            batch = pending;
+            pending = new ArrayList<>();
+            flushScheduled = false;
+        }
+        if (batch.isEmpty()) return;
+        try {
+            boolean fresh = !logFile.exists() || logFile.length() < HEADER_BYTES;
+            long partial = fresh ? 0 : (logFile.length() - HEADER_BYTES) % RECORD_BYTES;
+            if (partial != 0) {
+                // Fin d'enregistrement laissée par un arrêt brutal : retirée avant d'ajouter
+                try (RandomAccessFile file = new RandomAccessFile(logFile, "rw")) {
+                    file.setLength(file.length() - partial);
+                }
+            }
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(logFile, !fresh)))) {
+                if (fresh) out.writeInt(VERSION);
+                for (Session s : batch) writeRecord(out, s);
+            }
+            byte[] index;
+            synchronized (this) {
+                // Les totaux incluent déjà les sessions arrivées entre-temps : l'index attend
+                // qu'elles soient dans le journal pour ne couvrir que des sessions écrites
+                if (!pending.isEmpty()) {
+                    if (!flushScheduled) {
+                        flushScheduled = true;
+                        writer.execute(this::writePending);
+                    }
+                    return;
+                }
+                coveredLogBytes = logFile.length();
+                index = serializeIndex();
+            }
+            File tmp = new File(indexFile.getPath() + ".tmp");
+            try (FileOutputStream out = new FileOutputStream(tmp)) {
+                out.write(index);
+            }
+            if (!tmp.renameTo(indexFile)) {
+                throw new IOException("Impossible d'écrire " + indexFile);
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void writeRecord(DataOutputStream out, Session s) throws IOException {
+        out.writeLong(s.puzzleHash);
+        out.writeLong(s.endTimeMs);
+        out.writeInt(s.day);
+        out.writeInt(s.durationMs);
+        out.writeInt(s.moves);
+        out.writeInt(s.undos);
+        out.writeInt(s.hints);
+        out.writeInt(s.solved ? 1 : 0);
+    }
+
+    private static Session readRecord(DataInputStream in) throws IOException {
+        long hash = in.readLong();
+        long end = in.readLong();
+        int day = in.readInt();
+        int duration = in.readInt();
+        int moves = in.readInt();
+        int undos = in.readInt();
+        int hints = in.readInt();
+        boolean solved = (in.readInt() & 1) != 0;
+        return new Session(hash, end, day, duration, moves, undos, hints, solved);
+    }
+
+    private byte[] serializeIndex() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeInt(VERSION);
+        out.writeLong(coveredLogBytes);
+        out.writeInt(totalSessions);
+        out.writeInt(totalSolves);
+        out.writeInt(lastSolveDay);
+        out.writeInt(currentStreak);
+        out.writeInt(bestStreak);
+        out.writeInt(puzzles.size());
+        for (Map.Entry<Long, PuzzleStats> entry : puzzles.entrySet()) {
+            PuzzleStats p = entry.getValue();
+            out.writeLong(entry.getKey());
+            out.writeInt(p.sessions);
+            out.writeInt(p.solves);
+            out.writeInt(p.bestTimeMs);
+            out.writeLong(p.totalSolveMs);
+            out.writeLong(p.totalMoves);
+            out.writeLong(p.totalUndos);
+            out.writeLong(p.totalHints);
+        }
+        out.writeInt(days.size());
+        for (Map.Entry<Integer, DayStats> entry : days.entrySet()) {
+            DayStats d = entry.getValue();
+            out.writeInt(entry.getKey());
+            out.writeInt(d.sessions);
+            out.writeInt(d.solves);
+            out.writeLong(d.totalSolveMs);
+        }
+        out.flush();
+        return bytes.toByteArray();
+    }
+
+    private synchronized void load() {
+        if (!readIndex()) {
+            clearTotals();
+        }
+        long logBytes = logFile.exists() ? logFile.length() : 0;
+        if (logBytes == coveredLogBytes) return;
+
+        // Index en retard sur le journal : on relit la fin, ou tout si l'index est incohérent
+        boolean tailOnly = coveredLogBytes >= HEADER_BYTES && coveredLogBytes < logBytes
+                && (coveredLogBytes - HEADER_BYTES) % RECORD_BYTES == 0;
+        if (!tailOnly) clearTotals();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(logFile)))) {
+            if (in.readInt() != VERSION) {
+                clearTotals();
+                return;
+            }
+            long position = HEADER_BYTES;
+            if (tailOnly) {
+                in.skipBytes((int) (coveredLogBytes - HEADER_BYTES));
+                position = coveredLogBytes;
+            }
+            // Un enregistrement incomplet en fin de journal est ignoré
+            while (position + RECORD_BYTES <= logBytes) {
+                apply(readRecord(in));
+                position += RECORD_BYTES;
+            }
+            coveredLogBytes = logBytes;
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private boolean readIndex() {
+        if (!indexFile.exists()) return false;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(indexFile)))) {
+            if (in.readInt() != VERSION) return false;
+            coveredLogBytes = in.readLong();
+            totalSessions = in.readInt();
+            totalSolves = in.readInt();
+            lastSolveDay = in.readInt();
+            currentStreak = in.readInt();
+            bestStreak = in.readInt();
+            int puzzleCount = in.readInt();
+            for (int i = 0; i < puzzleCount; i++) {
+                long hash = in.readLong();
+                PuzzleStats p = new PuzzleStats();
+                p.sessions = in.readInt();
+                p.solves = in.readInt();
+                p.bestTimeMs = in.readInt();
+                p.totalSolveMs = in.readLong();
+                p.totalMoves = in.readLong();
+                p.totalUndos = in.readLong();
+                p.totalHints = in.readLong();
+                puzzles.put(hash, p);
+            }
+            int dayCount = in.readInt();
+            for (int i = 0; i < dayCount; i++) {
+                int day = in.readInt();
+                DayStats d = new DayStats();
+                d.sessions = in.readInt();
+                d.solves = in.readInt();
+                d.totalSolveMs = in.readLong();
+                days.put(day, d);
+            }
+            return true;
+        } catch (IOException e) {
+            // Index illisible : reconstruit depuis le journal
+            return false;
+        }
+    }
+
+    private void clearTotals() {
+        puzzles.clear();
+        days.clear();
+        totalSessions = 0;
+        totalSolves = 0;
+        lastSolveDay = Integer.MIN_VALUE;
+        currentStreak = 0;
+        bestStreak = 0;
+        coveredLogBytes = 0;
+    }
+}
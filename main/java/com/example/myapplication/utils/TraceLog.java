@@ -0,0 +1,212 @@
+package com.example.myapplication.utils;
+
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Journal structuré pour les chemins critiques (événements tactiles, rendu).
+ *
+ * Chaque message est déclaré une fois par event(niveau, tag, format), puis journalisé
+ * avec log(event, a, b, c) : seuls des entiers sont copiés dans un anneau préalloué,
+ * sans construction de chaîne ni verrou. Un thread de fond formate les entrées
+ * (String.format, arguments en %d) et les envoie vers logcat et, si setFile() a été
+ * appelé, vers un fichier qui tourne à MAX_FILE_BYTES.
+ *
+ * Le niveau est rangé dans l'identifiant de l'événement : un niveau désactivé coûte
+ * une comparaison. Si le thread de fond prend du retard, les entrées les plus
+ * anciennes sont écrasées (et comptées dans getDropped()) : un appel à log() ne
+ * bloque jamais.
+ *
+ * Anneau vide, le thread de fond dort sans réveil périodique : le premier record()
+ * le réveille, puis il attend FLUSH_INTERVAL_MS pour écrire la rafale en une fois.
+ *
+ * Niveaux : ceux de android.util.Log (VERBOSE à ERROR).
+ */
+public final class TraceLog {
+
+    public static final int VERBOSE = Log.VERBOSE;
+    public static final int DEBUG = Log.DEBUG;
+    public static final int INFO = Log.INFO;
+    public static final int WARN = Log.WARN;
+    public static final int ERROR = Log.ERROR;
+
+    private static final int CAPACITY = 4096;       // entrées de l'anneau (puissance de 2)
+    private static final int FIELDS = 5;            // temps, événement, a, b, c
+    private static final int MAX_EVENTS = 256;
+    private static final long FLUSH_INTERVAL_MS = 200;
+    private static final long MAX_FILE_BYTES = 512 * 1024;
+
+    // Événements déclarés
+    private static final String[] tags = new String[MAX_EVENTS];
+    private static final String[] formats = new String[MAX_EVENTS];
+    private static int eventCount;
+
+    // Anneau : stamps[i] vaut numéro + 1 une fois l'entrée publiée, -1 pendant son écriture
+    private static final AtomicLongArray stamps = new AtomicLongArray(CAPACITY);
+    private static final AtomicLongArray entries = new AtomicLongArray(CAPACITY * FIELDS);
+    private static final AtomicLong next = new AtomicLong();
+    private static final AtomicLong dropped = new AtomicLong();
+
+    private static volatile int minLevel = DEBUG;
+    private static volatile File file;
+    private static volatile Thread writer;
+    private static volatile boolean idle; // thread de fond endormi, anneau vide
+
+    private TraceLog() {
+    }
+
+    /**
+     * Déclare un message. À appeler une fois (constante statique de la classe appelante).
+     *
+     * @param format motif String.format, avec au plus trois %d
+     * @return l'identifiant à passer à log()
+     */
+    public static synchronized int event(int level, String tag, String format) {
+        if (eventCount == MAX_EVENTS) {
+            throw new IllegalStateException("Trop d'événements déclarés");
+        }
+        int id = eventCount++;
+        tags[id] = tag;
+        formats[id] = format;
+        if (writer == null) {
+            writer = new Thread(TraceLog::drain, "trace-log");
+            writer.setDaemon(true);
+            writer.setPriority(Thread.MIN_PRIORITY);
+            writer.start();
+        }
+        return (level << 16) | id;
+    }
+
+    // Les messages de niveau inférieur sont ignorés (DEBUG par défaut)
+    public static void setMinLevel(int level) {
+        minLevel = level;
+    }
+
+    /**
+     * Copie aussi les messages dans ce fichier (null : logcat seul). Au-delà de
+     * MAX_FILE_BYTES, le fichier devient file.1 et un nouveau est commencé.
+     */
+    public static void setFile(File logFile) {
+        file = logFile;
+    }
+
+    // Entrées écrasées avant d'avoir été écrites
+    public static long getDropped() {
+        return dropped.get();
+    }
+
+    public static void log(int event, long a) {
+        if ((event >>> 16) < minLevel) return;
+        record(event, a, 0, 0);
+    }
+
+    public static void log(int event, long a, long b) {
+        if ((event >>> 16) < minLevel) return;
+        record(event, a, b, 0);
+    }
+
+    public static void log(int event, long a, long b, long c) {
+        if ((event >>> 16) < minLevel) return;
+        record(event, a, b, c);
+    }
+
+    private static void record(int event, long a, long b, long c) {
+        long sequence = next.getAndIncrement();
+        int slot = (int) (sequence & (CAPACITY - 1));
+        int base = slot * FIELDS;
+        stamps.set(slot, -1);
+        entries.lazySet(base, System.nanoTime());
+        entries.lazySet(base + 1, event);
+        entries.lazySet(base + 2, a);
+        entries.lazySet(base + 3, b);
+        entries.lazySet(base + 4, c);
+        stamps.lazySet(slot, sequence + 1);
+        if (idle) {
+            idle = false;
+            LockSupport.unpark(writer);
+        }
+    }
+
+    // Thread de fond : lit l'anneau dans l'ordre et écrit les messages
+    private static void drain() {
+        long read = 0;
+        long[] fields = new long[FIELDS];
+        StringBuilder pending = new StringBuilder();
+        while (true) {
+            // Regroupe les entrées d'une rafale
+            LockSupport.parkNanos(FLUSH_INTERVAL_MS * 1_000_000L);
+
+            long written = next.get();
+            if (written - read > CAPACITY) {
+                // L'anneau a fait un tour de plus que le lecteur : les plus anciennes sont perdues
+                dropped.addAndGet(written - CAPACITY - read);
+                read = written - CAPACITY;
+            }
+            while (read < written) {
+                int slot = (int) (read & (CAPACITY - 1));
+                long stamp = stamps.get(slot);
+                if (stamp == -1 || stamp < read + 1) break; // pas encore publiée : au prochain passage
+                for (int i = 0; i < FIELDS; i++) fields[i] = entries.get(slot * FIELDS + i);
+                if (stamp != read + 1 || stamps.get(slot) != stamp) {
+                    dropped.incrementAndGet(); // écrasée pendant la lecture
+                } else {
+                    emit(fields, pending);
+                }
+                read++;
+            }
+            flushFile(pending);
+
+            // idle est publié avant de relire next : un record() concurrent voit idle,
+            // ou son entrée est vue ici
+            idle = true;
+            while (idle && next.get() == read) {
+                LockSupport.park();
+            }
+            idle = false;
+        }
+    }
+
+    private static void emit(long[] fields, StringBuilder pending) {
+        int event = (int) fields[1];
+        int id = event & 0xFFFF;
+        String message;
+        try {
+            message = String.format(Locale.ROOT, formats[id], fields[2], fields[3], fields[4]);
+        } catch (RuntimeException e) {
+            message = formats[id];
+        }
+        Log.println(event >>> 16, tags[id], message);
+        if (file != null) {
+            pending.append(fields[0] / 1_000_000L).append(' ').append(tags[id]).append(": ")
+                    .append(message).append('\n');
+        }
+    }
+
+    private static void flushFile(StringBuilder pending) {
+        File target = file;
+        if (target == null || pending.length() == 0) {
+            pending.setLength(0);
+            return;
+        }
+        if (target.length() > MAX_FILE_BYTES) {
+            File previous = new File(target.getPath() + ".1");
+            previous.delete();
+            target.renameTo(previous);
+        }
+        try (OutputStream out = new FileOutputStream(target, true)) {
+            out.write(pending.toString().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        pending.setLength(0);
+    }
+}
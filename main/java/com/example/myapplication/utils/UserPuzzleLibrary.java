@@ -0,0 +1,361 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Puzzles XML déposés par l'utilisateur dans un dossier, tenus à jour au fil des
+ * modifications du dossier.
+ *
+ * Un manifeste persistant garde, pour chaque fichier, sa taille, sa date de
+ * modification, une empreinte du contenu et le puzzle déjà lu (code ShareCode et
+ * pairId d'origine, que le code ne garde pas) : le puzzle recréé est celui que
+ * PuzzleParser lit dans le fichier. scan() compare le dossier au manifeste :
+ * - taille et date inchangées : le fichier n'est pas lu ;
+ * - contenu identique (copie, date modifiée) : seul le manifeste est mis à jour ;
+ * - sinon le fichier est relu par PuzzleParser.
+ * Au relancement, le catalogue est donc reconstruit sans aucune lecture XML.
+ *
+ * Avec un PuzzleLibraryVerifier, chaque fichier relu est aussi validé (taille,
+ * solvabilité) ; un puzzle refusé reste listé, marqué invalide.
+ *
+ * startWatching() surveille le dossier (WatchService) et signale les différences
+ * après chaque rafale de modifications. Aucune dépendance à Android.
+ */
+public class UserPuzzleLibrary {
+
+    /** Préfixe des noms de fichier du catalogue qui désignent un puzzle de ce dossier. */
+    public static final String PREFIX = "user:";
+
+    private static final int VERSION = 3;
+    private static final int MAX_PAIRS = 16 * 16 / 2; // plus grand puzzle encodable par ShareCode
+    private static final long SETTLE_MS = 300; // calme avant de relire le dossier
+
+    /**
+     * Reçoit les différences trouvées par la surveillance (sur son thread).
+     */
+    public interface Listener {
+        void onLibraryChanged(Diff diff);
+    }
+
+    /**
+     * Fichiers ajoutés, modifiés ou supprimés depuis le scan précédent.
+     */
+    public static class Diff {
+        public final List<String> added = new ArrayList<>();
+        public final List<String> changed = new ArrayList<>();
+        public final List<String> removed = new ArrayList<>();
+
+        public boolean isEmpty() {
+            return added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+        }
+    }
+
+    // Ce que le manifeste sait d'un fichier
+    private static class Entry {
+        long size;
+        long modified;
+        long contentHash;
+        boolean valid;
+        String puzzleName;
+        String code; // puzzle encodé, vide s'il ne peut pas l'être (relu depuis le fichier)
+        int[] pairIds; // pairId de chaque paire du code, dans l'ordre du fichier
+    }
+
+    private final File directory;
+    private final File manifestFile;
+    private final PuzzleLibraryVerifier verifier;
+    private final Map<String, Entry> entries = new HashMap<>();
+
+    private WatchService watchService;
+    private Thread watchThread;
+
+    public UserPuzzleLibrary(File directory, File manifestFile) {
+        this(directory, manifestFile, null);
+    }
+
+    /**
+     * @param verifier validation des fichiers relus, ou null pour le seul contrôle de PuzzleParser
+     */
+    public UserPuzzleLibrary(File directory, File manifestFile, PuzzleLibraryVerifier verifier) {
+        this.directory = directory;
+        this.manifestFile = manifestFile;
+        this.verifier = verifier;
+        loadManifest();
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Compare le dossier au manifeste, relit les fichiers modifiés et enregistre le manifeste.
+     */
+    public synchronized Diff scan() throws IOException {
+        Diff diff = new Diff();
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(".xml"));
+        Map<String, File> present = new HashMap<>();
+        if (files != null) {
+            for (File file : files) present.put(file.getName(), file);
+        }
+
+        boolean dirty = false;
+        for (Map.Entry<String, File> item : present.entrySet()) {
+            String name = item.getKey();
+            File file = item.getValue();
+            Entry entry = entries.get(name);
+            long size = file.length();
+            long modified = file.lastModified();
+            if (entry != null && entry.size == size && entry.modified == modified) continue;
+
+            byte[] content;
+            try {
+                content = Files.readAllBytes(file.toPath());
+            } catch (IOException e) {
+                // Fichier en cours d'écriture ou supprimé entre-temps : revu au prochain scan
+                continue;
+            }
+            long hash = contentHash(content);
+            dirty = true;
+            if (entry != null && entry.contentHash == hash) {
+                entry.size = size;
+                entry.modified = modified;
+                continue;
+            }
+
+            Entry fresh = read(content, name);
+            fresh.size = size;
+            fresh.modified = modified;
+            fresh.contentHash = hash;
+            entries.put(name, fresh);
+            (entry == null ? diff.added : diff.changed).add(name);
+        }
+
+        List<String> gone = new ArrayList<>();
+        for (String name : entries.keySet()) {
+            if (!present.containsKey(name)) gone.add(name);
+        }
+        for (String name : gone) {
+            entries.remove(name);
+            diff.removed.add(name);
+            dirty = true;
+        }
+
+        if (dirty) {
+            saveManifest();
+            if (verifier != null) verifier.save();
+        }
+        return diff;
+    }
+
+    /**
+     * Noms des fichiers connus, triés.
+     */
+    public synchronized List<String> getFileNames() {
+        List<String> names = new ArrayList<>(entries.keySet());
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Puzzle d'un fichier, recréé depuis le manifeste (ou relu si non encodable).
+     * Son nom de fichier porte PREFIX pour que PuzzleParser le retrouve.
+     *
+     * @return le puzzle, ou null si le fichier est inconnu
+     */
+    public Puzzle getPuzzle(String fileName) {
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(fileName);
+        }
+        if (entry == null) return null;
+
+        Puzzle puzzle = null;
+        if (entry.valid && !entry.code.isEmpty()) {
+            puzzle = withPairIds(ShareCode.decode(entry.code, entry.puzzleName), entry.pairIds);
+        }
+        if (puzzle == null) {
+            puzzle = parse(new File(directory, fileName));
+            // Refusé par le vérificateur : le fichier relu seul serait valide
+            if (!entry.valid) puzzle = puzzle.invalidated();
+        }
+        return puzzle.withFileName(PREFIX + fileName);
+    }
+
+    /**
+     * Lit un puzzle du dossier à partir de son nom de catalogue (PREFIX + fichier).
+     */
+    public static Puzzle parse(File directory, String catalogName) {
+        String fileName = catalogName.startsWith(PREFIX) ? catalogName.substring(PREFIX.length()) : catalogName;
+        return parse(new File(directory, fileName)).withFileName(PREFIX + fileName);
+    }
+
+    /**
+     * Surveille le dossier ; le listener est appelé après chaque rafale de modifications
+     * qui change le catalogue. Sans effet si la surveillance est déjà active.
+     */
+    public synchronized void startWatching(Listener listener) throws IOException {
+        if (watchThread != null) return;
+        directory.mkdirs();
+        WatchService service = FileSystems.getDefault().newWatchService();
+        directory.toPath().register(service, StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY);
+        watchService = service;
+        watchThread = new Thread(() -> watch(service, listener), "user-puzzles-watcher");
+        watchThread.setDaemon(true);
+        watchThread.start();
+    }
+
+    public synchronized void stopWatching() {
+        if (watchThread == null) return;
+        try {
+            watchService.close();
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+        watchThread.interrupt();
+        watchThread = null;
+        watchService = null;
+    }
+
+    private void watch(WatchService service, Listener listener) {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                // Une copie de plusieurs fichiers produit une rafale d'événements : on attend le calme
+                do {
+                    key.pollEvents();
+                    key.reset();
+                } while ((key = service.poll(SETTLE_MS, TimeUnit.MILLISECONDS)) != null);
+
+                Diff diff = scan();
+                if (!diff.isEmpty()) listener.onLibraryChanged(diff);
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            // Surveillance arrêtée
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // Entrée du manifeste pour un contenu lu
+    private Entry read(byte[] content, String fileName) {
+        Puzzle puzzle = PuzzleParser.parsePuzzle(new ByteArrayInputStream(content), fileName);
+        Entry entry = new Entry();
+        entry.valid = puzzle.isValid();
+        if (entry.valid && verifier != null) {
+            entry.valid = verifier.verify(content, fileName, true).isValid();
+        }
+        entry.puzzleName = puzzle.getName();
+        String code = entry.valid ? ShareCode.encode(puzzle) : null;
+        entry.code = (code != null) ? code : "";
+        entry.pairIds = new int[puzzle.getPairCount()];
+        for (int i = 0; i < entry.pairIds.length; i++) entry.pairIds[i] = puzzle.getPairId(i);
+        return entry;
+    }
+
+    // Puzzle décodé avec les pairId du fichier (le code les renumérote à partir de 0),
+    // null si le code ne correspond plus au manifeste
+    private static Puzzle withPairIds(Puzzle decoded, int[] pairIds) {
+        if (decoded == null || !decoded.isValid() || decoded.getPairCount() != pairIds.length) return null;
+        Puzzle.Builder builder = new Puzzle.Builder(decoded.getName(), decoded.getSize())
+                .setFileName(decoded.getFileName())
+                .setTopology(decoded.getTopology());
+        for (int i = 0; i < pairIds.length; i++) {
+            builder.addPair(decoded.getFirstCell(i), decoded.getSecondCell(i), pairIds[i]);
+        }
+        return builder.build();
+    }
+
+    private static Puzzle parse(File file) {
+        try (InputStream input = new FileInputStream(file)) {
+            return PuzzleParser.parsePuzzle(input, file.getName());
+        } catch (IOException e) {
+            return PuzzleParser.invalidPuzzle(file.getName());
+        }
+    }
+
+    // 64 premiers bits du SHA-256 du contenu
+    private static long contentHash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            long hash = 0;
+            for (int i = 0; i < 8; i++) hash = (hash << 8) | (digest[i] & 0xFF);
+            return hash;
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void saveManifest() throws IOException {
+        File tmp = new File(manifestFile.getPath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp)))) {
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (Map.Entry<String, Entry> item : entries.entrySet()) {
+                Entry entry = item.getValue();
+                out.writeUTF(item.getKey());
+                out.writeLong(entry.size);
+                out.writeLong(entry.modified);
+                out.writeLong(entry.contentHash);
+                out.writeBoolean(entry.valid);
+                out.writeUTF(entry.puzzleName);
+                out.writeUTF(entry.code);
+                out.writeInt(entry.pairIds.length);
+                for (int pairId : entry.pairIds) out.writeInt(pairId);
+            }
+        }
+        if (!tmp.renameTo(manifestFile)) {
+            throw new IOException("Impossible d'écrire " + manifestFile);
+        }
+    }
+
+    private void loadManifest() {
+        if (!manifestFile.exists()) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(manifestFile)))) {
+            if (in.readInt() != VERSION) return;
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String name = in.readUTF();
+                Entry entry = new Entry();
+                entry.size = in.readLong();
+                entry.modified = in.readLong();
+                entry.contentHash = in.readLong();
+                entry.valid = in.readBoolean();
+                entry.puzzleName = in.readUTF();
+                entry.code = in.readUTF();
+                int pairCount = in.readInt();
+                if (pairCount < 0 || pairCount > MAX_PAIRS) throw new IOException("Manifeste corrompu");
+                entry.pairIds = new int[pairCount];
+                for (int p = 0; p < entry.pairIds.length; p++) entry.pairIds[p] = in.readInt();
+                entries.put(name, entry);
+            }
+        } catch (IOException e) {
+            // Manifeste corrompu : tous les fichiers seront relus
+            entries.clear();
+        }
+    }
+}
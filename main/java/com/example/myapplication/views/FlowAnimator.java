@@ -0,0 +1,318 @@
+package com.example.myapplication.views;
+
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Matrix;
+import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.PathDashPathEffect;
+import android.graphics.PathEffect;
+import android.graphics.RadialGradient;
+import android.graphics.RectF;
+import android.graphics.Shader;
+import android.os.SystemClock;
+import android.util.Log;
+import android.view.Choreographer;
+import android.view.Display;
+
+import com.example.myapplication.controllers.BoardChangeListener;
+import com.example.myapplication.models.PointCoord;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Animations optionnelles de PuzzleView, à brancher sur le contrôleur comme
+ * BoardChangeListener :
+ * - marques qui défilent le long des chemins terminés, de la tête de départ vers
+ *   l'autre tête ;
+ * - pulsation des têtes d'une paire qui vient d'être reliée ;
+ * - vague qui traverse la grille quand le puzzle est résolu.
+ *
+ * Les frames sont cadencées par le Choreographer, donc à la fréquence de l'écran
+ * (60, 90 ou 120 Hz). La géométrie ne change pas pendant une animation : les Path
+ * des chemins terminés sont construits une fois par événement, les marques sont des
+ * PathDashPathEffect précalculés pour FLOW_PHASES décalages, et chaque frame se
+ * contente de choisir l'un d'eux ou d'agrandir un shader par sa matrice. Dès que
+ * plus rien n'est animé, plus aucune frame n'est demandée.
+ *
+ * La régularité des frames est mesurée pendant chaque animation et journalisée à
+ * la fin (durée moyenne et maximale, frames en retard sur la fréquence de l'écran).
+ * Thread UI uniquement.
+ */
+public class FlowAnimator implements BoardChangeListener, Choreographer.FrameCallback {
+
+    private static final String TAG = "FlowAnimator";
+
+    private static final long FLOW_MS = 4000;  // défilement après la dernière paire reliée
+    private static final long PULSE_MS = 600;
+    private static final long WAVE_MS = 900;
+    private static final long FLOW_PERIOD_MS = 900; // les marques avancent d'un intervalle par période
+    private static final int FLOW_PHASES = 30;      // décalages précalculés sur une période
+
+    private final PuzzleView view;
+    private boolean enabled;
+
+    // Chemins terminés, en cache : reconstruits seulement après un événement ou un changement de taille
+    private final List<Integer> completedPairs = new ArrayList<>();
+    private final List<Path> completedPaths = new ArrayList<>();
+    private boolean pathsDirty;
+    private float builtCellWidth;
+    private float builtCellHeight;
+
+    private long flowUntilMs;
+    private long[] pulseStartMs = new long[0];
+    private long waveStartMs = -1;
+
+    private final Paint flowPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Paint wavePaint = new Paint();
+    private final Matrix waveMatrix = new Matrix();
+    private final PathEffect[] flowEffects = new PathEffect[FLOW_PHASES];
+    private final Shader waveShader;
+
+    // Cadence des frames de l'animation en cours
+    private boolean ticking;
+    private long lastFrameNanos;
+    private int frames;
+    private long totalFrameNanos;
+    private long maxFrameNanos;
+    private int lateFrames;
+
+    FlowAnimator(PuzzleView view) {
+        this.view = view;
+        flowPaint.setStyle(Paint.Style.FILL);
+        flowPaint.setColor(Color.argb(150, 255, 255, 255));
+
+        // Anneau de rayon 1, agrandi par la matrice au fil de la vague
+        waveShader = new RadialGradient(0, 0, 1,
+                new int[]{Color.TRANSPARENT, Color.TRANSPARENT, Color.argb(110, 255, 255, 255), Color.TRANSPARENT},
+                new float[]{0f, 0.7f, 0.9f, 1f}, Shader.TileMode.CLAMP);
+        wavePaint.setShader(waveShader);
+    }
+
+    /**
+     * Active ou coupe les animations ; coupées, les événements sont ignorés.
+     */
+    public void setEnabled(boolean enabled) {
+        if (this.enabled == enabled) return;
+        this.enabled = enabled;
+        if (!enabled) reset();
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Oublie l'état animé (nouveau puzzle, activité en pause).
+     */
+    public void reset() {
+        completedPairs.clear();
+        pathsDirty = true;
+        flowUntilMs = 0;
+        Arrays.fill(pulseStartMs, 0);
+        waveStartMs = -1;
+        stop();
+    }
+
+    @Override
+    public void onPathStarted(int pairId, int row, int col) {
+    }
+
+    @Override
+    public void onCellClaimed(int pairId, int row, int col) {
+    }
+
+    @Override
+    public void onCellReleased(int pairId, int row, int col) {
+    }
+
+    @Override
+    public void onPathCompleted(int pairId) {
+        if (!enabled) return;
+        long now = SystemClock.uptimeMillis();
+        if (!completedPairs.contains(pairId)) completedPairs.add(pairId);
+        pathsDirty = true;
+        if (pairId >= pulseStartMs.length) pulseStartMs = Arrays.copyOf(pulseStartMs, pairId + 8);
+        pulseStartMs[pairId] = now;
+        flowUntilMs = now + FLOW_MS;
+        start();
+    }
+
+    @Override
+    public void onPathReopened(int pairId) {
+        removeCompleted(pairId);
+    }
+
+    @Override
+    public void onPathCancelled(int pairId) {
+        removeCompleted(pairId);
+    }
+
+    @Override
+    public void onBoardCompleted() {
+        if (!enabled) return;
+        long now = SystemClock.uptimeMillis();
+        waveStartMs = now;
+        flowUntilMs = Math.max(flowUntilMs, now + WAVE_MS);
+        start();
+    }
+
+    private void removeCompleted(int pairId) {
+        if (completedPairs.remove(Integer.valueOf(pairId))) {
+            pathsDirty = true;
+            view.invalidate();
+        }
+    }
+
+    /**
+     * Facteur d'agrandissement des têtes de la paire (1 hors pulsation).
+     */
+    float headScale(int pairId, long now) {
+        if (!enabled || pairId >= pulseStartMs.length || pulseStartMs[pairId] == 0) return 1f;
+        long elapsed = now - pulseStartMs[pairId];
+        if (elapsed >= PULSE_MS) return 1f;
+        return 1f + 0.35f * (float) Math.sin(Math.PI * elapsed / PULSE_MS);
+    }
+
+    /**
+     * Dessine les reflets et la vague par-dessus les chemins.
+     */
+    void draw(Canvas canvas, long now) {
+        if (!enabled) return;
+        float cellWidth = view.getCellWidth();
+        float cellHeight = view.getCellHeight();
+
+        if (now < flowUntilMs && !completedPairs.isEmpty()) {
+            if (pathsDirty || cellWidth != builtCellWidth || cellHeight != builtCellHeight) {
+                rebuildPaths(cellWidth, cellHeight);
+            }
+            // Chaque chemin est tamponné le long de son tracé : les marques suivent ses virages
+            flowPaint.setPathEffect(flowEffects[(int) (now % FLOW_PERIOD_MS * FLOW_PHASES / FLOW_PERIOD_MS)]);
+            // Fondu sur la dernière demi-seconde
+            long remaining = flowUntilMs - now;
+            flowPaint.setAlpha((int) (150 * Math.min(1f, remaining / 500f)));
+            for (Path path : completedPaths) {
+                canvas.drawPath(path, flowPaint);
+            }
+        }
+
+        if (waveStartMs >= 0) {
+            long elapsed = now - waveStartMs;
+            if (elapsed < WAVE_MS) {
+                float left = view.getGridLeft();
+                float top = view.getGridTop();
+                float right = view.getGridRight();
+                float bottom = view.getGridBottom();
+                float diagonal = (float) Math.hypot(right - left, bottom - top);
+                float radius = Math.max(1f, diagonal * elapsed / WAVE_MS);
+                waveMatrix.setScale(radius, radius);
+                waveMatrix.postTranslate(left, top);
+                waveShader.setLocalMatrix(waveMatrix);
+                canvas.drawRect(left, top, right, bottom, wavePaint);
+            } else {
+                waveStartMs = -1;
+            }
+        }
+    }
+
+    // Chemins terminés et marques, à la taille courante des cases
+    private void rebuildPaths(float cellWidth, float cellHeight) {
+        while (completedPaths.size() < completedPairs.size()) completedPaths.add(new Path());
+        while (completedPaths.size() > completedPairs.size()) completedPaths.remove(completedPaths.size() - 1);
+        for (int i = 0; i < completedPairs.size(); i++) {
+            Path path = completedPaths.get(i);
+            path.rewind();
+            List<PointCoord> cells = view.getPath(completedPairs.get(i));
+            if (cells != null) view.appendPath(path, cells);
+        }
+
+        if (cellWidth != builtCellWidth || cellHeight != builtCellHeight) {
+            float cell = Math.min(cellWidth, cellHeight);
+            float advance = Math.max(8f, cell * 0.8f);
+            float length = advance * 0.45f;
+            float thickness = Math.max(2f, cell * 0.16f);
+            // Marque : trait arrondi centré sur le tracé, tourné selon sa direction
+            Path mark = new Path();
+            mark.addRoundRect(new RectF(-length / 2, -thickness / 2, length / 2, thickness / 2),
+                    thickness / 2, thickness / 2, Path.Direction.CW);
+            for (int i = 0; i < FLOW_PHASES; i++) {
+                // Phase décroissante : les marques avancent vers la fin du chemin
+                float phase = advance * (FLOW_PHASES - i) / FLOW_PHASES;
+                flowEffects[i] = new PathDashPathEffect(mark, advance, phase, PathDashPathEffect.Style.ROTATE);
+            }
+        }
+        builtCellWidth = cellWidth;
+        builtCellHeight = cellHeight;
+        pathsDirty = false;
+    }
+
+    // Vrai tant qu'un effet est en cours à l'instant donné
+    private boolean isAnimating(long now) {
+        if (!enabled) return false;
+        if (now < flowUntilMs && !completedPairs.isEmpty()) return true;
+        if (waveStartMs >= 0 && now - waveStartMs < WAVE_MS) return true;
+        for (long start : pulseStartMs) {
+            if (start != 0 && now - start < PULSE_MS) return true;
+        }
+        return false;
+    }
+
+    private void start() {
+        if (ticking) {
+            view.invalidate();
+            return;
+        }
+        ticking = true;
+        lastFrameNanos = 0;
+        frames = 0;
+        totalFrameNanos = 0;
+        maxFrameNanos = 0;
+        lateFrames = 0;
+        view.invalidate();
+        Choreographer.getInstance().postFrameCallback(this);
+    }
+
+    private void stop() {
+        if (!ticking) return;
+        ticking = false;
+        Choreographer.getInstance().removeFrameCallback(this);
+        logFramePacing();
+    }
+
+    @Override
+    public void doFrame(long frameTimeNanos) {
+        if (!ticking) return;
+        if (lastFrameNanos != 0) {
+            long interval = frameTimeNanos - lastFrameNanos;
+            frames++;
+            totalFrameNanos += interval;
+            maxFrameNanos = Math.max(maxFrameNanos, interval);
+            if (interval > expectedFrameNanos() * 3 / 2) lateFrames++;
+        }
+        lastFrameNanos = frameTimeNanos;
+
+        view.invalidate();
+        if (isAnimating(SystemClock.uptimeMillis())) {
+            Choreographer.getInstance().postFrameCallback(this);
+        } else {
+            // Dernière frame dessinée avec l'état final, puis plus rien
+            ticking = false;
+            logFramePacing();
+        }
+    }
+
+    // Intervalle entre deux frames à la fréquence de l'écran
+    private long expectedFrameNanos() {
+        Display display = view.getDisplay();
+        float hz = (display != null) ? display.getRefreshRate() : 60f;
+        return (long) (1_000_000_000L / Math.max(1f, hz));
+    }
+
+    private void logFramePacing() {
+        if (frames == 0) return;
+        Log.d(TAG, String.format("Animation : %d frames, %.2f ms en moyenne, %.2f ms au pire, %d en retard (%.1f ms attendues)",
+                frames, totalFrameNanos / 1e6 / frames, maxFrameNanos / 1e6, lateFrames, expectedFrameNanos() / 1e6));
+    }
+}
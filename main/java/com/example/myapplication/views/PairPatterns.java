@@ -0,0 +1,108 @@
+package com.example.myapplication.views;
+
+import android.graphics.Bitmap;
+import android.graphics.BitmapShader;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.graphics.Shader;
+
+import com.example.myapplication.models.Puzzle;
+import com.example.myapplication.models.PuzzlePair;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Motifs des paires en mode achromate : le niveau de gris de PuzzlePalette seul ne
+ * distingue plus les paires au-delà d'une dizaine, on y ajoute donc un motif
+ * (hachures, points, rayures, damier). Les 8 motifs et les niveaux de gris
+ * donnent 40 combinaisons différentes avant de se répéter.
+ *
+ * Chaque motif est dessiné une fois par puzzle dans une petite tuile, enveloppée
+ * dans un BitmapShader répété : à chaque frame, la vue ne fait que poser le
+ * shader sur le pinceau, comme elle pose la couleur en mode normal.
+ */
+class PairPatterns {
+
+    static final int PATTERN_COUNT = 8;
+
+    private final int tilePx;
+    private final Map<Integer, Shader> shaders = new HashMap<>();
+    private final List<Bitmap> bitmaps = new ArrayList<>();
+    private final Paint markPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+
+    PairPatterns(int tilePx) {
+        this.tilePx = Math.max(8, tilePx);
+        markPaint.setStyle(Paint.Style.FILL_AND_STROKE);
+        markPaint.setStrokeWidth(this.tilePx / 6f);
+    }
+
+    /**
+     * Génère les tuiles des paires du puzzle, en remplaçant les précédentes.
+     */
+    void build(Puzzle puzzle) {
+        clear();
+        for (PuzzlePair pair : puzzle.getPairs()) {
+            int id = pair.getPairId();
+            Bitmap tile = Bitmap.createBitmap(tilePx, tilePx, Bitmap.Config.ARGB_8888);
+            drawTile(new Canvas(tile), id);
+            bitmaps.add(tile);
+            shaders.put(id, new BitmapShader(tile, Shader.TileMode.REPEAT, Shader.TileMode.REPEAT));
+        }
+    }
+
+    /**
+     * Shader de la paire, ou null si les motifs n'ont pas été générés pour elle.
+     */
+    Shader get(int pairId) {
+        return shaders.get(pairId);
+    }
+
+    // Libère les tuiles (elles ne servent plus hors du mode achromate)
+    void clear() {
+        shaders.clear();
+        for (Bitmap bitmap : bitmaps) bitmap.recycle();
+        bitmaps.clear();
+    }
+
+    // Fond au niveau de gris de la paire, motif en noir ou blanc selon le fond
+    private void drawTile(Canvas canvas, int id) {
+        int gray = PuzzlePalette.colorForPair(id, true);
+        canvas.drawColor(gray);
+        markPaint.setColor(Color.red(gray) > 128 ? Color.rgb(20, 20, 20) : Color.rgb(235, 235, 235));
+
+        float s = tilePx;
+        switch (id % PATTERN_COUNT) {
+            case 0: // uni
+                break;
+            case 1: // hachures montantes, raccordées d'une tuile à l'autre
+                for (int k = 0; k <= 2; k++) canvas.drawLine(k * s - s, s, k * s, 0, markPaint);
+                break;
+            case 2: // hachures descendantes
+                for (int k = 0; k <= 2; k++) canvas.drawLine(k * s - s, 0, k * s, s, markPaint);
+                break;
+            case 3: // quadrillage diagonal
+                for (int k = 0; k <= 2; k++) {
+                    canvas.drawLine(k * s - s, s, k * s, 0, markPaint);
+                    canvas.drawLine(k * s - s, 0, k * s, s, markPaint);
+                }
+                break;
+            case 4: // points
+                canvas.drawCircle(s / 2, s / 2, s / 5, markPaint);
+                break;
+            case 5: // rayures horizontales
+                canvas.drawRect(0, s / 3, s, 2 * s / 3, markPaint);
+                break;
+            case 6: // rayures verticales
+                canvas.drawRect(s / 3, 0, 2 * s / 3, s, markPaint);
+                break;
+            default: // damier
+                canvas.drawRect(0, 0, s / 2, s / 2, markPaint);
+                canvas.drawRect(s / 2, s / 2, s, s, markPaint);
+                break;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.myapplication.views;
+
+import android.graphics.Color;
+
+/**
+ * Palette des paires, partagée par la grille de jeu et les miniatures.
+ */
+public class PuzzlePalette {
+
+    /**
+     * Couleur d'une paire : fluo en mode normal, niveau de gris en mode achromate.
+     */
+    public static int colorForPair(int id, boolean isAchromate) {
+        if (isAchromate) {
+            // Nuances de gris en boucle
+            int grayValue = 40 + (id * 30) % 200;
+            return Color.rgb(grayValue, grayValue, grayValue);
+        }
+        // Couleurs fluo dynamiques
+        return generateColorFromId(id);
+    }
+
+    /**
+     * Génère une couleur vive à partir d’un ID (fallback si palette épuisée).
+     */
+    private static int generateColorFromId(int id) {
+        float hue = (id * 47) % 360;
+        float saturation = 0.7f;
+        float lightness = 0.5f;
+        return hslToRgb(hue, saturation, lightness);
+    }
+
+    /**
+     * Convertit une couleur HSL en couleur RGB utilisable par Android.
+     */
+    private static int hslToRgb(float h, float s, float l) {
+        float c = (1 - Math.abs(2 * l - 1)) * s;
+        float x = c * (1 - Math.abs((h / 60f) % 2 - 1));
+        float m = l - c / 2;
+
+        float r = 0, g = 0, b = 0;
+        if (h < 60)        { r = c; g = x; }
+        else if (h < 120)  { r = x; g = c; }
+        else if (h < 180)  { g = c; b = x; }
+        else if (h < 240)  { g = x; b = c; }
+        else if (h < 300)  { r = x; b = c; }
+        else               { r = c; b = x; }
+
+        int red   = Math.round((r + m) * 255);
+        int green = Math.round((g + m) * 255);
+        int blue  = Math.round((b + m) * 255);
+
+        return Color.rgb(red, green, blue);
+    }
+}
@@ -2,16 +2,22 @@ package com.example.myapplication.views;
 
 // Import des classes nécessaires pour dessiner et gérer la vue
 import android.content.Context;
+import android.graphics.Bitmap;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Path;
+import android.graphics.Rect;
+import android.graphics.Shader;
+import android.os.SystemClock;
 import android.util.AttributeSet;
 import android.util.TypedValue;
 import android.view.MotionEvent;
 import android.view.View;
 
+import com.example.myapplication.models.BoardGrid;
+import com.example.myapplication.models.BoardTopology;
 import com.example.myapplication.models.Puzzle;
-import com.example.myapplication.models.PuzzlePair;
 import com.example.myapplication.models.PointCoord;
 import com.example.myapplication.controllers.OnPuzzleTouchListener;
 
@@ -27,6 +33,15 @@ import java.util.Map;
  * - Cases gris clair espacées
  * - Chemins tracés entre les têtes
  * - Cercles affichés sur les têtes de paires
+ * La disposition suit la forme du plateau : trous non dessinés, murs en trait épais,
+ * lignes impaires décalées d'une demi-case pour les grilles hexagonales, et chemins
+ * qui sortent par un bord pour revenir par l'autre sur un tore.
+ * En mode achromate, chaque paire a en plus son motif (PairPatterns).
+ *
+ * Seules les cases, têtes et segments dans la zone à redessiner (clip) sont
+ * dessinés. Les tuiles de BoardGrid pleines et sans trou ont toutes le même fond :
+ * il est dessiné une fois dans un bitmap (tant que la taille des cases ne change
+ * pas) puis copié tuile par tuile, au lieu d'une case à la fois.
  */
 public class PuzzleView extends View {
 
@@ -37,15 +52,40 @@ public class PuzzleView extends View {
 
     // Données du puzzle
     private Puzzle puzzle;
-    private int[][] gridOccupation;
+    private BoardGrid gridOccupation;
+    private int drawnVersion; // version de la grille au dernier invalidateBoard()
+    private int[] changedTiles = new int[0];
     private boolean isAchromate;
     private Map<Integer, List<PointCoord>> pathsByPair;
+    private Map<Integer, Integer> colorMap = new HashMap<>(); // recalculée seulement si le puzzle ou le mode change
+    private PairPatterns patterns; // motifs du mode achromate, générés avec colorMap
+    private FlowAnimator flowAnimator; // animations optionnelles des chemins
+
+    // Cases déduites par le mode assistance, mises en évidence quelques instants
+    private static final long DEDUCED_HIGHLIGHT_MS = 400;
+    private int[] deducedCells = new int[0];
+    private int deducedCount;
+    private long deducedStartMs;
+    private Paint deducedPaint;
+
+    // Position du doigt pendant un replay, -1 si aucun
+    private float replayTouchX = -1f;
+    private float replayTouchY = -1f;
+    private Paint replayTouchPaint;
 
     // Outils pour dessiner
     private Paint backgroundPaint;
     private Paint cellPaint;
     private Paint linePaint;
     private Paint headPaint;
+    private Paint wallPaint;
+
+    // Disposition courante, recalculée par computeLayout()
+    private BoardTopology topology;
+    private float cellWidth;
+    private float cellHeight;
+    private float offsetX;
+    private float offsetY;
 
     // Tailles pour calculer les dimensions de la grille
     private float paddingPx;
@@ -53,6 +93,13 @@ public class PuzzleView extends View {
     private float cellSizePx;
     private float cellSpacing = 6f; // espacement entre les cases
 
+    // Zone à redessiner, et fond commun des tuiles pleines sans trou
+    private final Rect clip = new Rect();
+    private boolean[] tileHoles; // par tuile : contient un trou (null si le plateau n'en a pas)
+    private Bitmap tileBitmap;
+    private float tileCellWidth;
+    private float tileCellHeight;
+
     // Constructeurs (appelés par Android)
     public PuzzleView(Context context) {
         super(context);
@@ -83,11 +130,35 @@ public class PuzzleView extends View {
         linePaint.setStrokeWidth(35f); // modifié dynamiquement ensuite
         linePaint.setStrokeCap(Paint.Cap.ROUND);
 
+        // Surbrillance des cases déduites
+        deducedPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        deducedPaint.setStyle(Paint.Style.FILL);
+        deducedPaint.setColor(Color.WHITE);
+
+        // Doigt du joueur pendant un replay
+        replayTouchPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        replayTouchPaint.setStyle(Paint.Style.STROKE);
+        replayTouchPaint.setStrokeWidth(4f);
+        replayTouchPaint.setColor(Color.WHITE);
+
         // Cercle des têtes
         headPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
         headPaint.setStyle(Paint.Style.FILL_AND_STROKE);
         headPaint.setStrokeWidth(2f);
 
+        // Murs entre deux cases
+        wallPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+        wallPaint.setStyle(Paint.Style.STROKE);
+        wallPaint.setStrokeCap(Paint.Cap.ROUND);
+        wallPaint.setColor(Color.parseColor("#D0D0D0"));
+
+        flowAnimator = new FlowAnimator(this);
+
+        // Tuiles de 12dp pour les motifs du mode achromate
+        patterns = new PairPatterns(Math.round(TypedValue.applyDimension(
+                TypedValue.COMPLEX_UNIT_DIP, 12, context.getResources().getDisplayMetrics()
+        )));
+
         // Conversion de dp en pixels pour le padding intérieur (non utilisé ici)
         paddingPx = TypedValue.applyDimension(
                 TypedValue.COMPLEX_UNIT_DIP, 16, context.getResources().getDisplayMetrics()
@@ -98,14 +169,131 @@ public class PuzzleView extends View {
      * Met à jour les données de la vue à afficher.
      */
     public void setDataForRendering(Puzzle puzzle,
-                                    int[][] gridOccupation,
+                                    BoardGrid gridOccupation,
                                     boolean isAchromate,
                                     Map<Integer, List<PointCoord>> pathsByPair) {
+        boolean puzzleChanged = puzzle != this.puzzle;
+        setData(puzzle, gridOccupation, isAchromate, pathsByPair);
+        if (puzzleChanged) {
+            flowAnimator.reset();
+        }
+        invalidate(); // force le redessin
+    }
+
+    /**
+     * Même plateau, têtes déplacées (éditeur) : les animations en cours sont
+     * gardées, et couleurs et motifs ne sont refaits que si les paires changent.
+     */
+    public void updateLayout(Puzzle puzzle,
+                             BoardGrid gridOccupation,
+                             boolean isAchromate,
+                             Map<Integer, List<PointCoord>> pathsByPair) {
+        setData(puzzle, gridOccupation, isAchromate, pathsByPair);
+        invalidate();
+    }
+
+    private void setData(Puzzle puzzle,
+                         BoardGrid gridOccupation,
+                         boolean isAchromate,
+                         Map<Integer, List<PointCoord>> pathsByPair) {
+        // Couleurs et motifs ne dépendent que des pairId
+        boolean paletteChanged = isAchromate != this.isAchromate || !samePairIds(this.puzzle, puzzle);
         this.puzzle = puzzle;
+        if (puzzle.getTopology() != topology) {
+            topology = puzzle.getTopology();
+            tileHoles = findTileHoles(topology);
+            tileBitmap = null; // forme peut-être différente (décalage hexagonal)
+        }
         this.gridOccupation = gridOccupation;
+        this.drawnVersion = gridOccupation.getVersion();
         this.isAchromate = isAchromate;
         this.pathsByPair = pathsByPair;
-        invalidate(); // force le redessin
+        if (paletteChanged) {
+            colorMap = getColorMapping();
+            if (isAchromate) {
+                patterns.build(puzzle);
+            } else {
+                patterns.clear();
+            }
+        }
+    }
+
+    private static boolean samePairIds(Puzzle a, Puzzle b) {
+        if (a == null || a.getPairCount() != b.getPairCount()) return false;
+        for (int i = 0; i < a.getPairCount(); i++) {
+            if (a.getPairId(i) != b.getPairId(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Redessine ce qui a changé dans la grille depuis le dernier appel : seules les
+     * tuiles modifiées (avec une case de marge pour les segments qui en sortent) sont
+     * invalidées. Tout est redessiné si aucune case n'a changé (chemin relié à une
+     * tête, déjà occupée) ou sur un tore (segments qui font le tour du plateau).
+     */
+    public void invalidateBoard() {
+        if (puzzle == null || gridOccupation == null) return;
+        int tilesPerSide = gridOccupation.getTilesPerSide();
+        if (changedTiles.length < tilesPerSide * tilesPerSide) {
+            changedTiles = new int[tilesPerSide * tilesPerSide];
+        }
+        int count = gridOccupation.getChangedTiles(drawnVersion, changedTiles);
+        drawnVersion = gridOccupation.getVersion();
+        if (count == 0 || topology.getShape() == BoardTopology.Shape.TORUS || cellWidth == 0) {
+            invalidate();
+            return;
+        }
+
+        int minTileRow = tilesPerSide, maxTileRow = -1, minTileCol = tilesPerSide, maxTileCol = -1;
+        for (int i = 0; i < count; i++) {
+            int tileRow = changedTiles[i] / tilesPerSide;
+            int tileCol = changedTiles[i] % tilesPerSide;
+            minTileRow = Math.min(minTileRow, tileRow);
+            maxTileRow = Math.max(maxTileRow, tileRow);
+            minTileCol = Math.min(minTileCol, tileCol);
+            maxTileCol = Math.max(maxTileCol, tileCol);
+        }
+        // Cases [firstRow, endRow[ x [firstCol, endCol[, marge comprise
+        int firstRow = minTileRow * BoardGrid.TILE_SIZE - 1;
+        int endRow = (maxTileRow + 1) * BoardGrid.TILE_SIZE + 1;
+        int firstCol = minTileCol * BoardGrid.TILE_SIZE - 1;
+        int endCol = (maxTileCol + 1) * BoardGrid.TILE_SIZE + 1;
+        invalidate((int) Math.floor(offsetX + firstCol * cellWidth),
+                (int) Math.floor(offsetY + firstRow * cellHeight),
+                (int) Math.ceil(offsetX + (endCol + 0.5f) * cellWidth), // demi-case du décalage hexagonal
+                (int) Math.ceil(offsetY + endRow * cellHeight));
+    }
+
+    /**
+     * Met en évidence les cases ajoutées par le mode assistance (fondu de 400 ms).
+     * Les cases sont numérotées à plat (row * size + col).
+     */
+    public void showDeducedCells(int[] cells, int count) {
+        if (deducedCells.length < count) {
+            deducedCells = new int[count];
+        }
+        System.arraycopy(cells, 0, deducedCells, 0, count);
+        deducedCount = count;
+        deducedStartMs = SystemClock.uptimeMillis();
+        invalidate();
+    }
+
+    /**
+     * Affiche la position du doigt pendant un replay (en pixels), ou la masque avec -1.
+     */
+    public void showReplayTouch(float x, float y) {
+        if (x == replayTouchX && y == replayTouchY) return;
+        replayTouchX = x;
+        replayTouchY = y;
+        invalidate();
+    }
+
+    /**
+     * Animations des chemins, à activer et à abonner aux événements du contrôleur.
+     */
+    public FlowAnimator getFlowAnimator() {
+        return flowAnimator;
     }
 
     /**
@@ -127,37 +315,27 @@ public class PuzzleView extends View {
         canvas.drawRect(0, 0, getWidth(), getHeight(), backgroundPaint);
 
         int size = puzzle.getSize();
-
-        // Calcul de l’espace disponible
-        float gridWidth = getWidth() - 2 * paddingAroundPx;
-        float gridHeight = getHeight() - 2 * paddingAroundPx;
-
-        float cellWidth = gridWidth / size;
-        float cellHeight = gridHeight / size;
-
-        float offsetX = paddingAroundPx;
-        float offsetY = paddingAroundPx;
+        computeLayout();
 
         // Épaisseur du trait dynamique (proportionnelle à la case)
         linePaint.setStrokeWidth(Math.min(cellWidth, cellHeight) * 0.4f);
 
-        // Dessine les cases de la grille
-        for (int r = 0; r < size; r++) {
-            for (int c = 0; c < size; c++) {
-                float left = offsetX + c * cellWidth + cellSpacing;
-                float top = offsetY + r * cellHeight + cellSpacing;
-                float right = offsetX + (c + 1) * cellWidth - cellSpacing;
-                float bottom = offsetY + (r + 1) * cellHeight - cellSpacing;
-                canvas.drawRect(left, top, right, bottom, cellPaint);
-            }
-        }
+        // Cases visibles [firstRow, endRow[ x [firstCol, endCol[, avec une case de marge
+        // pour les têtes, les traits et le décalage hexagonal qui débordent
+        canvas.getClipBounds(clip);
+        int firstRow = clampCell((int) Math.floor((clip.top - offsetY) / cellHeight) - 1, size);
+        int endRow = clampCell((int) Math.ceil((clip.bottom - offsetY) / cellHeight) + 1, size);
+        int firstCol = clampCell((int) Math.floor((clip.left - offsetX) / cellWidth) - 1, size);
+        int endCol = clampCell((int) Math.ceil((clip.right - offsetX) / cellWidth) + 1, size);
 
-        // Attribution des couleurs pour chaque paire
-        Map<Integer, Integer> colorMap = getColorMapping();
+        drawCells(canvas, size, firstRow, endRow, firstCol, endCol);
+
+        drawWalls(canvas, size);
 
         // Dessine chaque paire
-        for (PuzzlePair pair : puzzle.getPairs()) {
-            int pairId = pair.getPairId();
+        long now = SystemClock.uptimeMillis();
+        for (int index = 0; index < puzzle.getPairCount(); index++) {
+            int pairId = puzzle.getPairId(index);
             List<PointCoord> path = (pathsByPair != null) ? pathsByPair.get(pairId) : new ArrayList<>();
 
             // Couleur de cette paire
@@ -165,99 +343,314 @@ public class PuzzleView extends View {
             linePaint.setColor(color);
             headPaint.setColor(color);
 
-            // Rayon des têtes (rond)
-            float radius = Math.min(cellWidth, cellHeight) * 0.3f;
+            // Motif de la paire en mode achromate (null en mode couleur)
+            Shader pattern = isAchromate ? patterns.get(pairId) : null;
+            linePaint.setShader(pattern);
+            headPaint.setShader(pattern);
+
+            // Rayon des têtes (rond), agrandi pendant la pulsation d'une paire reliée
+            float radius = Math.min(cellWidth, cellHeight) * 0.3f * flowAnimator.headScale(pairId, now);
 
             // Dessine le premier point
-            PointCoord first = pair.getFirst();
-            float fcx = offsetX + (first.getCol() + 0.5f) * cellWidth;
-            float fcy = offsetY + (first.getRow() + 0.5f) * cellHeight;
-            canvas.drawCircle(fcx, fcy, radius, headPaint);
+            int first = puzzle.getFirstCell(index);
+            int r = first / size, c = first % size;
+            if (r >= firstRow && r < endRow && c >= firstCol && c < endCol) {
+                canvas.drawCircle(centerX(r, c), centerY(r), radius, headPaint);
+            }
 
             // Dessine le second point
-            PointCoord second = pair.getSecond();
-            float scx = offsetX + (second.getCol() + 0.5f) * cellWidth;
-            float scy = offsetY + (second.getRow() + 0.5f) * cellHeight;
-            canvas.drawCircle(scx, scy, radius, headPaint);
+            int second = puzzle.getSecondCell(index);
+            r = second / size;
+            c = second % size;
+            if (r >= firstRow && r < endRow && c >= firstCol && c < endCol) {
+                canvas.drawCircle(centerX(r, c), centerY(r), radius, headPaint);
+            }
 
-            // Dessine les segments du chemin si tracé
+            // Dessine les segments du chemin si tracé ; un segment hors de la zone a
+            // ses deux cases hors de la marge (sur un tore, chaque moitié suit sa case)
             if (path != null && path.size() > 1) {
                 for (int i = 1; i < path.size(); i++) {
                     PointCoord p0 = path.get(i - 1);
                     PointCoord p1 = path.get(i);
+                    boolean visible0 = p0.getRow() >= firstRow && p0.getRow() < endRow
+                            && p0.getCol() >= firstCol && p0.getCol() < endCol;
+                    boolean visible1 = p1.getRow() >= firstRow && p1.getRow() < endRow
+                            && p1.getCol() >= firstCol && p1.getCol() < endCol;
+                    if (!visible0 && !visible1) continue;
+                    drawSegment(canvas, p0.getRow(), p0.getCol(), p1.getRow(), p1.getCol(), size);
+                }
+            }
+        }
+
+        linePaint.setShader(null);
+        headPaint.setShader(null);
+
+        flowAnimator.draw(canvas, now);
 
-                    float cx0 = offsetX + (p0.getCol() + 0.5f) * cellWidth;
-                    float cy0 = offsetY + (p0.getRow() + 0.5f) * cellHeight;
-                    float cx1 = offsetX + (p1.getCol() + 0.5f) * cellWidth;
-                    float cy1 = offsetY + (p1.getRow() + 0.5f) * cellHeight;
+        drawDeducedCells(canvas, size);
 
-                    canvas.drawLine(cx0, cy0, cx1, cy1, linePaint);
+        if (replayTouchX >= 0) {
+            canvas.drawCircle(replayTouchX, replayTouchY, Math.min(cellWidth, cellHeight) * 0.45f, replayTouchPaint);
+        }
+    }
+
+    private static int clampCell(int index, int size) {
+        return Math.max(0, Math.min(size, index));
+    }
+
+    /**
+     * Fond des cases visibles (sauf les trous), tuile par tuile : une tuile pleine et
+     * sans trou est copiée depuis tileBitmap, les autres sont dessinées case par case.
+     */
+    private void drawCells(Canvas canvas, int size, int firstRow, int endRow, int firstCol, int endCol) {
+        if (firstRow >= endRow || firstCol >= endCol) return;
+        int tilesPerSide = (size + BoardGrid.TILE_SIZE - 1) >> BoardGrid.TILE_SHIFT;
+        Bitmap tile = (size >= BoardGrid.TILE_SIZE) ? tileBitmap() : null;
+        for (int tileRow = firstRow >> BoardGrid.TILE_SHIFT; tileRow <= (endRow - 1) >> BoardGrid.TILE_SHIFT; tileRow++) {
+            int top = tileRow << BoardGrid.TILE_SHIFT;
+            int bottom = Math.min(size, top + BoardGrid.TILE_SIZE);
+            for (int tileCol = firstCol >> BoardGrid.TILE_SHIFT; tileCol <= (endCol - 1) >> BoardGrid.TILE_SHIFT; tileCol++) {
+                int left = tileCol << BoardGrid.TILE_SHIFT;
+                int right = Math.min(size, left + BoardGrid.TILE_SIZE);
+                boolean full = bottom - top == BoardGrid.TILE_SIZE && right - left == BoardGrid.TILE_SIZE;
+                if (tile != null && full && (tileHoles == null || !tileHoles[tileRow * tilesPerSide + tileCol])) {
+                    canvas.drawBitmap(tile, offsetX + left * cellWidth, offsetY + top * cellHeight, null);
+                    continue;
+                }
+                for (int r = Math.max(top, firstRow); r < Math.min(bottom, endRow); r++) {
+                    for (int c = Math.max(left, firstCol); c < Math.min(right, endCol); c++) {
+                        if (topology.isHole(r * size + c)) continue;
+                        drawCell(canvas, centerX(r, c) - cellWidth / 2, offsetY + r * cellHeight);
+                    }
                 }
             }
         }
     }
 
+    // Case dont le coin haut gauche (espacement non compris) est en (x, y)
+    private void drawCell(Canvas canvas, float x, float y) {
+        canvas.drawRect(x + cellSpacing, y + cellSpacing,
+                x + cellWidth - cellSpacing, y + cellHeight - cellSpacing, cellPaint);
+    }
+
     /**
-     * Génère une couleur unique pour chaque paire, en fluo ou en niveau de gris.
+     * Fond d'une tuile pleine, redessiné quand la taille des cases change. Le fond du
+     * plateau reste transparent : sur une grille hexagonale, les demi-cases décalées
+     * débordent sur la tuile voisine sans la masquer.
      */
-    private Map<Integer, Integer> getColorMapping() {
-        Map<Integer, Integer> map = new HashMap<>();
-        if (puzzle == null) return map;
+    private Bitmap tileBitmap() {
+        if (tileBitmap != null && tileCellWidth == cellWidth && tileCellHeight == cellHeight) return tileBitmap;
+        boolean hex = topology.getShape() == BoardTopology.Shape.HEX;
+        int width = (int) Math.ceil((BoardGrid.TILE_SIZE + (hex ? 0.5f : 0f)) * cellWidth);
+        int height = (int) Math.ceil(BoardGrid.TILE_SIZE * cellHeight);
+        if (width <= 0 || height <= 0) return null;
+        tileBitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+        tileCellWidth = cellWidth;
+        tileCellHeight = cellHeight;
+        Canvas tileCanvas = new Canvas(tileBitmap);
+        for (int r = 0; r < BoardGrid.TILE_SIZE; r++) {
+            // Les tuiles commencent sur une ligne paire : même décalage que sur le plateau
+            float shift = (hex && r % 2 == 1) ? 0.5f : 0f;
+            for (int c = 0; c < BoardGrid.TILE_SIZE; c++) {
+                drawCell(tileCanvas, (c + shift) * cellWidth, r * cellHeight);
+            }
+        }
+        return tileBitmap;
+    }
+
+    // Tuiles qui contiennent au moins un trou, null si le plateau n'en a pas
+    private static boolean[] findTileHoles(BoardTopology topology) {
+        if (topology.getPlayableCellCount() == topology.getCellCount()) return null;
+        int size = topology.getSize();
+        int tilesPerSide = (size + BoardGrid.TILE_SIZE - 1) >> BoardGrid.TILE_SHIFT;
+        boolean[] holes = new boolean[tilesPerSide * tilesPerSide];
+        for (int cell = 0; cell < size * size; cell++) {
+            if (topology.isHole(cell)) {
+                int row = cell / size, col = cell % size;
+                holes[(row >> BoardGrid.TILE_SHIFT) * tilesPerSide + (col >> BoardGrid.TILE_SHIFT)] = true;
+            }
+        }
+        return holes;
+    }
+
+    /**
+     * Calcule la taille des cases et la marge pour la forme du plateau : les grilles
+     * hexagonales ont besoin d'une demi-case de plus en largeur pour le décalage.
+     */
+    private void computeLayout() {
+        int size = puzzle.getSize();
+        boolean hex = topology.getShape() == BoardTopology.Shape.HEX;
+        float gridWidth = getWidth() - 2 * paddingAroundPx;
+        float gridHeight = getHeight() - 2 * paddingAroundPx;
+        cellWidth = gridWidth / (hex ? size + 0.5f : size);
+        cellHeight = gridHeight / size;
+        offsetX = paddingAroundPx;
+        offsetY = paddingAroundPx;
+    }
 
-        List<PuzzlePair> pairs = puzzle.getPairs();
-        if (pairs == null) return map;
+    // Décalage horizontal d'une ligne, en cases
+    private float rowShift(int row) {
+        return (topology.getShape() == BoardTopology.Shape.HEX && row % 2 == 1) ? 0.5f : 0f;
+    }
 
-        for (PuzzlePair pair : pairs) {
-            int id = pair.getPairId();
+    private float centerX(int row, int col) {
+        return offsetX + (col + 0.5f + rowShift(row)) * cellWidth;
+    }
 
-            int color;
-            if (isAchromate) {
-                // Nuances de gris en boucle
-                int grayValue = 40 + (id * 30) % 200;
-                color = Color.rgb(grayValue, grayValue, grayValue);
+    private float centerY(int row) {
+        return offsetY + (row + 0.5f) * cellHeight;
+    }
+
+    // Écart entre deux lignes ou colonnes voisines, ramené à ±1 quand un tore fait le tour
+    private int wrapDelta(int delta, int size) {
+        if (topology.getShape() != BoardTopology.Shape.TORUS || Math.abs(delta) <= 1) return delta;
+        return (delta > 0) ? delta - size : delta + size;
+    }
+
+    // Accès pour FlowAnimator, valables après computeLayout()
+    float getCellWidth() {
+        return cellWidth;
+    }
+
+    float getCellHeight() {
+        return cellHeight;
+    }
+
+    float getGridLeft() {
+        return offsetX;
+    }
+
+    float getGridTop() {
+        return offsetY;
+    }
+
+    float getGridRight() {
+        return getWidth() - paddingAroundPx;
+    }
+
+    float getGridBottom() {
+        return getHeight() - paddingAroundPx;
+    }
+
+    List<PointCoord> getPath(int pairId) {
+        return (pathsByPair != null) ? pathsByPair.get(pairId) : null;
+    }
+
+    /**
+     * Ajoute le tracé d'un chemin à out, avec les mêmes raccords sur un tore que drawSegment.
+     */
+    void appendPath(Path out, List<PointCoord> path) {
+        int size = puzzle.getSize();
+        for (int i = 0; i < path.size(); i++) {
+            PointCoord p1 = path.get(i);
+            float x1 = centerX(p1.getRow(), p1.getCol());
+            float y1 = centerY(p1.getRow());
+            if (i == 0) {
+                out.moveTo(x1, y1);
+                continue;
+            }
+            PointCoord p0 = path.get(i - 1);
+            int dr = wrapDelta(p1.getRow() - p0.getRow(), size);
+            int dc = wrapDelta(p1.getCol() - p0.getCol(), size);
+            if (dr == p1.getRow() - p0.getRow() && dc == p1.getCol() - p0.getCol()) {
+                out.lineTo(x1, y1);
             } else {
-                // Couleurs fluo dynamiques
-                color = generateColorFromId(id);
+                float x0 = centerX(p0.getRow(), p0.getCol());
+                float y0 = centerY(p0.getRow());
+                out.lineTo(x0 + dc * cellWidth / 2, y0 + dr * cellHeight / 2);
+                out.moveTo(x1 - dc * cellWidth / 2, y1 - dr * cellHeight / 2);
+                out.lineTo(x1, y1);
             }
-
-            map.put(id, color);
         }
-
-        return map;
     }
 
+    /**
+     * Segment de chemin entre deux cases voisines. Sur un tore, un segment qui fait le
+     * tour est dessiné en deux moitiés qui sortent chacune par leur bord.
+     */
+    private void drawSegment(Canvas canvas, int r0, int c0, int r1, int c1, int size) {
+        float x0 = centerX(r0, c0);
+        float y0 = centerY(r0);
+        float x1 = centerX(r1, c1);
+        float y1 = centerY(r1);
+        int dr = wrapDelta(r1 - r0, size);
+        int dc = wrapDelta(c1 - c0, size);
+        if (dr == r1 - r0 && dc == c1 - c0) {
+            canvas.drawLine(x0, y0, x1, y1, linePaint);
+        } else {
+            canvas.drawLine(x0, y0, x0 + dc * cellWidth / 2, y0 + dr * cellHeight / 2, linePaint);
+            canvas.drawLine(x1, y1, x1 - dc * cellWidth / 2, y1 - dr * cellHeight / 2, linePaint);
+        }
+    }
 
     /**
-     * Génère une couleur vive à partir d’un ID (fallback si palette épuisée).
+     * Murs : trait sur le bord commun aux deux cases, perpendiculaire à l'axe de leurs centres.
      */
-    private int generateColorFromId(int id) {
-        float hue = (id * 47) % 360;
-        float saturation = 0.7f;
-        float lightness = 0.5f;
-        return hslToRgb(hue, saturation, lightness);
+    private void drawWalls(Canvas canvas, int size) {
+        int[] walls = topology.getWalls();
+        if (walls.length == 0) return;
+        wallPaint.setStrokeWidth(Math.max(4f, cellSpacing * 1.5f));
+        for (int i = 0; i + 1 < walls.length; i += 2) {
+            int r0 = walls[i] / size;
+            int c0 = walls[i] % size;
+            int r1 = walls[i + 1] / size;
+            int c1 = walls[i + 1] % size;
+            int dr = wrapDelta(r1 - r0, size);
+            int dc = wrapDelta(c1 - c0, size);
+
+            // Centre « virtuel » du voisin, du côté de la première case
+            float x0 = centerX(r0, c0);
+            float y0 = centerY(r0);
+            float x1 = (dr == r1 - r0 && dc == c1 - c0) ? centerX(r1, c1) : x0 + dc * cellWidth;
+            float y1 = (dr == r1 - r0 && dc == c1 - c0) ? centerY(r1) : y0 + dr * cellHeight;
+
+            float mx = (x0 + x1) / 2;
+            float my = (y0 + y1) / 2;
+            float dx = x1 - x0;
+            float dy = y1 - y0;
+            float length = (float) Math.sqrt(dx * dx + dy * dy);
+            if (length == 0) continue;
+            float half = Math.min(cellWidth, cellHeight) / 2;
+            float px = -dy / length * half;
+            float py = dx / length * half;
+            canvas.drawLine(mx - px, my - py, mx + px, my + py, wallPaint);
+        }
     }
 
     /**
-     * Convertit une couleur HSL en couleur RGB utilisable par Android.
+     * Fondu sur les cases déduites ; redemande une frame tant qu'il n'est pas fini.
      */
-    private int hslToRgb(float h, float s, float l) {
-        float c = (1 - Math.abs(2 * l - 1)) * s;
-        float x = c * (1 - Math.abs((h / 60f) % 2 - 1));
-        float m = l - c / 2;
+    private void drawDeducedCells(Canvas canvas, int size) {
+        if (deducedCount == 0) return;
+        long elapsed = SystemClock.uptimeMillis() - deducedStartMs;
+        if (elapsed >= DEDUCED_HIGHLIGHT_MS) {
+            deducedCount = 0;
+            return;
+        }
 
-        float r = 0, g = 0, b = 0;
-        if (h < 60)        { r = c; g = x; }
-        else if (h < 120)  { r = x; g = c; }
-        else if (h < 180)  { g = c; b = x; }
-        else if (h < 240)  { g = x; b = c; }
-        else if (h < 300)  { r = x; b = c; }
-        else               { r = c; b = x; }
+        float progress = (float) elapsed / DEDUCED_HIGHLIGHT_MS;
+        deducedPaint.setAlpha((int) (160 * (1 - progress)));
+        float radius = Math.min(cellWidth, cellHeight) * (0.2f + 0.25f * progress);
+        for (int i = 0; i < deducedCount; i++) {
+            int cell = deducedCells[i];
+            canvas.drawCircle(centerX(cell / size, cell % size), centerY(cell / size), radius, deducedPaint);
+        }
+        postInvalidateOnAnimation();
+    }
 
-        int red   = Math.round((r + m) * 255);
-        int green = Math.round((g + m) * 255);
-        int blue  = Math.round((b + m) * 255);
+    /**
+     * Génère une couleur unique pour chaque paire, en fluo ou en niveau de gris.
+     */
+    private Map<Integer, Integer> getColorMapping() {
+        Map<Integer, Integer> map = new HashMap<>();
+        if (puzzle == null) return map;
 
-        return Color.rgb(red, green, blue);
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            int id = puzzle.getPairId(i);
+            map.put(id, PuzzlePalette.colorForPair(id, isAchromate));
+        }
+
+        return map;
     }
 
     /**
@@ -298,13 +691,30 @@ public class PuzzleView extends View {
     }
 
     /**
-     * Convertit une position X en colonne de la grille.
+     * Convertit une position X en colonne de la grille (lignes non décalées).
      */
     public int pixelToCol(float x) {
+        return pixelToCol(x, 0);
+    }
+
+    /**
+     * Convertit une position en case à plat (row * size + col), -1 hors plateau ou sur un trou.
+     * Tient compte du décalage des lignes impaires des grilles hexagonales.
+     */
+    public int pixelToCell(float x, float y) {
+        int row = pixelToRow(y);
+        if (row < 0) return -1;
+        int col = pixelToCol(x, row);
+        if (col < 0) return -1;
+        int cell = row * puzzle.getSize() + col;
+        return topology.isHole(cell) ? -1 : cell;
+    }
+
+    private int pixelToCol(float x, int row) {
         if (puzzle == null) return -1;
         int size = puzzle.getSize();
-        float cellWidth = (getWidth() - 2 * paddingAroundPx) / size;
-        float xAdj = x - paddingAroundPx;
+        computeLayout();
+        float xAdj = x - offsetX - rowShift(row) * cellWidth;
         if (xAdj < 0) return -1;
         int col = (int) (xAdj / cellWidth);
         return (col >= size) ? -1 : col;
@@ -0,0 +1,333 @@
+package com.example.myapplication.views;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.widget.ImageView;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Cache des miniatures de puzzles pour la liste du menu.
+ *
+ * - Mémoire : LruCache borné en octets (1/16 de la mémoire de l'application).
+ * - Disque : un PNG par miniature dans le cache de l'application, borné à
+ *   MAX_DISK_BYTES ; les moins récemment utilisées sont supprimées. La date de
+ *   modification d'un fichier est sa dernière utilisation, d'un lancement à l'autre.
+ * - Rendu : pool de threads en arrière-plan, dans des bitmaps recyclés (ceux sortis
+ *   du LRU qui ne sont plus affichés par aucune ligne).
+ *
+ * Chaque ligne est liée par un jeton d'annulation rangé dans le tag de son ImageView :
+ * relier la ligne à un autre puzzle (défilement rapide) annule le travail en attente.
+ * bind() doit être appelé depuis le thread UI.
+ */
+public class ThumbnailCache {
+
+    private static final int THUMBNAIL_DP = 48;
+    private static final int MAX_REUSABLE = 16;
+    private static final long MAX_DISK_BYTES = 8L * 1024 * 1024;
+
+    private static ThumbnailCache instance;
+
+    public static synchronized ThumbnailCache getInstance(Context context) {
+        if (instance == null) {
+            instance = new ThumbnailCache(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Jeton d'annulation d'une ligne.
+     */
+    private static class BindToken {
+        final long key;
+        volatile boolean cancelled;
+        Future<?> future;
+        Bitmap shown; // bitmap affiché (thread UI uniquement)
+
+        BindToken(long key) {
+            this.key = key;
+        }
+    }
+
+    private final int thumbnailPx;
+    private final File diskDirectory;
+    private final LruCache<Long, Bitmap> memory;
+    private final ExecutorService executor;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+
+    // Bitmaps réutilisables et compteur d'affichage (protégés par this)
+    private final ArrayDeque<Bitmap> reusable = new ArrayDeque<>();
+    private final Map<Bitmap, Integer> boundCounts = new IdentityHashMap<>();
+
+    // Fichiers du disque, du moins au plus récemment utilisé, et leur taille totale
+    // (protégés par diskIndex ; construits au premier accès, sur un thread du pool)
+    private final LinkedHashMap<String, Long> diskIndex = new LinkedHashMap<>(64, 0.75f, true);
+    private long diskBytes = -1;
+
+    // Un renderer par thread du pool
+    private final ThreadLocal<ThumbnailRenderer> renderers = new ThreadLocal<ThumbnailRenderer>() {
+        @Override
+        protected ThumbnailRenderer initialValue() {
+            return new ThumbnailRenderer();
+        }
+    };
+
+    private ThumbnailCache(Context context) {
+        float density = context.getResources().getDisplayMetrics().density;
+        thumbnailPx = Math.round(THUMBNAIL_DP * density);
+        diskDirectory = new File(context.getCacheDir(), "thumbnails");
+        diskDirectory.mkdirs();
+
+        int maxBytes = (int) Math.min(Integer.MAX_VALUE, Runtime.getRuntime().maxMemory() / 16);
+        memory = new LruCache<Long, Bitmap>(maxBytes) {
+            @Override
+            protected int sizeOf(Long key, Bitmap value) {
+                return value.getByteCount();
+            }
+
+            @Override
+            protected void entryRemoved(boolean evicted, Long key, Bitmap oldValue, Bitmap newValue) {
+                offerReusable(oldValue);
+            }
+        };
+
+        int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+        executor = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "thumbnails");
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        });
+    }
+
+    /**
+     * Affiche la miniature du puzzle dans la vue, immédiatement si elle est en
+     * mémoire, sinon dès qu'elle a été lue sur disque ou dessinée.
+     */
+    public void bind(ImageView view, Puzzle puzzle, boolean isAchromate) {
+        long key = keyOf(puzzle, isAchromate);
+        BindToken previous = (BindToken) view.getTag();
+        if (previous != null) {
+            if (previous.key == key && !previous.cancelled) return; // déjà lié à ce puzzle
+            unbind(previous);
+        }
+
+        BindToken token = new BindToken(key);
+        view.setTag(token);
+
+        Bitmap cached = retainCached(key);
+        if (cached != null) {
+            show(view, token, cached);
+            return;
+        }
+
+        view.setImageBitmap(null);
+        token.future = executor.submit(() -> load(view, token, puzzle, isAchromate));
+    }
+
+    /**
+     * Vide le cache mémoire (le cache disque est conservé).
+     */
+    public void clearMemory() {
+        memory.evictAll();
+    }
+
+    private void unbind(BindToken token) {
+        token.cancelled = true;
+        if (token.future != null) token.future.cancel(false);
+        if (token.shown != null) {
+            release(token.shown);
+            token.shown = null;
+        }
+    }
+
+    // Thread du pool
+    private void load(ImageView view, BindToken token, Puzzle puzzle, boolean isAchromate) {
+        if (token.cancelled) return;
+
+        Bitmap bitmap = retainCached(token.key);
+        if (bitmap == null) {
+            bitmap = readFromDisk(token.key);
+            boolean rendered = false;
+            if (bitmap == null) {
+                if (token.cancelled) return;
+                bitmap = obtainBitmap();
+                renderers.get().render(puzzle, isAchromate, bitmap);
+                rendered = true;
+            }
+            // Retenu avant d'entrer dans le LRU : il ne peut pas être recyclé entre-temps
+            retain(bitmap);
+            memory.put(token.key, bitmap);
+            if (rendered) writeToDisk(token.key, bitmap);
+        }
+
+        Bitmap result = bitmap;
+        mainHandler.post(() -> {
+            if (token.cancelled || view.getTag() != token) {
+                release(result);
+            } else {
+                show(view, token, result);
+            }
+        });
+    }
+
+    private void show(ImageView view, BindToken token, Bitmap bitmap) {
+        token.shown = bitmap;
+        view.setImageBitmap(bitmap);
+    }
+
+    /**
+     * Bitmap en mémoire pour cette clé, déjà retenu. Lecture et retenue se font sous
+     * le même verrou que offerReusable() : un bitmap évincé entre les deux ne peut pas
+     * partir dans le pool de recyclage alors qu'il va être affiché.
+     */
+    private synchronized Bitmap retainCached(long key) {
+        Bitmap bitmap = memory.get(key);
+        if (bitmap != null) retain(bitmap);
+        return bitmap;
+    }
+
+    private synchronized void retain(Bitmap bitmap) {
+        Integer count = boundCounts.get(bitmap);
+        boundCounts.put(bitmap, (count == null) ? 1 : count + 1);
+    }
+
+    private synchronized void release(Bitmap bitmap) {
+        Integer count = boundCounts.get(bitmap);
+        if (count == null) return;
+        if (count <= 1) {
+            boundCounts.remove(bitmap);
+        } else {
+            boundCounts.put(bitmap, count - 1);
+        }
+    }
+
+    // Un bitmap sorti du LRU n'est recyclé que si aucune ligne ne l'affiche
+    private synchronized void offerReusable(Bitmap bitmap) {
+        if (!boundCounts.containsKey(bitmap) && reusable.size() < MAX_REUSABLE) {
+            reusable.push(bitmap);
+        }
+    }
+
+    private synchronized Bitmap pollReusable() {
+        return reusable.poll();
+    }
+
+    private Bitmap obtainBitmap() {
+        Bitmap bitmap = pollReusable();
+        return (bitmap != null) ? bitmap : Bitmap.createBitmap(thumbnailPx, thumbnailPx, Bitmap.Config.ARGB_8888);
+    }
+
+    private Bitmap readFromDisk(long key) {
+        File file = fileOf(key);
+        synchronized (diskIndex) {
+            loadDiskIndex();
+            if (diskIndex.get(file.getName()) == null) return null;
+        }
+        file.setLastModified(System.currentTimeMillis());
+
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inMutable = true;
+        options.inBitmap = pollReusable();
+        try {
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        } catch (IllegalArgumentException e) {
+            // Bitmap recyclé incompatible : décodage sans réutilisation
+            options.inBitmap = null;
+            return BitmapFactory.decodeFile(file.getPath(), options);
+        }
+    }
+
+    private void writeToDisk(long key, Bitmap bitmap) {
+        File file = fileOf(key);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (OutputStream out = new FileOutputStream(tmp)) {
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+        } catch (IOException e) {
+            tmp.delete();
+            return;
+        }
+        if (!tmp.renameTo(file)) return;
+
+        synchronized (diskIndex) {
+            loadDiskIndex();
+            Long previous = diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length() - ((previous != null) ? previous : 0);
+            trimDisk();
+        }
+    }
+
+    // Appelé sous le verrou de diskIndex
+    private void loadDiskIndex() {
+        if (diskBytes >= 0) return;
+        diskBytes = 0;
+        File[] files = diskDirectory.listFiles();
+        if (files == null) return;
+        Arrays.sort(files, (a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+        for (File file : files) {
+            // Écriture interrompue par un lancement précédent
+            if (file.getName().endsWith(".tmp")) {
+                file.delete();
+                continue;
+            }
+            diskIndex.put(file.getName(), file.length());
+            diskBytes += file.length();
+        }
+        trimDisk();
+    }
+
+    // Supprime les fichiers les moins récemment utilisés au-delà de MAX_DISK_BYTES
+    // (appelé sous le verrou de diskIndex). Une lecture en cours d'un fichier supprimé
+    // échoue et la miniature est redessinée.
+    private void trimDisk() {
+        Iterator<Map.Entry<String, Long>> it = diskIndex.entrySet().iterator();
+        while (diskBytes > MAX_DISK_BYTES && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            new File(diskDirectory, eldest.getKey()).delete();
+            diskBytes -= eldest.getValue();
+            it.remove();
+        }
+    }
+
+    private File fileOf(long key) {
+        return new File(diskDirectory, Long.toHexString(key) + "-" + thumbnailPx + ".png");
+    }
+
+    /**
+     * Clé de la miniature : forme du plateau, disposition exacte des têtes (les couleurs dépendent
+     * des numéros de paires) et mode d'affichage.
+     */
+    private static long keyOf(Puzzle puzzle, boolean isAchromate) {
+        long h = 0x9E3779B97F4A7C15L ^ puzzle.getSize() ^ (isAchromate ? 0x100000000L : 0);
+        if (!puzzle.getTopology().isPlainSquare()) {
+            h = (h ^ puzzle.getTopology().signature()) * 0x100000001B3L;
+        }
+        int size = puzzle.getSize();
+        for (int i = 0; i < puzzle.getPairCount(); i++) {
+            int first = puzzle.getFirstCell(i);
+            int second = puzzle.getSecondCell(i);
+            h = (h ^ puzzle.getPairId(i)) * 0x100000001B3L;
+            h = (h ^ (((first / size) << 16) | (first % size))) * 0x100000001B3L;
+            h = (h ^ (((second / size) << 16) | (second % size))) * 0x100000001B3L;
+        }
+        return h ^ (h >>> 29);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.myapplication.views;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+/**
+ * Dessine l'aperçu d'un puzzle (grille et têtes) dans un Bitmap.
+ * Reprend les couleurs de PuzzleView via PuzzlePalette.
+ * Une instance garde ses pinceaux : un renderer par thread.
+ */
+public class ThumbnailRenderer {
+
+    private final Paint backgroundPaint = new Paint();
+    private final Paint cellPaint = new Paint();
+    private final Paint headPaint = new Paint(Paint.ANTI_ALIAS_FLAG);
+    private final Canvas canvas = new Canvas();
+
+    public ThumbnailRenderer() {
+        backgroundPaint.setColor(Color.parseColor("#2B2B2B"));
+        cellPaint.setStyle(Paint.Style.FILL);
+        cellPaint.setColor(Color.parseColor("#4A4A4A"));
+        headPaint.setStyle(Paint.Style.FILL);
+    }
+
+    /**
+     * Dessine le puzzle dans {@code target} (bitmap mutable, éventuellement recyclé).
+     */
+    public void render(Puzzle puzzle, boolean isAchromate, Bitmap target) {
+        canvas.setBitmap(target);
+        float width = target.getWidth();
+        float height = target.getHeight();
+        canvas.drawRect(0, 0, width, height, backgroundPaint);
+
+        int size = puzzle.getSize();
+        if (size > 0) {
+            BoardTopology topology = puzzle.getTopology();
+            boolean hex = topology.getShape() == BoardTopology.Shape.HEX;
+            float cellWidth = width / (hex ? size + 0.5f : size);
+            float cellHeight = height / size;
+            float spacing = Math.max(0.5f, Math.min(cellWidth, cellHeight) * 0.08f);
+
+            for (int r = 0; r < size; r++) {
+                float shift = (hex && r % 2 == 1) ? cellWidth / 2 : 0;
+                for (int c = 0; c < size; c++) {
+                    if (topology.isHole(r * size + c)) continue;
+                    canvas.drawRect(shift + c * cellWidth + spacing, r * cellHeight + spacing,
+                            shift + (c + 1) * cellWidth - spacing, (r + 1) * cellHeight - spacing, cellPaint);
+                }
+            }
+
+            float radius = Math.min(cellWidth, cellHeight) * 0.35f;
+            for (int i = 0; i < puzzle.getPairCount(); i++) {
+                headPaint.setColor(PuzzlePalette.colorForPair(puzzle.getPairId(i), isAchromate));
+                drawHead(puzzle.getFirstCell(i), size, cellWidth, cellHeight, radius, hex);
+                drawHead(puzzle.getSecondCell(i), size, cellWidth, cellHeight, radius, hex);
+            }
+        }
+        canvas.setBitmap(null);
+    }
+
+    private void drawHead(int cell, int size, float cellWidth, float cellHeight, float radius, boolean hex) {
+        int row = cell / size;
+        float shift = (hex && row % 2 == 1) ? 0.5f : 0f;
+        float cx = (cell % size + 0.5f + shift) * cellWidth;
+        float cy = (row + 0.5f) * cellHeight;
+        canvas.drawCircle(cx, cy, radius, headPaint);
+    }
+}
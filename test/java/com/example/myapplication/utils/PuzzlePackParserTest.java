@@ -0,0 +1,166 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PuzzlePackParserTest {
+
+    private static final String PAIRS = "<paire><point colonne=\"0\" ligne=\"0\"/><point colonne=\"0\" ligne=\"4\"/></paire>"
+            + "<paire><point colonne=\"2\" ligne=\"0\"/><point colonne=\"2\" ligne=\"4\"/></paire>"
+            + "<paire><point colonne=\"4\" ligne=\"0\"/><point colonne=\"4\" ligne=\"4\"/></paire>";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static String puzzle(String name) {
+        return "<puzzle size=\"5\" nom=\"" + name + "\">" + PAIRS + "</puzzle>";
+    }
+
+    // Puzzles et erreurs reçus pendant un scan
+    private static class Collector implements PuzzlePackParser.PackListener {
+        final List<Puzzle> puzzles = new ArrayList<>();
+        final List<Long> errorOffsets = new ArrayList<>();
+
+        @Override
+        public void onPuzzle(int index, Puzzle puzzle) {
+            assertEquals(puzzles.size(), index);
+            puzzles.add(puzzle);
+        }
+
+        @Override
+        public void onError(int index, long offset, String message) {
+            errorOffsets.add(offset);
+        }
+    }
+
+    private static PuzzlePackParser.PackIndex scan(String pack, Charset charset, Collector collector) throws Exception {
+        return new PuzzlePackParser("pack").scan(new ByteArrayInputStream(pack.getBytes(charset)), collector);
+    }
+
+    @Test
+    public void commentedOutPuzzlesAreSkipped() throws Exception {
+        String pack = "<puzzles><!-- " + puzzle("Caché") + " -- encore --->" + puzzle("Visible") + "</puzzles>";
+        Collector collector = new Collector();
+        PuzzlePackParser.PackIndex index = scan(pack, StandardCharsets.UTF_8, collector);
+
+        assertEquals(1, index.size());
+        assertEquals("Visible", collector.puzzles.get(0).getName());
+        assertTrue(collector.puzzles.get(0).isValid());
+        assertTrue(collector.errorOffsets.isEmpty());
+    }
+
+    @Test
+    public void quotedAngleBracketsDoNotEndStartTag() throws Exception {
+        String pack = "<puzzles>" + puzzle("a > b") + puzzle("c /> d") + "<puzzle-info/></puzzles>";
+        Collector collector = new Collector();
+        PuzzlePackParser.PackIndex index = scan(pack, StandardCharsets.UTF_8, collector);
+
+        assertEquals(2, index.size());
+        assertEquals("a > b", collector.puzzles.get(0).getName());
+        assertEquals("c /> d", collector.puzzles.get(1).getName());
+    }
+
+    @Test
+    public void offsetsAreInBytesAndRereadGivesSamePuzzle() throws Exception {
+        // Caractères sur deux octets avant et entre les éléments
+        String first = puzzle("Été");
+        String second = puzzle("Hôtel");
+        String pack = "<puzzles titre=\"Çà et là\">" + first + "<!-- é -->" + second + "</puzzles>";
+        byte[] bytes = pack.getBytes(StandardCharsets.UTF_8);
+        File file = folder.newFile("pack.xml");
+        Files.write(file.toPath(), bytes);
+
+        int firstOffset = "<puzzles titre=\"Çà et là\">".getBytes(StandardCharsets.UTF_8).length;
+        int firstLength = first.getBytes(StandardCharsets.UTF_8).length;
+        int secondOffset = firstOffset + firstLength + "<!-- é -->".getBytes(StandardCharsets.UTF_8).length;
+
+        PuzzlePackParser parser = new PuzzlePackParser("pack");
+        Collector collector = new Collector();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            PuzzlePackParser.PackIndex index = parser.scan(channel, collector);
+            assertEquals(2, index.size());
+            assertEquals(firstOffset, index.getOffset(0));
+            assertEquals(firstLength, index.getLength(0));
+            assertEquals(secondOffset, index.getOffset(1));
+
+            assertEquals(collector.puzzles.get(1), parser.readPuzzle(channel, index, 1));
+            assertEquals("Hôtel", parser.readPuzzle(channel, index, 1).getName());
+            assertEquals(collector.puzzles.get(0), parser.readPuzzle(channel, index, 0));
+        }
+    }
+
+    @Test
+    public void malformedElementIsInvalidOnScanAndReread() throws Exception {
+        String broken = "<puzzle size=\"5\" nom=\"Cassé\"><paire><point colonne=\"0\"></paire></puzzle>";
+        String pack = "<puzzles>" + broken + puzzle("Bon") + "</puzzles>";
+        File file = folder.newFile("broken.xml");
+        Files.write(file.toPath(), pack.getBytes(StandardCharsets.UTF_8));
+
+        PuzzlePackParser parser = new PuzzlePackParser("broken");
+        Collector collector = new Collector();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            PuzzlePackParser.PackIndex index = parser.scan(channel, collector);
+            assertEquals(2, index.size());
+            assertFalse(collector.puzzles.get(0).isValid());
+            assertEquals(Long.valueOf("<puzzles>".length()), collector.errorOffsets.get(0));
+            assertTrue(collector.puzzles.get(1).isValid());
+
+            // Même verdict à la relecture : pas d'exception
+            assertFalse(parser.readPuzzle(channel, index, 0).isValid());
+            assertTrue(parser.readPuzzle(channel, index, 1).isValid());
+        }
+    }
+
+    @Test
+    public void unterminatedElementIsReported() throws Exception {
+        Collector collector = new Collector();
+        PuzzlePackParser.PackIndex index = scan("<puzzles>" + puzzle("Bon") + "<puzzle size=\"5\">",
+                StandardCharsets.UTF_8, collector);
+        assertEquals(1, index.size());
+        assertEquals(1, collector.errorOffsets.size());
+    }
+
+    @Test
+    public void declaredEncodingIsUsedForScanAndReread() throws Exception {
+        String pack = "<?xml version=\"1.0\" encoding=\"ISO-8859-1\"?>\n<puzzles>" + puzzle("Château") + "</puzzles>";
+        File file = folder.newFile("latin1.xml");
+        Files.write(file.toPath(), pack.getBytes(StandardCharsets.ISO_8859_1));
+
+        PuzzlePackParser parser = new PuzzlePackParser("latin1");
+        Collector collector = new Collector();
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            PuzzlePackParser.PackIndex index = parser.scan(channel, collector);
+            assertEquals("ISO-8859-1", index.getEncoding());
+            assertEquals("Château", collector.puzzles.get(0).getName());
+            assertEquals("Château", parser.readPuzzle(channel, index, 0).getName());
+        }
+    }
+
+    @Test
+    public void missingOrUnknownDeclarationFallsBackToUtf8() throws IOException {
+        byte[] none = "<puzzles>".getBytes(StandardCharsets.UTF_8);
+        assertEquals("UTF-8", PuzzlePackParser.declaredEncoding(none, none.length));
+        byte[] unknown = "<?xml version=\"1.0\" encoding=\"pas-un-encodage\"?>".getBytes(StandardCharsets.UTF_8);
+        assertEquals("UTF-8", PuzzlePackParser.declaredEncoding(unknown, unknown.length));
+        byte[] quoted = "ï»¿<?xml version='1.0' encoding='windows-1252'?>".getBytes(StandardCharsets.ISO_8859_1);
+        assertEquals("windows-1252", PuzzlePackParser.declaredEncoding(quoted, quoted.length));
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Débit de SolutionBatchVerifier.verifyFile(), lecture du fichier comprise.
+ *
+ * Deux puzzles (12x12 et 10x10, une paire par ligne), une solution valide et
+ * une altérée pour chacun, répétées sur RECORDS enregistrements ; une empreinte
+ * sur mille est inconnue du catalogue.
+ * Le meilleur de RUNS passages est affiché.
+ *
+ * Lancement : java ... com.example.myapplication.utils.SolutionBatchVerifierBenchmark
+ */
+public class SolutionBatchVerifierBenchmark {
+
+    private static final int[] SIZES = {12, 10};
+    private static final int RECORDS = 2_000_000;
+    private static final int RUNS = 5;
+
+    public static void main(String[] args) throws Exception {
+        Map<Long, Puzzle> catalog = new HashMap<>();
+        long[] hashes = new long[4];
+        byte[][] solutions = new byte[4][];
+        for (int p = 0; p < SIZES.length; p++) {
+            int size = SIZES[p];
+            Puzzle.Builder builder = new Puzzle.Builder("Bench " + size, size);
+            int[][] paths = new int[size][size];
+            for (int i = 0; i < size; i++) {
+                for (int j = 0; j < size; j++) {
+                    paths[i][j] = i * size + j;
+                }
+                builder.addPair(paths[i][0], paths[i][size - 1], i);
+            }
+            Puzzle puzzle = builder.build();
+            byte[] valid = SolutionVerifier.encode(puzzle, paths);
+            byte[] tampered = valid.clone();
+            tampered[tampered.length - 1] ^= 0x5;
+
+            long hash = PuzzleHasher.canonicalHash64(puzzle);
+            catalog.put(hash, puzzle);
+            hashes[2 * p] = hashes[2 * p + 1] = hash;
+            solutions[2 * p] = valid;
+            solutions[2 * p + 1] = tampered;
+        }
+
+        File file = File.createTempFile("submissions", ".bin");
+        file.deleteOnExit();
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file)))) {
+            SolutionBatchVerifier.writeHeader(out);
+            for (int i = 0; i < RECORDS; i++) {
+                int k = i % solutions.length;
+                SolutionBatchVerifier.writeSubmission(out, (i % 1000 == 0) ? 42L : hashes[k], solutions[k]);
+            }
+        }
+
+        long best = Long.MAX_VALUE;
+        SolutionBatchVerifier.Result result = null;
+        for (int run = 0; run < RUNS; run++) {
+            long start = System.nanoTime();
+            result = SolutionBatchVerifier.verifyFile(file, catalog);
+            best = Math.min(best, System.nanoTime() - start);
+        }
+
+        System.out.printf("%d enregistrements (%d octets), %d thread(s) disponibles%n",
+                result.getTotal(), file.length(), Runtime.getRuntime().availableProcessors());
+        for (SolutionVerifier.Verdict verdict : SolutionVerifier.Verdict.values()) {
+            if (result.getCount(verdict) > 0) System.out.printf("  %s : %d%n", verdict, result.getCount(verdict));
+        }
+        System.out.printf("meilleur passage : %d ms, %.0f enregistrements/s%n",
+                best / 1_000_000, result.getTotal() * 1e9 / best);
+    }
+}
@@ -0,0 +1,123 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.BoardTopology;
+import com.example.myapplication.models.Puzzle;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+
+public class SolutionVerifierTest {
+
+    // 3x3, une paire par ligne, de la colonne 0 à la colonne 2
+    private static final Puzzle ROWS = new Puzzle.Builder("Lignes", 3)
+            .addPair(0, 2, 0)
+            .addPair(3, 5, 1)
+            .addPair(6, 8, 2)
+            .build();
+
+    private static final int[][] ROW_PATHS = {{0, 1, 2}, {3, 4, 5}, {6, 7, 8}};
+
+    private static byte[] encode(Puzzle puzzle, int[][] paths) {
+        byte[] data = SolutionVerifier.encode(puzzle, paths);
+        assertNotNull(data);
+        return data;
+    }
+
+    @Test
+    public void encodedSolutionIsValid() {
+        byte[] data = encode(ROWS, ROW_PATHS);
+        // Par paire : 1 octet de longueur, 2 pas de 2 bits dans 1 octet
+        assertEquals(6, data.length);
+        assertEquals(SolutionVerifier.Verdict.VALID, new SolutionVerifier(ROWS).verify(data));
+    }
+
+    @Test
+    public void truncatedInputIsMalformed() {
+        SolutionVerifier verifier = new SolutionVerifier(ROWS);
+        byte[] data = encode(ROWS, ROW_PATHS);
+        assertEquals(SolutionVerifier.Verdict.MALFORMED, verifier.verify(Arrays.copyOf(data, data.length - 1)));
+        assertEquals(SolutionVerifier.Verdict.MALFORMED, verifier.verify(Arrays.copyOf(data, data.length - 2)));
+        assertEquals(SolutionVerifier.Verdict.MALFORMED, verifier.verify(new byte[0]));
+        // Varint sans fin
+        assertEquals(SolutionVerifier.Verdict.MALFORMED, verifier.verify(new byte[]{(byte) 0x80}));
+    }
+
+    @Test
+    public void trailingBytesAreMalformed() {
+        byte[] data = Arrays.copyOf(encode(ROWS, ROW_PATHS), 7);
+        assertEquals(SolutionVerifier.Verdict.MALFORMED, new SolutionVerifier(ROWS).verify(data));
+    }
+
+    @Test
+    public void nonZeroPaddingIsMalformed() {
+        SolutionVerifier verifier = new SolutionVerifier(ROWS);
+        byte[] data = encode(ROWS, ROW_PATHS);
+        // 2 pas de 2 bits : les 4 bits de poids fort du premier octet de pas sont du remplissage
+        for (int bit = 4; bit < 8; bit++) {
+            byte[] padded = data.clone();
+            padded[1] |= (byte) (1 << bit);
+            assertEquals(SolutionVerifier.Verdict.MALFORMED, verifier.verify(padded));
+        }
+    }
+
+    @Test
+    public void overlapIsDetected() {
+        // La première paire passe par la ligne du milieu, que la seconde traverse ensuite
+        byte[] data = encode(ROWS, new int[][]{{0, 1, 4, 5, 2}, {3, 4, 5}, {6, 7, 8}});
+        assertEquals(SolutionVerifier.Verdict.OVERLAP, new SolutionVerifier(ROWS).verify(data));
+    }
+
+    @Test
+    public void pathEndingElsewhereIsWrongEndpoint() {
+        SolutionVerifier verifier = new SolutionVerifier(ROWS);
+        // Un seul pas vers la droite : le chemin s'arrête avant la seconde tête
+        assertEquals(SolutionVerifier.Verdict.WRONG_ENDPOINT, verifier.verify(new byte[]{1, 0}));
+        // Trois pas (droite, droite, bas) : la seconde tête est atteinte avant la fin
+        assertEquals(SolutionVerifier.Verdict.WRONG_ENDPOINT, verifier.verify(new byte[]{3, 0x10}));
+        // Chemin vide
+        assertEquals(SolutionVerifier.Verdict.WRONG_ENDPOINT, verifier.verify(new byte[]{0}));
+    }
+
+    @Test
+    public void stepOffTheNeighbourTableIsBrokenPath() {
+        // La case 0 n'a que deux voisins (droite, bas) : l'indice 3 n'existe pas
+        assertEquals(SolutionVerifier.Verdict.BROKEN_PATH, new SolutionVerifier(ROWS).verify(new byte[]{1, 3}));
+    }
+
+    @Test
+    public void uncoveredCellsAreIncomplete() {
+        Puzzle corners = new Puzzle.Builder("Coins", 3)
+                .addPair(0, 2, 0)
+                .addPair(6, 8, 1)
+                .build();
+        byte[] data = encode(corners, new int[][]{{0, 1, 2}, {6, 7, 8}});
+        assertEquals(SolutionVerifier.Verdict.INCOMPLETE, new SolutionVerifier(corners).verify(data));
+    }
+
+    @Test
+    public void hexStepsCrossingByteBoundaryAreRead() {
+        BoardTopology hex = new BoardTopology(3, BoardTopology.Shape.HEX, new int[0], new int[0]);
+        Puzzle snake = new Puzzle.Builder("Serpent", 3).setTopology(hex).addPair(0, 8, 0).build();
+        // Serpentin sur les 9 cases : 8 pas de 3 bits, le troisième (bits 6 à 8) à cheval sur deux octets
+        int[][] path = {{0, 1, 2, 5, 4, 3, 6, 7, 8}};
+        byte[] data = encode(snake, path);
+        assertEquals(1 + 3, data.length);
+        SolutionVerifier verifier = new SolutionVerifier(snake);
+        assertEquals(SolutionVerifier.Verdict.VALID, verifier.verify(data));
+
+        // Le même chemin parcouru à l'envers part de l'autre tête : même encodage
+        int[][] reversed = {{8, 7, 6, 3, 4, 5, 2, 1, 0}};
+        assertArrayEquals(data, encode(snake, reversed));
+
+        // Le bit de poids fort du troisième pas est dans le deuxième octet de pas
+        byte[] changed = data.clone();
+        changed[2] ^= 0x01;
+        assertNotEquals(SolutionVerifier.Verdict.VALID, verifier.verify(changed));
+    }
+}
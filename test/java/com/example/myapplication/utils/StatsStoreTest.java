@@ -0,0 +1,179 @@
+package com.example.myapplication.utils;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StatsStoreTest {
+
+    private static final long PUZZLE_A = 0x1234L;
+    private static final long PUZZLE_B = 0x5678L;
+    private static final int DAY = 20_000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    // Écritures immédiates : le test voit les fichiers dès le retour de flush()
+    private StatsStore open() {
+        return new StatsStore(folder.getRoot(), Runnable::run);
+    }
+
+    private static StatsStore.Session session(long puzzle, int day, int durationMs, boolean solved) {
+        return new StatsStore.Session(puzzle, day * 86_400_000L, day, durationMs, 10, 2, 1, solved);
+    }
+
+    @Test
+    public void recordUpdatesTotalsBeforeAnyWrite() {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 5000, false));
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        store.record(session(PUZZLE_A, DAY, 3000, true));
+
+        StatsStore.PuzzleStats stats = store.getPuzzleStats(PUZZLE_A);
+        assertEquals(3, stats.getSessions());
+        assertEquals(2, stats.getSolves());
+        assertEquals(3000, stats.getBestTimeMs());
+        assertEquals(3500, stats.getAverageTimeMs());
+        assertEquals(10f, stats.getAverageMoves(), 0f);
+        assertEquals(2f, stats.getAverageUndos(), 0f);
+        assertEquals(1f, stats.getAverageHints(), 0f);
+        assertNull(store.getPuzzleStats(PUZZLE_B));
+
+        StatsStore.DayStats day = store.getDayStats(DAY);
+        assertEquals(3, day.getSessions());
+        assertEquals(2, day.getSolves());
+        assertEquals(7000, day.getTotalSolveMs());
+        assertEquals(3, store.getTotalSessions());
+        assertEquals(2, store.getTotalSolves());
+
+        // Moins de BATCH_SIZE sessions : rien n'est encore écrit
+        assertFalse(new File(folder.getRoot(), "sessions.bin").exists());
+    }
+
+    @Test
+    public void returnedStatsAreCopies() {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        StatsStore.PuzzleStats before = store.getPuzzleStats(PUZZLE_A);
+        store.record(session(PUZZLE_A, DAY, 1000, true));
+        assertEquals(4000, before.getBestTimeMs());
+        assertEquals(1000, store.getPuzzleStats(PUZZLE_A).getBestTimeMs());
+    }
+
+    @Test
+    public void fullBatchIsWrittenWithoutFlush() {
+        StatsStore store = open();
+        for (int i = 0; i < 16; i++) {
+            store.record(session(PUZZLE_A, DAY, 1000 + i, true));
+        }
+        assertTrue(new File(folder.getRoot(), "sessions.bin").exists());
+        assertEquals(16, open().getTotalSessions());
+    }
+
+    @Test
+    public void flushThenReloadRestoresTotalsAndStreaks() {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        store.record(session(PUZZLE_B, DAY + 1, 6000, true));
+        store.record(session(PUZZLE_B, DAY + 2, 9000, false));
+        store.flush();
+
+        StatsStore reloaded = open();
+        assertEquals(3, reloaded.getTotalSessions());
+        assertEquals(2, reloaded.getTotalSolves());
+        assertEquals(4000, reloaded.getPuzzleStats(PUZZLE_A).getBestTimeMs());
+        assertEquals(2, reloaded.getPuzzleStats(PUZZLE_B).getSessions());
+        assertEquals(1, reloaded.getDayStats(DAY + 2).getSessions());
+        assertEquals(0, reloaded.getDayStats(DAY + 2).getSolves());
+        assertEquals(2, reloaded.getCurrentStreak(DAY + 2));
+        assertEquals(2, reloaded.getBestStreak());
+    }
+
+    @Test
+    public void streaksCountConsecutiveSolveDays() {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 1000, true));
+        store.record(session(PUZZLE_A, DAY + 1, 1000, true));
+        store.record(session(PUZZLE_A, DAY + 1, 1000, true)); // même jour : la série ne bouge pas
+        store.record(session(PUZZLE_A, DAY + 2, 1000, true));
+        assertEquals(3, store.getCurrentStreak(DAY + 2));
+        assertEquals(3, store.getCurrentStreak(DAY + 3)); // encore en cours le lendemain
+        assertEquals(0, store.getCurrentStreak(DAY + 4));
+
+        store.record(session(PUZZLE_A, DAY + 3, 1000, false)); // abandon : pas de résolution
+        store.record(session(PUZZLE_A, DAY + 5, 1000, true));
+        assertEquals(1, store.getCurrentStreak(DAY + 5));
+        assertEquals(3, store.getBestStreak());
+
+        store.record(session(PUZZLE_A, DAY - 10, 1000, true)); // jour passé : série en cours inchangée
+        assertEquals(1, store.getCurrentStreak(DAY + 5));
+    }
+
+    @Test
+    public void missingIndexIsRebuiltFromLog() {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        store.record(session(PUZZLE_A, DAY + 1, 2000, true));
+        store.flush();
+        assertTrue(new File(folder.getRoot(), "stats_index.bin").delete());
+
+        StatsStore reloaded = open();
+        assertEquals(2, reloaded.getTotalSolves());
+        assertEquals(2000, reloaded.getPuzzleStats(PUZZLE_A).getBestTimeMs());
+        assertEquals(2, reloaded.getBestStreak());
+    }
+
+    @Test
+    public void indexBehindLogReadsOnlyTheTail() throws IOException {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        store.flush();
+        File index = new File(folder.getRoot(), "stats_index.bin");
+        File saved = folder.newFile("index.copy");
+        Files.copy(index.toPath(), saved.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        store.record(session(PUZZLE_B, DAY + 1, 3000, true));
+        store.flush();
+        // Arrêt entre l'écriture du journal et celle de l'index
+        Files.copy(saved.toPath(), index.toPath(), StandardCopyOption.REPLACE_EXISTING);
+
+        StatsStore reloaded = open();
+        assertEquals(2, reloaded.getTotalSessions());
+        assertNotNull(reloaded.getPuzzleStats(PUZZLE_B));
+        assertEquals(2, reloaded.getCurrentStreak(DAY + 1));
+    }
+
+    @Test
+    public void truncatedRecordAtEndOfLogIsIgnored() throws IOException {
+        StatsStore store = open();
+        store.record(session(PUZZLE_A, DAY, 4000, true));
+        store.flush();
+        assertTrue(new File(folder.getRoot(), "stats_index.bin").delete());
+        try (FileOutputStream out = new FileOutputStream(new File(folder.getRoot(), "sessions.bin"), true)) {
+            out.write(new byte[]{1, 2, 3, 4, 5});
+        }
+
+        StatsStore reloaded = open();
+        assertEquals(1, reloaded.getTotalSessions());
+
+        // L'écriture suivante retire la fin incomplète avant d'ajouter
+        reloaded.record(session(PUZZLE_B, DAY, 3000, true));
+        reloaded.flush();
+        assertTrue(new File(folder.getRoot(), "stats_index.bin").delete());
+        StatsStore rebuilt = open();
+        assertEquals(2, rebuilt.getTotalSessions());
+        assertEquals(3000, rebuilt.getPuzzleStats(PUZZLE_B).getBestTimeMs());
+    }
+}
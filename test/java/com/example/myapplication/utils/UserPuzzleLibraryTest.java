@@ -0,0 +1,175 @@
+package com.example.myapplication.utils;
+
+import com.example.myapplication.models.Puzzle;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class UserPuzzleLibraryTest {
+
+    private static final String SQUARE = "<puzzle size=\"5\" nom=\"Carré\">"
+            + "<paire><point colonne=\"0\" ligne=\"0\"/><point colonne=\"0\" ligne=\"4\"/></paire>"
+            + "<paire><point colonne=\"2\" ligne=\"0\"/><point colonne=\"2\" ligne=\"4\"/></paire>"
+            + "<paire><point colonne=\"4\" ligne=\"0\"/><point colonne=\"4\" ligne=\"4\"/></paire>"
+            + "</puzzle>";
+
+    private static final String TORUS = "<puzzle size=\"6\" nom=\"Tore\" forme=\"tore\">"
+            + "<paire><point colonne=\"0\" ligne=\"0\"/><point colonne=\"5\" ligne=\"0\"/></paire>"
+            + "<paire><point colonne=\"1\" ligne=\"2\"/><point colonne=\"4\" ligne=\"3\"/></paire>"
+            + "<trou colonne=\"3\" ligne=\"5\"/>"
+            + "</puzzle>";
+
+    private static final long MODIFIED = 1_600_000_000_000L;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File directory;
+    private File manifest;
+
+    @Before
+    public void setUp() throws IOException {
+        directory = folder.newFolder("puzzles");
+        manifest = new File(folder.getRoot(), "manifest.bin");
+    }
+
+    private File write(String name, String content, long modified) throws IOException {
+        File file = new File(directory, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        assertTrue(file.setLastModified(modified));
+        return file;
+    }
+
+    @Test
+    public void scanReportsAddedChangedAndRemovedFiles() throws IOException {
+        write("a.xml", SQUARE, MODIFIED);
+        write("b.xml", TORUS, MODIFIED);
+        write("notes.txt", "pas un puzzle", MODIFIED);
+        UserPuzzleLibrary library = new UserPuzzleLibrary(directory, manifest);
+
+        UserPuzzleLibrary.Diff diff = library.scan();
+        Collections.sort(diff.added);
+        assertEquals(Arrays.asList("a.xml", "b.xml"), diff.added);
+        assertTrue(diff.changed.isEmpty());
+        assertTrue(library.scan().isEmpty());
+
+        write("a.xml", SQUARE.replace("Carré", "Carré modifié"), MODIFIED + 1000);
+        assertTrue(new File(directory, "b.xml").delete());
+        diff = library.scan();
+        assertTrue(diff.added.isEmpty());
+        assertEquals(Collections.singletonList("a.xml"), diff.changed);
+        assertEquals(Collections.singletonList("b.xml"), diff.removed);
+        assertEquals(Collections.singletonList("a.xml"), library.getFileNames());
+        assertEquals("Carré modifié", library.getPuzzle("a.xml").getName());
+        assertNull(library.getPuzzle("b.xml"));
+    }
+
+    @Test
+    public void catalogPuzzleIsThePuzzleTheGameOpens() throws IOException {
+        write("a.xml", SQUARE, MODIFIED);
+        write("b.xml", TORUS, MODIFIED);
+        UserPuzzleLibrary library = new UserPuzzleLibrary(directory, manifest);
+        library.scan();
+
+        for (String name : library.getFileNames()) {
+            Puzzle catalog = library.getPuzzle(name);
+            Puzzle opened = UserPuzzleLibrary.parse(directory, UserPuzzleLibrary.PREFIX + name);
+            assertTrue(catalog.isValid());
+            assertEquals(UserPuzzleLibrary.PREFIX + name, catalog.getFileName());
+            assertEquals(opened, catalog);
+            for (int i = 0; i < opened.getPairCount(); i++) {
+                assertEquals(opened.getPairId(i), catalog.getPairId(i));
+            }
+        }
+    }
+
+    @Test
+    public void reopenedLibraryRebuildsCatalogFromManifestWithoutReading() throws IOException {
+        write("a.xml", SQUARE, MODIFIED);
+        new UserPuzzleLibrary(directory, manifest).scan();
+        Puzzle expected = UserPuzzleLibrary.parse(directory, UserPuzzleLibrary.PREFIX + "a.xml");
+
+        // Même taille et même date : un fichier relu ne serait plus un puzzle valide
+        char[] garbage = new char[SQUARE.getBytes(StandardCharsets.UTF_8).length];
+        Arrays.fill(garbage, 'x');
+        write("a.xml", new String(garbage), MODIFIED);
+
+        UserPuzzleLibrary reopened = new UserPuzzleLibrary(directory, manifest);
+        assertEquals(Collections.singletonList("a.xml"), reopened.getFileNames());
+        assertTrue(reopened.scan().isEmpty());
+        assertEquals(expected, reopened.getPuzzle("a.xml"));
+    }
+
+    @Test
+    public void identicalContentWithNewDateIsNotReportedAndUpdatesManifest() throws IOException {
+        write("a.xml", SQUARE, MODIFIED);
+        UserPuzzleLibrary library = new UserPuzzleLibrary(directory, manifest);
+        library.scan();
+        long saved = manifest.lastModified();
+        assertTrue(manifest.setLastModified(saved - 10_000));
+
+        write("a.xml", SQUARE, MODIFIED + 5000);
+        assertTrue(library.scan().isEmpty());
+        assertTrue(manifest.lastModified() > saved - 10_000);
+
+        // La nouvelle date est dans le manifeste : rien à comparer au relancement
+        assertTrue(new UserPuzzleLibrary(directory, manifest).scan().isEmpty());
+    }
+
+    @Test
+    public void invalidFileIsListedAndReadFromDisk() throws IOException {
+        write("broken.xml", "<puzzle size=\"5\"><paire><point colonne=\"0\" ligne=\"0\"/></paire></puzzle>", MODIFIED);
+        UserPuzzleLibrary library = new UserPuzzleLibrary(directory, manifest);
+        assertEquals(Collections.singletonList("broken.xml"), library.scan().added);
+        assertFalse(library.getPuzzle("broken.xml").isValid());
+    }
+
+    @Test
+    public void unsolvableFileIsRefusedByVerifierAndStaysRefused() throws IOException {
+        // Deux diagonales qui se croisent : lisible, mais sans solution
+        write("x.xml", "<puzzle size=\"5\" nom=\"Croix\">"
+                + "<paire><point colonne=\"0\" ligne=\"0\"/><point colonne=\"4\" ligne=\"4\"/></paire>"
+                + "<paire><point colonne=\"4\" ligne=\"0\"/><point colonne=\"0\" ligne=\"4\"/></paire>"
+                + "</puzzle>", MODIFIED);
+        File cache = new File(folder.getRoot(), "verified.bin");
+        UserPuzzleLibrary library = new UserPuzzleLibrary(directory, manifest, new PuzzleLibraryVerifier(cache));
+        library.scan();
+        assertFalse(library.getPuzzle("x.xml").isValid());
+        assertTrue(cache.exists());
+
+        // Le verdict est dans le manifeste
+        UserPuzzleLibrary reopened = new UserPuzzleLibrary(directory, manifest);
+        assertTrue(reopened.scan().isEmpty());
+        assertFalse(reopened.getPuzzle("x.xml").isValid());
+
+        // Sans vérificateur, seul PuzzleParser juge
+        UserPuzzleLibrary unchecked = new UserPuzzleLibrary(directory, new File(folder.getRoot(), "other.bin"));
+        unchecked.scan();
+        assertTrue(unchecked.getPuzzle("x.xml").isValid());
+    }
+
+    @Test
+    public void corruptedManifestReadsEveryFileAgain() throws IOException {
+        write("a.xml", SQUARE, MODIFIED);
+        new UserPuzzleLibrary(directory, manifest).scan();
+        Files.write(manifest.toPath(), new byte[]{0, 0, 0, 2, 0, 0});
+
+        UserPuzzleLibrary reopened = new UserPuzzleLibrary(directory, manifest);
+        assertTrue(reopened.getFileNames().isEmpty());
+        assertEquals(Collections.singletonList("a.xml"), reopened.scan().added);
+    }
+}